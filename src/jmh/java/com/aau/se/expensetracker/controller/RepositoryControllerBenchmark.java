@@ -0,0 +1,66 @@
+package com.aau.se.expensetracker.controller;
+
+import com.aau.se.expensetracker.model.Budget;
+import com.aau.se.expensetracker.repository.FileExpenseRepository;
+import com.aau.se.expensetracker.repository.SyntheticExpenses;
+import com.aau.se.expensetracker.service.BudgetServiceImplementation;
+import com.aau.se.expensetracker.service.ExpenseService;
+import com.aau.se.expensetracker.service.ExpenseServiceImplementation;
+import com.aau.se.expensetracker.util.DataAccessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RepositoryController.generateSummary over an already-loaded repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RepositoryControllerBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Path journal;
+    private FileExpenseRepository repository;
+    private RepositoryController controller;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, DataAccessException {
+        journal = SyntheticExpenses.writeJournal(size, SyntheticExpenses.DEFAULT_SEED);
+        repository = new FileExpenseRepository(journal.toString(), FileExpenseRepository.StorageMode.JOURNAL);
+        repository.loadAll();
+        ExpenseService expenseService = new ExpenseServiceImplementation(repository);
+        controller = new RepositoryController(expenseService,
+                new BudgetServiceImplementation(new Budget(Double.MAX_VALUE, null), expenseService));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, DataAccessException {
+        repository.close();
+        SyntheticExpenses.deleteJournal(journal);
+    }
+
+    @Benchmark
+    public RepositoryController.ExpenseSummary generateSummary() {
+        return controller.generateSummary();
+    }
+}
@@ -0,0 +1,89 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.util.Amounts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-category totals over a date range: the scalar and vector kernels on primitive columns, against the
+ * old way of merging boxed expenses into an EnumMap. The range covers about a quarter of the rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g", "--add-modules", "jdk.incubator.vector"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AggregationKernelBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    @Param({"scalar", "vector"})
+    public String kernelName;
+
+    private AggregationKernel kernel;
+    private List<Expense> expenses;
+    private long[] amounts;
+    private byte[] categories;
+    private int[] epochDays;
+    private int fromDay;
+    private int toDay;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kernel = kernelName.equals("vector") ? AggregationKernels.vector() : AggregationKernels.scalar();
+        if (kernel == null) {
+            throw new IllegalStateException("Vector API not available; run with --add-modules jdk.incubator.vector");
+        }
+        expenses = new SyntheticExpenses(SyntheticExpenses.DEFAULT_SEED).next(size);
+        amounts = new long[size];
+        categories = new byte[size];
+        epochDays = new int[size];
+        for (int i = 0; i < size; i++) {
+            Expense e = expenses.get(i);
+            amounts[i] = Amounts.toMinorUnits(e.getAmount());
+            categories[i] = (byte) e.getCategory().ordinal();
+            epochDays[i] = (int) e.getDate().toEpochDay();
+        }
+        toDay = (int) SyntheticExpenses.LAST_DAY.toEpochDay();
+        fromDay = toDay - 182;
+    }
+
+    @Benchmark
+    public ExpenseRollup.Totals kernel() {
+        ExpenseRollup.Totals totals = new ExpenseRollup.Totals();
+        kernel.aggregate(amounts, categories, epochDays, 0, size, fromDay, toDay, totals);
+        return totals;
+    }
+
+    /** Baseline: the per-object loop the columnar kernels replace. Independent of kernelName. */
+    @Benchmark
+    public Map<ExpenseCategory, Double> boxed() {
+        Map<ExpenseCategory, Double> byCategory = new EnumMap<>(ExpenseCategory.class);
+        for (Expense e : expenses) {
+            long day = e.getDate().toEpochDay();
+            if (day >= fromDay && day <= toDay) {
+                byCategory.merge(e.getCategory(), e.getAmount(), Double::sum);
+            }
+        }
+        return byCategory;
+    }
+}
@@ -0,0 +1,64 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.util.DataAccessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from constructing a FileExpenseRepository to its first answer, restoring a checkpoint versus
+ * replaying the whole journal. The repositories are never closed, so neither run rewrites the checkpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CheckpointStartupBenchmark {
+
+    @Param({"1000000", "5000000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean checkpoint;
+
+    private Path journal;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException, DataAccessException {
+        journal = SyntheticExpenses.writeJournal(size, SyntheticExpenses.DEFAULT_SEED);
+        try (FileExpenseRepository repository = new FileExpenseRepository(journal.toString(),
+                FileExpenseRepository.StorageMode.JOURNAL)) {
+            repository.count();
+        }
+        if (!checkpoint) {
+            Files.delete(ExpenseCheckpoint.pathFor(journal));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        SyntheticExpenses.deleteJournal(journal);
+    }
+
+    @Benchmark
+    public int startup() throws DataAccessException {
+        return new FileExpenseRepository(journal.toString(), FileExpenseRepository.StorageMode.JOURNAL).count();
+    }
+}
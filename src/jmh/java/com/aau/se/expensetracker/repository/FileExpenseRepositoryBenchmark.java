@@ -0,0 +1,108 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.util.DataAccessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Save, delete and cold loadAll on FileExpenseRepository, per storage mode and dataset size.
+ * <p>
+ * save and delete run against a repository that is already loaded, reset from the generated journal
+ * before every iteration. Deletes are measured as single-shot batches of {@link #DELETES} so each
+ * iteration removes distinct, existing ids. REWRITE at 10M rewrites the whole file per operation;
+ * narrow the run with {@code -p size=...} when that is not of interest.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FileExpenseRepositoryBenchmark {
+
+    static final int DELETES = 100;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"JOURNAL", "REWRITE"})
+    public FileExpenseRepository.StorageMode mode;
+
+    private Path journal;
+    private FileExpenseRepository repository;
+    private SyntheticExpenses newExpenses;
+    private String[] deleteIds;
+    private int nextDelete;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        journal = SyntheticExpenses.writeJournal(size, SyntheticExpenses.DEFAULT_SEED);
+        newExpenses = new SyntheticExpenses(SyntheticExpenses.DEFAULT_SEED + 1);
+    }
+
+    @Setup(Level.Iteration)
+    public void openRepository() throws IOException, DataAccessException {
+        Path working = SyntheticExpenses.copyJournal(journal, "working.txt");
+        repository = new FileExpenseRepository(working.toString(), mode);
+        List<Expense> all = repository.loadAll();
+        SplittableRandom random = new SplittableRandom(nextDelete);
+        deleteIds = new String[Math.min(DELETES, all.size())];
+        for (int i = 0; i < deleteIds.length; i++) {
+            deleteIds[i] = all.get(random.nextInt(all.size())).getId();
+        }
+        nextDelete = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeRepository() throws DataAccessException {
+        repository.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        SyntheticExpenses.deleteJournal(journal);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void save() throws DataAccessException {
+        repository.save(newExpenses.next());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = DELETES)
+    @Measurement(iterations = 5, batchSize = DELETES)
+    public void delete() throws DataAccessException {
+        repository.delete(deleteIds[nextDelete++ % deleteIds.length]);
+    }
+
+    /**
+     * A fresh repository per call, so every call parses the whole journal. It is not closed: closing
+     * writes a checkpoint, and the next call would restore that instead (see CheckpointStartupBenchmark).
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Expense> loadAll() throws DataAccessException {
+        return new FileExpenseRepository(journal.toString(), mode).loadAll();
+    }
+}
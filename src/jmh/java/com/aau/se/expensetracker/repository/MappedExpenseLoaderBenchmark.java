@@ -0,0 +1,164 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.util.DataAccessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a journal without a checkpoint, against the readAllLines + parseLine loader it replaced (kept here
+ * as the baseline; it only strips the checksum the old format did not have).
+ * <ul>
+ * <li>{@link #load} and {@link #loadExpenses}: MappedExpenseLoader alone, feeding a sink that takes plain
+ * records as columns, as the repository does, or as Expenses, like {@link #readAllLines}.</li>
+ * <li>{@link #coldStart} and {@link #coldStartReadAllLines}: a whole first load, into the columnar store or
+ * into the ConcurrentHashMap the old repository kept.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MappedExpenseLoaderBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Path journal;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        journal = SyntheticExpenses.writeJournal(size, SyntheticExpenses.DEFAULT_SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        SyntheticExpenses.deleteJournal(journal);
+    }
+
+    @Benchmark
+    public long load(Blackhole blackhole) throws IOException {
+        return MappedExpenseLoader.load(journal, new MappedExpenseLoader.Sink() {
+            @Override
+            public void record(Expense expense) {
+                blackhole.consume(expense);
+            }
+
+            @Override
+            public void row(long idMsb, long idLsb, double amount, int epochDay, int category) {
+                blackhole.consume(idMsb ^ idLsb ^ epochDay ^ category);
+                blackhole.consume(amount);
+            }
+
+            @Override
+            public void tombstone(String expenseId) {
+                blackhole.consume(expenseId);
+            }
+        });
+    }
+
+    @Benchmark
+    public long loadExpenses(Blackhole blackhole) throws IOException {
+        return MappedExpenseLoader.load(journal, new MappedExpenseLoader.Sink() {
+            @Override
+            public void record(Expense expense) {
+                blackhole.consume(expense);
+            }
+
+            @Override
+            public void tombstone(String expenseId) {
+                blackhole.consume(expenseId);
+            }
+        });
+    }
+
+    @Benchmark
+    public long readAllLines(Blackhole blackhole) throws IOException {
+        long records = 0;
+        for (String line : Files.readAllLines(journal, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) continue;
+            records++;
+            blackhole.consume(parseLine(line.substring(0, line.length() - RecordChecksums.SUFFIX_LENGTH)));
+        }
+        return records;
+    }
+
+    @Benchmark
+    public int coldStart() throws DataAccessException {
+        return new FileExpenseRepository(journal.toString(), FileExpenseRepository.StorageMode.JOURNAL).count();
+    }
+
+    @Benchmark
+    public int coldStartReadAllLines() throws IOException {
+        Map<String, Expense> cache = new ConcurrentHashMap<>();
+        for (String line : Files.readAllLines(journal, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) continue;
+            Expense e = parseLine(line.substring(0, line.length() - RecordChecksums.SUFFIX_LENGTH));
+            if (e != null) cache.put(e.getId(), e);
+        }
+        return cache.size();
+    }
+
+    /** The line parser FileExpenseRepository used before MappedExpenseLoader. */
+    private static Expense parseLine(String line) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean escaped = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (escaped) {
+                current.append(c);
+                escaped = false;
+                continue;
+            }
+            if (c == '\\') {
+                escaped = true;
+                continue;
+            }
+            if (c == '|') {
+                parts.add(current.toString());
+                current = new StringBuilder();
+                continue;
+            }
+            current.append(c);
+        }
+        parts.add(current.toString());
+        if (parts.size() != 5) return null;
+        try {
+            String id = parts.get(0);
+            double amount = Double.parseDouble(parts.get(2));
+            LocalDate date = LocalDate.parse(parts.get(3));
+            ExpenseCategory category = ExpenseCategory.valueOf(parts.get(4));
+            return new BasicExpense(id, amount, date, category);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.util.DataAccessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads of FileExpenseRepository's published snapshot: loadAll() plus one row, from as many threads as
+ * there are cores, alone and next to a thread that keeps saving. Throughput per thread should stay flat
+ * as threads are added, since readers take no lock and copy nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SnapshotReadBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private Path journal;
+    private FileExpenseRepository repository;
+    private SyntheticExpenses newExpenses;
+
+    @Setup(Level.Trial)
+    public void openRepository() throws IOException, DataAccessException {
+        journal = SyntheticExpenses.writeJournal(size, SyntheticExpenses.DEFAULT_SEED);
+        repository = new FileExpenseRepository(journal.toString(), FileExpenseRepository.StorageMode.JOURNAL);
+        repository.loadAll();
+        newExpenses = new SyntheticExpenses(SyntheticExpenses.DEFAULT_SEED + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeRepository() throws IOException, DataAccessException {
+        repository.close();
+        SyntheticExpenses.deleteJournal(journal);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Expense read() throws DataAccessException {
+        return readOne();
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(7)
+    public Expense reader() throws DataAccessException {
+        return readOne();
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public void writer() throws DataAccessException {
+        repository.save(newExpenses.next());
+    }
+
+    private Expense readOne() throws DataAccessException {
+        List<Expense> all = repository.loadAll();
+        return all.get(ThreadLocalRandom.current().nextInt(all.size()));
+    }
+}
@@ -0,0 +1,136 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.util.DataAccessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The SQLite backend against the file backend on the same data: writes, indexed reads and totals, plus
+ * the old way of getting totals by pulling every row through loadAll(). The sqlite-jdbc driver comes from
+ * the pom's runtime dependency. Both repositories are loaded before measuring, so the file backend answers
+ * from memory and SQLite mostly from its page cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SqliteExpenseRepositoryBenchmark {
+
+    static final int BATCH = 10_000;
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"file", "sqlite"})
+    public String backend;
+
+    private Path journal;
+    private ExpenseRepository repository;
+    private SyntheticExpenses newExpenses;
+    private List<Expense> batch;
+    private LocalDate quarterFrom;
+    private LocalDate weekFrom;
+
+    @Setup(Level.Trial)
+    public void populate() throws IOException, DataAccessException {
+        journal = SyntheticExpenses.writeJournal(size, SyntheticExpenses.DEFAULT_SEED);
+        if (backend.equals("sqlite")) {
+            repository = new SqliteExpenseRepository(journal.resolveSibling("expenses.db").toString());
+            repository.saveAll(new SyntheticExpenses(SyntheticExpenses.DEFAULT_SEED).next(size));
+        } else {
+            repository = new FileExpenseRepository(journal.toString(), FileExpenseRepository.StorageMode.JOURNAL);
+        }
+        repository.count();
+        newExpenses = new SyntheticExpenses(SyntheticExpenses.DEFAULT_SEED + 1);
+        quarterFrom = SyntheticExpenses.LAST_DAY.minusDays(100);
+        weekFrom = SyntheticExpenses.LAST_DAY.minusDays(200);
+    }
+
+    @Setup(Level.Iteration)
+    public void nextBatch() {
+        batch = newExpenses.next(BATCH);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException, DataAccessException {
+        repository.close();
+        SyntheticExpenses.deleteJournal(journal);
+    }
+
+    @Benchmark
+    public void save() throws DataAccessException {
+        repository.save(newExpenses.next());
+    }
+
+    /** One transaction of {@link #BATCH} inserts per iteration. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void saveBatch() throws DataAccessException {
+        repository.saveAll(batch);
+    }
+
+    @Benchmark
+    public List<Expense> findWeek() throws DataAccessException {
+        return repository.findByDateRange(weekFrom, weekFrom.plusDays(6));
+    }
+
+    @Benchmark
+    public List<Expense> deepPage() throws DataAccessException {
+        return repository.loadPage(size / 2, 256);
+    }
+
+    @Benchmark
+    public ExpenseRollup.Totals categoryTotals() throws DataAccessException {
+        return repository.summarize(null, null);
+    }
+
+    /** A range that does not start or end on a month boundary. */
+    @Benchmark
+    public ExpenseRollup.Totals rangeTotals() throws DataAccessException {
+        return repository.summarizeDays(quarterFrom, SyntheticExpenses.LAST_DAY.minusDays(10));
+    }
+
+    /** Per month and category over a partial range, only amounts of at least 50: no rollup can answer it. */
+    @Benchmark
+    public AggregateResult filteredMonthlyAggregate() throws DataAccessException {
+        return repository.aggregate(AggregateQuery.all()
+                .between(quarterFrom, SyntheticExpenses.LAST_DAY.minusDays(10))
+                .amountBetween(50.0, null)
+                .groupBy(AggregateQuery.Key.MONTH, AggregateQuery.Key.CATEGORY));
+    }
+
+    /** Baseline: totals the way callers computed them before the repository aggregated. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<ExpenseCategory, Double> categoryTotalsViaLoadAll() throws DataAccessException {
+        Map<ExpenseCategory, Double> byCategory = new EnumMap<>(ExpenseCategory.class);
+        for (Expense e : repository.loadAll()) {
+            byCategory.merge(e.getCategory(), e.getAmount(), Double::sum);
+        }
+        return byCategory;
+    }
+}
@@ -0,0 +1,92 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic synthetic expenses for the benchmarks. The same seed always yields the same data:
+ * random (version 4) UUID ids, amounts from 0.50 to 200.00, dates over the two years before
+ * {@link #LAST_DAY}, and uniformly drawn categories.
+ */
+public final class SyntheticExpenses {
+
+    public static final long DEFAULT_SEED = 42L;
+    public static final LocalDate LAST_DAY = LocalDate.of(2026, 1, 1);
+    private static final int DAYS = 730;
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+
+    private final SplittableRandom random;
+
+    public SyntheticExpenses(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    public Expense next() {
+        long msb = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        double amount = random.nextInt(50, 20_001) / 100.0;
+        LocalDate date = LAST_DAY.minusDays(random.nextInt(DAYS));
+        ExpenseCategory category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+        return new BasicExpense(new UUID(msb, lsb).toString(), amount, date, category);
+    }
+
+    public List<Expense> next(int count) {
+        List<Expense> expenses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            expenses.add(next());
+        }
+        return expenses;
+    }
+
+    /**
+     * Writes {@code count} expenses to a new journal file in a fresh temp directory, streaming so that
+     * even the largest datasets never sit in memory.
+     */
+    public static Path writeJournal(int count, long seed) throws IOException {
+        Path file = Files.createTempDirectory("expense-bench-").resolve("expenses.txt");
+        SyntheticExpenses generator = new SyntheticExpenses(seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                writer.write(FileExpenseRepository.toLine(generator.next()));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Copies a journal into a sibling file, so a benchmark can modify it without touching the original.
+     */
+    public static Path copyJournal(Path journal, String name) throws IOException {
+        Path copy = journal.resolveSibling(name);
+        Files.copy(journal, copy, StandardCopyOption.REPLACE_EXISTING);
+        return copy;
+    }
+
+    /**
+     * Deletes the temp directory made by {@link #writeJournal} together with everything in it.
+     */
+    public static void deleteJournal(Path journal) throws IOException {
+        Path directory = journal.getParent();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+}
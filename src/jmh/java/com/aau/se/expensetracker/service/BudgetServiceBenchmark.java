@@ -0,0 +1,82 @@
+package com.aau.se.expensetracker.service;
+
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Budget;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.repository.FileExpenseRepository;
+import com.aau.se.expensetracker.repository.SyntheticExpenses;
+import com.aau.se.expensetracker.util.BudgetExceededException;
+import com.aau.se.expensetracker.util.DataAccessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BudgetServiceImplementation.checkLimit with warm running totals, and the first check on a fresh
+ * service, which has to build the totals from every stored expense.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BudgetServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Path journal;
+    private FileExpenseRepository repository;
+    private ExpenseService expenseService;
+    private Budget budget;
+    private BudgetService budgetService;
+    private Expense probe;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, DataAccessException {
+        journal = SyntheticExpenses.writeJournal(size, SyntheticExpenses.DEFAULT_SEED);
+        repository = new FileExpenseRepository(journal.toString(), FileExpenseRepository.StorageMode.JOURNAL);
+        expenseService = new ExpenseServiceImplementation(repository);
+        expenseService.getAllExpenses();
+        budget = new Budget(Double.MAX_VALUE, null);
+        budgetService = new BudgetServiceImplementation(budget, expenseService);
+        budgetService.getSpent(ExpenseCategory.FOOD);
+        probe = new BasicExpense("probe", 12.50, SyntheticExpenses.LAST_DAY, ExpenseCategory.FOOD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, DataAccessException {
+        repository.close();
+        SyntheticExpenses.deleteJournal(journal);
+    }
+
+    @Benchmark
+    public Expense checkLimit() throws BudgetExceededException {
+        budgetService.checkLimit(probe);
+        return probe;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BudgetService checkLimitCold() throws BudgetExceededException {
+        BudgetService fresh = new BudgetServiceImplementation(budget, expenseService);
+        fresh.checkLimit(probe);
+        return fresh;
+    }
+}
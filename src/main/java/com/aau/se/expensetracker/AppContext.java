@@ -0,0 +1,149 @@
+package com.aau.se.expensetracker;
+
+import com.aau.se.expensetracker.controller.ExpenseController;
+import com.aau.se.expensetracker.controller.RepositoryController;
+import com.aau.se.expensetracker.model.User;
+import com.aau.se.expensetracker.repository.ExpenseRepository;
+import com.aau.se.expensetracker.repository.FileExpenseRepository;
+import com.aau.se.expensetracker.repository.SqliteExpenseRepository;
+import com.aau.se.expensetracker.service.BudgetService;
+import com.aau.se.expensetracker.service.BudgetServiceImplementation;
+import com.aau.se.expensetracker.service.ExpenseService;
+import com.aau.se.expensetracker.service.ExpenseServiceImplementation;
+import com.aau.se.expensetracker.util.DataAccessException;
+import com.aau.se.expensetracker.util.ThreadPools;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Wires repository, services and controllers for one user.
+ * Shared by every front end (JavaFX, HTTP server, command line), so they all run the same stack.
+ * Publishing the metrics over JMX is left to the long-running front ends.
+ */
+public final class AppContext implements AutoCloseable {
+
+    /** Journal file used when no other is given. */
+    public static final String DEFAULT_EXPENSE_FILE = "expenses.txt";
+
+    private final User user;
+    private final ExpenseRepository repository;
+    private final ExpenseService expenseService;
+    private final BudgetService budgetService;
+    private final ExpenseController expenseController;
+    private final RepositoryController repositoryController;
+
+    private AppContext(User user, ExpenseRepository repository) {
+        this.user = user;
+        this.repository = repository;
+        this.expenseService = new ExpenseServiceImplementation(repository);
+        this.budgetService = new BudgetServiceImplementation(user.getBudget(), expenseService);
+        this.expenseController = new ExpenseController(expenseService, budgetService);
+        this.repositoryController = new RepositoryController(expenseService, budgetService);
+    }
+
+    /**
+     * Opens the expenses at {@code expenseFile} for the given user; see {@link #openRepository(String)}.
+     */
+    public static AppContext open(String expenseFile, User user) {
+        return new AppContext(user, openRepository(expenseFile));
+    }
+
+    /**
+     * Opens the expense journal at {@code expenseFile} and starts loading it on a background thread before
+     * the user is known, so parsing and indexing overlap with whatever the caller does meanwhile (session
+     * lookup, login dialogs). Finish with {@link Warmup#open(User)}, or {@link Warmup#close()} if no user comes.
+     */
+    public static Warmup warmUp(String expenseFile) {
+        ExpenseRepository repository = openRepository(expenseFile);
+        ExecutorService loader = ThreadPools.newSingleThread("expense-warmup");
+        CompletableFuture<Void> loaded = CompletableFuture.runAsync(() -> {
+            try {
+                repository.count();
+            } catch (DataAccessException e) {
+                throw new CompletionException(e);
+            }
+        }, loader);
+        loader.shutdown();
+        return new Warmup(repository, loaded);
+    }
+
+    /**
+     * A {@code .db} or {@code .sqlite} file is opened as a SQLite database, anything else as a journal.
+     */
+    static ExpenseRepository openRepository(String expenseFile) {
+        String name = expenseFile.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".db") || name.endsWith(".sqlite")) {
+            return new SqliteExpenseRepository(expenseFile);
+        }
+        return new FileExpenseRepository(expenseFile, FileExpenseRepository.StorageMode.JOURNAL);
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public ExpenseService getExpenseService() {
+        return expenseService;
+    }
+
+    public BudgetService getBudgetService() {
+        return budgetService;
+    }
+
+    public ExpenseController getExpenseController() {
+        return expenseController;
+    }
+
+    public RepositoryController getRepositoryController() {
+        return repositoryController;
+    }
+
+    /**
+     * Flushes and closes the repository.
+     */
+    @Override
+    public void close() throws DataAccessException {
+        repository.close();
+    }
+
+    /**
+     * A repository loading in the background, not yet bound to a user. See {@link #warmUp(String)}.
+     */
+    public static final class Warmup implements AutoCloseable {
+
+        private final ExpenseRepository repository;
+        private final CompletableFuture<Void> loaded;
+
+        private Warmup(ExpenseRepository repository, CompletableFuture<Void> loaded) {
+            this.repository = repository;
+            this.loaded = loaded;
+        }
+
+        /**
+         * Completes once the expenses are loaded and indexed; exceptionally if loading failed, in which
+         * case the next repository call retries the load.
+         */
+        public CompletableFuture<Void> loaded() {
+            return loaded;
+        }
+
+        /**
+         * Wires the context for {@code user} without waiting for the load; calls that need the data block
+         * until it is ready.
+         */
+        public AppContext open(User user) {
+            return new AppContext(user, repository);
+        }
+
+        /**
+         * Closes the repository when no context will be opened on it, waiting for a load in progress.
+         */
+        @Override
+        public void close() throws DataAccessException {
+            repository.close();
+        }
+    }
+}
@@ -1,18 +1,11 @@
 package com.aau.se.expensetracker;
 
-import com.aau.se.expensetracker.controller.ExpenseController;
-import com.aau.se.expensetracker.controller.RepositoryController;
+import com.aau.se.expensetracker.metrics.ExpenseMetrics;
 import com.aau.se.expensetracker.model.User;
-import com.aau.se.expensetracker.repository.ExpenseRepository;
-import com.aau.se.expensetracker.repository.FileExpenseRepository;
-import com.aau.se.expensetracker.service.BudgetService;
-import com.aau.se.expensetracker.service.BudgetServiceImplementation;
-import com.aau.se.expensetracker.service.ExpenseService;
-import com.aau.se.expensetracker.service.ExpenseServiceImplementation;
+import com.aau.se.expensetracker.util.DataAccessException;
 import com.aau.se.expensetracker.util.SessionStore;
 import com.aau.se.expensetracker.view.MainView;
 import com.aau.se.expensetracker.model.ExpenseCategory;
-import com.sun.tools.javac.Main;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
@@ -24,27 +17,34 @@ import java.io.IOException;
 import java.util.EnumMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import javafx.scene.control.Button;
 import javafx.application.Platform;
 
 /**
- * JavaFX application entry point. Wires model, repository, services, controllers and views.
+ * JavaFX application entry point. Builds the shared {@link AppContext} and the views on top of it.
  * Shows TextInputDialog for user name and budget when no session; expense screen only visible after user exists.
+ * The expense journal starts loading as soon as {@link #start} runs, in parallel with the session lookup and
+ * the dialogs, and the window is shown without waiting for it; the views fill in once the data is ready.
+ * Time to the first frame and to loaded data is published on the {@code type=Startup} bean of
+ * {@link ExpenseMetrics}.
  */
 public class StudentExpenseTrackerApp extends Application {
 
-    private static final String EXPENSE_FILE = "expenses.txt";
+    private AppContext context;
 
     @Override
     public void start(Stage stage) {
-        ExpenseRepository repository = new FileExpenseRepository(EXPENSE_FILE);
-        ExpenseService expenseService = new ExpenseServiceImplementation(repository);
+        long startedAt = System.nanoTime();
+        AppContext.Warmup warmup = AppContext.warmUp(AppContext.DEFAULT_EXPENSE_FILE);
+        ExpenseMetrics.registerMBeans();
         SessionStore sessionStore = new SessionStore();
 
         User user = sessionStore.load();
         if (user == null) {
             user = showUserAndBudgetDialogs();
             if (user == null) {
+                closeQuietly(warmup);
                 stage.close();
                 return;
             }
@@ -54,16 +54,15 @@ public class StudentExpenseTrackerApp extends Application {
                 Alert a = new Alert(Alert.AlertType.ERROR);
                 a.setContentText("Could not save session: " + e.getMessage());
                 a.showAndWait();
+                closeQuietly(warmup);
                 stage.close();
                 return;
             }
         }
 
-        BudgetService budgetService = new BudgetServiceImplementation(user.getBudget(), expenseService);
-        ExpenseController expenseController = new ExpenseController(expenseService, budgetService);
-        RepositoryController repositoryController = new RepositoryController(expenseService, budgetService);
+        context = warmup.open(user);
 
-        MainView mainView = new MainView(expenseController, repositoryController, stage);
+        MainView mainView = new MainView(context.getExpenseController(), context.getRepositoryController(), stage);
         Button logoutBtn = new Button("Logout");
 
         logoutBtn.setOnAction(e -> {
@@ -95,9 +94,56 @@ public class StudentExpenseTrackerApp extends Application {
         stage.setScene(scene);
         stage.setMinWidth(600);
         stage.setMinHeight(400);
+        reportStartup(scene, warmup, startedAt);
         stage.show();
     }
 
+    /**
+     * Records in {@link ExpenseMetrics} how long after {@link #start} the first frame was laid out and the
+     * expenses were loaded.
+     * The load usually finishes while the dialogs are open, so it can be reported before the first frame.
+     */
+    private static void reportStartup(Scene scene, AppContext.Warmup warmup, long startedAt) {
+        Runnable firstFrame = new Runnable() {
+            private boolean reported;
+
+            @Override
+            public void run() {
+                if (reported) return;
+                reported = true;
+                ExpenseMetrics.firstFrameShown(millisSince(startedAt));
+                // not from inside the pulse, which is iterating over the listeners
+                Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+            }
+        };
+        scene.addPostLayoutPulseListener(firstFrame);
+        warmup.loaded().whenComplete((ignored, failure) -> ExpenseMetrics.expensesLoaded(millisSince(startedAt),
+                failure != null && failure.getCause() != null ? failure.getCause() : failure));
+    }
+
+    private static long millisSince(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+    private static void closeQuietly(AppContext.Warmup warmup) {
+        try {
+            warmup.close();
+        } catch (DataAccessException ignored) {
+            // no user, so nothing was written; the app is closing
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (context != null) {
+            try {
+                context.close();
+            } catch (DataAccessException ignored) {
+                // exiting anyway; nothing left to report to
+            }
+        }
+    }
+
     /**
      * Shows TextInputDialog for name, overall budget, then per-category budget limits.
      * Validates that sum of category limits equals overall limit. Account is saved to session in start().
@@ -0,0 +1,224 @@
+package com.aau.se.expensetracker.cli;
+
+import com.aau.se.expensetracker.AppContext;
+import com.aau.se.expensetracker.controller.RepositoryController;
+import com.aau.se.expensetracker.controller.SummaryBounds;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.model.User;
+import com.aau.se.expensetracker.service.BudgetService;
+import com.aau.se.expensetracker.service.ImportService;
+import com.aau.se.expensetracker.util.DataAccessException;
+import com.aau.se.expensetracker.util.SessionStore;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command-line entry point for scripts and cron jobs. Wires the same {@link AppContext} as the desktop app
+ * but never references a JavaFX class or registers the JMX beans, so neither the toolkit nor the management
+ * classes are loaded and a command finishes in a fraction of a second.
+ * <pre>
+ * init NAME BUDGET                   create the session (every category gets the full budget)
+ * summary [--from DATE] [--to DATE] [--all]   DATE is YYYY-MM or YYYY-MM-DD; this month by default
+ * add AMOUNT CATEGORY [YYYY-MM-DD]   checked against the budget, like the desktop app
+ * list [--offset N] [--limit N]      newest first
+ * delete ID
+ * import FILE.csv [--enforce-budget]
+ * </pre>
+ * Options {@code --file PATH} and {@code --session PATH} select the expense file (a journal, or SQLite for
+ * {@code .db}) and the session file.
+ * Exit status is 0 on success, 1 when the command failed and 2 for bad usage.
+ */
+public final class ExpenseCli {
+
+    private static final int OK = 0;
+    private static final int FAILED = 1;
+    private static final int USAGE = 2;
+    private static final int DEFAULT_LIST_LIMIT = 20;
+    private static final Set<String> FLAGS = Set.of("all", "enforce-budget");
+    private static final Set<String> COMMANDS = Set.of("init", "summary", "add", "list", "delete", "import");
+
+    private final PrintStream out;
+    private final PrintStream err;
+
+    private ExpenseCli(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs one command and returns its exit status.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        return new ExpenseCli(out, err).execute(args);
+    }
+
+    private int execute(String[] args) {
+        List<String> words = new ArrayList<>();
+        Map<String, String> options = new HashMap<>();
+        Set<String> flags = new HashSet<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                words.add(args[i]);
+            } else if (FLAGS.contains(args[i].substring(2))) {
+                flags.add(args[i].substring(2));
+            } else if (i + 1 < args.length) {
+                options.put(args[i].substring(2), args[++i]);
+            } else {
+                return usage("Missing value for " + args[i]);
+            }
+        }
+        if (words.isEmpty()) return usage(null);
+        String command = words.get(0);
+        if (!COMMANDS.contains(command)) return usage("Unknown command: " + command);
+        List<String> operands = words.subList(1, words.size());
+        SessionStore sessionStore = options.containsKey("session")
+                ? new SessionStore(Path.of(options.get("session")))
+                : new SessionStore();
+        try {
+            if (command.equals("init")) return init(sessionStore, operands);
+            User user = sessionStore.load();
+            if (user == null) {
+                err.println("No saved session; run 'init NAME BUDGET' first.");
+                return FAILED;
+            }
+            try (AppContext context = AppContext.open(
+                    options.getOrDefault("file", AppContext.DEFAULT_EXPENSE_FILE), user)) {
+                switch (command) {
+                    case "summary":
+                        return summary(context, options, flags);
+                    case "add":
+                        return add(context, operands);
+                    case "list":
+                        return list(context, options);
+                    case "delete":
+                        return delete(context, operands);
+                    default:
+                        return importCsv(context, operands, flags);
+                }
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return usage("Bad value: " + e.getMessage());
+        } catch (IOException | DataAccessException | RuntimeException e) {
+            err.println(e.getMessage());
+            return FAILED;
+        }
+    }
+
+    private int init(SessionStore sessionStore, List<String> operands) throws IOException {
+        if (operands.size() != 2) return usage("init takes NAME BUDGET");
+        if (sessionStore.load() != null) {
+            err.println("A session already exists.");
+            return FAILED;
+        }
+        double budget = Double.parseDouble(operands.get(1));
+        if (!(budget > 0)) return usage("Budget must be positive");
+        User user = SessionStore.createUser(operands.get(0), budget, Map.of());
+        sessionStore.save(user);
+        out.println("Created session for " + user.getUsername());
+        return OK;
+    }
+
+    private int summary(AppContext context, Map<String, String> options, Set<String> flags) {
+        SummaryBounds bounds;
+        String period;
+        if (flags.contains("all")) {
+            bounds = SummaryBounds.months(null, null);
+            period = "all time";
+        } else if (options.containsKey("from") || options.containsKey("to")) {
+            bounds = SummaryBounds.parse(options.get("from"), options.get("to"));
+            period = bounds.toString();
+        } else {
+            YearMonth month = YearMonth.now();
+            bounds = SummaryBounds.months(month, month);
+            period = month.toString();
+        }
+        printSummary(context, bounds.summarize(context.getRepositoryController()), period);
+        return OK;
+    }
+
+    private void printSummary(AppContext context, RepositoryController.ExpenseSummary summary, String period) {
+        BudgetService budget = summary.getBudgetService();
+        out.printf(Locale.ROOT, "Summary for %s, %s%n", context.getUser().getUsername(), period);
+        out.printf(Locale.ROOT, "%-14s %12s %12s%n", "Category", "Spent", "Limit");
+        for (ExpenseCategory c : ExpenseCategory.values()) {
+            out.printf(Locale.ROOT, "%-14s %12.2f %12.2f%n", c.name(), summary.getByCategory().get(c), budget.getLimit(c));
+        }
+        out.printf(Locale.ROOT, "%-14s %12.2f %12.2f%n", "Total", summary.getTotalSpent(), budget.getMonthlyLimit());
+        out.printf(Locale.ROOT, "Expenses: %d%n", summary.getExpenseCount());
+    }
+
+    private int add(AppContext context, List<String> operands) {
+        if (operands.size() < 2 || operands.size() > 3) return usage("add takes AMOUNT CATEGORY [YYYY-MM-DD]");
+        double amount = Double.parseDouble(operands.get(0));
+        if (!(amount > 0) || Double.isInfinite(amount)) return usage("Amount must be a positive number");
+        ExpenseCategory category;
+        try {
+            category = ExpenseCategory.valueOf(operands.get(1).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return usage("Unknown category: " + operands.get(1));
+        }
+        LocalDate date = operands.size() == 3 ? LocalDate.parse(operands.get(2)) : LocalDate.now();
+        Expense added = context.getExpenseController().handleAddExpense(amount, date, category);
+        out.println(added.getId());
+        return OK;
+    }
+
+    private int list(AppContext context, Map<String, String> options) throws DataAccessException {
+        int offset = Integer.parseInt(options.getOrDefault("offset", "0"));
+        int limit = Integer.parseInt(options.getOrDefault("limit", String.valueOf(DEFAULT_LIST_LIMIT)));
+        if (offset < 0 || limit < 0) return usage("offset and limit must not be negative");
+        for (Expense e : context.getExpenseService().getExpensePage(offset, limit)) {
+            out.printf(Locale.ROOT, "%s  %s  %-12s %10.2f%n", e.getId(), e.getDate(), e.getCategory().name(),
+                    e.getAmount());
+        }
+        return OK;
+    }
+
+    private int delete(AppContext context, List<String> operands) {
+        if (operands.size() != 1) return usage("delete takes ID");
+        if (!context.getExpenseController().handleDeleteExpense(operands.get(0))) {
+            err.println("No expense with id " + operands.get(0));
+            return FAILED;
+        }
+        return OK;
+    }
+
+    private int importCsv(AppContext context, List<String> operands, Set<String> flags) {
+        if (operands.size() != 1) return usage("import takes FILE");
+        ImportService.ImportResult result = context.getExpenseController()
+                .handleImport(Path.of(operands.get(0)), flags.contains("enforce-budget"));
+        out.printf(Locale.ROOT, "Read %d rows: %d imported, %d over budget, %d malformed, %d duplicates, "
+                        + "%d credits skipped%n", result.getRowsRead(), result.getImported(),
+                result.getRejectedOverBudget(), result.getMalformed(), result.getDuplicates(), result.getCredits());
+        return OK;
+    }
+
+    private int usage(String problem) {
+        if (problem != null) err.println(problem);
+        err.println("Usage: ExpenseCli [--file PATH] [--session PATH] COMMAND");
+        err.println("  init NAME BUDGET");
+        err.println("  summary [--from YYYY-MM[-DD]] [--to YYYY-MM[-DD]] [--all]");
+        err.println("  add AMOUNT CATEGORY [YYYY-MM-DD]");
+        err.println("  list [--offset N] [--limit N]");
+        err.println("  delete ID");
+        err.println("  import FILE.csv [--enforce-budget]");
+        return USAGE;
+    }
+}
@@ -3,13 +3,19 @@ package com.aau.se.expensetracker.controller;
 import com.aau.se.expensetracker.model.BasicExpense;//imported BasicExpense class 
 import com.aau.se.expensetracker.model.Expense;//imported Expense class 
 import com.aau.se.expensetracker.model.ExpenseCategory;//imported ExpenseCategory class 
+import com.aau.se.expensetracker.service.AsyncExpenseService;//imported AsyncExpenseService class so UI actions can run off the JavaFX thread
+import com.aau.se.expensetracker.service.AsyncExpenseServiceImplementation;//imported AsyncExpenseServiceImplementation class as the default async service
 import com.aau.se.expensetracker.service.BudgetService;//imported BudgetService class since the controller depends on the BudgetService
 import com.aau.se.expensetracker.service.ExpenseService;//imported ExpenseService class since the controller depends on the ExpenseService
+import com.aau.se.expensetracker.service.ImportService;//imported ImportService class for bulk CSV imports
+import com.aau.se.expensetracker.service.ImportServiceImplementation;//imported ImportServiceImplementation class as the default importer
 import com.aau.se.expensetracker.util.BudgetExceededException; //imported BudgetExceededException class since the controller depends on the BudgetExceededException class
 import com.aau.se.expensetracker.util.DataAccessException; //imported DataAccessException class since the controller depends on the DataAccessException class
 
+import java.nio.file.Path;// to locate the file to import
 import java.time.LocalDate;// to store the date of the expense
 import java.util.List;// to store the list of expenses
+import java.util.concurrent.CompletableFuture;// to return results of background operations
 import java.util.UUID;// to generate unique IDs for expenses
 
 /**
@@ -19,24 +25,32 @@ public class ExpenseController {
 
     private final ExpenseService expenseService;//to add and delete expenses
     private final BudgetService budgetService;//to check the budget limit
+    private final AsyncExpenseService asyncExpenseService;//to run adds, deletes and loads in the background
+    private final ImportService importService;//to import bank/CSV statements
     //constructor to initialize the expenseService and budgetService
     public ExpenseController(ExpenseService expenseService, BudgetService budgetService) {
+        this(expenseService, budgetService, new AsyncExpenseServiceImplementation(expenseService));
+    }
+
+    public ExpenseController(ExpenseService expenseService, BudgetService budgetService,
+                             AsyncExpenseService asyncExpenseService) {
         this.expenseService = expenseService;
         this.budgetService = budgetService;
+        this.asyncExpenseService = asyncExpenseService;
+        this.importService = new ImportServiceImplementation(expenseService, budgetService);
     }
 
     /**
      * Adds an expense after validating against budget limit.
      *
-     * @param name     expense name
      * @param amount   amount
      * @param date     date
      * @param category category
      * @return the created expense, or null if budget exceeded or data error
      */
-    public Expense handleAddExpense(String name, double amount, LocalDate date, ExpenseCategory category) {
+    public Expense handleAddExpense(double amount, LocalDate date, ExpenseCategory category) {
         String id = UUID.randomUUID().toString();
-        Expense expense = new BasicExpense(id, name, amount, date, category);
+        Expense expense = new BasicExpense(id, amount, date, category);
         try {
             budgetService.checkLimit(expense);
             expenseService.addExpense(expense);
@@ -50,15 +64,106 @@ public class ExpenseController {
 
     /**
      * Removes an expense by id.
+     *
+     * @return false if there was no expense with that id
      */
-    public void handleDeleteExpense(String expenseId) {
+    public boolean handleDeleteExpense(String expenseId) {
         try {
+            if (expenseService.findExpense(expenseId) == null) return false;
             expenseService.removeExpense(expenseId);
+            return true;
         } catch (DataAccessException e) {
             throw new RuntimeException("Failed to delete expense: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Same as {@link #handleAddExpense} but runs on the writer thread, so the budget check and the save
+     * are ordered with all other writes and never block the caller.
+     */
+    public CompletableFuture<Expense> handleAddExpenseAsync(double amount, LocalDate date, ExpenseCategory category) {
+        return asyncExpenseService.submitWrite(() -> handleAddExpense(amount, date, category));
+    }
+
+    /**
+     * Same as {@link #handleAddExpenseAsync}, and also finds where the new expense sits in the newest-first
+     * order (after every expense dated later). Both run in one writer task, so no other write can come
+     * between the save and the lookup.
+     */
+    public CompletableFuture<PlacedExpense> handleAddExpensePlacedAsync(double amount, LocalDate date,
+                                                                        ExpenseCategory category) {
+        return asyncExpenseService.submitWrite(() -> {
+            Expense added = handleAddExpense(amount, date, category);
+            try {
+                return new PlacedExpense(added,
+                        expenseService.countExpensesBetween(added.getDate().plusDays(1), LocalDate.MAX));
+            } catch (DataAccessException e) {
+                throw new RuntimeException("Failed to locate expense: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Same as {@link #handleDeleteExpense} but runs on the writer thread. The lookup and the delete run in one
+     * writer task, so another delete of the same id cannot come between them and both report success.
+     */
+    public CompletableFuture<Boolean> handleDeleteExpenseAsync(String expenseId) {
+        return asyncExpenseService.submitWrite(() -> handleDeleteExpense(expenseId));
+    }
+
+    /**
+     * Imports a CSV statement in batches. Over-budget rows are rejected when enforceBudget is true.
+     */
+    public ImportService.ImportResult handleImport(Path file, boolean enforceBudget) {
+        try {
+            return importService.importCsv(file, enforceBudget);
+        } catch (DataAccessException e) {
+            throw new RuntimeException("Failed to import expenses: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Same as {@link #handleImport} but runs on the writer thread, ordered with other writes.
+     */
+    public CompletableFuture<ImportService.ImportResult> handleImportAsync(Path file, boolean enforceBudget) {
+        return asyncExpenseService.submitWrite(() -> handleImport(file, enforceBudget));
+    }
+
+    /**
+     * Loads all expenses on a reader thread.
+     */
+    public CompletableFuture<List<Expense>> getAllExpensesAsync() {
+        return asyncExpenseService.getAllExpenses();
+    }
+
+    /**
+     * Counts the stored expenses on a reader thread.
+     */
+    public CompletableFuture<Integer> countExpensesAsync() {
+        return asyncExpenseService.countExpenses();
+    }
+
+    /**
+     * Loads one page of expenses, newest first, on a reader thread.
+     */
+    public CompletableFuture<List<Expense>> getExpensePageAsync(int offset, int limit) {
+        return asyncExpenseService.getExpensePage(offset, limit);
+    }
+
+    /**
+     * Returns the remaining budget percentage for the given category (0–100).
+     */
+    public double getRemainingPercent(ExpenseCategory category) {
+        return budgetService.getRemainingPercent(category);
+    }
+
+    /**
+     * Stops the background threads; writes already submitted still complete.
+     */
+    public void shutdown() {
+        asyncExpenseService.shutdown();
+    }
+
     public List<Expense> getAllExpenses() {
         try {
             return expenseService.getAllExpenses();
@@ -66,4 +171,25 @@ public class ExpenseController {
             throw new RuntimeException("Failed to load expenses: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * DTO for an added expense and its index in the newest-first expense list.
+     */
+    public static final class PlacedExpense {
+        private final Expense expense;
+        private final int position;
+
+        public PlacedExpense(Expense expense, int position) {
+            this.expense = expense;
+            this.position = position;
+        }
+
+        public Expense getExpense() {
+            return expense;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+    }
 }
@@ -1,46 +1,112 @@
 package com.aau.se.expensetracker.controller;
 
-import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.metrics.ExpenseMetrics;
+import com.aau.se.expensetracker.metrics.OperationStats;
 import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.repository.AggregateQuery;
+import com.aau.se.expensetracker.repository.AggregateResult;
+import com.aau.se.expensetracker.repository.ExpenseChangeEvent;
+import com.aau.se.expensetracker.repository.ExpenseChangeListener;
+import com.aau.se.expensetracker.service.BudgetService;
 import com.aau.se.expensetracker.service.ExpenseService;
 import com.aau.se.expensetracker.util.DataAccessException;
+import com.aau.se.expensetracker.util.ThreadPools;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.EnumMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Handles summary and reporting (Single Responsibility).
+ * Summaries are aggregate queries grouped by category; the repository answers whole months from its
+ * month x category rollup, so their cost does not grow with the number of expenses.
  */
 public class RepositoryController {
 
+    private static final OperationStats SUMMARY_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.GENERATE_SUMMARY);
+    private static final AggregateQuery BY_CATEGORY = AggregateQuery.all().groupBy(AggregateQuery.Key.CATEGORY);
+
     private final ExpenseService expenseService;
+    private final BudgetService budgetService;
+    private final ExecutorService readers = ThreadPools.newPerTaskExecutor("summary-reader");
 
-    public RepositoryController(ExpenseService expenseService) {
+    public RepositoryController(ExpenseService expenseService, BudgetService budgetService) {
         this.expenseService = expenseService;
+        this.budgetService = budgetService;
     }
 
     /**
-     * Generates a summary of expenses: total spent and per-category totals.
+     * Generates a summary of all expenses: total spent and per-category totals.
      */
     public ExpenseSummary generateSummary() {
+        return generateSummary(null, null);
+    }
+
+    /**
+     * Same as {@link #generateSummary()} on a reader thread, so UI code does not wait for the repository
+     * to finish loading.
+     */
+    public CompletableFuture<ExpenseSummary> generateSummaryAsync() {
+        return CompletableFuture.supplyAsync(this::generateSummary, readers);
+    }
+
+    /**
+     * Generates a summary of the months from {@code from} to {@code to}, both inclusive; a null bound is open.
+     */
+    public ExpenseSummary generateSummary(YearMonth from, YearMonth to) {
+        long start = System.nanoTime();
         try {
-            List<Expense> expenses = expenseService.getAllExpenses();
-            double total = 0;
-            Map<ExpenseCategory, Double> byCategory = new EnumMap<>(ExpenseCategory.class);
-            for (ExpenseCategory c : ExpenseCategory.values()) {
-                byCategory.put(c, 0.0);
-            }
-            for (Expense e : expenses) {
-                total += e.getAmount();
-                byCategory.merge(e.getCategory(), e.getAmount(), Double::sum);
-            }
-            return new ExpenseSummary(total, byCategory, expenses.size());
+            return toSummary(expenseService.aggregate(BY_CATEGORY.inMonths(from, to)), start);
         } catch (DataAccessException e) {
+            SUMMARY_STATS.failed();
             throw new RuntimeException("Failed to generate summary: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Generates a summary of the expenses dated from {@code from} to {@code to}, both inclusive.
+     * Unless the range is whole months, the repository aggregates it from the stored rows rather than the rollup.
+     */
+    public ExpenseSummary generateSummaryBetween(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        try {
+            return toSummary(expenseService.aggregate(BY_CATEGORY.between(from, to)), start);
+        } catch (DataAccessException e) {
+            SUMMARY_STATS.failed();
+            throw new RuntimeException("Failed to generate summary: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Builds the DTO and records the time since {@code start} as one summary.
+     */
+    private ExpenseSummary toSummary(AggregateResult totals, long start) {
+        Map<ExpenseCategory, Double> byCategory = new EnumMap<>(ExpenseCategory.class);
+        for (ExpenseCategory c : ExpenseCategory.values()) {
+            byCategory.put(c, totals.getSum(c));
+        }
+        AggregateResult.Group total = totals.total();
+        SUMMARY_STATS.record(start);
+        return new ExpenseSummary(total.getSum(), byCategory, (int) total.getCount(), budgetService, totals);
+    }
+
+    /**
+     * Stops the reader threads of {@link #generateSummaryAsync}; summaries already submitted still complete.
+     */
+    public void shutdown() {
+        readers.shutdown();
+    }
+
+    /**
+     * Subscribes to committed expense changes, so a summary can be kept current by applying their deltas.
+     */
+    public void addChangeListener(ExpenseChangeListener listener) {
+        expenseService.addChangeListener(listener);
+    }
+
     /**
      * DTO for expense summary.
      */
@@ -48,11 +114,21 @@ public class RepositoryController {
         private final double totalSpent;
         private final Map<ExpenseCategory, Double> byCategory;
         private final int expenseCount;
+        private final BudgetService budgetService;
+        private final AggregateResult source;
+
+        public ExpenseSummary(double totalSpent, Map<ExpenseCategory, Double> byCategory, int expenseCount,
+                              BudgetService budgetService) {
+            this(totalSpent, byCategory, expenseCount, budgetService, null);
+        }
 
-        public ExpenseSummary(double totalSpent, Map<ExpenseCategory, Double> byCategory, int expenseCount) {
+        private ExpenseSummary(double totalSpent, Map<ExpenseCategory, Double> byCategory, int expenseCount,
+                               BudgetService budgetService, AggregateResult source) {
             this.totalSpent = totalSpent;
             this.byCategory = byCategory != null ? new EnumMap<>(byCategory) : new EnumMap<>(ExpenseCategory.class);
             this.expenseCount = expenseCount;
+            this.budgetService = budgetService;
+            this.source = source;
         }
 
         public double getTotalSpent() {
@@ -66,5 +142,20 @@ public class RepositoryController {
         public int getExpenseCount() {
             return expenseCount;
         }
+
+        /**
+         * The budget the summary is compared against, for limits and amounts left.
+         */
+        public BudgetService getBudgetService() {
+            return budgetService;
+        }
+
+        /**
+         * Returns whether the change is already counted in the summary, so a view kept current by change
+         * events skips it; see {@link AggregateResult#reflects}.
+         */
+        public boolean reflects(ExpenseChangeEvent event) {
+            return source != null && source.reflects(event);
+        }
     }
 }
@@ -0,0 +1,78 @@
+package com.aau.se.expensetracker.controller;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+/**
+ * The period of a summary, parsed from the optional bounds a user types: each a month (YYYY-MM) or a day
+ * (YYYY-MM-DD). If either bound is a day the period runs from day to day and a month bound covers its whole
+ * month; otherwise it runs over whole months. A missing bound leaves that side open.
+ * Shared by the command line and the HTTP server so both read bounds alike.
+ */
+public final class SummaryBounds {
+
+    private final YearMonth fromMonth;
+    private final YearMonth toMonth;
+    /** Set only when the period runs from day to day. */
+    private final LocalDate fromDay;
+    private final LocalDate toDay;
+
+    private SummaryBounds(YearMonth fromMonth, YearMonth toMonth, LocalDate fromDay, LocalDate toDay) {
+        this.fromMonth = fromMonth;
+        this.toMonth = toMonth;
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+    }
+
+    /**
+     * Parses the bounds; either may be null.
+     *
+     * @throws DateTimeParseException if a bound is neither a month nor a day
+     */
+    public static SummaryBounds parse(String from, String to) {
+        if (isDay(from) || isDay(to)) {
+            return new SummaryBounds(null, null,
+                    from == null ? LocalDate.MIN : isDay(from) ? LocalDate.parse(from) : YearMonth.parse(from).atDay(1),
+                    to == null ? LocalDate.MAX : isDay(to) ? LocalDate.parse(to) : YearMonth.parse(to).atEndOfMonth());
+        }
+        return months(from != null ? YearMonth.parse(from) : null, to != null ? YearMonth.parse(to) : null);
+    }
+
+    /**
+     * Whole months from {@code from} to {@code to}, both inclusive; a null bound is open.
+     */
+    public static SummaryBounds months(YearMonth from, YearMonth to) {
+        return new SummaryBounds(from, to, null, null);
+    }
+
+    public boolean isByDay() {
+        return fromDay != null;
+    }
+
+    /**
+     * Generates the summary of this period with {@code controller}.
+     */
+    public RepositoryController.ExpenseSummary summarize(RepositoryController controller) {
+        return isByDay() ? controller.generateSummaryBetween(fromDay, toDay)
+                : controller.generateSummary(fromMonth, toMonth);
+    }
+
+    /**
+     * The period for display, such as {@code 2026-01 to now} or {@code start to 2026-10-05}.
+     */
+    @Override
+    public String toString() {
+        if (isByDay()) {
+            return (fromDay.equals(LocalDate.MIN) ? "start" : fromDay.toString()) + " to "
+                    + (toDay.equals(LocalDate.MAX) ? "now" : toDay.toString());
+        }
+        return (fromMonth != null ? fromMonth.toString() : "start") + " to "
+                + (toMonth != null ? toMonth.toString() : "now");
+    }
+
+    /** True for a YYYY-MM-DD bound, as opposed to a YYYY-MM one. */
+    private static boolean isDay(String bound) {
+        return bound != null && bound.length() > "YYYY-MM".length();
+    }
+}
@@ -0,0 +1,169 @@
+package com.aau.se.expensetracker.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide figures for the repository, budget and summary operations, published as MXBeans under
+ * {@value #DOMAIN}: one {@code type=Operation,name=<operation>} per {@link Operation}, one
+ * {@code type=Store} for the totals and one {@code type=Startup} for the desktop app's startup timings.
+ * Figures are collected whether or not the beans are registered.
+ * <p>
+ * The text, binary and SQLite repositories record their own calls. A partitioned repository records none
+ * itself: each monthly segment a call touches records its part, so one call may count several times.
+ */
+public final class ExpenseMetrics {
+
+    public static final String DOMAIN = "com.aau.se.expensetracker";
+
+    /**
+     * The instrumented operations, named after the methods they time.
+     */
+    public enum Operation {
+        SAVE("save"),
+        DELETE("delete"),
+        LOAD_ALL("loadAll"),
+        FIND_BY_DATE_RANGE("findByDateRange"),
+        SUMMARIZE_DAYS("summarizeDays"),
+        AGGREGATE("aggregate"),
+        /** Reading the journal (and checkpoint) into memory on first use. */
+        JOURNAL_LOAD("journalLoad"),
+        CHECK_LIMIT("checkLimit"),
+        GENERATE_SUMMARY("generateSummary");
+
+        private final String beanName;
+
+        Operation(String beanName) {
+            this.beanName = beanName;
+        }
+
+        public String beanName() {
+            return beanName;
+        }
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final OperationStats[] STATS = new OperationStats[OPERATIONS.length];
+    private static final LongAdder CACHED_ROWS = new LongAdder();
+    private static volatile long firstFrameMillis = -1;
+    private static volatile long expensesLoadedMillis = -1;
+    private static volatile String loadFailure;
+    private static boolean registered;
+
+    static {
+        for (int i = 0; i < STATS.length; i++) {
+            STATS[i] = new OperationStats();
+        }
+    }
+
+    private ExpenseMetrics() {
+    }
+
+    public static OperationStats of(Operation operation) {
+        return STATS[operation.ordinal()];
+    }
+
+    /**
+     * Adjusts the number of expenses held in memory; repositories report the change after each write.
+     */
+    public static void cachedRowsChanged(long delta) {
+        if (delta != 0) CACHED_ROWS.add(delta);
+    }
+
+    /**
+     * Records when, after the app started, its first frame was laid out.
+     */
+    public static void firstFrameShown(long millis) {
+        firstFrameMillis = millis;
+    }
+
+    /**
+     * Records when, after the app started, loading the expenses finished; {@code failure} is null on success.
+     */
+    public static void expensesLoaded(long millis, Throwable failure) {
+        loadFailure = failure != null ? String.valueOf(failure) : null;
+        expensesLoadedMillis = millis;
+    }
+
+    /**
+     * Registers the beans with the platform MBean server; later calls do nothing.
+     */
+    public static synchronized void registerMBeans() {
+        if (registered) return;
+        Registration.registerAll();
+        registered = true;
+    }
+
+    /**
+     * The JMX side, kept out of {@link ExpenseMetrics} itself so that recording figures never loads the
+     * management classes; command-line runs start measurably faster without them.
+     */
+    private static final class Registration {
+
+        static void registerAll() {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            try {
+                for (Operation operation : OPERATIONS) {
+                    ObjectName name = new ObjectName(DOMAIN + ":type=Operation,name=" + operation.beanName());
+                    register(server, of(operation), name);
+                }
+                register(server, new StoreStats(), new ObjectName(DOMAIN + ":type=Store"));
+                register(server, new StartupStats(), new ObjectName(DOMAIN + ":type=Startup"));
+            } catch (JMException e) {
+                throw new IllegalStateException("Failed to register expense metrics: " + e.getMessage(), e);
+            }
+        }
+
+        private static void register(MBeanServer server, Object bean, ObjectName name) throws JMException {
+            try {
+                server.registerMBean(bean, name);
+            } catch (InstanceAlreadyExistsException e) {
+                // registered by another copy of these classes in the same JVM; theirs stays
+            }
+        }
+    }
+
+    private static final class StoreStats implements StoreStatsMXBean {
+
+        @Override
+        public long getCachedRows() {
+            return CACHED_ROWS.sum();
+        }
+
+        @Override
+        public long getBytesWritten() {
+            long total = 0;
+            for (OperationStats stats : STATS) total += stats.getBytesWritten();
+            return total;
+        }
+
+        @Override
+        public long getRowsScanned() {
+            long total = 0;
+            for (OperationStats stats : STATS) total += stats.getRowsScanned();
+            return total;
+        }
+    }
+
+    private static final class StartupStats implements StartupStatsMXBean {
+
+        @Override
+        public long getFirstFrameMillis() {
+            return firstFrameMillis;
+        }
+
+        @Override
+        public long getExpensesLoadedMillis() {
+            return expensesLoadedMillis;
+        }
+
+        @Override
+        public String getLoadFailure() {
+            return loadFailure;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.aau.se.expensetracker.metrics;
+
+import com.aau.se.expensetracker.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histogram of one operation. Recording is lock-free and allocates nothing, so it
+ * can stay on in production: callers take {@code System.nanoTime()} before the operation and pass it in.
+ */
+public final class OperationStats implements OperationStatsMXBean {
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder rowsScanned = new LongAdder();
+
+    /**
+     * Records a successful call that started at {@code startNanos}.
+     */
+    public void record(long startNanos) {
+        latency.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records a successful call that started at {@code startNanos}, wrote {@code bytes} to storage and
+     * read, returned or wrote {@code rows}.
+     */
+    public void record(long startNanos, long bytes, long rows) {
+        latency.record(System.nanoTime() - startNanos);
+        if (bytes != 0) bytesWritten.add(bytes);
+        if (rows != 0) rowsScanned.add(rows);
+    }
+
+    /**
+     * Records a call that threw.
+     */
+    public void failed() {
+        failures.increment();
+    }
+
+    @Override
+    public long getCount() {
+        return latency.count();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.mean() / 1_000;
+    }
+
+    @Override
+    public long getP50Micros() {
+        return latency.percentile(0.50) / 1_000;
+    }
+
+    @Override
+    public long getP99Micros() {
+        return latency.percentile(0.99) / 1_000;
+    }
+
+    @Override
+    public long getP999Micros() {
+        return latency.percentile(0.999) / 1_000;
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return latency.max() / 1_000;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public double getBytesPerOperation() {
+        long count = latency.count();
+        return count == 0 ? 0 : (double) bytesWritten.sum() / count;
+    }
+
+    @Override
+    public long getRowsScanned() {
+        return rowsScanned.sum();
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        failures.reset();
+        bytesWritten.reset();
+        rowsScanned.reset();
+    }
+}
@@ -0,0 +1,36 @@
+package com.aau.se.expensetracker.metrics;
+
+/**
+ * Management view of one instrumented operation: how often it ran, how long it took and how much it touched.
+ * Latencies are in microseconds and cover successful calls; failed calls are only counted.
+ */
+public interface OperationStatsMXBean {
+
+    long getCount();
+
+    long getFailures();
+
+    double getMeanMicros();
+
+    long getP50Micros();
+
+    long getP99Micros();
+
+    long getP999Micros();
+
+    long getMaxMicros();
+
+    /**
+     * Bytes written to storage by all calls; 0 for reads. SQLite counts the row payload it was handed,
+     * not the pages it wrote.
+     */
+    long getBytesWritten();
+
+    double getBytesPerOperation();
+
+    /** Rows read, returned or written by all calls. */
+    long getRowsScanned();
+
+    /** Clears all figures. */
+    void reset();
+}
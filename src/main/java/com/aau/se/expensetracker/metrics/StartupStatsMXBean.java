@@ -0,0 +1,16 @@
+package com.aau.se.expensetracker.metrics;
+
+/**
+ * Management view of the desktop app's last startup, in milliseconds after the application started.
+ */
+public interface StartupStatsMXBean {
+
+    /** When the first frame was laid out, or -1 if it has not been yet. */
+    long getFirstFrameMillis();
+
+    /** When the expenses finished loading, successfully or not, or -1 if they have not yet. */
+    long getExpensesLoadedMillis();
+
+    /** Why loading the expenses failed, or null if it did not. */
+    String getLoadFailure();
+}
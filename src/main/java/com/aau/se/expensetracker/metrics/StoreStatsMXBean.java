@@ -0,0 +1,16 @@
+package com.aau.se.expensetracker.metrics;
+
+/**
+ * Management view of the expense stores as a whole, summed over every open repository.
+ */
+public interface StoreStatsMXBean {
+
+    /** Expenses held in memory by the open repositories. */
+    long getCachedRows();
+
+    /** Bytes written by all operations. */
+    long getBytesWritten();
+
+    /** Rows read, returned or written by all operations. */
+    long getRowsScanned();
+}
@@ -0,0 +1,187 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.util.Amounts;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Declarative aggregate over the stored expenses for {@link ExpenseRepository#aggregate}: a filter on date,
+ * category and amount, the keys to group by, and per group the sum, count, min and max of the amounts
+ * (average derived). Immutable; every restricting or grouping method returns a new query.
+ * <pre>
+ * AggregateQuery.all().between(from, to).groupBy(AggregateQuery.Key.CATEGORY)
+ * </pre>
+ * Backends answer from whatever they keep: a query on whole months without an amount filter can be read
+ * from an {@link ExpenseRollup}; anything else is aggregated from columns or in SQL.
+ */
+public final class AggregateQuery {
+
+    /** Grouping keys. Without any, the result is a single group. */
+    public enum Key {
+        CATEGORY,
+        MONTH
+    }
+
+    private static final AggregateQuery ALL = new AggregateQuery(null, null,
+            EnumSet.allOf(ExpenseCategory.class), Long.MIN_VALUE, Long.MAX_VALUE, EnumSet.noneOf(Key.class));
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final EnumSet<ExpenseCategory> categories;
+    private final long minAmount;
+    private final long maxAmount;
+    private final EnumSet<Key> keys;
+    /** Derived for the per-row checks: epoch-day bounds and one bit per included category ordinal. */
+    private final long fromDay;
+    private final long toDay;
+    private final long categoryMask;
+
+    private AggregateQuery(LocalDate from, LocalDate to, EnumSet<ExpenseCategory> categories,
+                           long minAmount, long maxAmount, EnumSet<Key> keys) {
+        this.from = from;
+        this.to = to;
+        this.categories = categories;
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+        this.keys = keys;
+        this.fromDay = from != null ? from.toEpochDay() : Long.MIN_VALUE;
+        this.toDay = to != null ? to.toEpochDay() : Long.MAX_VALUE;
+        long mask = 0;
+        for (ExpenseCategory c : categories) mask |= 1L << c.ordinal();
+        this.categoryMask = mask;
+    }
+
+    /**
+     * Every expense, ungrouped.
+     */
+    public static AggregateQuery all() {
+        return ALL;
+    }
+
+    /**
+     * Restricts to expenses dated from {@code from} to {@code to}, both inclusive; a null bound is open.
+     */
+    public AggregateQuery between(LocalDate from, LocalDate to) {
+        return new AggregateQuery(from, to, categories, minAmount, maxAmount, keys);
+    }
+
+    /**
+     * Restricts to the months from {@code from} to {@code to}, both inclusive; a null bound is open.
+     */
+    public AggregateQuery inMonths(YearMonth from, YearMonth to) {
+        return between(from != null ? from.atDay(1) : null, to != null ? to.atEndOfMonth() : null);
+    }
+
+    /**
+     * Restricts to the given categories.
+     */
+    public AggregateQuery inCategories(Set<ExpenseCategory> categories) {
+        EnumSet<ExpenseCategory> copy = categories.isEmpty()
+                ? EnumSet.noneOf(ExpenseCategory.class) : EnumSet.copyOf(categories);
+        return new AggregateQuery(from, to, copy, minAmount, maxAmount, keys);
+    }
+
+    /**
+     * Restricts to amounts from {@code min} to {@code max}, both inclusive; a null bound is open.
+     */
+    public AggregateQuery amountBetween(Double min, Double max) {
+        return new AggregateQuery(from, to, categories,
+                min != null ? Amounts.toMinorUnits(min) : Long.MIN_VALUE,
+                max != null ? Amounts.toMinorUnits(max) : Long.MAX_VALUE, keys);
+    }
+
+    /**
+     * Groups by the given keys, replacing any set before.
+     */
+    public AggregateQuery groupBy(Key... keys) {
+        EnumSet<Key> set = EnumSet.noneOf(Key.class);
+        for (Key key : keys) set.add(key);
+        return new AggregateQuery(from, to, categories, minAmount, maxAmount, set);
+    }
+
+    /** First day included, or null if open. */
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    /** Last day included, or null if open. */
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public Set<ExpenseCategory> getCategories() {
+        return EnumSet.copyOf(categories);
+    }
+
+    public boolean groupsBy(Key key) {
+        return keys.contains(key);
+    }
+
+    /** Whether the query filters on amount. */
+    public boolean hasAmountFilter() {
+        return minAmount != Long.MIN_VALUE || maxAmount != Long.MAX_VALUE;
+    }
+
+    long fromDay() {
+        return fromDay;
+    }
+
+    long toDay() {
+        return toDay;
+    }
+
+    long minAmount() {
+        return minAmount;
+    }
+
+    long maxAmount() {
+        return maxAmount;
+    }
+
+    boolean includes(int category) {
+        return (categoryMask & 1L << category) != 0;
+    }
+
+    /** Whether no row can match, e.g. an inverted range. */
+    boolean isEmpty() {
+        return fromDay > toDay || minAmount > maxAmount || categoryMask == 0;
+    }
+
+    /**
+     * Whether the query can be answered from month x category cells: whole months and no amount filter.
+     */
+    boolean isMonthAligned() {
+        return !hasAmountFilter()
+                && (from == null || from.getDayOfMonth() == 1)
+                && (to == null || to.getDayOfMonth() == to.lengthOfMonth());
+    }
+
+    /** Month key ({@link ExpenseRollup#monthKey(YearMonth)}) of the first month touched, or MIN_VALUE. */
+    int fromMonthKey() {
+        return from != null ? ExpenseRollup.monthKey(YearMonth.from(from)) : Integer.MIN_VALUE;
+    }
+
+    /** Month key of the last month touched, or MAX_VALUE. */
+    int toMonthKey() {
+        return to != null ? ExpenseRollup.monthKey(YearMonth.from(to)) : Integer.MAX_VALUE;
+    }
+
+    boolean matches(long epochDay, int category, long minorUnits) {
+        return epochDay >= fromDay && epochDay <= toDay
+                && minorUnits >= minAmount && minorUnits <= maxAmount
+                && includes(category);
+    }
+
+    boolean matches(Expense e) {
+        return matches(e.getDate().toEpochDay(), e.getCategory().ordinal(), Amounts.toMinorUnits(e.getAmount()));
+    }
+
+    AggregateResult.Accumulator accumulator() {
+        return new AggregateResult.Accumulator(groupsBy(Key.CATEGORY), groupsBy(Key.MONTH));
+    }
+}
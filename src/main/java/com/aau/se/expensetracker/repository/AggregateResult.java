@@ -0,0 +1,222 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.util.Amounts;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Answer to an {@link AggregateQuery}: one {@link Group} per non-empty combination of the grouping keys,
+ * ordered by month, then category. Amounts are kept in minor units and converted on read.
+ */
+public final class AggregateResult {
+
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+    private static final int SUM = 0;
+    private static final int COUNT = 1;
+    private static final int MIN = 2;
+    private static final int MAX = 3;
+    private static final int FIELDS = 4;
+
+    private final List<Group> groups;
+    /** Per store that answered, the version of the last commit the result includes. */
+    private final Map<ExpenseChangeSupport, Long> versions;
+
+    private AggregateResult(List<Group> groups, Map<ExpenseChangeSupport, Long> versions) {
+        this.groups = groups;
+        this.versions = versions;
+    }
+
+    /**
+     * Returns whether the change is already counted in this result. Change events are published after the
+     * write is visible and outside the store's lock, so one can arrive after a result that includes it;
+     * a subscriber that reads a result and then applies events skips those it reflects.
+     * False if the store records no versions.
+     */
+    public boolean reflects(ExpenseChangeEvent event) {
+        Long version = versions.get(event.source());
+        return version != null && event.version() <= version;
+    }
+
+    /** The non-empty groups; a single group (or none, if nothing matched) when the query had no keys. */
+    public List<Group> groups() {
+        return groups;
+    }
+
+    /** All matched rows as one group, whatever the keys were. */
+    public Group total() {
+        Accumulator all = new Accumulator(false, false);
+        for (Group g : groups) {
+            all.addCell(0, 0, g.sum, g.count, g.min, g.max);
+        }
+        List<Group> merged = all.result().groups;
+        return merged.isEmpty() ? new Group(null, null, 0, 0, 0, 0) : merged.get(0);
+    }
+
+    /** Sum over the groups of {@code category} across months; 0 if the query did not group by category. */
+    public double getSum(ExpenseCategory category) {
+        long sum = 0;
+        for (Group g : groups) {
+            if (g.category == category) sum += g.sum;
+        }
+        return Amounts.fromMinorUnits(sum);
+    }
+
+    /**
+     * Sum, count, min and max of the amounts in one group.
+     */
+    public static final class Group {
+        private final ExpenseCategory category;
+        private final YearMonth month;
+        private final long sum;
+        private final long count;
+        private final long min;
+        private final long max;
+
+        private Group(ExpenseCategory category, YearMonth month, long sum, long count, long min, long max) {
+            this.category = category;
+            this.month = month;
+            this.sum = sum;
+            this.count = count;
+            this.min = min;
+            this.max = max;
+        }
+
+        /** The group's category, or null if the query did not group by category. */
+        public ExpenseCategory getCategory() {
+            return category;
+        }
+
+        /** The group's month, or null if the query did not group by month. */
+        public YearMonth getMonth() {
+            return month;
+        }
+
+        public double getSum() {
+            return Amounts.fromMinorUnits(sum);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /** Smallest amount, or 0 if the group is empty. */
+        public double getMin() {
+            return Amounts.fromMinorUnits(min);
+        }
+
+        /** Largest amount, or 0 if the group is empty. */
+        public double getMax() {
+            return Amounts.fromMinorUnits(max);
+        }
+
+        /** Mean amount, or 0 if the group is empty. */
+        public double getAverage() {
+            return count == 0 ? 0 : Amounts.fromMinorUnits(sum) / count;
+        }
+    }
+
+    /**
+     * Collects rows or pre-aggregated cells into groups. Keys the query does not group by are folded:
+     * callers may pass any month key and category, and they land in one cell per remaining key.
+     * Not thread-safe.
+     */
+    static final class Accumulator {
+        private final boolean byCategory;
+        private final boolean byMonth;
+        /** Month key ({@link ExpenseRollup#monthKey}, or 0 when not grouping by month) to cells. */
+        private final NavigableMap<Integer, long[]> months = new TreeMap<>();
+        private final Map<ExpenseChangeSupport, Long> versions = new HashMap<>(2);
+        private int lastKey;
+        private long[] lastCells;
+
+        Accumulator(boolean byCategory, boolean byMonth) {
+            this.byCategory = byCategory;
+            this.byMonth = byMonth;
+        }
+
+        boolean groupsByMonth() {
+            return byMonth;
+        }
+
+        void add(int monthKey, int category, long minorUnits) {
+            long[] cells = cells(monthKey);
+            int base = (byCategory ? category : 0) * FIELDS;
+            if (cells[base + COUNT] == 0) {
+                cells[base + MIN] = minorUnits;
+                cells[base + MAX] = minorUnits;
+            } else {
+                cells[base + MIN] = Math.min(cells[base + MIN], minorUnits);
+                cells[base + MAX] = Math.max(cells[base + MAX], minorUnits);
+            }
+            cells[base + SUM] += minorUnits;
+            cells[base + COUNT]++;
+        }
+
+        void addCell(int monthKey, int category, long sum, long count, long min, long max) {
+            if (count == 0) return;
+            long[] cells = cells(monthKey);
+            int base = (byCategory ? category : 0) * FIELDS;
+            if (cells[base + COUNT] == 0) {
+                cells[base + MIN] = min;
+                cells[base + MAX] = max;
+            } else {
+                cells[base + MIN] = Math.min(cells[base + MIN], min);
+                cells[base + MAX] = Math.max(cells[base + MAX], max);
+            }
+            cells[base + SUM] += sum;
+            cells[base + COUNT] += count;
+        }
+
+        /**
+         * Records that the rows added so far from {@code source} include its commits up to {@code version}.
+         * If one store answers in several parts, the result covers the oldest part's version.
+         */
+        void covers(ExpenseChangeSupport source, long version) {
+            versions.merge(source, version, Math::min);
+        }
+
+        /** Merges the groups and versions of a result of the same query, e.g. one partition's. */
+        void addAll(AggregateResult result) {
+            for (Group g : result.groups) {
+                addCell(g.month != null ? ExpenseRollup.monthKey(g.month) : 0,
+                        g.category != null ? g.category.ordinal() : 0, g.sum, g.count, g.min, g.max);
+            }
+            result.versions.forEach(this::covers);
+        }
+
+        AggregateResult result() {
+            List<Group> groups = new ArrayList<>();
+            for (Map.Entry<Integer, long[]> entry : months.entrySet()) {
+                YearMonth month = byMonth ? monthOf(entry.getKey()) : null;
+                long[] cells = entry.getValue();
+                for (int base = 0; base < cells.length; base += FIELDS) {
+                    if (cells[base + COUNT] == 0) continue;
+                    groups.add(new Group(byCategory ? CATEGORIES[base / FIELDS] : null, month,
+                            cells[base + SUM], cells[base + COUNT], cells[base + MIN], cells[base + MAX]));
+                }
+            }
+            return new AggregateResult(Collections.unmodifiableList(groups), Map.copyOf(versions));
+        }
+
+        private long[] cells(int monthKey) {
+            int key = byMonth ? monthKey : 0;
+            if (lastCells != null && lastKey == key) return lastCells;
+            long[] cells = months.computeIfAbsent(key, k -> new long[(byCategory ? CATEGORIES.length : 1) * FIELDS]);
+            lastKey = key;
+            lastCells = cells;
+            return cells;
+        }
+
+        private static YearMonth monthOf(int monthKey) {
+            return YearMonth.of(Math.floorDiv(monthKey, 12), Math.floorMod(monthKey, 12) + 1);
+        }
+    }
+}
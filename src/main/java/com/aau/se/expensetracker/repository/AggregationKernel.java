@@ -0,0 +1,19 @@
+package com.aau.se.expensetracker.repository;
+
+/**
+ * Per-category sum, count, min and max over primitive expense columns, filtered by date.
+ * Get one from {@link AggregationKernels#preferred()}.
+ */
+public interface AggregationKernel {
+
+    /**
+     * Adds rows {@code start} (inclusive) to {@code end} (exclusive) dated {@code fromDay} to {@code toDay}
+     * (epoch days, both inclusive) into {@code into}, grouped by their category ordinal.
+     * The arrays are parallel columns: amounts in minor units, category ordinals and epoch days.
+     */
+    void aggregate(long[] amounts, byte[] categories, int[] epochDays, int start, int end,
+                   int fromDay, int toDay, ExpenseRollup.Totals into);
+
+    /** Short name for logs and benchmarks, e.g. "scalar". */
+    String name();
+}
@@ -0,0 +1,42 @@
+package com.aau.se.expensetracker.repository;
+
+/**
+ * Picks the {@link AggregationKernel} for this JVM: the Vector API kernel when the
+ * {@code jdk.incubator.vector} module is present and the CPU has usable vector registers, otherwise the
+ * scalar kernel. Setting {@code -Dexpensetracker.aggregation=scalar} forces the scalar kernel.
+ */
+public final class AggregationKernels {
+
+    private static final String VECTOR_KERNEL = "com.aau.se.expensetracker.repository.VectorAggregationKernel";
+    private static final AggregationKernel SCALAR = new ScalarAggregationKernel();
+    private static final AggregationKernel PREFERRED = choose();
+
+    private AggregationKernels() {
+    }
+
+    public static AggregationKernel preferred() {
+        return PREFERRED;
+    }
+
+    public static AggregationKernel scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * Returns the vector kernel, or null when this JVM cannot run it.
+     */
+    public static AggregationKernel vector() {
+        try {
+            return (AggregationKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // module not added, or no vector shape worth using
+            return null;
+        }
+    }
+
+    private static AggregationKernel choose() {
+        if ("scalar".equals(System.getProperty("expensetracker.aggregation"))) return SCALAR;
+        AggregationKernel vector = vector();
+        return vector != null ? vector : SCALAR;
+    }
+}
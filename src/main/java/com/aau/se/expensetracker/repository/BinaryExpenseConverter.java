@@ -0,0 +1,107 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.util.DataAccessException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Converts between the text format of {@link FileExpenseRepository} and the fixed-width format of
+ * {@link BinaryExpenseRepository}. Only live records are carried over.
+ */
+public final class BinaryExpenseConverter {
+
+    private static final int WRITE_BATCH = 4096;
+
+    private BinaryExpenseConverter() {
+    }
+
+    /**
+     * Replays a text file (journal tombstones included) and writes its live records to a new binary file.
+     *
+     * @return number of records written
+     */
+    public static int textToBinary(Path textFile, Path binaryFile) throws DataAccessException {
+        Map<String, Expense> live = new LinkedHashMap<>();
+        try {
+            MappedExpenseLoader.load(textFile, new MappedExpenseLoader.Sink() {
+                @Override
+                public void record(Expense expense) {
+                    live.put(expense.getId(), expense);
+                }
+
+                @Override
+                public void tombstone(String expenseId) {
+                    live.remove(expenseId);
+                }
+            });
+            try (FileChannel out = FileChannel.open(binaryFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                BinaryExpenseRepository.writeHeader(out);
+                out.position(BinaryExpenseRepository.HEADER_SIZE);
+                ByteBuffer batch = ByteBuffer.allocate(BinaryExpenseRepository.RECORD_SIZE * WRITE_BATCH);
+                for (Expense e : live.values()) {
+                    if (!batch.hasRemaining()) {
+                        drain(batch, out);
+                    }
+                    BinaryExpenseRepository.encode(e, batch);
+                }
+                drain(batch, out);
+            }
+            return live.size();
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to convert " + textFile + " to " + binaryFile, e);
+        }
+    }
+
+    /**
+     * Writes the live records of a binary file as a text file in the {@link FileExpenseRepository} format.
+     *
+     * @return number of records written
+     */
+    public static int binaryToText(Path binaryFile, Path textFile) throws DataAccessException {
+        int written = 0;
+        try (FileChannel in = FileChannel.open(binaryFile, StandardOpenOption.READ);
+             BufferedWriter out = Files.newBufferedWriter(textFile, StandardCharsets.UTF_8)) {
+            BinaryExpenseRepository.checkHeader(in, binaryFile);
+            in.position(BinaryExpenseRepository.HEADER_SIZE);
+            ByteBuffer batch = ByteBuffer.allocate(BinaryExpenseRepository.RECORD_SIZE * WRITE_BATCH);
+            while (in.read(batch) > 0 || batch.position() > 0) {
+                batch.flip();
+                int base = 0;
+                for (; base + BinaryExpenseRepository.RECORD_SIZE <= batch.limit(); base += BinaryExpenseRepository.RECORD_SIZE) {
+                    if (BinaryExpenseRepository.isLive(batch, base)) {
+                        out.write(FileExpenseRepository.toLine(BinaryExpenseRepository.decode(batch, base)));
+                        out.newLine();
+                        written++;
+                    }
+                }
+                if (base == 0) {
+                    break; // torn trailing record
+                }
+                batch.position(base);
+                batch.compact();
+            }
+            return written;
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to convert " + binaryFile + " to " + textFile, e);
+        }
+    }
+
+    private static void drain(ByteBuffer batch, FileChannel out) throws IOException {
+        batch.flip();
+        while (batch.hasRemaining()) {
+            out.write(batch);
+        }
+        batch.clear();
+    }
+}
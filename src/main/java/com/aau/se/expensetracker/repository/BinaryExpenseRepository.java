@@ -0,0 +1,714 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.metrics.ExpenseMetrics;
+import com.aau.se.expensetracker.metrics.OperationStats;
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.util.Amounts;
+import com.aau.se.expensetracker.util.DataAccessException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ExpenseRepository backed by fixed-width binary records, so record {@code n} lives at a known offset.
+ * <p>
+ * Layout: a 16-byte header (magic, version, record size) followed by 32-byte records:
+ * id as two longs, amount in minor units (long), date as epoch day (int), category ordinal (byte),
+ * flags (byte) and two bytes of padding. Deleting clears the live flag in place.
+ * Ids must be canonical UUID strings; amounts are stored to the cent.
+ * <p>
+ * Slots never move, so range queries use an in-memory {@link EpochDayIndex} over live slots and then
+ * read only the matching records. An {@link ExpenseRollup} built on open serves summaries.
+ */
+public class BinaryExpenseRepository implements ExpenseRepository {
+
+    static final int MAGIC = 0x53455442; // "SETB"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 32;
+
+    private static final int OFF_ID_MSB = 0;
+    private static final int OFF_ID_LSB = 8;
+    private static final int OFF_AMOUNT = 16;
+    private static final int OFF_EPOCH_DAY = 24;
+    private static final int OFF_CATEGORY = 28;
+    private static final int OFF_FLAGS = 29;
+    private static final byte FLAG_LIVE = 1;
+    private static final int READ_BATCH = 4096;
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+    private static final OperationStats SAVE_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.SAVE);
+    private static final OperationStats DELETE_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.DELETE);
+    private static final OperationStats LOAD_ALL_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.LOAD_ALL);
+    private static final OperationStats RANGE_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.FIND_BY_DATE_RANGE);
+    private static final OperationStats SUMMARIZE_DAYS_STATS =
+            ExpenseMetrics.of(ExpenseMetrics.Operation.SUMMARIZE_DAYS);
+    private static final OperationStats AGGREGATE_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.AGGREGATE);
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> slotById = new HashMap<>();
+    /** Slots are appended in order and never reused, so each slot is also its own sequence number. */
+    private final EpochDayIndex byDate = new EpochDayIndex();
+    private final ExpenseRollup rollup = new ExpenseRollup();
+    private final ExpenseChangeSupport changes = new ExpenseChangeSupport();
+    private int[] slotDays = new int[READ_BATCH];
+    private int slotCount;
+
+    public BinaryExpenseRepository(String filePath) throws DataAccessException {
+        this.path = Path.of(filePath).toAbsolutePath();
+        try {
+            Path parent = path.getParent();
+            if (parent != null && !Files.exists(parent)) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() == 0) {
+                writeHeader(channel);
+            } else {
+                checkHeader(channel, path);
+            }
+            buildIndex();
+        } catch (IOException e) {
+            throw new DataAccessException("Could not open binary expense file: " + path, e);
+        }
+    }
+
+    @Override
+    public void save(Expense expense) throws DataAccessException {
+        saveAll(List.of(expense));
+    }
+
+    /**
+     * Overwrites existing ids in place and appends new ones with a single write.
+     */
+    @Override
+    public void saveAll(Collection<Expense> expenses) throws DataAccessException {
+        long start = System.nanoTime();
+        try {
+            write(expenses);
+        } catch (DataAccessException | RuntimeException e) {
+            SAVE_STATS.failed();
+            throw e;
+        }
+        SAVE_STATS.record(start, (long) RECORD_SIZE * expenses.size(), expenses.size());
+    }
+
+    private void write(Collection<Expense> expenses) throws DataAccessException {
+        ByteBuffer records = ByteBuffer.allocate(RECORD_SIZE * expenses.size());
+        for (Expense e : expenses) {
+            encode(e, records);
+        }
+        List<Expense> replaced = new ArrayList<>(0);
+        long version;
+        lock.writeLock().lock();
+        try {
+            ByteBuffer appended = ByteBuffer.allocate(records.capacity());
+            Map<String, Integer> newSlots = new LinkedHashMap<>();
+            int[] newDays = new int[expenses.size()];
+            int i = 0;
+            for (Expense e : expenses) {
+                ByteBuffer record = records.slice(i * RECORD_SIZE, RECORD_SIZE);
+                int day = (int) e.getDate().toEpochDay();
+                Integer existing = slotById.get(e.getId());
+                Integer pending = newSlots.get(e.getId());
+                if (existing != null) {
+                    ByteBuffer old = readRecord(existing);
+                    replaced.add(decode(old, 0));
+                    writeFully(record, offsetOf(existing));
+                    if (slotDays[existing] != day) {
+                        byDate.move(slotDays[existing], day, existing);
+                        slotDays[existing] = day;
+                    }
+                    unroll(old);
+                    rollup.add(day, e.getCategory().ordinal(), Amounts.toMinorUnits(e.getAmount()));
+                } else if (pending != null) {
+                    replaced.add(decode(appended, (pending - slotCount) * RECORD_SIZE));
+                    appended.put((pending - slotCount) * RECORD_SIZE, record, record.position(), RECORD_SIZE);
+                    newDays[pending - slotCount] = day;
+                } else {
+                    newDays[newSlots.size()] = day;
+                    newSlots.put(e.getId(), slotCount + newSlots.size());
+                    appended.put(record);
+                }
+                i++;
+            }
+            writeFully(appended.flip(), offsetOf(slotCount));
+            for (int n = 0; n < appended.limit(); n += RECORD_SIZE) {
+                rollup.add(appended.getInt(n + OFF_EPOCH_DAY), appended.get(n + OFF_CATEGORY), appended.getLong(n + OFF_AMOUNT));
+            }
+            int added = newSlots.size();
+            int[] addedSlots = new int[added];
+            for (int n = 0; n < added; n++) {
+                addedSlots[n] = slotCount + n;
+            }
+            ensureSlotDays(slotCount + added);
+            System.arraycopy(newDays, 0, slotDays, slotCount, added);
+            byDate.addAll(newDays, addedSlots, addedSlots, added);
+            slotById.putAll(newSlots);
+            slotCount += added;
+            version = changes.commit();
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to save expenses", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        changes.fireSaved(expenses, replaced, version);
+    }
+
+    @Override
+    public List<Expense> loadAll() throws DataAccessException {
+        long start = System.nanoTime();
+        List<Expense> all;
+        try {
+            all = readAll();
+        } catch (DataAccessException | RuntimeException e) {
+            LOAD_ALL_STATS.failed();
+            throw e;
+        }
+        LOAD_ALL_STATS.record(start, 0, all.size());
+        return all;
+    }
+
+    private List<Expense> readAll() throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            List<Expense> all = new ArrayList<>(slotById.size());
+            ByteBuffer batch = ByteBuffer.allocate(RECORD_SIZE * READ_BATCH);
+            for (int first = 0; first < slotCount; first += READ_BATCH) {
+                int count = Math.min(READ_BATCH, slotCount - first);
+                batch.clear().limit(count * RECORD_SIZE);
+                readFully(batch, offsetOf(first));
+                for (int i = 0; i < count; i++) {
+                    int base = i * RECORD_SIZE;
+                    if (isLive(batch, base)) {
+                        all.add(decode(batch, base));
+                    }
+                }
+            }
+            return all;
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to load expenses", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(String expenseId) throws DataAccessException {
+        deleteAll(List.of(expenseId));
+    }
+
+    /**
+     * Tombstones each stored id by clearing its flag byte, the only byte written per expense.
+     */
+    @Override
+    public void deleteAll(Collection<String> expenseIds) throws DataAccessException {
+        long start = System.nanoTime();
+        int removed;
+        try {
+            removed = tombstone(expenseIds);
+        } catch (DataAccessException | RuntimeException e) {
+            DELETE_STATS.failed();
+            throw e;
+        }
+        DELETE_STATS.record(start, removed, removed);
+    }
+
+    /**
+     * Returns how many of the ids were stored.
+     */
+    private int tombstone(Collection<String> expenseIds) throws DataAccessException {
+        List<Expense> removed = new ArrayList<>(expenseIds.size());
+        long version;
+        lock.writeLock().lock();
+        try {
+            for (String id : expenseIds) {
+                Integer slot = slotById.get(id);
+                if (slot != null) {
+                    ByteBuffer old = readRecord(slot);
+                    writeFully(ByteBuffer.wrap(new byte[]{0}), offsetOf(slot) + OFF_FLAGS);
+                    slotById.remove(id);
+                    removed.add(decode(old, 0));
+                    byDate.remove(slotDays[slot], slot);
+                    unroll(old);
+                }
+            }
+            version = changes.commit();
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to delete expenses", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        changes.fireRemoved(removed, version);
+        return removed.size();
+    }
+
+    @Override
+    public void close() throws DataAccessException {
+        lock.writeLock().lock();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to close binary expense file: " + path, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Expense findById(String expenseId) throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(expenseId);
+            return slot != null ? read(slot) : null;
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to read expense", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks the ids in the slot index under one read lock, without reading any record.
+     */
+    @Override
+    public List<String> findStoredIds(Collection<String> expenseIds) {
+        lock.readLock().lock();
+        try {
+            List<String> stored = new ArrayList<>();
+            for (String id : expenseIds) {
+                if (slotById.containsKey(id)) stored.add(id);
+            }
+            return stored;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Expense> findByDateRange(LocalDate from, LocalDate to) throws DataAccessException {
+        long start = System.nanoTime();
+        List<Expense> found;
+        try {
+            found = findInRange(null, from, to);
+        } catch (DataAccessException | RuntimeException e) {
+            RANGE_STATS.failed();
+            throw e;
+        }
+        RANGE_STATS.record(start, 0, found.size());
+        return found;
+    }
+
+    @Override
+    public List<Expense> findByCategoryAndRange(ExpenseCategory category, LocalDate from, LocalDate to)
+            throws DataAccessException {
+        return findInRange(category, from, to);
+    }
+
+    @Override
+    public int count() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countByDateRange(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            return byDate.countInRange(from.toEpochDay(), to.toEpochDay());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Walks the date index from the newest end and reads only the records of the page.
+     */
+    @Override
+    public List<Expense> loadPage(int offset, int limit) throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            int first = byDate.size() - 1 - offset;
+            int last = Math.max(first - limit, -1);
+            List<Expense> page = new ArrayList<>(Math.max(first - last, 0));
+            for (int position = first; position > last; position--) {
+                page.add(read(byDate.rowAt(position)));
+            }
+            return page;
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to read expenses", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ExpenseRollup.Totals summarize(YearMonth from, YearMonth to) {
+        lock.readLock().lock();
+        try {
+            return rollup.summarize(from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whole months come from the rollup; the records of the partial months at either end are read
+     * through the date index.
+     */
+    @Override
+    public ExpenseRollup.Totals summarizeDays(LocalDate from, LocalDate to) throws DataAccessException {
+        long start = System.nanoTime();
+        ExpenseRollup.Totals totals = new ExpenseRollup.Totals();
+        long rows;
+        try {
+            rows = summarizeDays(from, to, totals);
+        } catch (DataAccessException | RuntimeException e) {
+            SUMMARIZE_DAYS_STATS.failed();
+            throw e;
+        }
+        SUMMARIZE_DAYS_STATS.record(start, 0, rows);
+        return totals;
+    }
+
+    /**
+     * Adds the expenses dated {@code from} to {@code to} to the totals and returns how many records were read.
+     */
+    private long summarizeDays(LocalDate from, LocalDate to, ExpenseRollup.Totals totals) throws DataAccessException {
+        if (from.isAfter(to)) {
+            return 0;
+        }
+        YearMonth first = ExpenseRollup.firstWholeMonth(from);
+        YearMonth last = ExpenseRollup.lastWholeMonth(to);
+        lock.readLock().lock();
+        try {
+            if (first.isAfter(last)) {
+                return addDays(totals, from, to);
+            }
+            rollup.addTo(totals, first, last);
+            long rows = 0;
+            if (from.isBefore(first.atDay(1))) {
+                rows += addDays(totals, from, first.atDay(1).minusDays(1));
+            }
+            if (to.isAfter(last.atEndOfMonth())) {
+                rows += addDays(totals, last.atEndOfMonth().plusDays(1), to);
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to read expenses", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the records dated {@code from} to {@code to} to the totals and returns how many there were.
+     * Caller holds the read lock.
+     */
+    private int addDays(ExpenseRollup.Totals totals, LocalDate from, LocalDate to) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        int[] slots = slotsInRange(from.toEpochDay(), to.toEpochDay());
+        for (int slot : slots) {
+            record.clear();
+            readFully(record, offsetOf(slot));
+            long amount = record.getLong(OFF_AMOUNT);
+            totals.add(record.get(OFF_CATEGORY), amount, 1, amount, amount);
+        }
+        return slots.length;
+    }
+
+    /**
+     * Month-aligned queries are read from the rollup. Otherwise the records in the date range are read
+     * through the date index and folded from their fields, without decoding them into expenses.
+     */
+    @Override
+    public AggregateResult aggregate(AggregateQuery query) throws DataAccessException {
+        long start = System.nanoTime();
+        AggregateResult.Accumulator into = query.accumulator();
+        if (query.isEmpty()) {
+            return into.result();
+        }
+        long rows;
+        try {
+            rows = aggregate(query, into);
+        } catch (DataAccessException | RuntimeException e) {
+            AGGREGATE_STATS.failed();
+            throw e;
+        }
+        AGGREGATE_STATS.record(start, 0, rows);
+        return into.result();
+    }
+
+    /**
+     * Folds the matching records into {@code into} and returns how many records were read.
+     */
+    private long aggregate(AggregateQuery query, AggregateResult.Accumulator into) throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            into.covers(changes, changes.version());
+            if (query.isMonthAligned()) {
+                rollup.addTo(into, query);
+                return 0;
+            }
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            long fromDay = Math.max(query.fromDay(), Integer.MIN_VALUE);
+            long toDay = Math.min(query.toDay(), Integer.MAX_VALUE);
+            int[] slots = slotsInRange(fromDay, toDay);
+            for (int slot : slots) {
+                record.clear();
+                readFully(record, offsetOf(slot));
+                int day = record.getInt(OFF_EPOCH_DAY);
+                byte category = record.get(OFF_CATEGORY);
+                long amount = record.getLong(OFF_AMOUNT);
+                if (query.matches(day, category, amount)) {
+                    into.add(ExpenseRollup.monthKey(day), category, amount);
+                }
+            }
+            return slots.length;
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to read expenses", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void addChangeListener(ExpenseChangeListener listener) {
+        changes.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(ExpenseChangeListener listener) {
+        changes.remove(listener);
+    }
+
+    /**
+     * Takes a record that is leaving (deleted or overwritten) out of the rollup. If it held the min or max
+     * of its cell, the month's remaining records are read back to find the new ones.
+     */
+    private void unroll(ByteBuffer old) throws IOException {
+        int day = old.getInt(OFF_EPOCH_DAY);
+        byte category = old.get(OFF_CATEGORY);
+        if (!rollup.remove(day, category, old.getLong(OFF_AMOUNT))) {
+            return;
+        }
+        long[] bounds = ExpenseRollup.monthBounds(day);
+        int[] slots = slotsInRange(bounds[0], bounds[1]);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int slot : slots) {
+            ByteBuffer record = readRecord(slot);
+            if (record.get(OFF_CATEGORY) == category) {
+                min = Math.min(min, record.getLong(OFF_AMOUNT));
+                max = Math.max(max, record.getLong(OFF_AMOUNT));
+            }
+        }
+        if (min <= max) {
+            rollup.setExtremes(day, category, min, max);
+        }
+    }
+
+    /**
+     * Looks the slots up in the date index, then reads just those records.
+     */
+    private List<Expense> findInRange(ExpenseCategory category, LocalDate from, LocalDate to)
+            throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            int[] slots = slotsInRange(from.toEpochDay(), to.toEpochDay());
+            List<Expense> matches = new ArrayList<>(slots.length);
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            for (int slot : slots) {
+                record.clear();
+                readFully(record, offsetOf(slot));
+                if (category == null || record.get(OFF_CATEGORY) == category.ordinal()) {
+                    matches.add(decode(record, 0));
+                }
+            }
+            return matches;
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to read expenses", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] slotsInRange(long fromDay, long toDay) {
+        int[] slots = new int[byDate.countInRange(fromDay, toDay)];
+        int[] n = {0};
+        byDate.forEachInRange(fromDay, toDay, slot -> slots[n[0]++] = slot);
+        return slots;
+    }
+
+    /**
+     * Reads the record at a slot position with a single positional read.
+     *
+     * @return the expense, or null if the slot is out of range or tombstoned
+     */
+    public Expense readAt(int slot) throws DataAccessException {
+        lock.readLock().lock();
+        try {
+            return slot >= 0 && slot < slotCount ? read(slot) : null;
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to read expense", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of record slots, live or tombstoned.
+     */
+    public int slotCount() {
+        lock.readLock().lock();
+        try {
+            return slotCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Expense read(int slot) throws IOException {
+        ByteBuffer record = readRecord(slot);
+        return isLive(record, 0) ? decode(record, 0) : null;
+    }
+
+    private ByteBuffer readRecord(int slot) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        readFully(record, offsetOf(slot));
+        return record;
+    }
+
+    /**
+     * Scans the file once to map live ids to their slots and index them by date. A torn trailing record is ignored and overwritten by the next save.
+     */
+    private void buildIndex() throws IOException {
+        slotCount = (int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE);
+        ensureSlotDays(slotCount);
+        int[] liveSlots = new int[slotCount];
+        int[] liveDays = new int[slotCount];
+        int live = 0;
+        ByteBuffer batch = ByteBuffer.allocate(RECORD_SIZE * READ_BATCH);
+        for (int first = 0; first < slotCount; first += READ_BATCH) {
+            int count = Math.min(READ_BATCH, slotCount - first);
+            batch.clear().limit(count * RECORD_SIZE);
+            readFully(batch, offsetOf(first));
+            for (int i = 0; i < count; i++) {
+                int base = i * RECORD_SIZE;
+                if (isLive(batch, base)) {
+                    UUID id = new UUID(batch.getLong(base + OFF_ID_MSB), batch.getLong(base + OFF_ID_LSB));
+                    slotById.put(id.toString(), first + i);
+                    slotDays[first + i] = batch.getInt(base + OFF_EPOCH_DAY);
+                    liveSlots[live] = first + i;
+                    liveDays[live++] = slotDays[first + i];
+                    rollup.add(slotDays[first + i], batch.get(base + OFF_CATEGORY), batch.getLong(base + OFF_AMOUNT));
+                }
+            }
+        }
+        byDate.addAll(liveDays, liveSlots, liveSlots, live);
+    }
+
+    private void ensureSlotDays(int slots) {
+        if (slots > slotDays.length) {
+            slotDays = Arrays.copyOf(slotDays, Math.max(slots, slotDays.length * 2));
+        }
+    }
+
+    private static long offsetOf(int slot) {
+        return HEADER_SIZE + (long) slot * RECORD_SIZE;
+    }
+
+    private void readFully(ByteBuffer dst, long position) throws IOException {
+        while (dst.hasRemaining()) {
+            if (channel.read(dst, position + dst.position()) < 0) {
+                throw new IOException("Unexpected end of binary expense file: " + path);
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer src, long position) throws IOException {
+        while (src.hasRemaining()) {
+            channel.write(src, position + src.position());
+        }
+    }
+
+    static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    static void checkHeader(FileChannel channel, Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Truncated header in binary expense file: " + path);
+            }
+        }
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != RECORD_SIZE) {
+            throw new IOException("Not a binary expense file (or unsupported version): " + path);
+        }
+    }
+
+    /**
+     * Writes one live record at the buffer's position.
+     *
+     * @throws DataAccessException if the id is not a canonical UUID
+     */
+    static void encode(Expense e, ByteBuffer dst) throws DataAccessException {
+        UUID id;
+        try {
+            id = UUID.fromString(e.getId());
+        } catch (IllegalArgumentException ex) {
+            throw new DataAccessException("Binary storage requires UUID ids: " + e.getId(), ex);
+        }
+        if (!id.toString().equals(e.getId())) {
+            throw new DataAccessException("Binary storage requires canonical UUID ids: " + e.getId());
+        }
+        dst.putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .putLong(Amounts.toMinorUnits(e.getAmount()))
+                .putInt((int) e.getDate().toEpochDay())
+                .put((byte) e.getCategory().ordinal())
+                .put(FLAG_LIVE)
+                .putShort((short) 0);
+    }
+
+    static boolean isLive(ByteBuffer src, int base) {
+        return src.get(base + OFF_FLAGS) == FLAG_LIVE;
+    }
+
+    static Expense decode(ByteBuffer src, int base) {
+        UUID id = new UUID(src.getLong(base + OFF_ID_MSB), src.getLong(base + OFF_ID_LSB));
+        return new BasicExpense(id.toString(),
+                Amounts.fromMinorUnits(src.getLong(base + OFF_AMOUNT)),
+                LocalDate.ofEpochDay(src.getInt(base + OFF_EPOCH_DAY)),
+                CATEGORIES[src.get(base + OFF_CATEGORY)]);
+    }
+}
@@ -0,0 +1,649 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.util.Amounts;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.UUID;
+
+/**
+ * In-memory expense table kept as primitive columns (struct of arrays) with an open-addressing id index.
+ * A row costs about 33 bytes of column data plus its id and date index entries; {@link Expense} objects are only
+ * built when a row is handed out. Rows are packed: removing a row moves the last row into its place.
+ * <p>
+ * The columns are split into chunks of {@link #CHUNK_SIZE} rows. {@link #snapshot()} freezes the current chunks
+ * into an immutable {@link Snapshot}; the next write to a frozen chunk copies that chunk first, so a snapshot
+ * costs one array of chunk references and each write after it copies at most two chunks.
+ * <p>
+ * Ids that are not canonical UUID strings are keyed by a name-based UUID and kept verbatim beside the row.
+ * Rows are also indexed by date ({@link EpochDayIndex}) for range queries and rolled up per month
+ * and category ({@link ExpenseRollup}) for summaries.
+ * The whole state can be captured as an {@link Image} and restored from one, which is how
+ * {@link ExpenseCheckpoint} saves and reloads a store without rebuilding its indexes.
+ * Not thread-safe; callers synchronize. Snapshots may be read from any thread without locking.
+ */
+final class ColumnarExpenseStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+
+    private Chunk[] chunks = new Chunk[16];
+    private int chunkCount;
+    /** Insertion sequence number of each row, so rows keep their date index order when they are moved. */
+    private int[] seqs = new int[INITIAL_CAPACITY];
+    private int size;
+    private int nextSeq;
+    /** Chunks from an older generation belong to a snapshot and are copied before they are written. */
+    private long generation = 1;
+    private boolean changed;
+    private Snapshot published = new Snapshot(new Chunk[0], 0, 0);
+
+    /** Linear-probing table of row + 1; 0 marks an empty bucket. */
+    private int[] index = new int[INITIAL_CAPACITY * 2];
+    private final EpochDayIndex byDate = new EpochDayIndex();
+    private final ExpenseRollup rollup = new ExpenseRollup();
+    private boolean indexed = true;
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+        nextSeq = 0;
+        chunks = new Chunk[16];
+        chunkCount = 0;
+        changed = true;
+        Arrays.fill(index, 0);
+        byDate.clear();
+        rollup.clear();
+    }
+
+    /**
+     * Returns an immutable view of the current rows, numbered as they are now. Returns the previous snapshot
+     * when nothing has changed since, so repeated calls without writes allocate nothing.
+     */
+    Snapshot snapshot() {
+        if (changed) {
+            published = new Snapshot(Arrays.copyOf(chunks, chunkCount), size, generation);
+            generation++;
+            changed = false;
+        }
+        return published;
+    }
+
+    /**
+     * Captures the current state. The chunks are frozen and shared, as for {@link #snapshot()};
+     * the indexes and the rollup are copied. Not valid while indexes are suspended.
+     */
+    Image image() {
+        Snapshot frozen = snapshot();
+        return new Image(frozen.chunks, size, nextSeq, Arrays.copyOf(seqs, size), index.clone(),
+                byDate.keys(), byDate.rows(), rollup.copy());
+    }
+
+    /**
+     * Replaces the whole state with an image, which must not be used afterwards. The image's chunks are
+     * copied before they are first written, like those of a snapshot.
+     */
+    void restore(Image image) {
+        chunkCount = image.chunks.length;
+        chunks = Arrays.copyOf(image.chunks, Math.max(16, chunkCount));
+        size = image.size;
+        nextSeq = image.nextSeq;
+        seqs = Arrays.copyOf(image.seqs, Math.max(INITIAL_CAPACITY, size));
+        index = image.index;
+        byDate.restore(image.dateKeys, image.dateRows, size);
+        rollup.replaceWith(image.rollup);
+        indexed = true;
+        changed = true;
+    }
+
+    /**
+     * Stops maintaining the date index and the rollup until {@link #rebuildIndexes()}, for bulk loads.
+     */
+    void suspendIndexes() {
+        indexed = false;
+    }
+
+    void rebuildIndexes() {
+        int[] epochDays = new int[size];
+        for (int row = 0; row < size; row++) {
+            epochDays[row] = chunk(row).epochDays[row & CHUNK_MASK];
+        }
+        byDate.rebuild(epochDays, seqs, size);
+        rollup.clear();
+        for (int row = 0; row < size; row++) {
+            Chunk c = chunk(row);
+            int i = row & CHUNK_MASK;
+            rollup.add(c.epochDays[i], c.categories[i], c.amounts[i]);
+        }
+        indexed = true;
+    }
+
+    /**
+     * The month x category rollup of the current rows. Read it under the same lock as the store.
+     */
+    ExpenseRollup rollup() {
+        return rollup;
+    }
+
+    /**
+     * Puts every expense; large batches re-sort the date index once rather than inserting row by row.
+     *
+     * @return the previous versions of the expenses that were overwritten
+     */
+    List<Expense> putAll(Collection<Expense> expenses) {
+        List<Expense> replaced = new ArrayList<>(0);
+        boolean bulk = indexed && expenses.size() > INITIAL_CAPACITY && expenses.size() > size / EpochDayIndex.BULK_DIVISOR;
+        if (bulk) {
+            suspendIndexes();
+        }
+        for (Expense e : expenses) {
+            Expense previous = put(e);
+            if (previous != null) {
+                replaced.add(previous);
+            }
+        }
+        if (bulk) {
+            rebuildIndexes();
+        }
+        return replaced;
+    }
+
+    /**
+     * Inserts the expense, or overwrites the row that has the same id.
+     *
+     * @return the overwritten expense, or null if the id was new
+     */
+    Expense put(Expense e) {
+        String id = e.getId();
+        UUID key = keyOf(id);
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        int bucket = find(msb, lsb);
+        Expense previous = index[bucket] != 0 ? expenseAt(index[bucket] - 1) : null;
+        int row = put(bucket, msb, lsb, Amounts.toMinorUnits(e.getAmount()), (int) e.getDate().toEpochDay(),
+                (byte) e.getCategory().ordinal());
+        if (!isCanonical(key, id)) {
+            writable(row).setForeignId(row & CHUNK_MASK, id);
+        }
+        return previous;
+    }
+
+    /**
+     * Like {@link #put(Expense)} for an expense whose id is the canonical form of the UUID {@code msb, lsb},
+     * given as columns, so loading needs neither the Expense nor its id String.
+     */
+    void put(long msb, long lsb, double amount, int epochDay, int category) {
+        put(find(msb, lsb), msb, lsb, Amounts.toMinorUnits(amount), epochDay, (byte) category);
+    }
+
+    /**
+     * Writes the row into the id's bucket, overwriting the row already there, and returns the row.
+     */
+    private int put(int bucket, long msb, long lsb, long amount, int day, byte category) {
+        int row;
+        Chunk c;
+        if (index[bucket] != 0) {
+            row = index[bucket] - 1;
+            c = writable(row);
+            int i = row & CHUNK_MASK;
+            int oldDay = c.epochDays[i];
+            byte oldCategory = c.categories[i];
+            long oldAmount = c.amounts[i];
+            c.amounts[i] = amount;
+            c.epochDays[i] = day;
+            c.categories[i] = category;
+            if (indexed) {
+                if (oldDay != day) {
+                    byDate.move(oldDay, day, seqs[row]);
+                }
+                if (rollup.remove(oldDay, oldCategory, oldAmount)) {
+                    rescanExtremes(oldDay, oldCategory);
+                }
+                rollup.add(day, category, amount);
+            }
+        } else {
+            ensureCapacity(size + 1);
+            row = size++;
+            c = writable(row);
+            int i = row & CHUNK_MASK;
+            c.idMsb[i] = msb;
+            c.idLsb[i] = lsb;
+            bucket = find(msb, lsb);
+            index[bucket] = row + 1;
+            c.amounts[i] = amount;
+            c.epochDays[i] = day;
+            c.categories[i] = category;
+            c.setForeignId(i, null);
+            seqs[row] = nextSeq++;
+            if (indexed) {
+                byDate.add(day, seqs[row], row);
+                rollup.add(day, category, amount);
+            }
+        }
+        return row;
+    }
+
+    Expense get(String id) {
+        int row = rowOf(id);
+        return row >= 0 ? expenseAt(row) : null;
+    }
+
+    boolean contains(String id) {
+        return rowOf(id) >= 0;
+    }
+
+    /**
+     * Removes the row with this id and returns it, or null if there was none.
+     */
+    Expense remove(String id) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return null;
+        }
+        Expense removed = expenseAt(row);
+        Chunk c = writable(row);
+        int i = row & CHUNK_MASK;
+        deleteBucket(find(c.idMsb[i], c.idLsb[i]));
+        int last = --size;
+        int day = c.epochDays[i];
+        byte category = c.categories[i];
+        boolean rescan = false;
+        Chunk lastChunk = chunk(last);
+        int j = last & CHUNK_MASK;
+        if (indexed) {
+            byDate.remove(day, seqs[row]);
+            if (row != last) {
+                byDate.relocate(lastChunk.epochDays[j], seqs[last], row);
+            }
+            rescan = rollup.remove(day, category, c.amounts[i]);
+        }
+        if (row != last) {
+            c.idMsb[i] = lastChunk.idMsb[j];
+            c.idLsb[i] = lastChunk.idLsb[j];
+            c.amounts[i] = lastChunk.amounts[j];
+            c.epochDays[i] = lastChunk.epochDays[j];
+            c.categories[i] = lastChunk.categories[j];
+            c.setForeignId(i, lastChunk.foreignId(j));
+            seqs[row] = seqs[last];
+            index[find(c.idMsb[i], c.idLsb[i])] = row + 1;
+        }
+        if ((last & CHUNK_MASK) == 0) {
+            chunks[--chunkCount] = null;
+        }
+        if (rescan) {
+            rescanExtremes(day, category);
+        }
+        return removed;
+    }
+
+    /**
+     * Builds a filter that holds the key of every row.
+     */
+    IdFilter idFilter() {
+        IdFilter filter = IdFilter.forIds(size);
+        for (int row = 0; row < size; row++) {
+            Chunk c = chunk(row);
+            filter.add(c.idMsb[row & CHUNK_MASK], c.idLsb[row & CHUNK_MASK]);
+        }
+        return filter;
+    }
+
+    /**
+     * Recomputes min and max of one rollup cell from the rows of that month, found through the date index.
+     */
+    private void rescanExtremes(int epochDay, byte category) {
+        long[] bounds = ExpenseRollup.monthBounds(epochDay);
+        long[] extremes = {Long.MAX_VALUE, Long.MIN_VALUE};
+        byDate.forEachInRange(bounds[0], bounds[1], row -> {
+            Chunk c = chunk(row);
+            int i = row & CHUNK_MASK;
+            if (c.categories[i] == category) {
+                extremes[0] = Math.min(extremes[0], c.amounts[i]);
+                extremes[1] = Math.max(extremes[1], c.amounts[i]);
+            }
+        });
+        if (extremes[0] <= extremes[1]) {
+            rollup.setExtremes(epochDay, category, extremes[0], extremes[1]);
+        }
+    }
+
+    /**
+     * Builds the expense object for a row; this is the only place rows become objects.
+     */
+    Expense expenseAt(int row) {
+        return chunk(row).expenseAt(row & CHUNK_MASK);
+    }
+
+    /**
+     * Returns the expenses dated from {@code from} to {@code to}, both inclusive, in date order;
+     * with a category, only that category's.
+     */
+    List<Expense> inRange(LocalDate from, LocalDate to, ExpenseCategory category) {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        List<Expense> matches = new ArrayList<>(category == null ? byDate.countInRange(fromDay, toDay) : 16);
+        byte wanted = category == null ? -1 : (byte) category.ordinal();
+        byDate.forEachInRange(fromDay, toDay, row -> {
+            if (wanted < 0 || chunk(row).categories[row & CHUNK_MASK] == wanted) {
+                matches.add(expenseAt(row));
+            }
+        });
+        return matches;
+    }
+
+    int countInRange(LocalDate from, LocalDate to) {
+        return byDate.countInRange(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * Returns up to {@code limit} expenses, newest first, skipping the {@code offset} newest.
+     * Within a day, the most recently inserted row comes first.
+     */
+    List<Expense> page(int offset, int limit) {
+        int first = size - 1 - offset;
+        int last = Math.max(first - limit, -1);
+        List<Expense> page = new ArrayList<>(Math.max(first - last, 0));
+        for (int position = first; position > last; position--) {
+            page.add(expenseAt(byDate.rowAt(position)));
+        }
+        return page;
+    }
+
+    private Chunk chunk(int row) {
+        return chunks[row >>> CHUNK_SHIFT];
+    }
+
+    /**
+     * Returns the chunk holding {@code row}, copying it first if a snapshot shares it.
+     */
+    private Chunk writable(int row) {
+        int n = row >>> CHUNK_SHIFT;
+        Chunk c = chunks[n];
+        changed = true;
+        if (c.generation != generation) {
+            c = new Chunk(generation, c);
+            chunks[n] = c;
+        }
+        return c;
+    }
+
+    private int rowOf(String id) {
+        UUID key = keyOf(id);
+        int bucket = find(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        int row = index[bucket] - 1;
+        if (row < 0) {
+            return -1;
+        }
+        String foreign = chunk(row).foreignId(row & CHUNK_MASK);
+        return foreign == null || foreign.equals(id) ? row : -1;
+    }
+
+    /**
+     * Returns the bucket holding this key, or the empty bucket where it would go.
+     */
+    private int find(long msb, long lsb) {
+        int mask = index.length - 1;
+        int bucket = hash(msb, lsb) & mask;
+        while (true) {
+            int entry = index[bucket];
+            if (entry == 0) {
+                return bucket;
+            }
+            Chunk c = chunk(entry - 1);
+            int i = (entry - 1) & CHUNK_MASK;
+            if (c.idMsb[i] == msb && c.idLsb[i] == lsb) {
+                return bucket;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+    }
+
+    /**
+     * Empties a bucket and shifts later entries of the probe run back, so no tombstones are needed.
+     */
+    private void deleteBucket(int bucket) {
+        int mask = index.length - 1;
+        int hole = bucket;
+        int next = (hole + 1) & mask;
+        while (index[next] != 0) {
+            int row = index[next] - 1;
+            Chunk c = chunk(row);
+            int home = hash(c.idMsb[row & CHUNK_MASK], c.idLsb[row & CHUNK_MASK]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                index[hole] = index[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        index[hole] = 0;
+    }
+
+    private void ensureCapacity(int needed) {
+        int neededChunks = (needed + CHUNK_MASK) >>> CHUNK_SHIFT;
+        if (neededChunks > chunkCount) {
+            if (neededChunks > chunks.length) {
+                chunks = Arrays.copyOf(chunks, Math.max(neededChunks, chunks.length * 2));
+            }
+            while (chunkCount < neededChunks) {
+                chunks[chunkCount++] = new Chunk(generation);
+            }
+        }
+        if (needed > seqs.length) {
+            seqs = Arrays.copyOf(seqs, Math.max(needed, seqs.length * 2));
+        }
+        if (needed * 2 > index.length) {
+            rehash(Integer.highestOneBit(needed * 2 - 1) << 1);
+        }
+    }
+
+    private void rehash(int buckets) {
+        index = new int[buckets];
+        int mask = buckets - 1;
+        for (int row = 0; row < size; row++) {
+            Chunk c = chunk(row);
+            int bucket = hash(c.idMsb[row & CHUNK_MASK], c.idLsb[row & CHUNK_MASK]) & mask;
+            while (index[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            index[bucket] = row + 1;
+        }
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = (msb ^ (lsb * 0x9E3779B97F4A7C15L)) * 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * The key an id is stored under: the UUID itself for a canonical UUID, otherwise a name-based UUID.
+     */
+    static UUID keyOf(String id) {
+        try {
+            UUID uuid = UUID.fromString(id);
+            if (isCanonical(uuid, id)) {
+                return uuid;
+            }
+        } catch (IllegalArgumentException ignored) {
+            // not a UUID; fall through to a name-based key
+        }
+        return UUID.nameUUIDFromBytes(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isCanonical(UUID uuid, String id) {
+        return id.length() == 36 && uuid.toString().equals(id);
+    }
+
+    /**
+     * {@link #CHUNK_SIZE} rows of every column. Written only by the store while its generation is current.
+     */
+    static final class Chunk {
+        final long generation;
+        final long[] idMsb;
+        final long[] idLsb;
+        final long[] amounts;
+        final int[] epochDays;
+        final byte[] categories;
+        /** Verbatim ids of rows whose id is not a canonical UUID; null while the chunk has none. */
+        String[] foreignIds;
+
+        Chunk(long generation) {
+            this.generation = generation;
+            idMsb = new long[CHUNK_SIZE];
+            idLsb = new long[CHUNK_SIZE];
+            amounts = new long[CHUNK_SIZE];
+            epochDays = new int[CHUNK_SIZE];
+            categories = new byte[CHUNK_SIZE];
+        }
+
+        Chunk(long generation, Chunk from) {
+            this.generation = generation;
+            idMsb = from.idMsb.clone();
+            idLsb = from.idLsb.clone();
+            amounts = from.amounts.clone();
+            epochDays = from.epochDays.clone();
+            categories = from.categories.clone();
+            foreignIds = from.foreignIds != null ? from.foreignIds.clone() : null;
+        }
+
+        String foreignId(int i) {
+            return foreignIds != null ? foreignIds[i] : null;
+        }
+
+        void setForeignId(int i, String id) {
+            if (foreignIds == null) {
+                if (id == null) return;
+                foreignIds = new String[CHUNK_SIZE];
+            }
+            foreignIds[i] = id;
+        }
+
+        Expense expenseAt(int i) {
+            String id = foreignId(i);
+            if (id == null) {
+                id = new UUID(idMsb[i], idLsb[i]).toString();
+            }
+            return new BasicExpense(id, Amounts.fromMinorUnits(amounts[i]),
+                    LocalDate.ofEpochDay(epochDays[i]), CATEGORIES[categories[i]]);
+        }
+    }
+
+    /**
+     * The complete state of a store: its chunks, which are not written again, and its indexes.
+     * {@code index} is the id table, a power-of-two array of row + 1; {@code dateKeys} and {@code dateRows}
+     * are the date index entries in order. Arrays are sized to the rows, except {@code index}.
+     */
+    static final class Image {
+        final Chunk[] chunks;
+        final int size;
+        final int nextSeq;
+        final int[] seqs;
+        final int[] index;
+        final long[] dateKeys;
+        final int[] dateRows;
+        final ExpenseRollup rollup;
+
+        Image(Chunk[] chunks, int size, int nextSeq, int[] seqs, int[] index, long[] dateKeys, int[] dateRows,
+              ExpenseRollup rollup) {
+            this.chunks = chunks;
+            this.size = size;
+            this.nextSeq = nextSeq;
+            this.seqs = seqs;
+            this.index = index;
+            this.dateKeys = dateKeys;
+            this.dateRows = dateRows;
+            this.rollup = rollup;
+        }
+    }
+
+    /**
+     * Immutable, versioned view of the rows at one point in time, readable without locks. It shares the
+     * store's chunks instead of copying them, and builds each expense only when it is read.
+     */
+    static final class Snapshot extends AbstractList<Expense> implements RandomAccess {
+        private final Chunk[] chunks;
+        private final int size;
+        private final long version;
+
+        private Snapshot(Chunk[] chunks, int size, long version) {
+            this.chunks = chunks;
+            this.size = size;
+            this.version = version;
+        }
+
+        /** Increases with every snapshot taken after a change. */
+        long version() {
+            return version;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Totals of the rows dated {@code fromDay} to {@code toDay} (epoch days, both inclusive), one kernel
+         * call per chunk.
+         */
+        ExpenseRollup.Totals summarize(long fromDay, long toDay, AggregationKernel kernel) {
+            ExpenseRollup.Totals totals = new ExpenseRollup.Totals();
+            if (fromDay > toDay) return totals;
+            int low = (int) Math.max(fromDay, Integer.MIN_VALUE);
+            int high = (int) Math.min(toDay, Integer.MAX_VALUE);
+            for (int k = 0; k << CHUNK_SHIFT < size; k++) {
+                Chunk c = chunks[k];
+                int rows = Math.min(CHUNK_SIZE, size - (k << CHUNK_SHIFT));
+                kernel.aggregate(c.amounts, c.categories, c.epochDays, 0, rows, low, high, totals);
+            }
+            return totals;
+        }
+
+        /**
+         * Adds the rows matching {@code query} to {@code into}, straight from the columns. Without a month key
+         * or an amount filter this is {@link #summarize} by {@code kernel}; otherwise one pass per chunk.
+         */
+        void aggregate(AggregateQuery query, AggregateResult.Accumulator into, AggregationKernel kernel) {
+            if (query.isEmpty()) return;
+            if (!into.groupsByMonth() && !query.hasAmountFilter()) {
+                summarize(query.fromDay(), query.toDay(), kernel).addTo(into, query);
+                return;
+            }
+            boolean byMonth = into.groupsByMonth();
+            for (int k = 0; k << CHUNK_SHIFT < size; k++) {
+                Chunk c = chunks[k];
+                int rows = Math.min(CHUNK_SIZE, size - (k << CHUNK_SHIFT));
+                long[] amounts = c.amounts;
+                byte[] categories = c.categories;
+                int[] epochDays = c.epochDays;
+                for (int i = 0; i < rows; i++) {
+                    int day = epochDays[i];
+                    if (query.matches(day, categories[i], amounts[i])) {
+                        into.add(byMonth ? ExpenseRollup.monthKey(day) : 0, categories[i], amounts[i]);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public Expense get(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("Index " + row + " out of bounds for size " + size);
+            }
+            return chunks[row >>> CHUNK_SHIFT].expenseAt(row & CHUNK_MASK);
+        }
+    }
+}
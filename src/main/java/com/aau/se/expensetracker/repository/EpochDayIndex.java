@@ -0,0 +1,271 @@
+package com.aau.se.expensetracker.repository;
+
+import java.util.Arrays;
+
+/**
+ * Sorted secondary index from date to row: one {@code long} key per row, {@code epochDay << 32 | seq},
+ * with the row kept alongside. {@code seq} is a per-row sequence number that is unique within the index,
+ * so entries order by day and then by insertion, and stay in that order when the owner moves a row
+ * to another slot. A range lookup is two binary searches plus a walk over the k matching entries.
+ * Inserts and removals shift the tail with one arraycopy, which stays short for the common case of
+ * recent dates; bulk changes go through {@link #addAll} or {@link #rebuild}.
+ * Not thread-safe; callers synchronize.
+ */
+final class EpochDayIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+    /** A batch bigger than 1/BULK_DIVISOR of the index is appended and re-sorted instead of inserted. */
+    static final int BULK_DIVISOR = 16;
+    /** {@link #sort} maps sequence numbers to rows through a table while their span is below this many per entry. */
+    private static final int DENSE_SEQ_FACTOR = 4;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] rows = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Walks the rows of a range in date order.
+     */
+    interface RowVisitor {
+        void visit(int row);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(int epochDay, int seq, int row) {
+        long key = key(epochDay, seq);
+        int at = insertionPoint(key);
+        if (size == keys.length) {
+            grow(size * 2);
+        }
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        System.arraycopy(rows, at, rows, at + 1, size - at);
+        keys[at] = key;
+        rows[at] = row;
+        size++;
+    }
+
+    void remove(int epochDay, int seq) {
+        int at = positionOf(epochDay, seq);
+        System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+        System.arraycopy(rows, at + 1, rows, at, size - at - 1);
+        size--;
+    }
+
+    /**
+     * Adds {@code count} entries, {@code epochDays[i]} and {@code seqs[i]} for {@code rows[i]};
+     * large batches are sorted in once.
+     */
+    void addAll(int[] epochDays, int[] seqs, int[] rows, int count) {
+        if (count <= INITIAL_CAPACITY || count <= size / BULK_DIVISOR) {
+            for (int i = 0; i < count; i++) {
+                add(epochDays[i], seqs[i], rows[i]);
+            }
+            return;
+        }
+        if (keys.length < size + count) {
+            grow(Math.max(size + count, keys.length * 2));
+        }
+        for (int i = 0; i < count; i++) {
+            keys[size] = key(epochDays[i], seqs[i]);
+            this.rows[size++] = rows[i];
+        }
+        sort();
+    }
+
+    /**
+     * Re-dates one entry. Only the entries between the old and the new position are shifted.
+     */
+    void move(int oldDay, int newDay, int seq) {
+        long oldKey = key(oldDay, seq);
+        long newKey = key(newDay, seq);
+        int from = positionOf(oldDay, seq);
+        int row = rows[from];
+        if (newKey > oldKey) {
+            int to = insertionPoint(newKey) - 1;
+            System.arraycopy(keys, from + 1, keys, from, to - from);
+            System.arraycopy(rows, from + 1, rows, from, to - from);
+            keys[to] = newKey;
+            rows[to] = row;
+        } else if (newKey < oldKey) {
+            int to = insertionPoint(newKey);
+            System.arraycopy(keys, to, keys, to + 1, from - to);
+            System.arraycopy(rows, to, rows, to + 1, from - to);
+            keys[to] = newKey;
+            rows[to] = row;
+        }
+    }
+
+    /**
+     * Points an entry at the slot its row was moved to; its position does not change.
+     */
+    void relocate(int epochDay, int seq, int row) {
+        rows[positionOf(epochDay, seq)] = row;
+    }
+
+    /**
+     * Replaces the index with one entry per row, {@code epochDays[row]} and {@code seqs[row]} for rows
+     * below {@code rows}.
+     */
+    void rebuild(int[] epochDays, int[] seqs, int rows) {
+        if (keys.length < rows) {
+            keys = new long[Math.max(rows, INITIAL_CAPACITY)];
+            this.rows = new int[keys.length];
+        }
+        for (int row = 0; row < rows; row++) {
+            keys[row] = key(epochDays[row], seqs[row]);
+            this.rows[row] = row;
+        }
+        size = rows;
+        sort();
+    }
+
+    /**
+     * Returns a copy of the keys in index order, for a checkpoint.
+     */
+    long[] keys() {
+        return Arrays.copyOf(keys, size);
+    }
+
+    /**
+     * Returns a copy of the rows in index order, beside {@link #keys()}.
+     */
+    int[] rows() {
+        return Arrays.copyOf(rows, size);
+    }
+
+    /**
+     * Takes over the first {@code size} entries of arrays previously returned by {@link #keys()} and
+     * {@link #rows()}, or read back from a checkpoint.
+     */
+    void restore(long[] keys, int[] rows, int size) {
+        this.keys = keys;
+        this.rows = rows;
+        this.size = size;
+    }
+
+    /**
+     * Sorts the keys, then puts each row back beside its key. The sequence numbers in a key are unique, so
+     * when they are dense, as after a load, a table indexed by sequence number finds each key's row;
+     * otherwise one binary search per entry finds where each key went.
+     */
+    private void sort() {
+        int minSeq = Integer.MAX_VALUE;
+        int maxSeq = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            int seq = (int) keys[i];
+            minSeq = Math.min(minSeq, seq);
+            maxSeq = Math.max(maxSeq, seq);
+        }
+        boolean dense = size > 0 && (long) maxSeq - minSeq < DENSE_SEQ_FACTOR * (long) size;
+        int[] rowBySeq = null;
+        long[] unsortedKeys = null;
+        int[] unsortedRows = null;
+        if (dense) {
+            rowBySeq = new int[maxSeq - minSeq + 1];
+            for (int i = 0; i < size; i++) {
+                rowBySeq[(int) keys[i] - minSeq] = rows[i];
+            }
+        } else {
+            unsortedKeys = Arrays.copyOf(keys, size);
+            unsortedRows = Arrays.copyOf(rows, size);
+        }
+        if (size >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(keys, 0, size);
+        } else {
+            Arrays.sort(keys, 0, size);
+        }
+        if (dense) {
+            for (int i = 0; i < size; i++) {
+                rows[i] = rowBySeq[(int) keys[i] - minSeq];
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                rows[Arrays.binarySearch(keys, 0, size, unsortedKeys[i])] = unsortedRows[i];
+            }
+        }
+    }
+
+    private void grow(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        rows = Arrays.copyOf(rows, capacity);
+    }
+
+    private int positionOf(int epochDay, int seq) {
+        int at = Arrays.binarySearch(keys, 0, size, key(epochDay, seq));
+        if (at < 0) {
+            throw new IllegalStateException("Date index has no entry for sequence number " + seq);
+        }
+        return at;
+    }
+
+    /**
+     * Visits the rows dated from {@code fromDay} to {@code toDay}, both inclusive, in date order.
+     */
+    void forEachInRange(long fromDay, long toDay, RowVisitor visitor) {
+        if (fromDay > toDay) return;
+        int end = insertionPoint(endBoundary(toDay));
+        for (int i = insertionPoint(boundary(fromDay)); i < end; i++) {
+            visitor.visit(rows[i]);
+        }
+    }
+
+    /**
+     * Returns the row at a position in date order; position 0 is the oldest.
+     */
+    int rowAt(int position) {
+        return rows[position];
+    }
+
+    /**
+     * Returns how many rows are dated from {@code fromDay} to {@code toDay}, both inclusive.
+     */
+    int countInRange(long fromDay, long toDay) {
+        if (fromDay > toDay) return 0;
+        return insertionPoint(endBoundary(toDay)) - insertionPoint(boundary(fromDay));
+    }
+
+    private static long key(int epochDay, int seq) {
+        return (long) epochDay << 32 | (seq & 0xFFFFFFFFL);
+    }
+
+    /**
+     * The smallest key of a day, clamped so days outside the int range do not wrap.
+     */
+    private static long boundary(long epochDay) {
+        if (epochDay > Integer.MAX_VALUE) return Long.MAX_VALUE;
+        if (epochDay < Integer.MIN_VALUE) return Long.MIN_VALUE;
+        return epochDay << 32;
+    }
+
+    /**
+     * The smallest key after the last key of a day; {@code toDay + 1} would wrap for {@link Long#MAX_VALUE}.
+     */
+    private static long endBoundary(long toDay) {
+        return boundary(Math.min(toDay, Integer.MAX_VALUE) + 1);
+    }
+
+    /**
+     * Index of the first key not less than {@code key}.
+     */
+    private int insertionPoint(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,116 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.util.Amounts;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A committed change to the stored expenses, published by {@link ExpenseRepository} to its listeners.
+ * <p>
+ * Besides the expenses themselves, the event carries its net effect per category (count and amount),
+ * so a subscriber keeping totals applies it in O(categories) however many rows it covers.
+ * Saving over an existing id lists the old version under {@link #getRemoved()} and the new one under
+ * {@link #getAdded()}.
+ */
+public final class ExpenseChangeEvent {
+
+    /**
+     * What kind of write produced the event.
+     */
+    public enum Type {
+        /** One expense was saved. */
+        ADDED,
+        /** One or more expenses were deleted. */
+        REMOVED,
+        /** A batch of expenses was saved in one write, e.g. by an import. */
+        BULK_IMPORTED
+    }
+
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+
+    private final ExpenseChangeSupport source;
+    private final long version;
+    private final Type type;
+    private final List<Expense> added;
+    private final List<Expense> removed;
+    private final long[] amountDeltas = new long[CATEGORIES.length];
+    private final int[] countDeltas = new int[CATEGORIES.length];
+
+    private ExpenseChangeEvent(ExpenseChangeSupport source, long version, Type type, List<Expense> added,
+                               List<Expense> removed) {
+        this.source = source;
+        this.version = version;
+        this.type = type;
+        this.added = added;
+        this.removed = removed;
+        for (Expense e : added) {
+            amountDeltas[e.getCategory().ordinal()] += Amounts.toMinorUnits(e.getAmount());
+            countDeltas[e.getCategory().ordinal()]++;
+        }
+        for (Expense e : removed) {
+            amountDeltas[e.getCategory().ordinal()] -= Amounts.toMinorUnits(e.getAmount());
+            countDeltas[e.getCategory().ordinal()]--;
+        }
+    }
+
+    /**
+     * The event for a saved batch: {@link Type#ADDED} for one expense, {@link Type#BULK_IMPORTED} for more.
+     *
+     * @param replaced the previous versions of expenses that were saved over
+     */
+    static ExpenseChangeEvent saved(ExpenseChangeSupport source, long version, Collection<Expense> expenses,
+                                    List<Expense> replaced) {
+        return new ExpenseChangeEvent(source, version, expenses.size() == 1 ? Type.ADDED : Type.BULK_IMPORTED,
+                List.copyOf(expenses), List.copyOf(replaced));
+    }
+
+    static ExpenseChangeEvent removed(ExpenseChangeSupport source, long version, List<Expense> removed) {
+        return new ExpenseChangeEvent(source, version, Type.REMOVED, List.of(), List.copyOf(removed));
+    }
+
+    /** The store that committed the change. */
+    ExpenseChangeSupport source() {
+        return source;
+    }
+
+    /** The commit's version in its store; see {@link AggregateResult#reflects}. */
+    long version() {
+        return version;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public List<Expense> getAdded() {
+        return added;
+    }
+
+    public List<Expense> getRemoved() {
+        return removed;
+    }
+
+    /** Net change in the number of stored expenses. */
+    public int getCountDelta() {
+        return added.size() - removed.size();
+    }
+
+    public int getCountDelta(ExpenseCategory category) {
+        return countDeltas[category.ordinal()];
+    }
+
+    /** Net change in the amount spent in the category. */
+    public double getAmountDelta(ExpenseCategory category) {
+        return Amounts.fromMinorUnits(amountDeltas[category.ordinal()]);
+    }
+
+    /** Net change in the amount spent over all categories. */
+    public double getAmountDelta() {
+        long total = 0;
+        for (long delta : amountDeltas) total += delta;
+        return Amounts.fromMinorUnits(total);
+    }
+}
@@ -0,0 +1,14 @@
+package com.aau.se.expensetracker.repository;
+
+/**
+ * Receives the changes committed to an {@link ExpenseRepository}.
+ */
+@FunctionalInterface
+public interface ExpenseChangeListener {
+
+    /**
+     * Called on the writing thread once the write is durable, after the repository has released its locks,
+     * so the listener may read from the repository. Keep it short; the writer waits for it.
+     */
+    void onChange(ExpenseChangeEvent event);
+}
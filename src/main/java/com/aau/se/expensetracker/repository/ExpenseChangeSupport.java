@@ -0,0 +1,76 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.Expense;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Listener list shared by the repositories. A listener that throws does not stop the others or fail the
+ * write that has already been committed; its exception goes to the thread's uncaught exception handler.
+ * <p>
+ * Events are stamped with this support as their source and the version of their commit, which the owner
+ * also records in its {@link AggregateResult}s, so a subscriber can tell which events a result already
+ * includes (see {@link AggregateResult#reflects}).
+ */
+final class ExpenseChangeSupport {
+
+    private final List<ExpenseChangeListener> listeners = new CopyOnWriteArrayList<>();
+    /** Version of the last commit numbered by {@link #commit}; guarded by the owner's write lock. */
+    private long version;
+
+    void add(ExpenseChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    void remove(ExpenseChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns whether anyone is listening, so a store can skip reading the previous values for an event.
+     */
+    boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Numbers a commit, for owners without a versioned state of their own. Called under the lock that
+     * orders the owner's writes, which its aggregates read {@link #version()} under.
+     */
+    long commit() {
+        return ++version;
+    }
+
+    long version() {
+        return version;
+    }
+
+    /**
+     * @param version the commit's version: increasing with every commit, and covered by the aggregate
+     *                results that include it
+     */
+    void fireSaved(Collection<Expense> expenses, List<Expense> replaced, long version) {
+        if (!listeners.isEmpty() && !expenses.isEmpty()) {
+            fire(ExpenseChangeEvent.saved(this, version, expenses, replaced));
+        }
+    }
+
+    void fireRemoved(List<Expense> removed, long version) {
+        if (!listeners.isEmpty() && !removed.isEmpty()) {
+            fire(ExpenseChangeEvent.removed(this, version, removed));
+        }
+    }
+
+    void fire(ExpenseChangeEvent event) {
+        for (ExpenseChangeListener listener : listeners) {
+            try {
+                listener.onChange(event);
+            } catch (RuntimeException e) {
+                Thread current = Thread.currentThread();
+                current.getUncaughtExceptionHandler().uncaughtException(current, e);
+            }
+        }
+    }
+}
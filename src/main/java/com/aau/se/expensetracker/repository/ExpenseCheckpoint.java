@@ -0,0 +1,258 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.ExpenseCategory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary checkpoint of a journal's in-memory state ({@code <journal>.checkpoint}): the columns, the id and
+ * date indexes and the monthly rollup of a {@link ColumnarExpenseStore}, tagged with the journal offset they
+ * cover. Restoring one and replaying the journal after that offset gives the same store as replaying the
+ * whole journal, without parsing text, building expenses or sorting the date index.
+ * <p>
+ * Little-endian: a fixed header, then each column for all rows, the sequence numbers, the date index,
+ * the id table, the non-UUID ids and the rollup. The header carries the CRC-32C of the payload and the
+ * anchor of the journal offset (see {@link VerifiedOffset#anchor}); a checkpoint that fails either check,
+ * or does not fit one mapping, is ignored and the journal is replayed in full.
+ */
+final class ExpenseCheckpoint {
+
+    private static final int MAGIC = 0x53454350; // "SECP"
+    private static final int VERSION = 1;
+    private static final int HEADER = 72;
+    private static final int BUFFER = 1 << 20;
+    private static final int CATEGORIES = ExpenseCategory.values().length;
+    private static final int CHUNK_SIZE = ColumnarExpenseStore.CHUNK_SIZE;
+
+    private final ColumnarExpenseStore.Image image;
+    private final long journalOffset;
+    private final long journalRecords;
+
+    private ExpenseCheckpoint(ColumnarExpenseStore.Image image, long journalOffset, long journalRecords) {
+        this.image = image;
+        this.journalOffset = journalOffset;
+        this.journalRecords = journalRecords;
+    }
+
+    ColumnarExpenseStore.Image image() {
+        return image;
+    }
+
+    /** Length of the journal prefix the checkpoint covers; replay starts here. */
+    long journalOffset() {
+        return journalOffset;
+    }
+
+    /** Number of journal lines in the covered prefix, live or dead. */
+    long journalRecords() {
+        return journalRecords;
+    }
+
+    static Path pathFor(Path journal) {
+        return journal.resolveSibling(journal.getFileName() + ".checkpoint");
+    }
+
+    /**
+     * Writes a checkpoint to {@code file} and forces it to disk. The journal must already be durable up to
+     * {@code journalOffset}; callers write to a temp file and rename it into place.
+     */
+    static void write(Path file, Path journal, ColumnarExpenseStore.Image image, long journalOffset,
+                      long journalRecords) throws IOException {
+        int anchor = VerifiedOffset.anchor(journal, journalOffset);
+        ColumnarExpenseStore.Chunk[] chunks = image.chunks;
+        int size = image.size;
+        int foreignCount = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER);
+            Out out = new Out(channel);
+            for (int k = 0; k < chunks.length; k++) out.longs(chunks[k].idMsb, rowsIn(k, size));
+            for (int k = 0; k < chunks.length; k++) out.longs(chunks[k].idLsb, rowsIn(k, size));
+            for (int k = 0; k < chunks.length; k++) out.longs(chunks[k].amounts, rowsIn(k, size));
+            for (int k = 0; k < chunks.length; k++) out.ints(chunks[k].epochDays, rowsIn(k, size));
+            for (int k = 0; k < chunks.length; k++) out.bytes(chunks[k].categories, rowsIn(k, size));
+            out.ints(image.seqs, size);
+            out.longs(image.dateKeys, size);
+            out.ints(image.dateRows, size);
+            out.ints(image.index, image.index.length);
+            for (int row = 0; row < size; row++) {
+                String id = chunks[row / CHUNK_SIZE].foreignId(row % CHUNK_SIZE);
+                if (id == null) continue;
+                byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+                out.ints(new int[]{row, bytes.length}, 2);
+                out.bytes(bytes, bytes.length);
+                foreignCount++;
+            }
+            ByteArrayOutputStream rollup = new ByteArrayOutputStream();
+            image.rollup.writeTo(new DataOutputStream(rollup));
+            out.bytes(rollup.toByteArray(), rollup.size());
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(CATEGORIES).putInt(CHUNK_SIZE)
+                    .putInt(size).putInt(image.nextSeq).putInt(image.index.length).putInt(foreignCount)
+                    .putInt(rollup.size()).putLong(journalOffset).putInt(anchor).putLong(journalRecords)
+                    .putLong(out.written).putInt((int) out.crc.getValue());
+            header.putInt(RecordChecksums.crc(header.array(), 0, header.position()));
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Reads the journal's checkpoint, or returns null if there is none or it does not match the journal.
+     */
+    static ExpenseCheckpoint read(Path journal) {
+        Path file = pathFor(journal);
+        if (!Files.isRegularFile(file)) return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER || length > Integer.MAX_VALUE) return null;
+            ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, length).order(ByteOrder.LITTLE_ENDIAN);
+            byte[] header = new byte[HEADER];
+            buf.get(0, header);
+            if (buf.getInt(HEADER - 4) != RecordChecksums.crc(header, 0, HEADER - 4)) return null;
+            buf.position(0);
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION || buf.getInt() != CATEGORIES
+                    || buf.getInt() != CHUNK_SIZE) {
+                return null;
+            }
+            int size = buf.getInt();
+            int nextSeq = buf.getInt();
+            int indexLength = buf.getInt();
+            int foreignCount = buf.getInt();
+            int rollupLength = buf.getInt();
+            long journalOffset = buf.getLong();
+            int anchor = buf.getInt();
+            long journalRecords = buf.getLong();
+            long payloadLength = buf.getLong();
+            int payloadCrc = buf.getInt();
+            if (payloadLength != length - HEADER || size < 0 || Integer.bitCount(indexLength) != 1
+                    || indexLength <= size) {
+                return null;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(buf.slice(HEADER, (int) payloadLength));
+            if ((int) crc.getValue() != payloadCrc) return null;
+            if (journalOffset > Files.size(journal) || VerifiedOffset.anchor(journal, journalOffset) != anchor) {
+                return null;
+            }
+
+            buf.position(HEADER);
+            int chunkCount = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            ColumnarExpenseStore.Chunk[] chunks = new ColumnarExpenseStore.Chunk[chunkCount];
+            for (int k = 0; k < chunkCount; k++) chunks[k] = new ColumnarExpenseStore.Chunk(0);
+            for (int k = 0; k < chunkCount; k++) readLongs(buf, chunks[k].idMsb, rowsIn(k, size));
+            for (int k = 0; k < chunkCount; k++) readLongs(buf, chunks[k].idLsb, rowsIn(k, size));
+            for (int k = 0; k < chunkCount; k++) readLongs(buf, chunks[k].amounts, rowsIn(k, size));
+            for (int k = 0; k < chunkCount; k++) readInts(buf, chunks[k].epochDays, rowsIn(k, size));
+            for (int k = 0; k < chunkCount; k++) buf.get(chunks[k].categories, 0, rowsIn(k, size));
+            int[] seqs = readInts(buf, new int[size], size);
+            long[] dateKeys = readLongs(buf, new long[size], size);
+            int[] dateRows = readInts(buf, new int[size], size);
+            int[] index = readInts(buf, new int[indexLength], indexLength);
+            for (int i = 0; i < foreignCount; i++) {
+                int row = buf.getInt();
+                byte[] bytes = new byte[buf.getInt()];
+                buf.get(bytes);
+                chunks[row / CHUNK_SIZE].setForeignId(row % CHUNK_SIZE, new String(bytes, StandardCharsets.UTF_8));
+            }
+            byte[] rollupBytes = new byte[rollupLength];
+            buf.get(rollupBytes);
+            ExpenseRollup rollup = ExpenseRollup.readFrom(new DataInputStream(new ByteArrayInputStream(rollupBytes)));
+            ColumnarExpenseStore.Image image = new ColumnarExpenseStore.Image(
+                    chunks, size, nextSeq, seqs, index, dateKeys, dateRows, rollup);
+            return new ExpenseCheckpoint(image, journalOffset, journalRecords);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    static void delete(Path journal) throws IOException {
+        Files.deleteIfExists(pathFor(journal));
+    }
+
+    private static int rowsIn(int chunk, int size) {
+        return Math.min(CHUNK_SIZE, size - chunk * CHUNK_SIZE);
+    }
+
+    private static long[] readLongs(ByteBuffer buf, long[] into, int count) {
+        buf.asLongBuffer().get(into, 0, count);
+        buf.position(buf.position() + count * Long.BYTES);
+        return into;
+    }
+
+    private static int[] readInts(ByteBuffer buf, int[] into, int count) {
+        buf.asIntBuffer().get(into, 0, count);
+        buf.position(buf.position() + count * Integer.BYTES);
+        return into;
+    }
+
+    /**
+     * Buffered, checksummed writer of primitive arrays; bulk puts go through buffer views.
+     */
+    private static final class Out {
+        final FileChannel channel;
+        final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        final CRC32C crc = new CRC32C();
+        long written;
+
+        Out(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void longs(long[] values, int count) throws IOException {
+            for (int off = 0; off < count; ) {
+                if (buf.remaining() < Long.BYTES) flush();
+                int n = Math.min(count - off, buf.remaining() / Long.BYTES);
+                buf.asLongBuffer().put(values, off, n);
+                buf.position(buf.position() + n * Long.BYTES);
+                off += n;
+            }
+        }
+
+        void ints(int[] values, int count) throws IOException {
+            for (int off = 0; off < count; ) {
+                if (buf.remaining() < Integer.BYTES) flush();
+                int n = Math.min(count - off, buf.remaining() / Integer.BYTES);
+                buf.asIntBuffer().put(values, off, n);
+                buf.position(buf.position() + n * Integer.BYTES);
+                off += n;
+            }
+        }
+
+        void bytes(byte[] values, int count) throws IOException {
+            for (int off = 0; off < count; ) {
+                if (!buf.hasRemaining()) flush();
+                int n = Math.min(count - off, buf.remaining());
+                buf.put(values, off, n);
+                off += n;
+            }
+        }
+
+        void flush() throws IOException {
+            buf.flip();
+            crc.update(buf.duplicate());
+            written += buf.remaining();
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            buf.clear();
+        }
+    }
+}
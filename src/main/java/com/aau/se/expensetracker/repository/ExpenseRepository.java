@@ -1,18 +1,127 @@
 package com.aau.se.expensetracker.repository;
 
 import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.util.Amounts;
 import com.aau.se.expensetracker.util.DataAccessException;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Data access contract for expenses (Dependency Inversion: depend on abstraction).
  */
-public interface ExpenseRepository {
+public interface ExpenseRepository extends AutoCloseable {
 
     void save(Expense expense) throws DataAccessException;
 
+    /**
+     * Saves all expenses as one batch: one write (and one sync, where the backend syncs) for the whole collection.
+     */
+    void saveAll(Collection<Expense> expenses) throws DataAccessException;
+
+    /**
+     * Returns every stored expense. The list may be an unmodifiable view; copy it before changing it.
+     */
     List<Expense> loadAll() throws DataAccessException;
 
     void delete(String expenseId) throws DataAccessException;
+
+    /**
+     * Deletes all given ids as one batch. Unknown ids are ignored.
+     */
+    void deleteAll(Collection<String> expenseIds) throws DataAccessException;
+
+    /**
+     * Returns the expense with the given id, or null if there is none.
+     */
+    Expense findById(String expenseId) throws DataAccessException;
+
+    /**
+     * Returns those of the ids that are stored, looked up as one batch. The default calls {@link #findById}
+     * for each.
+     */
+    default List<String> findStoredIds(Collection<String> expenseIds) throws DataAccessException {
+        List<String> stored = new ArrayList<>();
+        for (String id : expenseIds) {
+            if (findById(id) != null) stored.add(id);
+        }
+        return stored;
+    }
+
+    /**
+     * Returns the expenses dated from {@code from} to {@code to}, both inclusive, in date order.
+     * Served from a date index: O(log n + k) for k matches.
+     */
+    List<Expense> findByDateRange(LocalDate from, LocalDate to) throws DataAccessException;
+
+    /**
+     * Like {@link #findByDateRange}, restricted to one category.
+     */
+    List<Expense> findByCategoryAndRange(ExpenseCategory category, LocalDate from, LocalDate to)
+            throws DataAccessException;
+
+    /**
+     * Returns how many expenses are stored.
+     */
+    int count() throws DataAccessException;
+
+    /**
+     * Returns how many expenses are dated from {@code from} to {@code to}, both inclusive.
+     */
+    int countByDateRange(LocalDate from, LocalDate to) throws DataAccessException;
+
+    /**
+     * Returns up to {@code limit} expenses in newest-first date order, skipping the first {@code offset}.
+     * Within a day the most recently added expense comes first, so a new expense dated {@code d} lands at
+     * position {@code countByDateRange(d.plusDays(1), LocalDate.MAX)}.
+     */
+    List<Expense> loadPage(int offset, int limit) throws DataAccessException;
+
+    /**
+     * Returns sum, count, min and max per category over the months from {@code from} to {@code to},
+     * both inclusive (a null bound is open). Read from the {@link ExpenseRollup}, not from the rows.
+     */
+    ExpenseRollup.Totals summarize(YearMonth from, YearMonth to) throws DataAccessException;
+
+    /**
+     * Like {@link #summarize}, over the expenses dated from {@code from} to {@code to}, both inclusive.
+     * Whole months come from the rollup where the store allows; the rest is aggregated from the rows.
+     */
+    ExpenseRollup.Totals summarizeDays(LocalDate from, LocalDate to) throws DataAccessException;
+
+    /**
+     * Answers {@code query} over the stored expenses. Backends override this to aggregate from their own
+     * indexes or storage; the default filters and folds {@link #findByDateRange} (or {@link #loadAll} for an
+     * open range) and so materializes every candidate row.
+     */
+    default AggregateResult aggregate(AggregateQuery query) throws DataAccessException {
+        AggregateResult.Accumulator into = query.accumulator();
+        if (query.isEmpty()) return into.result();
+        List<Expense> candidates = query.getFrom() != null && query.getTo() != null
+                ? findByDateRange(query.getFrom(), query.getTo()) : loadAll();
+        for (Expense e : candidates) {
+            if (query.matches(e)) {
+                into.add(ExpenseRollup.monthKey(YearMonth.from(e.getDate())), e.getCategory().ordinal(),
+                        Amounts.toMinorUnits(e.getAmount()));
+            }
+        }
+        return into.result();
+    }
+
+    /**
+     * Subscribes to the changes committed from now on; see {@link ExpenseChangeListener} for when it is called.
+     */
+    void addChangeListener(ExpenseChangeListener listener);
+
+    void removeChangeListener(ExpenseChangeListener listener);
+
+    /**
+     * Flushes pending writes and releases files and threads held by the repository.
+     */
+    @Override
+    void close() throws DataAccessException;
 }
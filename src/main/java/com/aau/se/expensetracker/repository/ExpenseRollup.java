@@ -0,0 +1,296 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.util.Amounts;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Pre-aggregated (month x category) cube: sum, count, min and max of the amounts in each cell,
+ * in minor units. Adds and removes update one cell; a summary over a month range reads
+ * months x categories cells and never the rows themselves.
+ * <p>
+ * Min and max cannot be derived after their value is removed, so {@link #remove} reports when the
+ * owner must rescan that cell and call {@link #setExtremes}.
+ * Not thread-safe; callers synchronize.
+ */
+public final class ExpenseRollup {
+
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+    private static final int SUM = 0;
+    private static final int COUNT = 1;
+    private static final int MIN = 2;
+    private static final int MAX = 3;
+    private static final int FIELDS = 4;
+    private static final int FORMAT_VERSION = 1;
+
+    /** Month key ({@link #monthKey}) to cells, {@code FIELDS} longs per category. */
+    private final NavigableMap<Integer, long[]> months = new TreeMap<>();
+    /** The cells {@link #add} last wrote to, so a run of rows in one month looks the month up once. */
+    private int lastKey;
+    private long[] lastCells;
+
+    void clear() {
+        months.clear();
+        lastCells = null;
+    }
+
+    void add(int epochDay, int category, long minorUnits) {
+        int key = monthKey(epochDay);
+        long[] cells = lastCells != null && lastKey == key
+                ? lastCells : months.computeIfAbsent(key, k -> new long[CATEGORIES.length * FIELDS]);
+        lastKey = key;
+        lastCells = cells;
+        int base = category * FIELDS;
+        if (cells[base + COUNT] == 0) {
+            cells[base + MIN] = minorUnits;
+            cells[base + MAX] = minorUnits;
+        } else {
+            cells[base + MIN] = Math.min(cells[base + MIN], minorUnits);
+            cells[base + MAX] = Math.max(cells[base + MAX], minorUnits);
+        }
+        cells[base + SUM] += minorUnits;
+        cells[base + COUNT]++;
+    }
+
+    /**
+     * Takes one amount out of its cell.
+     *
+     * @return true if the amount was the cell's min or max and other rows remain, so the owner has to
+     * rescan the cell and call {@link #setExtremes}
+     */
+    boolean remove(int epochDay, int category, long minorUnits) {
+        long[] cells = months.get(monthKey(epochDay));
+        if (cells == null) return false;
+        int base = category * FIELDS;
+        cells[base + SUM] -= minorUnits;
+        long left = --cells[base + COUNT];
+        if (left == 0) {
+            cells[base + MIN] = 0;
+            cells[base + MAX] = 0;
+            if (isEmpty(cells)) {
+                months.remove(monthKey(epochDay));
+                lastCells = null;
+            }
+            return false;
+        }
+        return minorUnits == cells[base + MIN] || minorUnits == cells[base + MAX];
+    }
+
+    void setExtremes(int epochDay, int category, long min, long max) {
+        long[] cells = months.get(monthKey(epochDay));
+        if (cells != null) {
+            cells[category * FIELDS + MIN] = min;
+            cells[category * FIELDS + MAX] = max;
+        }
+    }
+
+    /**
+     * Replaces the cells with those of {@code other}, which must not be used afterwards.
+     */
+    void replaceWith(ExpenseRollup other) {
+        months.clear();
+        months.putAll(other.months);
+        lastCells = null;
+    }
+
+    ExpenseRollup copy() {
+        ExpenseRollup copy = new ExpenseRollup();
+        for (Map.Entry<Integer, long[]> entry : months.entrySet()) {
+            copy.months.put(entry.getKey(), entry.getValue().clone());
+        }
+        return copy;
+    }
+
+    /**
+     * Totals over the months from {@code from} to {@code to}, both inclusive; a null bound is open.
+     */
+    public Totals summarize(YearMonth from, YearMonth to) {
+        Totals totals = new Totals();
+        addTo(totals, from, to);
+        return totals;
+    }
+
+    /** The first month that lies wholly on or after {@code from}. */
+    static YearMonth firstWholeMonth(LocalDate from) {
+        YearMonth month = YearMonth.from(from);
+        return from.getDayOfMonth() == 1 ? month : month.plusMonths(1);
+    }
+
+    /** The last month that lies wholly on or before {@code to}. */
+    static YearMonth lastWholeMonth(LocalDate to) {
+        YearMonth month = YearMonth.from(to);
+        return to.getDayOfMonth() == month.lengthOfMonth() ? month : month.minusMonths(1);
+    }
+
+    void addTo(Totals totals, YearMonth from, YearMonth to) {
+        int low = from != null ? monthKey(from) : Integer.MIN_VALUE;
+        int high = to != null ? monthKey(to) : Integer.MAX_VALUE;
+        if (low > high) return;
+        for (long[] cells : months.subMap(low, true, high, true).values()) {
+            for (int c = 0; c < CATEGORIES.length; c++) {
+                int base = c * FIELDS;
+                totals.add(c, cells[base + SUM], cells[base + COUNT], cells[base + MIN], cells[base + MAX]);
+            }
+        }
+    }
+
+    /**
+     * Adds the cells of the months {@code query} spans, in its categories, to {@code into}. Only exact for
+     * a {@link AggregateQuery#isMonthAligned() month-aligned} query.
+     */
+    void addTo(AggregateResult.Accumulator into, AggregateQuery query) {
+        int low = query.fromMonthKey();
+        int high = query.toMonthKey();
+        if (query.isEmpty() || low > high) return;
+        for (Map.Entry<Integer, long[]> entry : months.subMap(low, true, high, true).entrySet()) {
+            long[] cells = entry.getValue();
+            for (int c = 0; c < CATEGORIES.length; c++) {
+                if (!query.includes(c)) continue;
+                int base = c * FIELDS;
+                into.addCell(entry.getKey(), c,
+                        cells[base + SUM], cells[base + COUNT], cells[base + MIN], cells[base + MAX]);
+            }
+        }
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(CATEGORIES.length);
+        out.writeInt(months.size());
+        for (Map.Entry<Integer, long[]> entry : months.entrySet()) {
+            out.writeInt(entry.getKey());
+            for (long value : entry.getValue()) {
+                out.writeLong(value);
+            }
+        }
+    }
+
+    static ExpenseRollup readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != FORMAT_VERSION || in.readInt() != CATEGORIES.length) {
+            throw new IOException("Unsupported expense rollup format");
+        }
+        ExpenseRollup rollup = new ExpenseRollup();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int key = in.readInt();
+            long[] cells = new long[CATEGORIES.length * FIELDS];
+            for (int j = 0; j < cells.length; j++) {
+                cells[j] = in.readLong();
+            }
+            rollup.months.put(key, cells);
+        }
+        return rollup;
+    }
+
+    /**
+     * Month key of an epoch day by civil-from-days arithmetic (proleptic Gregorian, as {@link LocalDate}),
+     * so per-row grouping allocates nothing.
+     */
+    static int monthKey(int epochDay) {
+        long z = epochDay + 719_468L;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year * 12 + month - 1);
+    }
+
+    static int monthKey(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    /**
+     * First and last epoch day of the month that holds {@code epochDay}.
+     */
+    static long[] monthBounds(int epochDay) {
+        YearMonth month = YearMonth.from(LocalDate.ofEpochDay(epochDay));
+        return new long[]{month.atDay(1).toEpochDay(), month.atEndOfMonth().toEpochDay()};
+    }
+
+    private static boolean isEmpty(long[] cells) {
+        for (int base = 0; base < cells.length; base += FIELDS) {
+            if (cells[base + COUNT] != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Sum, count, min and max per category over a range of months.
+     */
+    public static final class Totals {
+        private final long[] sums = new long[CATEGORIES.length];
+        private final long[] counts = new long[CATEGORIES.length];
+        private final long[] mins = new long[CATEGORIES.length];
+        private final long[] maxes = new long[CATEGORIES.length];
+
+        Totals() {
+        }
+
+        void add(int category, long sum, long count, long min, long max) {
+            if (count == 0) return;
+            if (counts[category] == 0) {
+                mins[category] = min;
+                maxes[category] = max;
+            } else {
+                mins[category] = Math.min(mins[category], min);
+                maxes[category] = Math.max(maxes[category], max);
+            }
+            sums[category] += sum;
+            counts[category] += count;
+        }
+
+        /** Adds the per-category totals, in {@code query}'s categories, to {@code into} under month key 0. */
+        void addTo(AggregateResult.Accumulator into, AggregateQuery query) {
+            for (int c = 0; c < CATEGORIES.length; c++) {
+                if (query.includes(c)) into.addCell(0, c, sums[c], counts[c], mins[c], maxes[c]);
+            }
+        }
+
+        void addAll(Totals other) {
+            for (int c = 0; c < CATEGORIES.length; c++) {
+                add(c, other.sums[c], other.counts[c], other.mins[c], other.maxes[c]);
+            }
+        }
+
+        public double getTotal() {
+            long total = 0;
+            for (long sum : sums) total += sum;
+            return Amounts.fromMinorUnits(total);
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (long c : counts) count += c;
+            return count;
+        }
+
+        public double getSum(ExpenseCategory category) {
+            return Amounts.fromMinorUnits(sums[category.ordinal()]);
+        }
+
+        public long getCount(ExpenseCategory category) {
+            return counts[category.ordinal()];
+        }
+
+        /** Smallest amount in the category, or 0 if it has none. */
+        public double getMin(ExpenseCategory category) {
+            return Amounts.fromMinorUnits(mins[category.ordinal()]);
+        }
+
+        /** Largest amount in the category, or 0 if it has none. */
+        public double getMax(ExpenseCategory category) {
+            return Amounts.fromMinorUnits(maxes[category.ordinal()]);
+        }
+    }
+}
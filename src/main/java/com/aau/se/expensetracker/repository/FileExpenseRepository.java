@@ -1,36 +1,136 @@
 package com.aau.se.expensetracker.repository;
 
-import com.aau.se.expensetracker.model.BasicExpense;
 import com.aau.se.expensetracker.model.Expense;
 import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.metrics.ExpenseMetrics;
+import com.aau.se.expensetracker.metrics.OperationStats;
 import com.aau.se.expensetracker.util.DataAccessException;
+import com.aau.se.expensetracker.util.ThreadPools;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * File-based implementation of ExpenseRepository.
  * Format per line: id|name|amount|date|category
+ * <p>
+ * In {@link StorageMode#JOURNAL} mode the file is an append-only journal: saves append the record,
+ * deletes append a tombstone line ({@code -id}), and the file is compacted in the background once
+ * the share of dead records passes {@link #COMPACTION_DEAD_RATIO}. With a group commit window,
+ * concurrent journal writes share one flush and fsync (see {@link GroupCommitLog}).
+ * <p>
+ * Every write publishes an immutable {@link ColumnarExpenseStore.Snapshot} of the rows through an atomic
+ * reference. {@link #loadAll()} and {@link #count()} return from it without locking and without copying, so
+ * readers never wait for writers or for each other.
+ * <p>
+ * Every line is sealed with a CRC-32C ({@link RecordChecksums}), and whole-file writes go through a temp
+ * file and an atomic rename ({@link AtomicFiles}), so a crash leaves at worst a torn last line. On load, a
+ * torn last line is cut off and any other line that fails its checksum is moved to {@code <file>.corrupt}
+ * instead of being dropped silently. Only lines past the journal's verified offset ({@link VerifiedOffset})
+ * are checksummed, so recovery after a crash costs about as much as the records written since the offset
+ * last advanced.
+ * <p>
+ * The loaded state is saved as a binary {@link ExpenseCheckpoint} on close and, in JOURNAL mode, in the
+ * background as the journal grows. A load restores the checkpoint and replays only the journal written after
+ * it, so a cleanly closed repository starts without parsing any text.
  */
 public class FileExpenseRepository implements ExpenseRepository {
 
+    /**
+     * How writes reach the file.
+     */
+    public enum StorageMode {
+        /** Every save/delete rewrites the whole file. */
+        REWRITE,
+        /** Saves and deletes append one record; the file is compacted in the background. */
+        JOURNAL
+    }
+
     private static final String SEP = "|";
+    private static final String TOMBSTONE = "-";
+    private static final double COMPACTION_DEAD_RATIO = 0.5;
+    private static final int COMPACTION_MIN_RECORDS = 1_000;
+    /** How far the journal grows past its verified offset before the offset is advanced. */
+    private static final long VERIFY_INTERVAL_BYTES = 1L << 20;
+
+    /** Minimum journal growth between background checkpoints; the interval also grows with the state. */
+    private static final long CHECKPOINT_INTERVAL_BYTES = 16L << 20;
+
+    /** Runs compactions and background checkpoints. */
+    private static final ExecutorService MAINTENANCE = ThreadPools.newSingleThread("expense-journal-maintenance");
+
+    private static final OperationStats SAVE_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.SAVE);
+    private static final OperationStats DELETE_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.DELETE);
+    private static final OperationStats LOAD_ALL_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.LOAD_ALL);
+    private static final OperationStats RANGE_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.FIND_BY_DATE_RANGE);
+    private static final OperationStats SUMMARIZE_DAYS_STATS =
+            ExpenseMetrics.of(ExpenseMetrics.Operation.SUMMARIZE_DAYS);
+    private static final OperationStats AGGREGATE_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.AGGREGATE);
+    private static final OperationStats JOURNAL_LOAD_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.JOURNAL_LOAD);
 
     private final Path path;
+    private final StorageMode mode;
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
-    private final ConcurrentHashMap<String, Expense> cache = new ConcurrentHashMap<>();
+    private final ColumnarExpenseStore cache = new ColumnarExpenseStore();
+    private final GroupCommitLog commitLog;
+    private final ExpenseChangeSupport changes = new ExpenseChangeSupport();
+    private volatile boolean loaded;
+    /** The rows as of the last write; null until the file has been loaded. */
+    private final AtomicReference<ColumnarExpenseStore.Snapshot> snapshot = new AtomicReference<>();
+    private long journalRecords;
+    /** Length of the journal as of the last write; guarded by the write lock. */
+    private long journalBytes;
+    /** Bumped whenever the journal is replaced, so a stale end offset is never marked verified. */
+    private long journalGeneration;
+    private boolean compacting;
+    /** The offset last written to the sidecar; guarded by {@link #verifiedLock}. */
+    private long verifiedBytes;
+    private final Object verifiedLock = new Object();
+    /** Journal offset covered by the checkpoint on disk, 0 if there is none; guarded by the write lock. */
+    private long checkpointBytes;
+    private boolean checkpointing;
+    /** Held for a whole checkpoint, before the write lock, so only one is written at a time. */
+    private final Object checkpointLock = new Object();
+    /** Rows last reported to {@link ExpenseMetrics#cachedRowsChanged}; guarded by the write lock. */
+    private long reportedRows;
 
     public FileExpenseRepository(String filePath) {
+        this(filePath, StorageMode.REWRITE);
+    }
+
+    public FileExpenseRepository(String filePath, StorageMode mode) {
+        this(filePath, mode, null);
+    }
+
+    /**
+     * @param groupCommitWindow if non-null (JOURNAL mode only), writes arriving within this window are
+     *                          flushed and fsynced together; each caller blocks until its records are durable
+     */
+    public FileExpenseRepository(String filePath, StorageMode mode, Duration groupCommitWindow) {
+        if (groupCommitWindow != null && mode != StorageMode.JOURNAL) {
+            throw new IllegalArgumentException("Group commit requires JOURNAL mode");
+        }
         this.path = Path.of(filePath).toAbsolutePath();
+        this.mode = mode;
+        this.commitLog = groupCommitWindow != null ? new GroupCommitLog(path, groupCommitWindow) : null;
         ensureFileExists();
     }
 
@@ -50,139 +150,886 @@ public class FileExpenseRepository implements ExpenseRepository {
 
     @Override
     public void save(Expense expense) throws DataAccessException {
+        saveAll(List.of(expense));
+    }
+
+    @Override
+    public void saveAll(Collection<Expense> expenses) throws DataAccessException {
+        if (expenses.isEmpty()) return;
+        long start = System.nanoTime();
+        try {
+            SAVE_STATS.record(start, append(expenses), expenses.size());
+        } catch (DataAccessException | RuntimeException e) {
+            SAVE_STATS.failed();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes and applies the expenses, then notifies listeners. Returns the number of bytes written.
+     */
+    private long append(Collection<Expense> expenses) throws DataAccessException {
+        CompletableFuture<Void> durable;
+        List<Expense> replaced = new ArrayList<>();
+        long written;
+        long end;
+        long generation;
+        long version;
         lock.writeLock().lock();
         try {
-            cache.put(expense.getId(), expense);
-            persistAll();
+            ensureLoaded();
+            List<String> lines = new ArrayList<>(expenses.size());
+            for (Expense e : expenses) {
+                lines.add(toLine(e));
+            }
+            long before = journalBytes;
+            durable = write(lines, () -> replaced.addAll(cache.putAll(expenses)));
+            written = bytesWritten(before);
+            version = snapshot.get().version();
+            end = journalBytes;
+            generation = journalGeneration;
         } catch (IOException e) {
-            throw new DataAccessException("Failed to save expense", e);
+            throw new DataAccessException("Failed to save expenses", e);
         } finally {
             lock.writeLock().unlock();
         }
+        awaitDurable(durable, "Failed to save expenses");
+        markVerified(end, generation);
+        changes.fireSaved(expenses, replaced, version);
+        return written;
     }
 
+    /**
+     * Returns the latest snapshot as an unmodifiable list; only the first call, which loads the file, locks.
+     */
     @Override
     public List<Expense> loadAll() throws DataAccessException {
-        lock.readLock().lock();
+        long start = System.nanoTime();
+        try {
+            List<Expense> all = currentSnapshot();
+            LOAD_ALL_STATS.record(start, 0, all.size());
+            return all;
+        } catch (DataAccessException | RuntimeException e) {
+            LOAD_ALL_STATS.failed();
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(String expenseId) throws DataAccessException {
+        deleteAll(List.of(expenseId));
+    }
+
+    @Override
+    public void deleteAll(Collection<String> expenseIds) throws DataAccessException {
+        long start = System.nanoTime();
         try {
-            if (cache.isEmpty()) {
+            List<Expense> removed = new ArrayList<>(expenseIds.size());
+            long written = remove(expenseIds, removed);
+            DELETE_STATS.record(start, written, removed.size());
+        } catch (DataAccessException | RuntimeException e) {
+            DELETE_STATS.failed();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes tombstones for the stored ids and removes them, adding the removed expenses to {@code removed},
+     * then notifies listeners. Returns the number of bytes written.
+     */
+    private long remove(Collection<String> expenseIds, List<Expense> removed) throws DataAccessException {
+        CompletableFuture<Void> durable = null;
+        long written = 0;
+        long end;
+        long generation;
+        long version;
+        lock.writeLock().lock();
+        try {
+            ensureLoaded();
+            List<String> stored = new ArrayList<>(expenseIds.size());
+            List<String> lines = new ArrayList<>(expenseIds.size());
+            for (String id : new LinkedHashSet<>(expenseIds)) {
+                if (cache.contains(id)) {
+                    stored.add(id);
+                    lines.add(RecordChecksums.seal(TOMBSTONE + id));
+                }
+            }
+            if (!lines.isEmpty()) {
+                long before = journalBytes;
+                durable = write(lines, () -> {
+                    for (String id : stored) {
+                        removed.add(cache.remove(id));
+                    }
+                });
+                written = bytesWritten(before);
+            }
+            version = snapshot.get().version();
+            end = journalBytes;
+            generation = journalGeneration;
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to delete expenses", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(durable, "Failed to delete expenses");
+        markVerified(end, generation);
+        changes.fireRemoved(removed, version);
+        return written;
+    }
+
+    @Override
+    public Expense findById(String expenseId) throws DataAccessException {
+        lockLoadedForRead();
+        try {
+            return cache.get(expenseId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Expense> findByDateRange(LocalDate from, LocalDate to) throws DataAccessException {
+        long start = System.nanoTime();
+        List<Expense> found;
+        try {
+            lockLoadedForRead();
+            try {
+                found = cache.inRange(from, to, null);
+            } finally {
                 lock.readLock().unlock();
-                lock.writeLock().lock();
+            }
+        } catch (DataAccessException | RuntimeException e) {
+            RANGE_STATS.failed();
+            throw e;
+        }
+        RANGE_STATS.record(start, 0, found.size());
+        return found;
+    }
+
+    @Override
+    public List<Expense> findByCategoryAndRange(ExpenseCategory category, LocalDate from, LocalDate to)
+            throws DataAccessException {
+        lockLoadedForRead();
+        try {
+            return cache.inRange(from, to, category);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int count() throws DataAccessException {
+        return currentSnapshot().size();
+    }
+
+    @Override
+    public int countByDateRange(LocalDate from, LocalDate to) throws DataAccessException {
+        lockLoadedForRead();
+        try {
+            return cache.countInRange(from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Expense> loadPage(int offset, int limit) throws DataAccessException {
+        lockLoadedForRead();
+        try {
+            return cache.page(offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ExpenseRollup.Totals summarize(YearMonth from, YearMonth to) throws DataAccessException {
+        lockLoadedForRead();
+        try {
+            return cache.rollup().summarize(from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whole-month ranges are read from the rollup. Any other range is aggregated from the published
+     * snapshot's columns by {@link AggregationKernels#preferred()}, without taking the lock; every row of
+     * the snapshot counts as scanned.
+     */
+    @Override
+    public ExpenseRollup.Totals summarizeDays(LocalDate from, LocalDate to) throws DataAccessException {
+        long start = System.nanoTime();
+        try {
+            YearMonth first = ExpenseRollup.firstWholeMonth(from);
+            YearMonth last = ExpenseRollup.lastWholeMonth(to);
+            if (first.atDay(1).equals(from) && last.atEndOfMonth().equals(to) && !first.isAfter(last)) {
+                ExpenseRollup.Totals totals = summarize(first, last);
+                SUMMARIZE_DAYS_STATS.record(start);
+                return totals;
+            }
+            ColumnarExpenseStore.Snapshot rows = currentSnapshot();
+            ExpenseRollup.Totals totals =
+                    rows.summarize(from.toEpochDay(), to.toEpochDay(), AggregationKernels.preferred());
+            SUMMARIZE_DAYS_STATS.record(start, 0, rows.size());
+            return totals;
+        } catch (DataAccessException | RuntimeException e) {
+            SUMMARIZE_DAYS_STATS.failed();
+            throw e;
+        }
+    }
+
+    /**
+     * Month-aligned queries are read from the rollup under the read lock. Anything else is aggregated from
+     * the published snapshot's columns without the lock, like {@link #summarizeDays}. Change events carry
+     * the version of the snapshot their write published, so the result covers the version it read.
+     */
+    @Override
+    public AggregateResult aggregate(AggregateQuery query) throws DataAccessException {
+        long start = System.nanoTime();
+        try {
+            AggregateResult.Accumulator into = query.accumulator();
+            if (query.isMonthAligned()) {
+                lockLoadedForRead();
                 try {
-                    if (cache.isEmpty()) {
-                        loadFromFile();
-                    }
+                    cache.rollup().addTo(into, query);
+                    into.covers(changes, snapshot.get().version());
                 } finally {
-                    lock.readLock().lock();
-                    lock.writeLock().unlock();
+                    lock.readLock().unlock();
+                }
+                AGGREGATE_STATS.record(start);
+                return into.result();
+            }
+            ColumnarExpenseStore.Snapshot rows = currentSnapshot();
+            rows.aggregate(query, into, AggregationKernels.preferred());
+            into.covers(changes, rows.version());
+            AGGREGATE_STATS.record(start, 0, rows.size());
+            return into.result();
+        } catch (DataAccessException | RuntimeException e) {
+            AGGREGATE_STATS.failed();
+            throw e;
+        }
+    }
+
+    @Override
+    public void addChangeListener(ExpenseChangeListener listener) {
+        changes.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(ExpenseChangeListener listener) {
+        changes.remove(listener);
+    }
+
+    /**
+     * Checks the ids under one read lock; loads the file first if needed.
+     */
+    @Override
+    public List<String> findStoredIds(Collection<String> expenseIds) throws DataAccessException {
+        lockLoadedForRead();
+        try {
+            List<String> stored = new ArrayList<>();
+            for (String id : expenseIds) {
+                if (cache.contains(id)) {
+                    stored.add(id);
                 }
             }
-            return new ArrayList<>(cache.values());
+            return stored;
         } finally {
             lock.readLock().unlock();
         }
     }
 
-    @Override
-    public void delete(String expenseId) throws DataAccessException {
+    /**
+     * Returns a filter of the stored ids, loading the file first if needed.
+     */
+    IdFilter idFilter() throws DataAccessException {
+        lockLoadedForRead();
+        try {
+            return cache.idFilter();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the rollup, loading the file first if needed.
+     */
+    ExpenseRollup rollupSnapshot() throws DataAccessException {
+        lockLoadedForRead();
+        try {
+            return cache.rollup().copy();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private ColumnarExpenseStore.Snapshot currentSnapshot() throws DataAccessException {
+        ColumnarExpenseStore.Snapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
         lock.writeLock().lock();
         try {
-            cache.remove(expenseId);
-            persistAll();
-        } catch (IOException e) {
-            throw new DataAccessException("Failed to delete expense", e);
+            ensureLoaded();
+            return snapshot.get();
         } finally {
             lock.writeLock().unlock();
         }
     }
 
+    /**
+     * Takes the read lock, loading the file first (under the write lock) if needed. Caller unlocks the read lock.
+     */
+    private void lockLoadedForRead() throws DataAccessException {
+        lock.readLock().lock();
+        if (loaded) return;
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            ensureLoaded();
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether the file has been parsed into the cache yet.
+     */
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Loads the file into the cache on first use. Caller must hold the write lock.
+     * Writes go through here too, so a save before the first read cannot overwrite unread data.
+     */
+    private void ensureLoaded() throws DataAccessException {
+        if (!loaded) {
+            long start = System.nanoTime();
+            try {
+                loadFromFile();
+            } catch (DataAccessException | RuntimeException e) {
+                JOURNAL_LOAD_STATS.failed();
+                throw e;
+            }
+            publishSnapshot();
+            loaded = true;
+            JOURNAL_LOAD_STATS.record(start, 0, journalRecords);
+        }
+    }
+
+    /**
+     * Publishes the rows for lock-free readers and reports the change in their number. Caller must hold
+     * the write lock.
+     */
+    private void publishSnapshot() {
+        snapshot.set(cache.snapshot());
+        ExpenseMetrics.cachedRowsChanged(cache.size() - reportedRows);
+        reportedRows = cache.size();
+    }
+
     private void loadFromFile() throws DataAccessException {
         if (!Files.exists(path)) {
             return;
         }
+        List<CorruptLine> corrupt = new ArrayList<>();
+        boolean bulk = true;
         try {
-            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
             cache.clear();
-            for (String line : lines) {
-                if (line.isBlank()) continue;
-                Expense e = parseLine(line);
-                if (e != null) cache.put(e.getId(), e);
+            ExpenseCheckpoint checkpoint = ExpenseCheckpoint.read(path);
+            long from = 0;
+            journalRecords = 0;
+            if (checkpoint != null) {
+                cache.restore(checkpoint.image());
+                from = checkpoint.journalOffset();
+                journalRecords = checkpoint.journalRecords();
+                bulk = Files.size(path) - from > from / EpochDayIndex.BULK_DIVISOR;
+            } else {
+                ExpenseCheckpoint.delete(path); // stale, if there is one
+            }
+            checkpointBytes = from;
+            if (bulk) {
+                cache.suspendIndexes();
             }
+            verifiedBytes = VerifiedOffset.read(path);
+            journalRecords += MappedExpenseLoader.load(path, from, verifiedBytes, new MappedExpenseLoader.Sink() {
+                @Override
+                public void record(Expense expense) {
+                    cache.put(expense);
+                }
+
+                @Override
+                public void row(long idMsb, long idLsb, double amount, int epochDay, int category) {
+                    cache.put(idMsb, idLsb, amount, epochDay, category);
+                }
+
+                @Override
+                public void tombstone(String expenseId) {
+                    cache.remove(expenseId);
+                }
+
+                @Override
+                public void corrupt(long offset, byte[] line) {
+                    corrupt.add(new CorruptLine(offset, line));
+                }
+            });
         } catch (IOException e) {
             throw new DataAccessException("Failed to load expenses", e);
+        } finally {
+            if (bulk) {
+                cache.rebuildIndexes();
+            }
+        }
+        try {
+            recover(corrupt);
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to recover expense journal", e);
+        }
+    }
+
+    /**
+     * Repairs the journal after a load. A corrupt last line without a newline is what a crash mid-append
+     * leaves behind and is cut off; any other corrupt line is copied to {@code <file>.corrupt} and the
+     * journal is rewritten without it. Everything left is then marked verified. Caller must hold the write lock.
+     */
+    private void recover(List<CorruptLine> corrupt) throws IOException {
+        long size = Files.size(path);
+        long generation = journalGeneration;
+        if (!corrupt.isEmpty()) {
+            CorruptLine last = corrupt.get(corrupt.size() - 1);
+            if (last.offset + last.line.length == size) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(last.offset);
+                    channel.force(false);
+                }
+                corrupt.remove(corrupt.size() - 1);
+                journalRecords--;
+                size = last.offset;
+            }
+        }
+        if (!corrupt.isEmpty()) {
+            quarantine(corrupt);
+            persistAll();
+            journalRecords = cache.size();
+            size = Files.size(path);
+        } else if (size > 0 && !endsWithNewline(size)) {
+            Files.write(path, System.lineSeparator().getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            size = Files.size(path);
+        }
+        journalBytes = size;
+        if (size > 0 && (size != verifiedBytes || generation != journalGeneration)) {
+            AtomicFiles.force(path);
+            writeVerified(size);
+        }
+    }
+
+    private boolean endsWithNewline(long size) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.read(last, size - 1);
         }
+        return last.get(0) == '\n';
     }
 
+    /**
+     * Appends corrupt lines to {@code <file>.corrupt}, each prefixed with its offset in the journal.
+     */
+    private void quarantine(List<CorruptLine> corrupt) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (CorruptLine c : corrupt) {
+            sb.append(c.offset).append(' ')
+                    .append(new String(c.line, StandardCharsets.UTF_8)).append(System.lineSeparator());
+        }
+        Path target = path.resolveSibling(path.getFileName() + ".corrupt");
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Atomically replaces the file with the live records. The checkpoint is dropped first, so a failed
+     * replace leaves the file as it was.
+     */
     private void persistAll() throws IOException {
-        List<Expense> all = new ArrayList<>(cache.values());
-        List<String> lines = new ArrayList<>();
-        for (Expense e : all) {
+        List<String> lines = new ArrayList<>(cache.size());
+        for (Expense e : cache.snapshot()) {
             lines.add(toLine(e));
         }
-        Files.write(path, lines, StandardCharsets.UTF_8,
-                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        dropCheckpoint();
+        AtomicFiles.writeLines(path, lines);
+        journalBytes = Files.size(path);
+        journalGeneration++;
     }
 
-    private String toLine(Expense e) {
-        return e.getId() + SEP + SEP + e.getAmount() + SEP
-                + e.getDate() + SEP + e.getCategory().name();
+    /**
+     * Writes a change in the configured mode and applies it to the cache, so the cache never holds what the
+     * file does not. Journal records are written first and applied once written; a REWRITE is applied first,
+     * since the file is rebuilt from the cache, and undone if the file cannot be replaced. With group commit
+     * the change is applied when its records are queued, so the cache follows the queue order; if the commit
+     * fails, {@link #awaitDurable} reloads the cache from the file. Caller must hold the write lock.
+     *
+     * @return a future that completes when the records are durable, or null if they already are
+     */
+    private CompletableFuture<Void> write(List<String> journalLines, Runnable change) throws IOException {
+        if (mode == StorageMode.REWRITE) {
+            ColumnarExpenseStore.Image undo = cache.image();
+            change.run();
+            try {
+                persistAll();
+            } catch (IOException e) {
+                cache.restore(undo);
+                throw e;
+            }
+            publishSnapshot();
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String line : journalLines) {
+            sb.append(line).append(System.lineSeparator());
+        }
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        CompletableFuture<Void> durable = null;
+        if (commitLog != null) {
+            durable = commitLog.append(bytes);
+        } else {
+            try {
+                Files.write(path, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                truncateJournal();
+                throw e;
+            }
+        }
+        change.run();
+        publishSnapshot();
+        journalBytes += bytes.length;
+        journalRecords += journalLines.size();
+        scheduleCompactionIfNeeded();
+        scheduleCheckpointIfNeeded();
+        return durable;
     }
 
-    private static String escape(String s) {
-        if (s == null) return "";
-        return s.replace("|", "\\|").replace("\\", "\\\\");
+    /**
+     * Returns how many bytes the last {@link #write} wrote, given the journal length before it: the appended
+     * records, or in REWRITE mode the whole file. Caller must hold the write lock.
+     */
+    private long bytesWritten(long journalBytesBefore) {
+        return mode == StorageMode.REWRITE ? journalBytes : journalBytes - journalBytesBefore;
     }
 
-    private static String unescape(String s) {
-        if (s == null) return "";
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
-            if (c == '\\' && i + 1 < s.length()) {
-                char next = s.charAt(i + 1);
-                if (next == '|' || next == '\\') {
-                    sb.append(next);
-                    i++;
-                    continue;
-                }
-            }
-            sb.append(c);
-        }
-        return sb.toString();
-    }
-
-    private Expense parseLine(String line) {
-        List<String> parts = new ArrayList<>();
-        StringBuilder current = new StringBuilder();
-        boolean escaped = false;
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-            if (escaped) {
-                current.append(c);
-                escaped = false;
-                continue;
-            }
-            if (c == '\\') {
-                escaped = true;
-                continue;
-            }
-            if (c == '|') {
-                parts.add(current.toString());
-                current = new StringBuilder();
-                continue;
-            }
-            current.append(c);
-        }
-        parts.add(current.toString());
-        if (parts.size() != 5) return null;
-        try {
-            String id = parts.get(0);
-            double amount = Double.parseDouble(parts.get(2));
-            LocalDate date = LocalDate.parse(parts.get(3));
-            ExpenseCategory category = ExpenseCategory.valueOf(parts.get(4));
-            return new BasicExpense(id, amount, date, category);
-        } catch (Exception e) {
-            return null;
+    /**
+     * Cuts off what a failed append may have left past {@link #journalBytes}, so the next record does not
+     * continue a torn line. Best effort: a torn tail is also cut off on the next load.
+     */
+    private void truncateJournal() {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            if (channel.size() > journalBytes) {
+                channel.truncate(journalBytes);
+            }
+        } catch (IOException ignored) {
+            // recovered on load
+        }
+    }
+
+    /**
+     * Blocks until a group commit has made the caller's records durable. Called without the lock held.
+     * If the commit failed, the cache (which applied the records when they were queued) is reloaded from
+     * the file before the failure is reported, so it does not keep rows that never reached the disk.
+     */
+    private void awaitDurable(CompletableFuture<Void> durable, String message) throws DataAccessException {
+        if (durable == null) return;
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            DataAccessException failure = new DataAccessException(message, e.getCause());
+            try {
+                reloadAfterFailedCommit();
+            } catch (DataAccessException | IOException reload) {
+                failure.addSuppressed(reload);
+            }
+            throw failure;
+        }
+    }
+
+    /**
+     * Reloads the cache from the journal after a failed group commit. The commit log has truncated the
+     * failed batch and fails everything queued behind it, so the file holds exactly the commits that
+     * succeeded. Only the first caller after a failure reloads; a bumped generation keeps a checkpoint or
+     * compaction that captured the failed rows from being installed.
+     */
+    private void reloadAfterFailedCommit() throws DataAccessException, IOException {
+        lock.writeLock().lock();
+        try {
+            if (!commitLog.recover()) return;
+            journalGeneration++;
+            loaded = false;
+            ensureLoaded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Advances the verified offset to {@code end} once the journal has grown {@link #VERIFY_INTERVAL_BYTES}
+     * past it, so the next load checksums only the tail. Called without the lock held, after the records up
+     * to {@code end} were written; skipped if the journal has been replaced since.
+     */
+    private void markVerified(long end, long generation) throws DataAccessException {
+        if (mode != StorageMode.JOURNAL) return;
+        lock.readLock().lock();
+        try {
+            synchronized (verifiedLock) {
+                if (generation != journalGeneration || end - verifiedBytes < VERIFY_INTERVAL_BYTES) return;
+                AtomicFiles.force(path);
+                writeVerified(end);
+            }
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to record verified journal offset", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void writeVerified(long end) throws IOException {
+        synchronized (verifiedLock) {
+            VerifiedOffset.write(path, end);
+            verifiedBytes = end;
+        }
+    }
+
+    /**
+     * Flushes pending journal writes, marks the whole journal verified and checkpoints the state, so the
+     * next load neither checks nor parses anything.
+     */
+    @Override
+    public void close() throws DataAccessException {
+        synchronized (checkpointLock) {
+            lock.writeLock().lock();
+            try {
+                if (commitLog != null) {
+                    commitLog.close();
+                }
+                if (loaded && journalBytes > verifiedBytes) {
+                    AtomicFiles.force(path);
+                    writeVerified(journalBytes);
+                }
+                if (loaded && journalBytes > 0 && journalBytes != checkpointBytes) {
+                    Path tmp = AtomicFiles.tempFor(ExpenseCheckpoint.pathFor(path));
+                    ExpenseCheckpoint.write(tmp, path, cache.image(), journalBytes, journalRecords);
+                    AtomicFiles.replace(tmp, ExpenseCheckpoint.pathFor(path));
+                    checkpointBytes = journalBytes;
+                }
+                ExpenseMetrics.cachedRowsChanged(-reportedRows);
+                reportedRows = 0;
+            } catch (IOException e) {
+                throw new DataAccessException("Failed to close expense journal", e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void scheduleCheckpointIfNeeded() {
+        long interval = Math.max(CHECKPOINT_INTERVAL_BYTES, checkpointBytes / 4);
+        if (checkpointing || journalBytes - checkpointBytes < interval) {
+            return;
+        }
+        checkpointing = true;
+        MAINTENANCE.execute(this::checkpoint);
+    }
+
+    /**
+     * Writes a checkpoint in the background. The state is captured under the write lock (the chunks are
+     * shared, the indexes copied) and written to a temp file without it; the temp file only replaces the
+     * checkpoint if the journal has not been replaced in the meantime.
+     */
+    private void checkpoint() {
+        Path target = ExpenseCheckpoint.pathFor(path);
+        Path tmp = AtomicFiles.tempFor(target);
+        synchronized (checkpointLock) {
+            try {
+                ColumnarExpenseStore.Image image;
+                long offset;
+                long records;
+                long generation;
+                lock.writeLock().lock();
+                try {
+                    image = cache.image();
+                    offset = journalBytes;
+                    records = journalRecords;
+                    generation = journalGeneration;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                syncCommitLog();
+                if (commitLog == null) {
+                    AtomicFiles.force(path);
+                }
+                ExpenseCheckpoint.write(tmp, path, image, offset, records);
+
+                lock.writeLock().lock();
+                try {
+                    if (generation == journalGeneration) {
+                        AtomicFiles.replace(tmp, target);
+                        checkpointBytes = offset;
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } catch (IOException e) {
+                // A checkpoint is an optimisation; the journal alone still has everything.
+            } finally {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // best effort
+                }
+                lock.writeLock().lock();
+                try {
+                    checkpointing = false;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the checkpoint after the journal was replaced. Caller must hold the write lock.
+     */
+    private void dropCheckpoint() throws IOException {
+        if (checkpointBytes > 0) {
+            ExpenseCheckpoint.delete(path);
+            checkpointBytes = 0;
+        }
+    }
+
+    private void scheduleCompactionIfNeeded() {
+        if (compacting || journalRecords < COMPACTION_MIN_RECORDS) {
+            return;
+        }
+        long dead = journalRecords - cache.size();
+        if ((double) dead / journalRecords < COMPACTION_DEAD_RATIO) {
+            return;
+        }
+        compacting = true;
+        MAINTENANCE.execute(this::compact);
+    }
+
+    /**
+     * Rewrites the journal with live records only. The live set is captured under the write lock,
+     * written to a temp file without holding it, and records appended in the meantime are copied
+     * over before the temp file is forced to disk and atomically replaces the journal. The new journal
+     * is verified as a whole.
+     */
+    private void compact() {
+        Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+        try {
+            List<Expense> live;
+            long offset;
+            long generation;
+            lock.writeLock().lock();
+            try {
+                syncCommitLog();
+                live = cache.snapshot();
+                offset = Files.size(path);
+                generation = journalGeneration;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            List<String> lines = new ArrayList<>(live.size());
+            for (Expense e : live) {
+                lines.add(toLine(e));
+            }
+            Files.write(tmp, lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+            lock.writeLock().lock();
+            try {
+                syncCommitLog();
+                if (generation != journalGeneration) {
+                    // The journal was rewritten or reloaded after a failed commit since the live set was taken.
+                    Files.deleteIfExists(tmp);
+                    return;
+                }
+                long tailRecords = copyTail(offset, tmp);
+                AtomicFiles.force(tmp);
+                AtomicFiles.replace(tmp, path);
+                if (commitLog != null) {
+                    commitLog.reopen();
+                }
+                journalRecords = live.size() + tailRecords;
+                journalBytes = Files.size(path);
+                journalGeneration++;
+                writeVerified(journalBytes);
+                dropCheckpoint();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            // Compaction is an optimisation; the journal stays valid if it fails.
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // best effort
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                compacting = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void syncCommitLog() throws IOException {
+        if (commitLog != null) {
+            commitLog.sync();
+        }
+    }
+
+    /**
+     * Appends the journal bytes written after {@code offset} to {@code target} and returns how many records they hold.
+     */
+    private long copyTail(long offset, Path target) throws IOException {
+        long size = Files.size(path);
+        if (size <= offset) {
+            return 0;
+        }
+        ByteBuffer tail = ByteBuffer.allocate((int) (size - offset));
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (tail.hasRemaining() && in.read(tail, offset + tail.position()) >= 0) {
+                // keep reading until the tail is complete
+            }
+        }
+        tail.flip();
+        Files.write(target, tail.array(), StandardOpenOption.APPEND);
+        long records = 0;
+        for (byte b : tail.array()) {
+            if (b == '\n') records++;
+        }
+        return records;
+    }
+
+    /**
+     * Returns the sealed journal line for an expense.
+     */
+    static String toLine(Expense e) {
+        return RecordChecksums.seal(e.getId() + SEP + SEP + e.getAmount() + SEP
+                + e.getDate() + SEP + e.getCategory().name());
+    }
+
+    private static final class CorruptLine {
+        final long offset;
+        final byte[] line;
+
+        CorruptLine(long offset, byte[] line) {
+            this.offset = offset;
+            this.line = line;
         }
     }
 }
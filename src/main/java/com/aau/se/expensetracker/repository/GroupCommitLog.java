@@ -0,0 +1,235 @@
+package com.aau.se.expensetracker.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends journal records with group commit: records that arrive within one commit window are written
+ * together and made durable with a single fsync. Each append returns a future that completes once its
+ * record is on disk, so callers block only until their own batch is durable.
+ * <p>
+ * A batch that fails is cut off the file again (best effort), and the log then fails every record queued
+ * behind it and every new one until the owner calls {@link #recover()}: records after a gap must not reach
+ * the file, or it would hold writes whose callers were told they failed.
+ */
+final class GroupCommitLog {
+
+    private static final int MAX_BATCH = 8192;
+
+    private final Path path;
+    private final long windowNanos;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Object channelLock = new Object();
+    private FileChannel channel;
+    private Thread flusher;
+    private volatile boolean closed;
+    /** Guards {@link #failure} and {@link #epoch}; never held while waiting for the flusher. */
+    private final Object failureLock = new Object();
+    /** Set when a batch fails. */
+    private IOException failure;
+    /** Bumped by {@link #recover()}; records queued under an older epoch are failed, not written. */
+    private long epoch;
+
+    GroupCommitLog(Path path, Duration window) {
+        this.path = path;
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * Queues a record for the next commit. Records are written in the order they are queued.
+     */
+    CompletableFuture<Void> append(byte[] record) {
+        synchronized (this) {
+            Pending pending;
+            synchronized (failureLock) {
+                pending = new Pending(record, epoch);
+                if (failure != null) {
+                    pending.done.completeExceptionally(failure);
+                    return pending.done;
+                }
+            }
+            if (closed) {
+                pending.done.completeExceptionally(new IOException("Journal is closed: " + path));
+                return pending.done;
+            }
+            if (flusher == null) {
+                flusher = new Thread(this::run, "expense-group-commit");
+                flusher.setDaemon(true);
+                flusher.start();
+            }
+            queue.add(pending);
+            return pending.done;
+        }
+    }
+
+    /**
+     * Blocks until everything queued so far is durable.
+     */
+    void sync() throws IOException {
+        try {
+            append(new byte[0]).join();
+        } catch (RuntimeException e) {
+            throw new IOException("Journal sync failed: " + path, e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    /**
+     * Clears a failure so records can be appended again; records queued before the call still fail.
+     * The owner calls it under the lock it appends under and then reloads its state from the file.
+     *
+     * @return whether there was a failure to clear
+     */
+    boolean recover() throws IOException {
+        synchronized (failureLock) {
+            if (failure == null) return false;
+            failure = null;
+            epoch++;
+        }
+        reopen();
+        return true;
+    }
+
+    /**
+     * Reopens the file, e.g. after compaction replaced it. Call {@link #sync()} first.
+     */
+    void reopen() throws IOException {
+        synchronized (channelLock) {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Flushes what is queued, then stops the flusher and closes the file.
+     */
+    void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            try {
+                if (flusher != null) {
+                    sync();
+                }
+            } finally {
+                closed = true;
+                if (flusher != null) {
+                    flusher.interrupt();
+                }
+            }
+        }
+        reopen();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        while (!closed) {
+            try {
+                Pending first = queue.take();
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < MAX_BATCH) {
+                    long wait = deadline - System.nanoTime();
+                    Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (closed) break;
+                continue;
+            }
+            IOException failed = failureFor(batch);
+            if (failed == null) {
+                try {
+                    write(batch);
+                } catch (IOException e) {
+                    failed = e;
+                    synchronized (failureLock) {
+                        failure = e;
+                    }
+                }
+            }
+            for (Pending p : batch) {
+                if (failed == null) {
+                    p.done.complete(null);
+                } else {
+                    p.done.completeExceptionally(failed);
+                }
+            }
+            batch.clear();
+        }
+        Pending left;
+        while ((left = queue.poll()) != null) {
+            left.done.completeExceptionally(new IOException("Journal is closed: " + path));
+        }
+    }
+
+    /**
+     * The failure that stops this batch from being written: a failure not yet recovered from, or one the
+     * batch was queued before.
+     */
+    private IOException failureFor(List<Pending> batch) {
+        synchronized (failureLock) {
+            if (failure != null) return failure;
+            for (Pending p : batch) {
+                if (p.epoch != epoch) return new IOException("Journal write failed before this record: " + path);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Writes and forces one batch. If that fails, the file is truncated back to where the batch started,
+     * so a later batch does not follow a torn or unsynced one.
+     */
+    private void write(List<Pending> batch) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        long remaining = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(batch.get(i).record);
+            remaining += buffers[i].remaining();
+        }
+        synchronized (channelLock) {
+            if (channel == null) {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            long start = channel.size();
+            try {
+                // Count bytes rather than test the last buffer: a sync() marker is an empty record.
+                while (remaining > 0) {
+                    remaining -= channel.write(buffers);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                try {
+                    channel.truncate(start);
+                    channel.force(false);
+                } catch (IOException ignored) {
+                    // a torn tail is cut off on the next load
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static final class Pending {
+        final byte[] record;
+        final long epoch;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Pending(byte[] record, long epoch) {
+            this.record = record;
+            this.epoch = epoch;
+        }
+    }
+}
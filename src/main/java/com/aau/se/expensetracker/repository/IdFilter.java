@@ -0,0 +1,86 @@
+package com.aau.se.expensetracker.repository;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Bloom filter over the id keys of a {@link ColumnarExpenseStore} ({@link ColumnarExpenseStore#keyOf}), so a
+ * segment that has not been parsed can rule out ids it does not hold. About ten bits per id and seven probes
+ * give roughly one false positive in a hundred lookups; there are no false negatives.
+ * Immutable once built.
+ */
+final class IdFilter {
+
+    private static final int BITS_PER_ID = 10;
+    private static final int PROBES = 7;
+    /** Keeps the bit count within an int mask. */
+    private static final int MAX_WORDS = 1 << 24;
+
+    private final long[] words;
+    private final int mask;
+
+    private IdFilter(long[] words) {
+        this.words = words;
+        this.mask = words.length * 64 - 1;
+    }
+
+    /** An empty filter sized for {@code expectedIds} ids. */
+    static IdFilter forIds(int expectedIds) {
+        long bits = Math.max(64, Long.highestOneBit(Math.max(1L, (long) expectedIds * BITS_PER_ID - 1)) << 1);
+        return new IdFilter(new long[(int) Math.min(bits / 64, MAX_WORDS)]);
+    }
+
+    void add(long msb, long lsb) {
+        probe(msb, lsb, true);
+    }
+
+    boolean mightContain(String id) {
+        UUID key = ColumnarExpenseStore.keyOf(id);
+        return probe(key.getMostSignificantBits(), key.getLeastSignificantBits(), false);
+    }
+
+    /**
+     * Tests the key's bits, setting them too if {@code set}, and returns whether all of them were set before.
+     */
+    private boolean probe(long msb, long lsb, boolean set) {
+        long h1 = mix(msb ^ lsb * 0x9E3779B97F4A7C15L);
+        long h2 = mix(lsb ^ msb * 0xC2B2AE3D27D4EB4FL) | 1;
+        boolean present = true;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (int) (h1 + i * h2) & mask;
+            if ((words[bit >>> 6] & 1L << bit) == 0) {
+                if (!set) return false;
+                present = false;
+                words[bit >>> 6] |= 1L << bit;
+            }
+        }
+        return present;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    static IdFilter readFrom(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length <= 0 || Integer.bitCount(length) != 1 || length > MAX_WORDS) {
+            throw new IOException("Bad id filter length: " + length);
+        }
+        long[] words = new long[length];
+        for (int i = 0; i < length; i++) {
+            words[i] = in.readLong();
+        }
+        return new IdFilter(words);
+    }
+
+    private static long mix(long h) {
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
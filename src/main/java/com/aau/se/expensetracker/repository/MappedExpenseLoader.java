@@ -0,0 +1,434 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Loads an expense file by memory-mapping it and tokenizing each line at the byte level.
+ * Line and field separators are found eight bytes at a time (SWAR: one {@code long} load and a few
+ * bitwise operations test all eight bytes). Amount, date and category are decoded straight from the bytes,
+ * and a canonical UUID id into two longs, so a plain record reaches {@link Sink#row} without allocating.
+ * Escapes follow the text format: a backslash makes the next character literal.
+ * Fields that contain escapes or unusual number/date forms fall back to the String parsers,
+ * so results match a line-by-line parse.
+ * <p>
+ * Sealed lines (see {@link RecordChecksums}) have their checksum stripped, and checked if they start at or
+ * after the offset the caller wants verified, before the record is interpreted. Lines whose seal is malformed
+ * or fails the check, or that cannot be decoded, are reported to {@link Sink#corrupt}.
+ */
+final class MappedExpenseLoader {
+
+    /**
+     * Receives the records of a journal in file order.
+     */
+    interface Sink {
+        void record(Expense expense);
+
+        /**
+         * A record whose id is a canonical (lowercase) UUID and whose fields are in their plain forms, as
+         * columns. By default builds the Expense and passes it to {@link #record}.
+         */
+        default void row(long idMsb, long idLsb, double amount, int epochDay, int category) {
+            record(new BasicExpense(new UUID(idMsb, idLsb).toString(), amount, LocalDate.ofEpochDay(epochDay),
+                    CATEGORIES[category]));
+        }
+
+        void tombstone(String expenseId);
+
+        /**
+         * A line at {@code offset} that failed its checksum or could not be decoded. Ignored by default.
+         */
+        default void corrupt(long offset, byte[] line) {
+        }
+    }
+
+    private static final int FIELDS = 5;
+    private static final int UUID_LENGTH = 36;
+    private static final long WINDOW = 1L << 30;
+    private static final int BLOCK = 1 << 16;
+    private static final double[] POW10 = new double[23];
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+    private static final byte[][] CATEGORY_NAMES;
+    /** Value of each lowercase hex digit by byte, -1 for every other byte. */
+    private static final byte[] HEX_VALUES = new byte[256];
+    private static final VarHandle WORDS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long LOW_SEVEN_BITS = 0x7f7f7f7f7f7f7f7fL;
+    private static final long NEWLINES = broadcast('\n');
+    private static final long RETURNS = broadcast('\r');
+    private static final long PIPES = broadcast('|');
+    private static final long BACKSLASHES = broadcast('\\');
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int d = 0; d < 16; d++) {
+            HEX_VALUES[Character.forDigit(d, 16)] = (byte) d;
+        }
+        CATEGORY_NAMES = new byte[CATEGORIES.length][];
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            CATEGORY_NAMES[i] = CATEGORIES[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final Sink sink;
+    private final long verifyFrom;
+    private final int[] fieldStart = new int[FIELDS];
+    private final int[] fieldEnd = new int[FIELDS];
+    private final boolean[] fieldEscaped = new boolean[FIELDS];
+    private byte[] buf = new byte[BLOCK];
+    /** File offset of {@code buf[0]}. */
+    private long base;
+    private long records;
+
+    private MappedExpenseLoader(Sink sink, long verifyFrom) {
+        this.sink = sink;
+        this.verifyFrom = verifyFrom;
+    }
+
+    /**
+     * Feeds every non-blank line of the file to the sink and returns how many there were,
+     * checking the checksum of every sealed line.
+     */
+    static long load(Path path, Sink sink) throws IOException {
+        return load(path, 0, sink);
+    }
+
+    /**
+     * Like {@link #load(Path, Sink)}, but trusts the checksums of lines that start before {@code verifyFrom}.
+     */
+    static long load(Path path, long verifyFrom, Sink sink) throws IOException {
+        return load(path, 0, verifyFrom, sink);
+    }
+
+    /**
+     * Like {@link #load(Path, long, Sink)}, but starts at {@code from}, which must be the start of a line.
+     */
+    static long load(Path path, long from, long verifyFrom, Sink sink) throws IOException {
+        MappedExpenseLoader loader = new MappedExpenseLoader(sink, verifyFrom);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long offset = from;
+            while (offset < size) {
+                long length = Math.min(WINDOW, size - offset);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                boolean last = offset + length == size;
+                long consumed = loader.scan(window, offset, (int) length, last);
+                if (consumed == 0) {
+                    throw new IOException("Expense record longer than " + WINDOW + " bytes in " + path);
+                }
+                offset += consumed;
+            }
+        }
+        return loader.records;
+    }
+
+    /**
+     * Parses the complete lines of a window and returns how many bytes were consumed.
+     * The window is copied into {@link #buf} block by block; a line cut by a block boundary is moved
+     * to the front of the buffer and completed by the next block. A trailing partial line is left
+     * for the next window unless this is the end of the file.
+     */
+    private long scan(MappedByteBuffer window, long windowOffset, int length, boolean last) {
+        int carry = 0;
+        int pos = 0;
+        while (pos < length) {
+            int chunk = Math.min(BLOCK, length - pos);
+            if (buf.length < carry + chunk) {
+                buf = Arrays.copyOf(buf, carry + chunk);
+            }
+            window.get(pos, buf, carry, chunk);
+            base = windowOffset + pos - carry;
+            pos += chunk;
+            int end = carry + chunk;
+            int lineStart = 0;
+            int i = 0;
+            for (; i + Long.BYTES <= end; i += Long.BYTES) {
+                long word = (long) WORDS.get(buf, i);
+                long hits = matches(word, NEWLINES) | matches(word, RETURNS);
+                while (hits != 0) {
+                    int at = i + (Long.numberOfTrailingZeros(hits) >>> 3);
+                    parse(lineStart, at);
+                    lineStart = at + 1;
+                    hits &= hits - 1;
+                }
+            }
+            for (; i < end; i++) {
+                byte b = buf[i];
+                if (b == '\n' || b == '\r') {
+                    parse(lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            carry = end - lineStart;
+            System.arraycopy(buf, lineStart, buf, 0, carry);
+        }
+        if (last && carry > 0) {
+            base = windowOffset + length - carry;
+            parse(0, carry);
+            return length;
+        }
+        return length - carry;
+    }
+
+    private void parse(int start, int end) {
+        if (start == end || isBlank(start, end)) return;
+        records++;
+        long offset = base + start;
+        int bodyEnd = end;
+        if (RecordChecksums.claimsSeal(buf, start, end)) {
+            // A damaged seal must not demote the line to an unchecked one: a tombstone would delete the wrong id.
+            if (!RecordChecksums.isSealed(buf, start, end)
+                    || offset >= verifyFrom && !RecordChecksums.verify(buf, start, end)) {
+                sink.corrupt(offset, Arrays.copyOfRange(buf, start, end));
+                return;
+            }
+            bodyEnd = end - RecordChecksums.SUFFIX_LENGTH;
+        }
+        if (buf[start] == '-') {
+            sink.tombstone(new String(buf, start + 1, bodyEnd - start - 1, StandardCharsets.UTF_8));
+            return;
+        }
+        if (tokenize(start, bodyEnd) && (decodeRow() || decodeExpense())) return;
+        sink.corrupt(offset, Arrays.copyOfRange(buf, start, end));
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if ((buf[i] & 0xff) > ' ') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Splits the line on unescaped '|' and reports whether it has exactly five fields.
+     */
+    private boolean tokenize(int start, int end) {
+        int field = 0;
+        fieldStart[0] = start;
+        fieldEscaped[0] = false;
+        int i = start;
+        while ((i = nextSeparator(i, end)) < end) {
+            if (buf[i] == '\\') {
+                fieldEscaped[field] = true;
+                i += 2;
+            } else {
+                fieldEnd[field] = i;
+                if (++field == FIELDS) return false;
+                fieldStart[field] = ++i;
+                fieldEscaped[field] = false;
+            }
+        }
+        fieldEnd[field] = end;
+        return field == FIELDS - 1;
+    }
+
+    /**
+     * Index of the first '|' or '\\' in {@code buf[from, end)}, or {@code end} if there is none.
+     */
+    private int nextSeparator(int from, int end) {
+        int i = from;
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            long word = (long) WORDS.get(buf, i);
+            long hits = matches(word, PIPES) | matches(word, BACKSLASHES);
+            if (hits != 0) return i + (Long.numberOfTrailingZeros(hits) >>> 3);
+        }
+        for (; i < end; i++) {
+            if (buf[i] == '|' || buf[i] == '\\') return i;
+        }
+        return end;
+    }
+
+    /**
+     * Sets the high bit of each byte of {@code word} that equals the byte repeated in {@code pattern}, and
+     * no other bit. Exact, unlike the shorter {@code (x - 0x01..) & ~x & 0x80..}, which also flags some
+     * bytes above a match.
+     */
+    private static long matches(long word, long pattern) {
+        long x = word ^ pattern;
+        long t = (x & LOW_SEVEN_BITS) + LOW_SEVEN_BITS;
+        return ~(t | x | LOW_SEVEN_BITS);
+    }
+
+    private static long broadcast(char c) {
+        return (c & 0xffL) * 0x0101010101010101L;
+    }
+
+    /**
+     * Passes the tokenized line to {@link Sink#row} if its id is a canonical UUID and every field is in its
+     * plain form. Returns false, leaving the line to {@link #decodeExpense}, otherwise.
+     */
+    private boolean decodeRow() {
+        if (fieldEscaped[0] || fieldEscaped[2] || fieldEscaped[3] || fieldEscaped[4]) return false;
+        int id = fieldStart[0];
+        if (fieldEnd[0] - id != UUID_LENGTH || buf[id + 8] != '-' || buf[id + 13] != '-'
+                || buf[id + 18] != '-' || buf[id + 23] != '-') {
+            return false;
+        }
+        long high = hex(id, 8);
+        long mid = hex(id + 9, 4);
+        long low = hex(id + 14, 4);
+        long clockSeq = hex(id + 19, 4);
+        long node = hex(id + 24, 12);
+        if ((high | mid | low | clockSeq | node) < 0) return false;
+        int category = categoryIndex(fieldStart[4], fieldEnd[4]);
+        int start = fieldStart[3];
+        if (category < 0 || fieldEnd[3] - start != 10 || buf[start + 4] != '-' || buf[start + 7] != '-') {
+            return false;
+        }
+        int year = digits(start, 4);
+        int month = digits(start + 5, 2);
+        int day = digits(start + 8, 2);
+        if (year < 0 || month < 0 || day < 0) return false;
+        double amount;
+        int epochDay;
+        try {
+            amount = amount(fieldStart[2], fieldEnd[2]);
+            epochDay = (int) LocalDate.of(year, month, day).toEpochDay();
+        } catch (NumberFormatException | DateTimeException e) {
+            return false;
+        }
+        sink.row(high << 32 | mid << 16 | low, clockSeq << 48 | node, amount, epochDay, category);
+        return true;
+    }
+
+    /**
+     * Builds an Expense from the tokenized line, falling back to the String parsers for escaped or unusual
+     * fields, and passes it to {@link Sink#record}. Returns false if the line cannot be decoded.
+     */
+    private boolean decodeExpense() {
+        try {
+            String id = text(0);
+            double amount = fieldEscaped[2] ? Double.parseDouble(text(2)) : amount(fieldStart[2], fieldEnd[2]);
+            LocalDate date = fieldEscaped[3] ? LocalDate.parse(text(3)) : date(fieldStart[3], fieldEnd[3]);
+            int category = fieldEscaped[4]
+                    ? ExpenseCategory.valueOf(text(4)).ordinal()
+                    : categoryIndex(fieldStart[4], fieldEnd[4]);
+            if (category < 0) return false;
+            sink.record(new BasicExpense(id, amount, date, CATEGORIES[category]));
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Decodes a field as text, dropping escape backslashes.
+     */
+    private String text(int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        if (!fieldEscaped[field]) {
+            return new String(buf, start, end - start, StandardCharsets.UTF_8);
+        }
+        byte[] out = new byte[end - start];
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            if (buf[i] == '\\') {
+                if (++i == end) break;
+            }
+            out[n++] = buf[i];
+        }
+        return new String(out, 0, n, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses plain decimals ({@code -?digits[.digits]}) exactly when the digits fit a double mantissa;
+     * anything else goes through Double.parseDouble.
+     */
+    private double amount(int start, int end) {
+        int i = start;
+        boolean negative = i < end && buf[i] == '-';
+        if (negative) i++;
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < end; i++) {
+            byte b = buf[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (decimals >= 0) decimals++;
+            } else if (b == '.' && decimals < 0) {
+                decimals = 0;
+            } else {
+                return Double.parseDouble(new String(buf, start, end - start, StandardCharsets.US_ASCII));
+            }
+        }
+        if (digits == 0 || digits > 15 || decimals == 0 || decimals >= POW10.length) {
+            return Double.parseDouble(new String(buf, start, end - start, StandardCharsets.US_ASCII));
+        }
+        double value = decimals > 0 ? mantissa / POW10[decimals] : mantissa;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses {@code yyyy-MM-dd} from digits; other ISO forms go through LocalDate.parse.
+     */
+    private LocalDate date(int start, int end) {
+        if (end - start != 10 || buf[start + 4] != '-' || buf[start + 7] != '-') {
+            return LocalDate.parse(new String(buf, start, end - start, StandardCharsets.US_ASCII));
+        }
+        int year = digits(start, 4);
+        int month = digits(start + 5, 2);
+        int day = digits(start + 8, 2);
+        if (year < 0 || month < 0 || day < 0) {
+            return LocalDate.parse(new String(buf, start, end - start, StandardCharsets.US_ASCII));
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) return -1;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /**
+     * Parses {@code count} lowercase hex digits, as {@link UUID#toString} writes them; -1 if any is not one.
+     * Looked up in a table without branching, as ids are random and digits and letters alternate unpredictably.
+     */
+    private long hex(int start, int count) {
+        long value = 0;
+        int invalid = 0;
+        for (int i = start; i < start + count; i++) {
+            int d = HEX_VALUES[buf[i] & 0xff];
+            invalid |= d;
+            value = value << 4 | (d & 0xf);
+        }
+        return invalid < 0 ? -1 : value;
+    }
+
+    /**
+     * Ordinal of the category named by the field, or -1 if there is none.
+     */
+    private int categoryIndex(int start, int end) {
+        int len = end - start;
+        for (int c = 0; c < CATEGORY_NAMES.length; c++) {
+            byte[] name = CATEGORY_NAMES[c];
+            if (name.length == len && Arrays.equals(buf, start, end, name, 0, len)) return c;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,531 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.util.DataAccessException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * ExpenseRepository that keeps one journal segment file per month ({@code expenses-YYYY-MM.txt}).
+ * Only the active month is parsed at startup; older segments are parsed the first time a query needs them.
+ * <p>
+ * Each segment's {@link ExpenseRollup} and an {@link IdFilter} of its ids are saved to {@code rollup.dat} on
+ * close, tagged with the segment file's size and modification time. On the next start a segment whose file
+ * is unchanged is summarized from the saved rollup, and skipped by id lookups its filter rules out, without
+ * being parsed.
+ */
+public class PartitionedExpenseRepository implements ExpenseRepository {
+
+    private static final String SEGMENT_PREFIX = "expenses-";
+    private static final String SEGMENT_SUFFIX = ".txt";
+    private static final String ROLLUP_FILE = "rollup.dat";
+    private static final int ROLLUP_MAGIC = 0x53455249; // "SERI": rollups and id filters
+
+    private final Path directory;
+    private final Duration groupCommitWindow;
+    private final ConcurrentNavigableMap<YearMonth, FileExpenseRepository> segments = new ConcurrentSkipListMap<>();
+    /** Saved rollups of segments whose files have not changed since they were saved. */
+    private final Map<YearMonth, ExpenseRollup> savedRollups = new ConcurrentHashMap<>();
+    /** Saved id filters of the same segments. */
+    private final Map<YearMonth, IdFilter> savedIds = new ConcurrentHashMap<>();
+    private final ExpenseChangeSupport changes = new ExpenseChangeSupport();
+
+    public PartitionedExpenseRepository(String directoryPath) throws DataAccessException {
+        this(directoryPath, YearMonth.now());
+    }
+
+    public PartitionedExpenseRepository(String directoryPath, YearMonth activeMonth) throws DataAccessException {
+        this(directoryPath, activeMonth, null);
+    }
+
+    /**
+     * @param groupCommitWindow if non-null, each segment group-commits its writes within this window
+     */
+    public PartitionedExpenseRepository(String directoryPath, YearMonth activeMonth, Duration groupCommitWindow)
+            throws DataAccessException {
+        this.directory = Path.of(directoryPath).toAbsolutePath();
+        this.groupCommitWindow = groupCommitWindow;
+        discoverSegments();
+        readRollups();
+        segment(activeMonth).loadAll();
+    }
+
+    private void discoverSegments() throws DataAccessException {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    YearMonth month = monthOf(file.getFileName().toString());
+                    if (month != null) {
+                        segment(month);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to list expense segments in " + directory, e);
+        }
+    }
+
+    private static YearMonth monthOf(String fileName) {
+        String month = fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length());
+        try {
+            return YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the segment for the month, creating it if needed. Segments parse their file lazily.
+     * {@link ConcurrentSkipListMap#computeIfAbsent} may run its function more than once, so new segments are
+     * created under a lock: two repositories over one file would each keep their own rows.
+     */
+    private FileExpenseRepository segment(YearMonth month) {
+        FileExpenseRepository existing = segments.get(month);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (segments) {
+            return segments.computeIfAbsent(month, m -> {
+                FileExpenseRepository segment = new FileExpenseRepository(
+                        segmentPath(m).toString(), FileExpenseRepository.StorageMode.JOURNAL, groupCommitWindow);
+                segment.addChangeListener(changes::fire);
+                return segment;
+            });
+        }
+    }
+
+    private Path segmentPath(YearMonth month) {
+        return directory.resolve(SEGMENT_PREFIX + month + SEGMENT_SUFFIX);
+    }
+
+    @Override
+    public void save(Expense expense) throws DataAccessException {
+        saveAll(List.of(expense));
+    }
+
+    /**
+     * Saves each expense in its month's segment. An expense whose date moved to another month is first
+     * deleted from the segment that holds it, found as by {@link #findById}. If an id occurs more than once,
+     * its last version is saved.
+     */
+    @Override
+    public void saveAll(Collection<Expense> expenses) throws DataAccessException {
+        Map<String, Expense> latest = new LinkedHashMap<>();
+        for (Expense e : expenses) {
+            latest.put(e.getId(), e);
+        }
+        Map<String, FileExpenseRepository> owners = findSegments(latest.keySet());
+        Map<FileExpenseRepository, List<String>> moved = new LinkedHashMap<>();
+        Map<YearMonth, List<Expense>> byMonth = new TreeMap<>();
+        for (Expense e : latest.values()) {
+            YearMonth month = YearMonth.from(e.getDate());
+            FileExpenseRepository owner = owners.get(e.getId());
+            if (owner != null && owner != segments.get(month)) {
+                moved.computeIfAbsent(owner, o -> new ArrayList<>()).add(e.getId());
+            }
+            byMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(e);
+        }
+        for (Map.Entry<FileExpenseRepository, List<String>> entry : moved.entrySet()) {
+            entry.getKey().deleteAll(entry.getValue());
+        }
+        for (Map.Entry<YearMonth, List<Expense>> entry : byMonth.entrySet()) {
+            segment(entry.getKey()).saveAll(entry.getValue());
+        }
+    }
+
+    @Override
+    public List<Expense> loadAll() throws DataAccessException {
+        List<Expense> all = new ArrayList<>();
+        for (FileExpenseRepository segment : segments.values()) {
+            all.addAll(segment.loadAll());
+        }
+        return all;
+    }
+
+    /**
+     * Returns the expenses of one month, parsing only that month's segment.
+     */
+    public List<Expense> loadMonth(YearMonth month) throws DataAccessException {
+        FileExpenseRepository segment = segments.get(month);
+        return segment != null ? segment.loadAll() : new ArrayList<>();
+    }
+
+    @Override
+    public void delete(String expenseId) throws DataAccessException {
+        FileExpenseRepository owner = findSegment(expenseId);
+        if (owner != null) {
+            owner.delete(expenseId);
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<String> expenseIds) throws DataAccessException {
+        Map<FileExpenseRepository, List<String>> byOwner = new LinkedHashMap<>();
+        for (Map.Entry<String, FileExpenseRepository> owner : findSegments(expenseIds).entrySet()) {
+            byOwner.computeIfAbsent(owner.getValue(), o -> new ArrayList<>()).add(owner.getKey());
+        }
+        for (Map.Entry<FileExpenseRepository, List<String>> entry : byOwner.entrySet()) {
+            entry.getKey().deleteAll(entry.getValue());
+        }
+    }
+
+    @Override
+    public Expense findById(String expenseId) throws DataAccessException {
+        FileExpenseRepository owner = findSegment(expenseId);
+        return owner != null ? owner.findById(expenseId) : null;
+    }
+
+    /**
+     * Finds the owning segments as {@link #saveAll} does, so ids ruled out by the saved id filters parse nothing.
+     */
+    @Override
+    public List<String> findStoredIds(Collection<String> expenseIds) throws DataAccessException {
+        return new ArrayList<>(findSegments(expenseIds).keySet());
+    }
+
+    /**
+     * Queries only the segments whose month overlaps the range; the others stay unparsed.
+     */
+    @Override
+    public List<Expense> findByDateRange(LocalDate from, LocalDate to) throws DataAccessException {
+        return findInRange(null, from, to);
+    }
+
+    @Override
+    public List<Expense> findByCategoryAndRange(ExpenseCategory category, LocalDate from, LocalDate to)
+            throws DataAccessException {
+        return findInRange(category, from, to);
+    }
+
+    private List<Expense> findInRange(ExpenseCategory category, LocalDate from, LocalDate to)
+            throws DataAccessException {
+        List<Expense> matches = new ArrayList<>();
+        if (from.isAfter(to)) {
+            return matches;
+        }
+        for (FileExpenseRepository segment
+                : segments.subMap(YearMonth.from(from), true, YearMonth.from(to), true).values()) {
+            matches.addAll(category == null
+                    ? segment.findByDateRange(from, to)
+                    : segment.findByCategoryAndRange(category, from, to));
+        }
+        return matches;
+    }
+
+    /**
+     * Counted from the rollups, so segments with a valid saved rollup are not parsed.
+     */
+    @Override
+    public int count() throws DataAccessException {
+        return (int) summarize(null, null).getCount();
+    }
+
+    @Override
+    public int countByDateRange(LocalDate from, LocalDate to) throws DataAccessException {
+        if (from.isAfter(to)) return 0;
+        int count = 0;
+        for (FileExpenseRepository segment
+                : segments.subMap(YearMonth.from(from), true, YearMonth.from(to), true).values()) {
+            count += segment.countByDateRange(from, to);
+        }
+        return count;
+    }
+
+    /**
+     * Walks the segments from the newest month, skipping whole segments by their rollup count, so only the
+     * segments that hold the page are parsed.
+     */
+    @Override
+    public List<Expense> loadPage(int offset, int limit) throws DataAccessException {
+        List<Expense> page = new ArrayList<>(Math.max(limit, 0));
+        int skip = offset;
+        for (Map.Entry<YearMonth, FileExpenseRepository> entry : segments.descendingMap().entrySet()) {
+            if (page.size() >= limit) break;
+            FileExpenseRepository segment = entry.getValue();
+            ExpenseRollup saved = savedRollups.get(entry.getKey());
+            int size = !segment.isLoaded() && saved != null
+                    ? (int) saved.summarize(null, null).getCount() : segment.count();
+            if (skip >= size) {
+                skip -= size;
+                continue;
+            }
+            page.addAll(segment.loadPage(skip, limit - page.size()));
+            skip = 0;
+        }
+        return page;
+    }
+
+    /**
+     * Segments publish their own changes; these listeners receive all of them. A save that moves an expense
+     * to another month arrives as its removal from the old segment followed by its addition to the new one.
+     */
+    @Override
+    public void addChangeListener(ExpenseChangeListener listener) {
+        changes.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(ExpenseChangeListener listener) {
+        changes.remove(listener);
+    }
+
+    /**
+     * Sums the segments in the range: loaded segments from their live rollup, unparsed ones from their
+     * saved rollup when it is still valid, and only the rest by parsing them.
+     */
+    @Override
+    public ExpenseRollup.Totals summarize(YearMonth from, YearMonth to) throws DataAccessException {
+        ExpenseRollup.Totals totals = new ExpenseRollup.Totals();
+        if (from != null && to != null && from.isAfter(to)) {
+            return totals;
+        }
+        Map<YearMonth, FileExpenseRepository> range = from == null
+                ? (to == null ? segments : segments.headMap(to, true))
+                : (to == null ? segments.tailMap(from, true) : segments.subMap(from, true, to, true));
+        for (Map.Entry<YearMonth, FileExpenseRepository> entry : range.entrySet()) {
+            ExpenseRollup saved = savedRollups.get(entry.getKey());
+            if (!entry.getValue().isLoaded() && saved != null) {
+                saved.addTo(totals, from, to);
+            } else {
+                totals.addAll(entry.getValue().summarize(from, to));
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Whole months are summed as in {@link #summarize}; only the segments of the partial months at either end
+     * are aggregated row by row.
+     */
+    @Override
+    public ExpenseRollup.Totals summarizeDays(LocalDate from, LocalDate to) throws DataAccessException {
+        ExpenseRollup.Totals totals = new ExpenseRollup.Totals();
+        if (from.isAfter(to)) {
+            return totals;
+        }
+        YearMonth first = ExpenseRollup.firstWholeMonth(from);
+        YearMonth last = ExpenseRollup.lastWholeMonth(to);
+        if (first.isAfter(last)) {
+            addDays(totals, from, to);
+            return totals;
+        }
+        totals.addAll(summarize(first, last));
+        if (from.isBefore(first.atDay(1))) {
+            addDays(totals, from, first.atDay(1).minusDays(1));
+        }
+        if (to.isAfter(last.atEndOfMonth())) {
+            addDays(totals, last.atEndOfMonth().plusDays(1), to);
+        }
+        return totals;
+    }
+
+    /**
+     * Runs the query per segment, narrowed to that segment's month, and merges the results. Narrowing makes
+     * every month but the partial ones at either end month-aligned, so those are read from the live or saved
+     * rollup as in {@link #summarize}, and only the end segments are scanned. A saved rollup predates every
+     * write to its segment, so the result claims no change events of that segment.
+     */
+    @Override
+    public AggregateResult aggregate(AggregateQuery query) throws DataAccessException {
+        AggregateResult.Accumulator into = query.accumulator();
+        if (query.isEmpty()) {
+            return into.result();
+        }
+        LocalDate from = query.getFrom();
+        LocalDate to = query.getTo();
+        Map<YearMonth, FileExpenseRepository> range = from == null
+                ? (to == null ? segments : segments.headMap(YearMonth.from(to), true))
+                : (to == null ? segments.tailMap(YearMonth.from(from), true)
+                : segments.subMap(YearMonth.from(from), true, YearMonth.from(to), true));
+        for (Map.Entry<YearMonth, FileExpenseRepository> entry : range.entrySet()) {
+            YearMonth month = entry.getKey();
+            AggregateQuery inMonth = query.between(
+                    from == null || from.isBefore(month.atDay(1)) ? month.atDay(1) : from,
+                    to == null || to.isAfter(month.atEndOfMonth()) ? month.atEndOfMonth() : to);
+            ExpenseRollup saved = savedRollups.get(month);
+            if (inMonth.isMonthAligned() && !entry.getValue().isLoaded() && saved != null) {
+                saved.addTo(into, inMonth);
+            } else {
+                into.addAll(entry.getValue().aggregate(inMonth));
+            }
+        }
+        return into.result();
+    }
+
+    private void addDays(ExpenseRollup.Totals totals, LocalDate from, LocalDate to) throws DataAccessException {
+        for (FileExpenseRepository segment
+                : segments.subMap(YearMonth.from(from), true, YearMonth.from(to), true).values()) {
+            totals.addAll(segment.summarizeDays(from, to));
+        }
+    }
+
+    /**
+     * Reads rollup.dat, keeping the rollups of segments whose file size and modification time still match.
+     * The file is only a cache, so a missing or unreadable one is ignored.
+     */
+    private void readRollups() {
+        Path file = directory.resolve(ROLLUP_FILE);
+        if (!Files.exists(file)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != ROLLUP_MAGIC) return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                YearMonth month = YearMonth.of(in.readInt(), in.readInt());
+                long size = in.readLong();
+                long modified = in.readLong();
+                ExpenseRollup rollup = ExpenseRollup.readFrom(in);
+                IdFilter ids = IdFilter.readFrom(in);
+                Path segment = segmentPath(month);
+                if (segments.containsKey(month) && Files.size(segment) == size
+                        && Files.getLastModifiedTime(segment).toMillis() == modified) {
+                    savedRollups.put(month, rollup);
+                    savedIds.put(month, ids);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            savedRollups.clear();
+            savedIds.clear();
+        }
+    }
+
+    /**
+     * Saves every segment's rollup and id filter that are known without parsing, tagged with the segment
+     * file's current size and modification time. Called once the segments are closed.
+     */
+    private void writeRollups() throws DataAccessException {
+        Map<YearMonth, ExpenseRollup> rollups = new TreeMap<>();
+        Map<YearMonth, IdFilter> ids = new HashMap<>();
+        for (Map.Entry<YearMonth, FileExpenseRepository> entry : segments.entrySet()) {
+            YearMonth month = entry.getKey();
+            FileExpenseRepository segment = entry.getValue();
+            if (segment.isLoaded()) {
+                rollups.put(month, segment.rollupSnapshot());
+                ids.put(month, segment.idFilter());
+            } else if (savedRollups.containsKey(month)) {
+                rollups.put(month, savedRollups.get(month));
+                ids.put(month, savedIds.get(month));
+            }
+        }
+        Path file = directory.resolve(ROLLUP_FILE);
+        Path tmp = directory.resolve(ROLLUP_FILE + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(ROLLUP_MAGIC);
+                out.writeInt(rollups.size());
+                for (Map.Entry<YearMonth, ExpenseRollup> entry : rollups.entrySet()) {
+                    Path segment = segmentPath(entry.getKey());
+                    out.writeInt(entry.getKey().getYear());
+                    out.writeInt(entry.getKey().getMonthValue());
+                    out.writeLong(Files.size(segment));
+                    out.writeLong(Files.getLastModifiedTime(segment).toMillis());
+                    entry.getValue().writeTo(out);
+                    ids.get(entry.getKey()).writeTo(out);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to save expense rollup in " + directory, e);
+        }
+    }
+
+    /**
+     * Finds the segment holding the id: loaded segments first, then unloaded ones from newest to oldest.
+     */
+    private FileExpenseRepository findSegment(String expenseId) throws DataAccessException {
+        return findSegments(List.of(expenseId)).get(expenseId);
+    }
+
+    /**
+     * Maps each stored id to the segment that holds it, checking every segment once for all ids still
+     * unresolved: the loaded segments first, then the others, newest first. An unparsed segment with a saved
+     * id filter is only parsed for ids the filter does not rule out, so looking up a new id parses nothing
+     * but the occasional false positive; one without a filter is always parsed. Ids stored nowhere are left out.
+     */
+    private Map<String, FileExpenseRepository> findSegments(Collection<String> expenseIds)
+            throws DataAccessException {
+        Map<String, FileExpenseRepository> owners = new HashMap<>();
+        Set<String> unresolved = new LinkedHashSet<>(expenseIds);
+        Map<YearMonth, FileExpenseRepository> unparsed = new LinkedHashMap<>();
+        for (Map.Entry<YearMonth, FileExpenseRepository> entry : segments.descendingMap().entrySet()) {
+            if (entry.getValue().isLoaded()) {
+                resolve(entry.getValue(), unresolved, owners);
+            } else {
+                unparsed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<YearMonth, FileExpenseRepository> entry : unparsed.entrySet()) {
+            if (unresolved.isEmpty()) break;
+            IdFilter filter = entry.getValue().isLoaded() ? null : savedIds.get(entry.getKey());
+            if (filter == null) {
+                resolve(entry.getValue(), unresolved, owners);
+                continue;
+            }
+            Set<String> candidates = new LinkedHashSet<>();
+            for (String id : unresolved) {
+                if (filter.mightContain(id)) candidates.add(id);
+            }
+            if (!candidates.isEmpty()) {
+                resolve(entry.getValue(), candidates, owners);
+                unresolved.removeAll(owners.keySet());
+            }
+        }
+        return owners;
+    }
+
+    private static void resolve(FileExpenseRepository segment, Set<String> unresolved,
+                                Map<String, FileExpenseRepository> owners) throws DataAccessException {
+        if (unresolved.isEmpty()) return;
+        for (String id : segment.findStoredIds(unresolved)) {
+            owners.put(id, segment);
+            unresolved.remove(id);
+        }
+    }
+
+    /** Whether the month's segment has been parsed. */
+    boolean isLoaded(YearMonth month) {
+        FileExpenseRepository segment = segments.get(month);
+        return segment != null && segment.isLoaded();
+    }
+
+    @Override
+    public void close() throws DataAccessException {
+        DataAccessException failure = null;
+        for (FileExpenseRepository segment : segments.values()) {
+            try {
+                segment.close();
+            } catch (DataAccessException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        writeRollups();
+    }
+}
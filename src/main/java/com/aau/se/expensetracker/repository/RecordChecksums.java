@@ -0,0 +1,90 @@
+package com.aau.se.expensetracker.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Per-record checksums for the text journal. A sealed line is the record followed by {@code #} and the
+ * CRC-32C of the record's UTF-8 bytes as eight lowercase hex digits, e.g. {@code id||12.5|2026-01-02|FOOD#1a2b3c4d}.
+ * Lines without the suffix were written before checksums and are read unchecked. A line with a {@code #} in
+ * its last nine bytes claims a seal ({@link #claimsSeal}); if the suffix is malformed, e.g. torn or
+ * overwritten, the line is corrupt rather than an unsealed one.
+ */
+final class RecordChecksums {
+
+    /** Length of the {@code #xxxxxxxx} suffix. */
+    static final int SUFFIX_LENGTH = 9;
+    private static final byte MARK = '#';
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX_VALUES = new byte[256];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int d = 0; d < HEX.length; d++) {
+            HEX_VALUES[HEX[d]] = (byte) d;
+        }
+    }
+
+    private RecordChecksums() {
+    }
+
+    /**
+     * Returns the record with its checksum appended.
+     */
+    static String seal(String record) {
+        byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+        int crc = crc(bytes, 0, bytes.length);
+        char[] suffix = new char[SUFFIX_LENGTH];
+        suffix[0] = (char) MARK;
+        for (int i = 1; i < SUFFIX_LENGTH; i++) {
+            suffix[i] = (char) HEX[(crc >>> (32 - 4 * i)) & 0xf];
+        }
+        return record + new String(suffix);
+    }
+
+    /**
+     * Returns whether the line {@code buf[start, end)} has a checksum mark where a suffix would start or
+     * inside it. Unsealed records end in a category name and never do.
+     */
+    static boolean claimsSeal(byte[] buf, int start, int end) {
+        for (int i = Math.max(start, end - SUFFIX_LENGTH); i < end; i++) {
+            if (buf[i] == MARK) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the line {@code buf[start, end)} ends with a checksum suffix.
+     */
+    static boolean isSealed(byte[] buf, int start, int end) {
+        if (end - start < SUFFIX_LENGTH || buf[end - SUFFIX_LENGTH] != MARK) return false;
+        for (int i = end - SUFFIX_LENGTH + 1; i < end; i++) {
+            if (hexValue(buf[i]) < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the sealed line {@code buf[start, end)} matches its checksum.
+     */
+    static boolean verify(byte[] buf, int start, int end) {
+        int bodyEnd = end - SUFFIX_LENGTH;
+        int stored = 0;
+        for (int i = bodyEnd + 1; i < end; i++) {
+            stored = (stored << 4) | hexValue(buf[i]);
+        }
+        return crc(buf, start, bodyEnd - start) == stored;
+    }
+
+    static int crc(byte[] bytes, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /** By table rather than by range checks, which mispredict on the random digits of a checksum. */
+    private static int hexValue(byte b) {
+        return HEX_VALUES[b & 0xff];
+    }
+}
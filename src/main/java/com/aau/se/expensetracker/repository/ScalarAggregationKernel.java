@@ -0,0 +1,42 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.ExpenseCategory;
+
+import java.util.Arrays;
+
+/**
+ * Row-at-a-time {@link AggregationKernel}; runs everywhere and is the reference for the vector kernel.
+ */
+final class ScalarAggregationKernel implements AggregationKernel {
+
+    private static final int CATEGORY_COUNT = ExpenseCategory.values().length;
+
+    @Override
+    public void aggregate(long[] amounts, byte[] categories, int[] epochDays, int start, int end,
+                          int fromDay, int toDay, ExpenseRollup.Totals into) {
+        long[] sums = new long[CATEGORY_COUNT];
+        long[] counts = new long[CATEGORY_COUNT];
+        long[] mins = new long[CATEGORY_COUNT];
+        long[] maxes = new long[CATEGORY_COUNT];
+        Arrays.fill(mins, Long.MAX_VALUE);
+        Arrays.fill(maxes, Long.MIN_VALUE);
+        for (int i = start; i < end; i++) {
+            int day = epochDays[i];
+            if (day < fromDay || day > toDay) continue;
+            int c = categories[i];
+            long amount = amounts[i];
+            sums[c] += amount;
+            counts[c]++;
+            mins[c] = Math.min(mins[c], amount);
+            maxes[c] = Math.max(maxes[c], amount);
+        }
+        for (int c = 0; c < CATEGORY_COUNT; c++) {
+            into.add(c, sums[c], counts[c], mins[c], maxes[c]);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,556 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.metrics.ExpenseMetrics;
+import com.aau.se.expensetracker.metrics.OperationStats;
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.util.Amounts;
+import com.aau.se.expensetracker.util.DataAccessException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * SQLite-backed repository (needs the {@code org.xerial:sqlite-jdbc} driver on the class path).
+ * <p>
+ * One table, {@code expenses}, with amounts in minor units and dates as epoch days. Its integer primary key
+ * {@code seq} is the insertion order: saving an existing id updates the row in place and keeps its
+ * {@code seq}, so newest-first pages break ties within a day the same way {@link FileExpenseRepository} does.
+ * The date index (implicitly ending in {@code seq}) serves range queries and pages in order; the
+ * category index covers date and amount, so totals are aggregated in SQL from the index alone, with one
+ * seek per category, instead of reading rows into Java.
+ * <p>
+ * The database runs in WAL mode with {@code synchronous=NORMAL}: a commit appends to the WAL without an
+ * fsync, which like the journal's appends survives a crash of the process but not of the machine.
+ * Batches are written as one transaction of prepared, batched statements. All calls share one connection
+ * and run one at a time.
+ */
+public class SqliteExpenseRepository implements ExpenseRepository {
+
+    /** Statements per JDBC batch; a whole saveAll or deleteAll is still one transaction. */
+    private static final int BATCH_SIZE = 10_000;
+    private static final int SCHEMA_VERSION = 1;
+    /** Ids per query in {@link #findStoredIds}, under SQLite's default limit of 999 parameters. */
+    private static final int ID_LOOKUP_BATCH = 500;
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+
+    private static final String COLUMNS = "id, amount_minor, epoch_day, category";
+    private static final String SELECT = "SELECT " + COLUMNS + " FROM expenses";
+    /** Aggregates one day range per category, seeking the category index once per category. */
+    private static final String TOTALS = "SELECT category, SUM(amount_minor), COUNT(*), MIN(amount_minor), "
+            + "MAX(amount_minor) FROM expenses WHERE category IN (" + categoryList() + ") "
+            + "AND epoch_day BETWEEN ? AND ? GROUP BY category";
+    /** Month key ({@link ExpenseRollup#monthKey}) of a row, computed in SQL. */
+    private static final String MONTH_KEY = "(CAST(strftime('%Y', epoch_day * 86400, 'unixepoch') AS INTEGER) * 12 "
+            + "+ CAST(strftime('%m', epoch_day * 86400, 'unixepoch') AS INTEGER) - 1)";
+
+    private static final OperationStats SAVE_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.SAVE);
+    private static final OperationStats DELETE_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.DELETE);
+    private static final OperationStats LOAD_ALL_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.LOAD_ALL);
+    private static final OperationStats RANGE_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.FIND_BY_DATE_RANGE);
+    private static final OperationStats SUMMARIZE_DAYS_STATS =
+            ExpenseMetrics.of(ExpenseMetrics.Operation.SUMMARIZE_DAYS);
+    private static final OperationStats AGGREGATE_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.AGGREGATE);
+
+    private final Path path;
+    private final Connection connection;
+    private final ExpenseChangeSupport changes = new ExpenseChangeSupport();
+    private final PreparedStatement upsert;
+    private final PreparedStatement deleteById;
+    private final PreparedStatement selectById;
+    private final PreparedStatement selectAll;
+    private final PreparedStatement selectRange;
+    private final PreparedStatement selectCategoryRange;
+    private final PreparedStatement selectPage;
+    private final PreparedStatement countAll;
+    private final PreparedStatement countRange;
+    private final PreparedStatement totals;
+    /** Guards the connection and its statements. */
+    private final Object lock = new Object();
+
+    public SqliteExpenseRepository(String filePath) {
+        this.path = Path.of(filePath).toAbsolutePath();
+        try {
+            Path parent = path.getParent();
+            if (parent != null && !Files.exists(parent)) {
+                Files.createDirectories(parent);
+            }
+            connection = DriverManager.getConnection("jdbc:sqlite:" + path);
+        } catch (IOException | SQLException e) {
+            throw new RuntimeException("Could not open expense database: " + path, e);
+        }
+        try {
+            createSchema();
+            upsert = connection.prepareStatement("INSERT INTO expenses (" + COLUMNS + ") VALUES (?, ?, ?, ?) "
+                    + "ON CONFLICT (id) DO UPDATE SET amount_minor = excluded.amount_minor, "
+                    + "epoch_day = excluded.epoch_day, category = excluded.category");
+            deleteById = connection.prepareStatement("DELETE FROM expenses WHERE id = ?");
+            selectById = connection.prepareStatement(SELECT + " WHERE id = ?");
+            selectAll = connection.prepareStatement(SELECT + " ORDER BY seq");
+            selectRange = connection.prepareStatement(
+                    SELECT + " WHERE epoch_day BETWEEN ? AND ? ORDER BY epoch_day, seq");
+            selectCategoryRange = connection.prepareStatement(
+                    SELECT + " WHERE category = ? AND epoch_day BETWEEN ? AND ? ORDER BY epoch_day, seq");
+            selectPage = connection.prepareStatement(
+                    SELECT + " ORDER BY epoch_day DESC, seq DESC LIMIT ? OFFSET ?");
+            countAll = connection.prepareStatement("SELECT COUNT(*) FROM expenses");
+            countRange = connection.prepareStatement("SELECT COUNT(*) FROM expenses WHERE epoch_day BETWEEN ? AND ?");
+            totals = connection.prepareStatement(TOTALS);
+        } catch (SQLException e) {
+            closeQuietly();
+            throw new RuntimeException("Could not open expense database: " + path, e);
+        }
+    }
+
+    private void createSchema() throws SQLException {
+        try (Statement s = connection.createStatement()) {
+            try (ResultSet rs = s.executeQuery("PRAGMA journal_mode = WAL")) {
+                if (!rs.next() || !"wal".equalsIgnoreCase(rs.getString(1))) {
+                    throw new SQLException("Database does not support WAL mode: " + path);
+                }
+            }
+            s.execute("PRAGMA synchronous = NORMAL");
+            s.execute("CREATE TABLE IF NOT EXISTS expenses ("
+                    + "seq INTEGER PRIMARY KEY, "
+                    + "id TEXT NOT NULL UNIQUE, "
+                    + "amount_minor INTEGER NOT NULL, "
+                    + "epoch_day INTEGER NOT NULL, "
+                    + "category TEXT NOT NULL)");
+            s.execute("CREATE INDEX IF NOT EXISTS expenses_by_day ON expenses (epoch_day)");
+            s.execute("CREATE INDEX IF NOT EXISTS expenses_by_category "
+                    + "ON expenses (category, epoch_day, amount_minor)");
+            s.execute("PRAGMA user_version = " + SCHEMA_VERSION);
+        }
+    }
+
+    @Override
+    public void save(Expense expense) throws DataAccessException {
+        saveAll(List.of(expense));
+    }
+
+    @Override
+    public void saveAll(Collection<Expense> expenses) throws DataAccessException {
+        if (expenses.isEmpty()) return;
+        long start = System.nanoTime();
+        List<Expense> replaced = new ArrayList<>(0);
+        long version;
+        try {
+            synchronized (lock) {
+                inTransaction(() -> {
+                    // previous values only matter to listeners; skip the lookups when nobody listens
+                    boolean track = changes.hasListeners();
+                    int pending = 0;
+                    for (Expense e : expenses) {
+                        if (track) {
+                            Expense previous = findById(selectById, e.getId());
+                            if (previous != null) replaced.add(previous);
+                        }
+                        upsert.setString(1, e.getId());
+                        upsert.setLong(2, Amounts.toMinorUnits(e.getAmount()));
+                        upsert.setLong(3, e.getDate().toEpochDay());
+                        upsert.setString(4, e.getCategory().name());
+                        upsert.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            upsert.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) upsert.executeBatch();
+                }, "Failed to save expenses");
+                version = changes.commit();
+            }
+        } catch (DataAccessException e) {
+            SAVE_STATS.failed();
+            throw e;
+        }
+        long bytes = 0;
+        for (Expense e : expenses) {
+            bytes += payloadBytes(e.getId()) + 2 * Long.BYTES + e.getCategory().name().length();
+        }
+        SAVE_STATS.record(start, bytes, expenses.size());
+        changes.fireSaved(expenses, replaced, version);
+    }
+
+    @Override
+    public List<Expense> loadAll() throws DataAccessException {
+        long start = System.nanoTime();
+        List<Expense> all;
+        try {
+            synchronized (lock) {
+                all = query(selectAll, "Failed to load expenses");
+            }
+        } catch (DataAccessException e) {
+            LOAD_ALL_STATS.failed();
+            throw e;
+        }
+        LOAD_ALL_STATS.record(start, 0, all.size());
+        return all;
+    }
+
+    @Override
+    public void delete(String expenseId) throws DataAccessException {
+        deleteAll(List.of(expenseId));
+    }
+
+    @Override
+    public void deleteAll(Collection<String> expenseIds) throws DataAccessException {
+        if (expenseIds.isEmpty()) return;
+        long start = System.nanoTime();
+        List<Expense> removed = new ArrayList<>(expenseIds.size());
+        long version;
+        try {
+            synchronized (lock) {
+                inTransaction(() -> {
+                    int pending = 0;
+                    for (String id : expenseIds) {
+                        Expense e = findById(selectById, id);
+                        if (e == null) continue;
+                        removed.add(e);
+                        deleteById.setString(1, id);
+                        deleteById.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            deleteById.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) deleteById.executeBatch();
+                }, "Failed to delete expenses");
+                version = changes.commit();
+            }
+        } catch (DataAccessException e) {
+            DELETE_STATS.failed();
+            throw e;
+        }
+        long bytes = 0;
+        for (Expense e : removed) {
+            bytes += payloadBytes(e.getId());
+        }
+        DELETE_STATS.record(start, bytes, removed.size());
+        changes.fireRemoved(removed, version);
+    }
+
+    @Override
+    public Expense findById(String expenseId) throws DataAccessException {
+        synchronized (lock) {
+            try {
+                return findById(selectById, expenseId);
+            } catch (SQLException e) {
+                throw new DataAccessException("Failed to find expense " + expenseId, e);
+            }
+        }
+    }
+
+    /**
+     * Looks the ids up with one {@code IN} query per {@value #ID_LOOKUP_BATCH} ids.
+     */
+    @Override
+    public List<String> findStoredIds(Collection<String> expenseIds) throws DataAccessException {
+        List<String> ids = new ArrayList<>(expenseIds);
+        List<String> stored = new ArrayList<>();
+        synchronized (lock) {
+            for (int from = 0; from < ids.size(); from += ID_LOOKUP_BATCH) {
+                List<String> batch = ids.subList(from, Math.min(ids.size(), from + ID_LOOKUP_BATCH));
+                String sql = "SELECT id FROM expenses WHERE id IN (" + "?,".repeat(batch.size() - 1) + "?)";
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        statement.setString(i + 1, batch.get(i));
+                    }
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            stored.add(rs.getString(1));
+                        }
+                    }
+                } catch (SQLException e) {
+                    throw new DataAccessException("Failed to find expenses by id", e);
+                }
+            }
+        }
+        return stored;
+    }
+
+    @Override
+    public List<Expense> findByDateRange(LocalDate from, LocalDate to) throws DataAccessException {
+        long start = System.nanoTime();
+        List<Expense> found;
+        try {
+            synchronized (lock) {
+                try {
+                    selectRange.setLong(1, from.toEpochDay());
+                    selectRange.setLong(2, to.toEpochDay());
+                } catch (SQLException e) {
+                    throw new DataAccessException("Failed to find expenses by date", e);
+                }
+                found = query(selectRange, "Failed to find expenses by date");
+            }
+        } catch (DataAccessException e) {
+            RANGE_STATS.failed();
+            throw e;
+        }
+        RANGE_STATS.record(start, 0, found.size());
+        return found;
+    }
+
+    @Override
+    public List<Expense> findByCategoryAndRange(ExpenseCategory category, LocalDate from, LocalDate to)
+            throws DataAccessException {
+        synchronized (lock) {
+            try {
+                selectCategoryRange.setString(1, category.name());
+                selectCategoryRange.setLong(2, from.toEpochDay());
+                selectCategoryRange.setLong(3, to.toEpochDay());
+            } catch (SQLException e) {
+                throw new DataAccessException("Failed to find expenses by category", e);
+            }
+            return query(selectCategoryRange, "Failed to find expenses by category");
+        }
+    }
+
+    @Override
+    public int count() throws DataAccessException {
+        synchronized (lock) {
+            return (int) queryLong(countAll, "Failed to count expenses");
+        }
+    }
+
+    @Override
+    public int countByDateRange(LocalDate from, LocalDate to) throws DataAccessException {
+        synchronized (lock) {
+            try {
+                countRange.setLong(1, from.toEpochDay());
+                countRange.setLong(2, to.toEpochDay());
+            } catch (SQLException e) {
+                throw new DataAccessException("Failed to count expenses by date", e);
+            }
+            return (int) queryLong(countRange, "Failed to count expenses by date");
+        }
+    }
+
+    /**
+     * Walks the date index from the newest end; cost grows with {@code offset}, as OFFSET skips entries.
+     */
+    @Override
+    public List<Expense> loadPage(int offset, int limit) throws DataAccessException {
+        if (limit <= 0 || offset < 0) return List.of();
+        synchronized (lock) {
+            try {
+                selectPage.setInt(1, limit);
+                selectPage.setInt(2, offset);
+            } catch (SQLException e) {
+                throw new DataAccessException("Failed to load expense page", e);
+            }
+            return query(selectPage, "Failed to load expense page");
+        }
+    }
+
+    /**
+     * Aggregated in SQL over the days of the given months; this store keeps no separate rollup.
+     */
+    @Override
+    public ExpenseRollup.Totals summarize(YearMonth from, YearMonth to) throws DataAccessException {
+        long fromDay = from != null ? from.atDay(1).toEpochDay() : Long.MIN_VALUE;
+        long toDay = to != null ? to.atEndOfMonth().toEpochDay() : Long.MAX_VALUE;
+        return totals(fromDay, toDay);
+    }
+
+    @Override
+    public ExpenseRollup.Totals summarizeDays(LocalDate from, LocalDate to) throws DataAccessException {
+        long start = System.nanoTime();
+        ExpenseRollup.Totals result;
+        try {
+            result = totals(from.toEpochDay(), to.toEpochDay());
+        } catch (DataAccessException e) {
+            SUMMARIZE_DAYS_STATS.failed();
+            throw e;
+        }
+        SUMMARIZE_DAYS_STATS.record(start, 0, result.getCount());
+        return result;
+    }
+
+    /**
+     * Aggregated in SQL like {@link #summarizeDays}, always grouped by category so the category index is
+     * still sought once per category; the month key and the amount filter are added when the query has them.
+     */
+    @Override
+    public AggregateResult aggregate(AggregateQuery query) throws DataAccessException {
+        long start = System.nanoTime();
+        AggregateResult.Accumulator into = query.accumulator();
+        if (query.isEmpty()) return into.result();
+        boolean byMonth = query.groupsBy(AggregateQuery.Key.MONTH);
+        String sql = "SELECT category, " + (byMonth ? MONTH_KEY : "0") + " AS month_key, SUM(amount_minor), "
+                + "COUNT(*), MIN(amount_minor), MAX(amount_minor) FROM expenses WHERE category IN ("
+                + categoryList(query) + ") AND epoch_day BETWEEN ? AND ?"
+                + (query.hasAmountFilter() ? " AND amount_minor BETWEEN ? AND ?" : "")
+                + " GROUP BY category" + (byMonth ? ", month_key" : "");
+        long rows = 0;
+        synchronized (lock) {
+            into.covers(changes, changes.version());
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setLong(1, query.fromDay());
+                statement.setLong(2, query.toDay());
+                if (query.hasAmountFilter()) {
+                    statement.setLong(3, query.minAmount());
+                    statement.setLong(4, query.maxAmount());
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        int category = ExpenseCategory.valueOf(rs.getString(1)).ordinal();
+                        into.addCell(rs.getInt(2), category,
+                                rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6));
+                        rows += rs.getLong(4);
+                    }
+                }
+            } catch (SQLException e) {
+                AGGREGATE_STATS.failed();
+                throw new DataAccessException("Failed to aggregate expenses", e);
+            }
+        }
+        AGGREGATE_STATS.record(start, 0, rows);
+        return into.result();
+    }
+
+    private ExpenseRollup.Totals totals(long fromDay, long toDay) throws DataAccessException {
+        ExpenseRollup.Totals result = new ExpenseRollup.Totals();
+        if (fromDay > toDay) return result;
+        synchronized (lock) {
+            try {
+                totals.setLong(1, fromDay);
+                totals.setLong(2, toDay);
+                try (ResultSet rs = totals.executeQuery()) {
+                    while (rs.next()) {
+                        int category = ExpenseCategory.valueOf(rs.getString(1)).ordinal();
+                        result.add(category, rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new DataAccessException("Failed to summarize expenses", e);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void addChangeListener(ExpenseChangeListener listener) {
+        changes.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(ExpenseChangeListener listener) {
+        changes.remove(listener);
+    }
+
+    /**
+     * Closes the connection; SQLite checkpoints the WAL into the database file on the last close.
+     */
+    @Override
+    public void close() throws DataAccessException {
+        synchronized (lock) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                throw new DataAccessException("Failed to close expense database", e);
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // already failing
+        }
+    }
+
+    /**
+     * Runs {@code work} as one transaction, rolling it back if it fails. Caller must hold the lock.
+     */
+    private void inTransaction(SqlWork work, String message) throws DataAccessException {
+        try {
+            connection.setAutoCommit(false);
+            try {
+                work.run();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(message, e);
+        }
+    }
+
+    private static Expense findById(PreparedStatement statement, String expenseId) throws SQLException {
+        statement.setString(1, expenseId);
+        try (ResultSet rs = statement.executeQuery()) {
+            return rs.next() ? toExpense(rs) : null;
+        }
+    }
+
+    private static List<Expense> query(PreparedStatement statement, String message) throws DataAccessException {
+        try (ResultSet rs = statement.executeQuery()) {
+            List<Expense> expenses = new ArrayList<>();
+            while (rs.next()) {
+                expenses.add(toExpense(rs));
+            }
+            return expenses;
+        } catch (SQLException e) {
+            throw new DataAccessException(message, e);
+        }
+    }
+
+    private static long queryLong(PreparedStatement statement, String message) throws DataAccessException {
+        try (ResultSet rs = statement.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            throw new DataAccessException(message, e);
+        }
+    }
+
+    private static Expense toExpense(ResultSet rs) throws SQLException {
+        return new BasicExpense(rs.getString(1), Amounts.fromMinorUnits(rs.getLong(2)),
+                LocalDate.ofEpochDay(rs.getLong(3)), ExpenseCategory.valueOf(rs.getString(4)));
+    }
+
+    /**
+     * Bytes of an id as bound to a statement. Written bytes count the row payload handed to SQLite, not the
+     * pages it writes to disk, which include the index entries and the journal.
+     */
+    private static int payloadBytes(String id) {
+        return id.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static String categoryList() {
+        return categoryList(AggregateQuery.all());
+    }
+
+    /** The query's categories as SQL literals; the names are enum constants, so quoting them is safe. */
+    private static String categoryList(AggregateQuery query) {
+        StringBuilder sb = new StringBuilder();
+        for (ExpenseCategory c : CATEGORIES) {
+            if (!query.includes(c.ordinal())) continue;
+            if (sb.length() > 0) sb.append(", ");
+            sb.append('\'').append(c.name()).append('\'');
+        }
+        return sb.toString();
+    }
+
+    @FunctionalInterface
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+}
@@ -0,0 +1,111 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * {@link AggregationKernel} on the incubating Vector API: amounts are summed, counted and compared in
+ * {@link LongVector}s under a mask of "this category and in the date range", several rows per instruction.
+ * <p>
+ * The rows are taken in blocks small enough to stay in the L1 cache, and each block is passed over once per
+ * category, so every accumulator lives in a register. Needs {@code --add-modules jdk.incubator.vector} at
+ * compile and run time; {@link AggregationKernels} loads it reflectively and falls back to the scalar kernel
+ * without it.
+ */
+final class VectorAggregationKernel implements AggregationKernel {
+
+    private static final int CATEGORY_COUNT = ExpenseCategory.values().length;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    /** Ints with as many lanes as LONGS, so one day load lines up with one amount load. */
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(LONGS.vectorBitSize() / 2));
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_64;
+    private static final int LANES = LONGS.length();
+    /** Rows per category load: one 64-bit load of category bytes, widened into PARTS long vectors. */
+    private static final int STEP = BYTES.length();
+    private static final int PARTS = STEP / LANES;
+    private static final int BLOCK = 1024;
+
+    VectorAggregationKernel() {
+        if (LANES < 2 || LANES > STEP) {
+            throw new UnsupportedOperationException("No usable vector shape: " + LONGS);
+        }
+    }
+
+    @Override
+    public void aggregate(long[] amounts, byte[] categories, int[] epochDays, int start, int end,
+                          int fromDay, int toDay, ExpenseRollup.Totals into) {
+        long[] sums = new long[CATEGORY_COUNT];
+        long[] counts = new long[CATEGORY_COUNT];
+        long[] mins = new long[CATEGORY_COUNT];
+        long[] maxes = new long[CATEGORY_COUNT];
+        Arrays.fill(mins, Long.MAX_VALUE);
+        Arrays.fill(maxes, Long.MIN_VALUE);
+        for (int block = start; block < end; block += BLOCK) {
+            int blockEnd = Math.min(end, block + BLOCK);
+            for (int c = 0; c < CATEGORY_COUNT; c++) {
+                aggregateCategory(amounts, categories, epochDays, block, blockEnd, fromDay, toDay, c,
+                        sums, counts, mins, maxes);
+            }
+        }
+        for (int c = 0; c < CATEGORY_COUNT; c++) {
+            into.add(c, sums[c], counts[c], mins[c], maxes[c]);
+        }
+    }
+
+    private static void aggregateCategory(long[] amounts, byte[] categories, int[] epochDays, int start, int end,
+                                          int fromDay, int toDay, int category,
+                                          long[] sums, long[] counts, long[] mins, long[] maxes) {
+        LongVector sum = LongVector.zero(LONGS);
+        LongVector min = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+        LongVector max = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+        long count = 0;
+        int i = start;
+        for (int bound = start + (end - start) / STEP * STEP; i < bound; i += STEP) {
+            ByteVector cats = ByteVector.fromArray(BYTES, categories, i);
+            for (int part = 0; part < PARTS; part++) {
+                int row = i + part * LANES;
+                LongVector cat = (LongVector) cats.convertShape(VectorOperators.B2L, LONGS, part);
+                LongVector day = (LongVector) IntVector.fromArray(INTS, epochDays, row)
+                        .convertShape(VectorOperators.I2L, LONGS, 0);
+                VectorMask<Long> match = cat.compare(VectorOperators.EQ, category)
+                        .and(day.compare(VectorOperators.GE, fromDay))
+                        .and(day.compare(VectorOperators.LE, toDay));
+                LongVector amount = LongVector.fromArray(LONGS, amounts, row);
+                sum = sum.add(amount, match);
+                min = min.lanewise(VectorOperators.MIN, amount, match);
+                max = max.lanewise(VectorOperators.MAX, amount, match);
+                count += match.trueCount();
+            }
+        }
+        long s = sum.reduceLanes(VectorOperators.ADD);
+        long lo = min.reduceLanes(VectorOperators.MIN);
+        long hi = max.reduceLanes(VectorOperators.MAX);
+        for (; i < end; i++) {
+            int day = epochDays[i];
+            if (categories[i] != category || day < fromDay || day > toDay) continue;
+            long amount = amounts[i];
+            s += amount;
+            count++;
+            lo = Math.min(lo, amount);
+            hi = Math.max(hi, amount);
+        }
+        sums[category] += s;
+        counts[category] += count;
+        mins[category] = Math.min(mins[category], lo);
+        maxes[category] = Math.max(maxes[category], hi);
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + LONGS.vectorBitSize();
+    }
+}
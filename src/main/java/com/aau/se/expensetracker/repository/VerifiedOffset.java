@@ -0,0 +1,87 @@
+package com.aau.se.expensetracker.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sidecar of a journal ({@code <journal>.verified}) recording an offset up to which every record is known
+ * to be intact and on disk, so a load only has to checksum the records after it.
+ * <p>
+ * Besides the offset it keeps the CRC-32C of the {@value #ANCHOR} journal bytes before the offset. A sidecar
+ * whose anchor no longer matches, e.g. because the journal was replaced or restored from elsewhere, is ignored
+ * and the whole journal is checked. The sidecar is only a hint: losing it costs time, never data.
+ */
+final class VerifiedOffset {
+
+    private static final int MAGIC = 0x53455646; // "SEVF"
+    private static final int ANCHOR = 64;
+    private static final int SIZE = 4 + 8 + 4 + 4;
+
+    private VerifiedOffset() {
+    }
+
+    static Path pathFor(Path journal) {
+        return journal.resolveSibling(journal.getFileName() + ".verified");
+    }
+
+    /**
+     * Returns the verified offset of the journal, or 0 if there is no sidecar or it does not match the journal.
+     */
+    static long read(Path journal) {
+        Path file = pathFor(journal);
+        try {
+            if (!Files.exists(file)) return 0;
+            byte[] bytes = Files.readAllBytes(file);
+            if (bytes.length != SIZE) return 0;
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            int magic = in.getInt();
+            long offset = in.getLong();
+            int anchor = in.getInt();
+            int crc = in.getInt();
+            if (magic != MAGIC || crc != RecordChecksums.crc(bytes, 0, SIZE - 4)) return 0;
+            if (offset <= 0 || offset > Files.size(journal) || anchor != anchor(journal, offset)) return 0;
+            return offset;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Records that the journal is intact and durable up to {@code offset}. Force the journal first.
+     */
+    static void write(Path journal, long offset) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(SIZE);
+        out.putInt(MAGIC).putLong(offset).putInt(anchor(journal, offset));
+        out.putInt(RecordChecksums.crc(out.array(), 0, SIZE - 4));
+        Path file = pathFor(journal);
+        Path tmp = AtomicFiles.tempFor(file);
+        Files.write(tmp, out.array());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static void delete(Path journal) throws IOException {
+        Files.deleteIfExists(pathFor(journal));
+    }
+
+    /**
+     * CRC-32C of the up to {@value #ANCHOR} journal bytes before {@code offset}; ties a saved offset to the
+     * journal it was taken from.
+     */
+    static int anchor(Path journal, long offset) throws IOException {
+        int length = (int) Math.min(ANCHOR, offset);
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, offset - length + bytes.position()) < 0) {
+                    throw new IOException("Journal is shorter than its verified offset: " + journal);
+                }
+            }
+        }
+        return RecordChecksums.crc(bytes.array(), 0, length);
+    }
+}
@@ -0,0 +1,641 @@
+package com.aau.se.expensetracker.server;
+
+import com.aau.se.expensetracker.AppContext;
+import com.aau.se.expensetracker.controller.ExpenseController;
+import com.aau.se.expensetracker.controller.RepositoryController;
+import com.aau.se.expensetracker.controller.SummaryBounds;
+import com.aau.se.expensetracker.metrics.ExpenseMetrics;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.model.User;
+import com.aau.se.expensetracker.service.BudgetService;
+import com.aau.se.expensetracker.service.ExpenseService;
+import com.aau.se.expensetracker.service.TenantRegistry;
+import com.aau.se.expensetracker.service.TenantRegistryImplementation;
+import com.aau.se.expensetracker.util.BudgetExceededException;
+import com.aau.se.expensetracker.util.DataAccessException;
+import com.aau.se.expensetracker.util.LatencyHistogram;
+import com.aau.se.expensetracker.util.SessionStore;
+import com.aau.se.expensetracker.util.ThreadPools;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Headless JSON API over the same {@link AppContext} the desktop app uses, served by the JDK's built-in
+ * HTTP server with one virtual thread per request (a cached thread pool before JDK 21).
+ * <pre>
+ * POST   /expenses             {"amount": 12.5, "category": "FOOD", "date": "2026-10-01"}  (date optional)
+ * GET    /expenses?offset&amp;limit one page, newest first
+ * GET    /expenses/{id}
+ * DELETE /expenses/{id}
+ * GET    /summary?from=2026-01&amp;to=2026-10  totals and budget per category; bounds are optional
+ *                              months or days (2026-10-05)
+ * GET    /metrics              request latency per endpoint
+ * </pre>
+ * Reads go straight to the services and take no lock. Adds and deletes run on the controller's writer
+ * thread, so the budget check and the save cannot interleave with another write.
+ * <p>
+ * Over a {@link TenantRegistry} the server hosts many users instead: {@code POST /tenants}
+ * {@code {"user": "name", "budget": 500}} creates one and returns its id, and every other route except
+ * {@code /metrics} acts for the tenant named by the {@value #TENANT_HEADER} header. The tenant is leased for
+ * the length of the request, and its adds and deletes hold the tenant's write lock.
+ */
+public class ExpenseHttpServer {
+
+    /**
+     * The routes, each with its own latency histogram.
+     */
+    public enum Endpoint {
+        ADD, LIST, FIND, DELETE, SUMMARY, METRICS, CREATE_TENANT
+    }
+
+    /** Request header naming the tenant when the server runs over a {@link TenantRegistry}. */
+    public static final String TENANT_HEADER = "X-Tenant-Id";
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 1024;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final String EXPENSES_PATH = "/expenses";
+    private static final Duration DEFAULT_TENANT_IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+    /** The single user's context, or null when serving tenants. */
+    private final AppContext context;
+    /** The tenants, or null when serving a single user. */
+    private final TenantRegistry tenants;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<Endpoint, LatencyHistogram> latencies = new EnumMap<>(Endpoint.class);
+
+    /**
+     * Serves the one user of {@code context}.
+     */
+    public ExpenseHttpServer(AppContext context, InetSocketAddress address) throws IOException {
+        this(context, null, address);
+    }
+
+    /**
+     * Serves the tenants of {@code tenants}, chosen per request by the {@value #TENANT_HEADER} header.
+     * Does not close the registry.
+     */
+    public ExpenseHttpServer(TenantRegistry tenants, InetSocketAddress address) throws IOException {
+        this(null, tenants, address);
+    }
+
+    private ExpenseHttpServer(AppContext context, TenantRegistry tenants, InetSocketAddress address)
+            throws IOException {
+        this.context = context;
+        this.tenants = tenants;
+        for (Endpoint endpoint : Endpoint.values()) {
+            latencies.put(endpoint, new LatencyHistogram());
+        }
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = ThreadPools.newPerTaskExecutor("http");
+        server.setExecutor(executor);
+        server.createContext(EXPENSES_PATH, this::handleExpenses);
+        server.createContext("/summary", exchange -> {
+            if (allow(exchange, "GET")) serve(Endpoint.SUMMARY, exchange, scoped(this::summary));
+        });
+        server.createContext("/metrics", exchange -> {
+            if (allow(exchange, "GET")) serve(Endpoint.METRICS, exchange, this::metrics);
+        });
+        if (tenants != null) {
+            server.createContext("/tenants", exchange -> {
+                if (allow(exchange, "POST")) serve(Endpoint.CREATE_TENANT, exchange, this::createTenant);
+            });
+        }
+    }
+
+    /**
+     * Registers the {@link ExpenseMetrics} beans, then starts serving.
+     */
+    public void start() {
+        ExpenseMetrics.registerMBeans();
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits up to {@code delaySeconds} for open exchanges to finish,
+     * then stops the request threads. Does not close the context.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdownNow();
+    }
+
+    /** The bound address; useful when the server was created on port 0. */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /** Request latencies by endpoint, from receipt to the last byte of the response. */
+    public Map<Endpoint, LatencyHistogram> getLatencies() {
+        return Collections.unmodifiableMap(latencies);
+    }
+
+    private void handleExpenses(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String id = path.length() > EXPENSES_PATH.length() + 1 ? path.substring(EXPENSES_PATH.length() + 1) : null;
+        String method = exchange.getRequestMethod();
+        if (id == null) {
+            if (method.equals("GET")) {
+                serve(Endpoint.LIST, exchange, scoped(this::list));
+            } else if (method.equals("POST")) {
+                serve(Endpoint.ADD, exchange, scoped(this::add));
+            } else {
+                methodNotAllowed(exchange, "GET, POST");
+            }
+        } else if (method.equals("GET")) {
+            serve(Endpoint.FIND, exchange, scoped((ex, scope) -> find(scope, id)));
+        } else if (method.equals("DELETE")) {
+            serve(Endpoint.DELETE, exchange, scoped((ex, scope) -> delete(scope, id)));
+        } else {
+            methodNotAllowed(exchange, "GET, DELETE");
+        }
+    }
+
+    private Response add(HttpExchange exchange, Scope scope) throws IOException {
+        Map<String, String> body = Json.parseObject(readBody(exchange));
+        double amount = Double.parseDouble(required(body, "amount"));
+        if (!(amount > 0) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("Amount must be a positive number");
+        }
+        ExpenseCategory category = category(required(body, "category"));
+        String date = body.get("date");
+        Expense added = scope.add(amount, date != null ? LocalDate.parse(date) : LocalDate.now(), category);
+        return new Response(201, appendExpense(new StringBuilder(), added).toString());
+    }
+
+    private Response list(HttpExchange exchange, Scope scope) throws DataAccessException {
+        Map<String, String> query = query(exchange);
+        int offset = intParam(query, "offset", 0);
+        int limit = Math.min(intParam(query, "limit", DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE);
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset and limit must not be negative");
+        int total = scope.expenses().countExpenses();
+        List<Expense> page = scope.expenses().getExpensePage(offset, limit);
+        StringBuilder out = new StringBuilder(64 + page.size() * 96);
+        out.append("{\"total\":").append(total).append(",\"offset\":").append(offset).append(",\"expenses\":[");
+        for (int i = 0; i < page.size(); i++) {
+            if (i > 0) out.append(',');
+            appendExpense(out, page.get(i));
+        }
+        return new Response(200, out.append("]}").toString());
+    }
+
+    private Response find(Scope scope, String id) throws DataAccessException {
+        Expense expense = scope.expenses().findExpense(id);
+        if (expense == null) return notFound(id);
+        return new Response(200, appendExpense(new StringBuilder(), expense).toString());
+    }
+
+    private Response delete(Scope scope, String id) throws DataAccessException {
+        if (!scope.delete(id)) return notFound(id);
+        return new Response(204, null);
+    }
+
+    private Response summary(HttpExchange exchange, Scope scope) {
+        Map<String, String> query = query(exchange);
+        RepositoryController.ExpenseSummary summary = SummaryBounds.parse(query.get("from"), query.get("to"))
+                .summarize(scope.summaries());
+        BudgetService budget = summary.getBudgetService();
+        StringBuilder out = new StringBuilder(512);
+        out.append("{\"user\":");
+        Json.appendString(out, scope.user().getUsername());
+        out.append(",\"totalSpent\":").append(summary.getTotalSpent())
+                .append(",\"expenseCount\":").append(summary.getExpenseCount())
+                .append(",\"monthlyLimit\":").append(budget.getMonthlyLimit())
+                .append(",\"categories\":{");
+        boolean first = true;
+        for (ExpenseCategory c : ExpenseCategory.values()) {
+            if (!first) out.append(',');
+            first = false;
+            out.append('"').append(c.name()).append("\":{\"spent\":").append(summary.getByCategory().get(c))
+                    .append(",\"limit\":").append(budget.getLimit(c))
+                    .append(",\"remainingPercent\":").append(budget.getRemainingPercent(c)).append('}');
+        }
+        return new Response(200, out.append("}}").toString());
+    }
+
+    private Response createTenant(HttpExchange exchange) throws IOException, DataAccessException {
+        Map<String, String> body = Json.parseObject(readBody(exchange));
+        String username = required(body, "user");
+        double budget = Double.parseDouble(required(body, "budget"));
+        if (!(budget >= 0) || Double.isInfinite(budget)) {
+            throw new IllegalArgumentException("Budget must be a non-negative number");
+        }
+        User user = tenants.createTenant(username, budget, null);
+        StringBuilder out = new StringBuilder("{\"id\":");
+        Json.appendString(out, user.getId()).append(",\"user\":");
+        return new Response(201, Json.appendString(out, user.getUsername()).append('}').toString());
+    }
+
+    private Response metrics(HttpExchange exchange) {
+        StringBuilder out = new StringBuilder(1024).append('{');
+        boolean first = true;
+        for (Map.Entry<Endpoint, LatencyHistogram> entry : latencies.entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            if (!first) out.append(',');
+            first = false;
+            out.append('"').append(entry.getKey().name().toLowerCase(Locale.ROOT)).append("\":{")
+                    .append("\"count\":").append(h.count())
+                    .append(",\"meanMicros\":").append(Math.round(h.mean() / 1_000))
+                    .append(",\"p50Micros\":").append(h.percentile(0.50) / 1_000)
+                    .append(",\"p90Micros\":").append(h.percentile(0.90) / 1_000)
+                    .append(",\"p99Micros\":").append(h.percentile(0.99) / 1_000)
+                    .append(",\"p999Micros\":").append(h.percentile(0.999) / 1_000)
+                    .append(",\"maxMicros\":").append(h.max() / 1_000).append('}');
+        }
+        return new Response(200, out.append('}').toString());
+    }
+
+    /**
+     * Wraps an action that acts for a user: the server's one user, or the tenant named by the request,
+     * leased until the action returns.
+     */
+    private Action scoped(ScopedAction action) {
+        return exchange -> {
+            if (tenants == null) {
+                return action.run(exchange, new SingleUserScope(context));
+            }
+            String tenantId = exchange.getRequestHeaders().getFirst(TENANT_HEADER);
+            if (tenantId == null) {
+                return error(400, "Missing header: " + TENANT_HEADER);
+            }
+            if (!tenants.exists(tenantId)) {
+                return error(404, "No tenant with id " + tenantId);
+            }
+            try (TenantRegistry.Lease lease = tenants.acquire(tenantId)) {
+                return action.run(exchange, new TenantScope(lease));
+            }
+        };
+    }
+
+    /**
+     * Runs one request, maps failures to status codes and records its latency.
+     */
+    private void serve(Endpoint endpoint, HttpExchange exchange, Action action) throws IOException {
+        long start = System.nanoTime();
+        try {
+            Response response;
+            try {
+                response = action.run(exchange);
+            } catch (CompletionException e) {
+                response = failure(e.getCause() != null ? e.getCause() : e);
+            } catch (Exception e) {
+                response = failure(e);
+            }
+            send(exchange, response);
+        } finally {
+            exchange.close();
+            latencies.get(endpoint).record(System.nanoTime() - start);
+        }
+    }
+
+    private static Response failure(Throwable e) {
+        if (e instanceof RuntimeException && e.getCause() instanceof BudgetExceededException) {
+            return error(409, e.getCause().getMessage());
+        }
+        if (e instanceof BudgetExceededException) {
+            return error(409, e.getMessage());
+        }
+        if (e instanceof BodyTooLargeException) {
+            return error(413, e.getMessage());
+        }
+        if (e instanceof IllegalArgumentException || e instanceof DateTimeParseException) {
+            // includes NumberFormatException
+            return error(400, e.getMessage());
+        }
+        return error(500, e.getMessage());
+    }
+
+    private static Response error(int status, String message) {
+        StringBuilder out = new StringBuilder("{\"error\":");
+        return new Response(status, Json.appendString(out, message).append('}').toString());
+    }
+
+    private static Response notFound(String id) {
+        return error(404, "No expense with id " + id);
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        if (response.body == null) {
+            // The server ends the exchange as soon as bodiless headers are sent, and drops a keep-alive
+            // connection whose request body has not been read to the end by then.
+            exchange.getRequestBody().close();
+            exchange.sendResponseHeaders(response.status, -1);
+            return;
+        }
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static boolean allow(HttpExchange exchange, String method) throws IOException {
+        if (exchange.getRequestMethod().equals(method)) return true;
+        methodNotAllowed(exchange, method);
+        return false;
+    }
+
+    private static void methodNotAllowed(HttpExchange exchange, String allowed) throws IOException {
+        try {
+            exchange.getResponseHeaders().set("Allow", allowed);
+            send(exchange, error(405, "Method not allowed"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static StringBuilder appendExpense(StringBuilder out, Expense e) {
+        out.append("{\"id\":");
+        Json.appendString(out, e.getId());
+        return out.append(",\"amount\":").append(e.getAmount())
+                .append(",\"date\":\"").append(e.getDate())
+                .append("\",\"category\":\"").append(e.getCategory().name()).append("\"}");
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new BodyTooLargeException("Request body is larger than " + MAX_BODY_BYTES + " bytes");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        String raw = exchange.getRequestURI().getRawQuery();
+        Map<String, String> params = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static ExpenseCategory category(String name) {
+        try {
+            return ExpenseCategory.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown category: " + name);
+        }
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null) throw new IllegalArgumentException("Missing field: " + name);
+        return value;
+    }
+
+    /**
+     * Runs the server for the user in the session file, until the process is stopped.
+     * Options: {@code --port N}, {@code --file expenses.txt}; with no saved session,
+     * {@code --user NAME --budget AMOUNT} creates one (every category gets the full budget).
+     * {@code --tenants DIR} serves the tenants under DIR instead, evicting those idle for
+     * {@code --idle-minutes N} (default 10).
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                System.err.println("Unexpected argument: " + args[i]);
+                System.exit(2);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        int port = Integer.parseInt(options.getOrDefault("port", String.valueOf(DEFAULT_PORT)));
+        if (options.containsKey("tenants")) {
+            serveTenants(Path.of(options.get("tenants")), options, port);
+            return;
+        }
+        SessionStore sessionStore = new SessionStore();
+        User user = sessionStore.load();
+        if (user == null) {
+            if (!options.containsKey("user") || !options.containsKey("budget")) {
+                System.err.println("No saved session; pass --user NAME --budget AMOUNT to create one.");
+                System.exit(2);
+            }
+            user = SessionStore.createUser(options.get("user"), Double.parseDouble(options.get("budget")), Map.of());
+            sessionStore.save(user);
+        }
+        AppContext context = AppContext.open(options.getOrDefault("file", AppContext.DEFAULT_EXPENSE_FILE), user);
+        ExpenseHttpServer server = new ExpenseHttpServer(context, new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            try {
+                context.close();
+            } catch (DataAccessException ignored) {
+                // exiting anyway; nothing left to report to
+            }
+        }, "http-shutdown"));
+        server.start();
+        System.out.println("Serving expenses for " + user.getUsername() + " on port " + server.getAddress().getPort());
+    }
+
+    private static void serveTenants(Path directory, Map<String, String> options, int port) throws IOException {
+        Duration idleTimeout = options.containsKey("idle-minutes")
+                ? Duration.ofMinutes(Long.parseLong(options.get("idle-minutes"))) : DEFAULT_TENANT_IDLE_TIMEOUT;
+        TenantRegistry tenants;
+        try {
+            tenants = new TenantRegistryImplementation(directory, idleTimeout);
+        } catch (DataAccessException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+        ExpenseHttpServer server = new ExpenseHttpServer(tenants, new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            try {
+                tenants.close();
+            } catch (DataAccessException ignored) {
+                // exiting anyway; nothing left to report to
+            }
+        }, "http-shutdown"));
+        server.start();
+        System.out.println("Serving tenants in " + directory.toAbsolutePath() + " on port " + server.getAddress().getPort());
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        Response run(HttpExchange exchange) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface ScopedAction {
+        Response run(HttpExchange exchange, Scope scope) throws Exception;
+    }
+
+    /**
+     * The user a request acts for and the services it runs against.
+     */
+    private interface Scope {
+        User user();
+
+        ExpenseService expenses();
+
+        RepositoryController summaries();
+
+        /** Checks the budget and saves a new expense, ordered with the user's other writes. */
+        Expense add(double amount, LocalDate date, ExpenseCategory category);
+
+        /** Deletes the expense, returning false if there was none. */
+        boolean delete(String id);
+    }
+
+    /**
+     * The server's one user; writes go through the controller's writer thread.
+     */
+    private static final class SingleUserScope implements Scope {
+        private final AppContext context;
+
+        SingleUserScope(AppContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public User user() {
+            return context.getUser();
+        }
+
+        @Override
+        public ExpenseService expenses() {
+            return context.getExpenseService();
+        }
+
+        @Override
+        public RepositoryController summaries() {
+            return context.getRepositoryController();
+        }
+
+        @Override
+        public Expense add(double amount, LocalDate date, ExpenseCategory category) {
+            return context.getExpenseController().handleAddExpenseAsync(amount, date, category).join();
+        }
+
+        @Override
+        public boolean delete(String id) {
+            return context.getExpenseController().handleDeleteExpenseAsync(id).join();
+        }
+    }
+
+    /**
+     * A leased tenant; writes hold the tenant's write lock, so they are ordered with its other writes
+     * without blocking other tenants.
+     */
+    private static final class TenantScope implements Scope {
+        private final TenantRegistry.Lease lease;
+        private final TenantControllers controllers;
+
+        TenantScope(TenantRegistry.Lease lease) {
+            this.lease = lease;
+            this.controllers = lease.attachment(TenantControllers.class, TenantControllers::new);
+        }
+
+        @Override
+        public User user() {
+            return lease.getUser();
+        }
+
+        @Override
+        public ExpenseService expenses() {
+            return lease.getExpenseService();
+        }
+
+        @Override
+        public RepositoryController summaries() {
+            return controllers.summaries;
+        }
+
+        @Override
+        public Expense add(double amount, LocalDate date, ExpenseCategory category) {
+            Lock lock = lease.getWriteLock();
+            lock.lock();
+            try {
+                return controllers.expenses.handleAddExpense(amount, date, category);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean delete(String id) {
+            Lock lock = lease.getWriteLock();
+            lock.lock();
+            try {
+                return controllers.expenses.handleDeleteExpense(id);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A tenant's controllers, kept on its lease so every request shares them until the tenant is evicted.
+     */
+    private static final class TenantControllers implements AutoCloseable {
+        final ExpenseController expenses;
+        final RepositoryController summaries;
+
+        TenantControllers(TenantRegistry.Lease lease) {
+            this.expenses = new ExpenseController(lease.getExpenseService(), lease.getBudgetService());
+            this.summaries = new RepositoryController(lease.getExpenseService(), lease.getBudgetService());
+        }
+
+        @Override
+        public void close() {
+            expenses.shutdown();
+            summaries.shutdown();
+        }
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static final class BodyTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        BodyTooLargeException(String message) {
+            super(message);
+        }
+    }
+}
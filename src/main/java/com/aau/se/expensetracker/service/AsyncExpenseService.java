@@ -0,0 +1,33 @@
+package com.aau.se.expensetracker.service;
+import com.aau.se.expensetracker.model.Expense;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+/**
+ * Non-blocking expense operations for UI code. Writes run one at a time on a single writer thread,
+ * in submission order; reads run concurrently on their own threads. Futures fail with the
+ * underlying exception (e.g. DataAccessException) as cause.
+ */
+public interface AsyncExpenseService {
+
+    CompletableFuture<Void> addExpense(Expense expense);
+
+    CompletableFuture<Void> removeExpense(String expenseId);
+
+    CompletableFuture<List<Expense>> getAllExpenses();
+
+    CompletableFuture<Expense> findExpense(String expenseId);
+
+    CompletableFuture<Integer> countExpenses();
+
+    CompletableFuture<List<Expense>> getExpensePage(int offset, int limit);
+
+    /**
+     * Runs a task on the writer thread, ordered with every other write.
+     * Use it for read-check-write sequences such as "check budget, then add".
+     */
+    <T> CompletableFuture<T> submitWrite(Callable<T> task);
+
+    /** Stops accepting work; queued writes still complete. */
+    void shutdown();
+}
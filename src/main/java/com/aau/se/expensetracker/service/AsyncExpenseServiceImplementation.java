@@ -0,0 +1,74 @@
+package com.aau.se.expensetracker.service;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.util.ThreadPools;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+/**
+ * Default AsyncExpenseService: wraps a blocking ExpenseService with a single-writer executor
+ * and a per-task reader executor (virtual threads where the runtime supports them).
+ */
+public class AsyncExpenseServiceImplementation implements AsyncExpenseService {
+    private final ExpenseService expenseService;
+    private final ExecutorService writer = ThreadPools.newSingleThread("expense-writer");
+    private final ExecutorService readers = ThreadPools.newPerTaskExecutor("expense-reader");
+    public AsyncExpenseServiceImplementation(ExpenseService expenseService) {
+        this.expenseService = expenseService;
+    }
+    @Override
+    public CompletableFuture<Void> addExpense(Expense expense) {
+        return submitWrite(() -> {
+            expenseService.addExpense(expense);
+            return null;
+        });
+    }
+    @Override
+    public CompletableFuture<Void> removeExpense(String expenseId) {
+        return submitWrite(() -> {
+            expenseService.removeExpense(expenseId);
+            return null;
+        });
+    }
+    @Override
+    public CompletableFuture<List<Expense>> getAllExpenses() {
+        return submit(readers, expenseService::getAllExpenses);
+    }
+    @Override
+    public CompletableFuture<Expense> findExpense(String expenseId) {
+        return submit(readers, () -> expenseService.findExpense(expenseId));
+    }
+    @Override
+    public CompletableFuture<Integer> countExpenses() {
+        return submit(readers, expenseService::countExpenses);
+    }
+    @Override
+    public CompletableFuture<List<Expense>> getExpensePage(int offset, int limit) {
+        return submit(readers, () -> expenseService.getExpensePage(offset, limit));
+    }
+    @Override
+    public <T> CompletableFuture<T> submitWrite(Callable<T> task) {
+        return submit(writer, task);
+    }
+    @Override
+    public void shutdown() {
+        writer.shutdown();
+        readers.shutdown();
+    }
+    private static <T> CompletableFuture<T> submit(ExecutorService executor, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+}
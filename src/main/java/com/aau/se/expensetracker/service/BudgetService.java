@@ -23,4 +23,6 @@ public interface BudgetService {
     double getMonthlyLimit();
     /** Returns the budget limit for the given category. */
     double getLimit(ExpenseCategory category);
+    /** Returns the amount spent so far in the given category. */
+    double getSpent(ExpenseCategory category);
 }
@@ -1,25 +1,39 @@
 package com.aau.se.expensetracker.service;
+import com.aau.se.expensetracker.metrics.ExpenseMetrics;
+import com.aau.se.expensetracker.metrics.OperationStats;
 import com.aau.se.expensetracker.model.Budget;
 import com.aau.se.expensetracker.model.Expense;
 import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.repository.AggregateQuery;
+import com.aau.se.expensetracker.repository.AggregateResult;
+import com.aau.se.expensetracker.repository.ExpenseChangeEvent;
 import com.aau.se.expensetracker.util.BudgetExceededException;
 import com.aau.se.expensetracker.util.DataAccessException;
-import java.util.List;
 /**
  * Default implementation of BudgetService. Enforces: total spent in category + new expense ≤ limit.
+ * Spent amounts are running totals indexed by category ordinal: read once by an aggregate query on the
+ * repository, then kept current by applying the deltas of the expense service's change events, so checks do not
+ * rescan the history. Events the query result already reflects are skipped.
  */
 public class BudgetServiceImplementation implements BudgetService {
+    private static final OperationStats CHECK_LIMIT_STATS = ExpenseMetrics.of(ExpenseMetrics.Operation.CHECK_LIMIT);
     private final Budget budget;
     private final ExpenseService expenseService;
+    private final double[] spentByCategory = new double[ExpenseCategory.values().length];
+    /** The result the totals were loaded from, or null before they are loaded. */
+    private AggregateResult loadedTotals;
     public BudgetServiceImplementation(Budget budget, ExpenseService expenseService) {
         this.budget = budget;
         this.expenseService = expenseService;
+        expenseService.addChangeListener(this::apply);
     }
     @Override
     public void checkLimit(Expense expense) throws BudgetExceededException {
+        long start = System.nanoTime();
         double limit = budget.getLimit(expense.getCategory());
         double currentSpent = getSpentInCategory(expense.getCategory());
         double afterAdd = currentSpent + expense.getAmount();
+        CHECK_LIMIT_STATS.record(start);
         if (afterAdd > limit) {
             throw new BudgetExceededException(
                     String.format("Over budget: adding %.2f would exceed limit %.2f for category %s (spent: %.2f)",
@@ -43,15 +57,40 @@ public class BudgetServiceImplementation implements BudgetService {
     public double getLimit(ExpenseCategory category) {
         return budget.getLimit(category);
     }
-    private double getSpentInCategory(ExpenseCategory category) {
-        try {
-            List<Expense> all = expenseService.getAllExpenses();
-            return all.stream()
-                    .filter(e -> e.getCategory() == category)
-                    .mapToDouble(Expense::getAmount)
-                    .sum();
-        } catch (DataAccessException e) {
-            return 0.0;
+    @Override
+    public double getSpent(ExpenseCategory category) {
+        return getSpentInCategory(category);
+    }
+    /**
+     * Applies a committed change to the running totals; before they are first loaded there is nothing to update,
+     * and a change the loaded result already includes must not be counted twice.
+     */
+    private synchronized void apply(ExpenseChangeEvent event) {
+        if (loadedTotals != null && !loadedTotals.reflects(event)) {
+            for (ExpenseCategory c : ExpenseCategory.values()) {
+                spentByCategory[c.ordinal()] += event.getAmountDelta(c);
+            }
+        }
+    }
+    private synchronized double getSpentInCategory(ExpenseCategory category) {
+        if (loadedTotals == null) {
+            try {
+                loadTotals();
+            } catch (DataAccessException e) {
+                return 0.0;
+            }
+        }
+        return spentByCategory[category.ordinal()];
+    }
+    /**
+     * Reads the running totals with one aggregate query grouped by category, answered by the repository without
+     * touching the expenses themselves.
+     */
+    private void loadTotals() throws DataAccessException {
+        AggregateResult totals = expenseService.aggregate(AggregateQuery.all().groupBy(AggregateQuery.Key.CATEGORY));
+        for (ExpenseCategory c : ExpenseCategory.values()) {
+            spentByCategory[c.ordinal()] = totals.getSum(c);
         }
+        loadedTotals = totals;
     }
 }
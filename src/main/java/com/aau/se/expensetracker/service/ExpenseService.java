@@ -1,6 +1,14 @@
 package com.aau.se.expensetracker.service;
 import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.repository.AggregateQuery;
+import com.aau.se.expensetracker.repository.AggregateResult;
+import com.aau.se.expensetracker.repository.ExpenseChangeListener;
+import com.aau.se.expensetracker.repository.ExpenseRollup;
 import com.aau.se.expensetracker.util.DataAccessException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
 /**
  * Contract for expense operations (Dependency Inversion).
@@ -11,5 +19,46 @@ public interface ExpenseService {
 
     void removeExpense(String expenseId) throws DataAccessException;
 
+    /** Adds all expenses in one repository batch. */
+    void addExpenses(Collection<Expense> expenses) throws DataAccessException;
+
+    /** Removes all given ids in one repository batch. */
+    void removeExpenses(Collection<String> expenseIds) throws DataAccessException;
+
     List<Expense> getAllExpenses() throws DataAccessException;
+
+    /** Returns the expense with the given id, or null if there is none. */
+    Expense findExpense(String expenseId) throws DataAccessException;
+
+    /** Returns those of the ids that are stored, looked up as one batch. */
+    List<String> findStoredIds(Collection<String> expenseIds) throws DataAccessException;
+
+    /** Returns the expenses dated from {@code from} to {@code to}, both inclusive, in date order. */
+    List<Expense> getExpensesBetween(LocalDate from, LocalDate to) throws DataAccessException;
+
+    /** Like {@link #getExpensesBetween}, restricted to one category. */
+    List<Expense> getExpensesBetween(ExpenseCategory category, LocalDate from, LocalDate to) throws DataAccessException;
+
+    /** Returns how many expenses are stored. */
+    int countExpenses() throws DataAccessException;
+
+    /** Returns how many expenses are dated from {@code from} to {@code to}, both inclusive. */
+    int countExpensesBetween(LocalDate from, LocalDate to) throws DataAccessException;
+
+    /** Returns up to {@code limit} expenses in newest-first order, skipping the first {@code offset}. */
+    List<Expense> getExpensePage(int offset, int limit) throws DataAccessException;
+
+    /** Per-category totals over the months from {@code from} to {@code to}, inclusive; a null bound is open. */
+    ExpenseRollup.Totals getTotals(YearMonth from, YearMonth to) throws DataAccessException;
+
+    /** Per-category totals over the expenses dated from {@code from} to {@code to}, both inclusive. */
+    ExpenseRollup.Totals getTotalsBetween(LocalDate from, LocalDate to) throws DataAccessException;
+
+    /** Answers an aggregate query in the repository, without loading the matching expenses. */
+    AggregateResult aggregate(AggregateQuery query) throws DataAccessException;
+
+    /** Subscribes to every committed add, delete and batch save, with its per-category deltas. */
+    void addChangeListener(ExpenseChangeListener listener);
+
+    void removeChangeListener(ExpenseChangeListener listener);
 }
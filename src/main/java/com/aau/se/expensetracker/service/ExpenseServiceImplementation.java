@@ -1,7 +1,15 @@
-packpackage com.aau.se.expensetracker.service;
+package com.aau.se.expensetracker.service;
 import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.repository.AggregateQuery;
+import com.aau.se.expensetracker.repository.AggregateResult;
+import com.aau.se.expensetracker.repository.ExpenseChangeListener;
 import com.aau.se.expensetracker.repository.ExpenseRepository;
+import com.aau.se.expensetracker.repository.ExpenseRollup;
 import com.aau.se.expensetracker.util.DataAccessException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
 /**
  * Default implementation of ExpenseService (Single Responsibility: expense CRUD).
@@ -20,12 +28,64 @@ public class ExpenseServiceImplementation implements ExpenseService {
         repository.delete(expenseId);
     }
     @Override
-    public List<Expense> getAllExpenses() throws DataAccessException {
-        return repository.loadAll();
+    public void addExpenses(Collection<Expense> expenses) throws DataAccessException {
+        repository.saveAll(expenses);
+    }
+    @Override
+    public void removeExpenses(Collection<String> expenseIds) throws DataAccessException {
+        repository.deleteAll(expenseIds);
     }
-}
     @Override
     public List<Expense> getAllExpenses() throws DataAccessException {
         return repository.loadAll();
     }
+    @Override
+    public Expense findExpense(String expenseId) throws DataAccessException {
+        return repository.findById(expenseId);
+    }
+    @Override
+    public List<String> findStoredIds(Collection<String> expenseIds) throws DataAccessException {
+        return repository.findStoredIds(expenseIds);
+    }
+    @Override
+    public List<Expense> getExpensesBetween(LocalDate from, LocalDate to) throws DataAccessException {
+        return repository.findByDateRange(from, to);
+    }
+    @Override
+    public List<Expense> getExpensesBetween(ExpenseCategory category, LocalDate from, LocalDate to)
+            throws DataAccessException {
+        return repository.findByCategoryAndRange(category, from, to);
+    }
+    @Override
+    public int countExpenses() throws DataAccessException {
+        return repository.count();
+    }
+    @Override
+    public int countExpensesBetween(LocalDate from, LocalDate to) throws DataAccessException {
+        return repository.countByDateRange(from, to);
+    }
+    @Override
+    public List<Expense> getExpensePage(int offset, int limit) throws DataAccessException {
+        return repository.loadPage(offset, limit);
+    }
+    @Override
+    public ExpenseRollup.Totals getTotals(YearMonth from, YearMonth to) throws DataAccessException {
+        return repository.summarize(from, to);
+    }
+    @Override
+    public ExpenseRollup.Totals getTotalsBetween(LocalDate from, LocalDate to) throws DataAccessException {
+        return repository.summarizeDays(from, to);
+    }
+    @Override
+    public AggregateResult aggregate(AggregateQuery query) throws DataAccessException {
+        return repository.aggregate(query);
+    }
+    @Override
+    public void addChangeListener(ExpenseChangeListener listener) {
+        repository.addChangeListener(listener);
+    }
+    @Override
+    public void removeChangeListener(ExpenseChangeListener listener) {
+        repository.removeChangeListener(listener);
+    }
 }
@@ -0,0 +1,63 @@
+package com.aau.se.expensetracker.service;
+import com.aau.se.expensetracker.util.DataAccessException;
+import java.nio.file.Path;
+/**
+ * Contract for bulk-importing expenses from bank/CSV statements (Dependency Inversion).
+ */
+public interface ImportService {
+    /**
+     * Streams the file in chunks, maps rows to expenses and commits them in batches.
+     *
+     * @param file          CSV export with a header row
+     * @param enforceBudget if true, rows that would push a category over its limit are rejected,
+     *                      the same rule as adding a single expense
+     */
+    ImportResult importCsv(Path file, boolean enforceBudget) throws DataAccessException;
+
+    /**
+     * DTO for the outcome of an import.
+     */
+    final class ImportResult {
+        private final long rowsRead;
+        private final long imported;
+        private final long rejectedOverBudget;
+        private final long malformed;
+        private final long duplicates;
+        private final long credits;
+
+        public ImportResult(long rowsRead, long imported, long rejectedOverBudget, long malformed, long duplicates,
+                            long credits) {
+            this.rowsRead = rowsRead;
+            this.imported = imported;
+            this.rejectedOverBudget = rejectedOverBudget;
+            this.malformed = malformed;
+            this.duplicates = duplicates;
+            this.credits = credits;
+        }
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getRejectedOverBudget() {
+            return rejectedOverBudget;
+        }
+
+        public long getMalformed() {
+            return malformed;
+        }
+
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        /** Rows skipped because they are money received, not spent. */
+        public long getCredits() {
+            return credits;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.aau.se.expensetracker.service;
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.util.DataAccessException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+/**
+ * Default ImportService for CSV bank exports.
+ * <p>
+ * The file is read in chunks of {@link #CHUNK_ROWS} lines, so memory stays bounded by the chunk size plus one
+ * occurrence count per distinct row. Each chunk is parsed in parallel, checked against the stored ids with one
+ * lookup, budget-checked in order against running category totals, and committed with one
+ * {@link ExpenseService#addExpenses} batch.
+ * <p>
+ * Columns are found by header name: a date column, an amount column, and optionally a category and a
+ * description column. The delimiter (',' or ';') is taken from the header. Only money spent is imported;
+ * credits are skipped and counted. Which rows are credits follows the export's layout:
+ * <ul>
+ *   <li>separate debit and credit columns: a row with no debit amount is a credit;</li>
+ *   <li>a debit/credit indicator column: its value ({@code credit}, {@code cr}, {@code c}, {@code in});</li>
+ *   <li>one signed amount column: if the first chunk holds any negative amount, debits are negative and
+ *       positive rows are credits, otherwise every row is a debit.</li>
+ * </ul>
+ * Zero and unparseable rows are skipped as malformed.
+ * A row without a recognised category is mapped by description keywords, falling back to OCCASIONAL.
+ * Ids are derived from the row's date, amount, description and category, plus a count of identical rows
+ * before it, so rows already imported are skipped even from a later export that overlaps the first.
+ */
+public class ImportServiceImplementation implements ImportService {
+    static final int CHUNK_ROWS = 16_384;
+    private static final String[] DATE_HEADERS = {"date", "booking date", "transaction date", "value date"};
+    private static final String[] AMOUNT_HEADERS = {"amount", "value"};
+    private static final String[] DEBIT_HEADERS = {"debit", "withdrawal", "paid out"};
+    private static final String[] CREDIT_HEADERS = {"credit", "deposit", "paid in"};
+    private static final String[] DIRECTION_HEADERS = {"debit/credit", "credit/debit", "dr/cr", "cr/dr", "direction"};
+    private static final String[] CREDIT_MARKS = {"credit", "cr", "c", "in"};
+    private static final String[] CATEGORY_HEADERS = {"category"};
+    private static final String[] DESCRIPTION_HEADERS = {"description", "details", "memo", "payee", "name"};
+    private static final DateTimeFormatter[] DATE_FORMATS = {
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("dd.MM.yyyy"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd")
+    };
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+    private static final String[][] CATEGORY_KEYWORDS = new String[CATEGORIES.length][];
+    static {
+        CATEGORY_KEYWORDS[ExpenseCategory.FOOD.ordinal()] =
+                new String[]{"restaurant", "cafe", "coffee", "grocery", "supermarket", "market", "bakery", "pizza", "food"};
+        CATEGORY_KEYWORDS[ExpenseCategory.ACADEMIC.ordinal()] =
+                new String[]{"tuition", "university", "college", "book", "course", "library", "stationery", "print"};
+        CATEGORY_KEYWORDS[ExpenseCategory.TRANSPORT.ordinal()] =
+                new String[]{"bus", "taxi", "uber", "ride", "train", "metro", "fuel", "parking", "transport"};
+        CATEGORY_KEYWORDS[ExpenseCategory.RECREATIONAL.ordinal()] =
+                new String[]{"cinema", "movie", "netflix", "spotify", "game", "gym", "concert", "sport"};
+        CATEGORY_KEYWORDS[ExpenseCategory.OCCASIONAL.ordinal()] = new String[0];
+        CATEGORY_KEYWORDS[ExpenseCategory.HYGIENE.ordinal()] =
+                new String[]{"pharmacy", "soap", "shampoo", "salon", "barber", "toiletr", "hygiene"};
+    }
+
+    private final ExpenseService expenseService;
+    private final BudgetService budgetService;
+    public ImportServiceImplementation(ExpenseService expenseService, BudgetService budgetService) {
+        this.expenseService = expenseService;
+        this.budgetService = budgetService;
+    }
+
+    @Override
+    public ImportResult importCsv(Path file, boolean enforceBudget) throws DataAccessException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return new ImportResult(0, 0, 0, 0, 0, 0);
+            }
+            Layout layout = Layout.of(header);
+            if (layout == null) {
+                throw new DataAccessException("CSV header needs a date and an amount column: " + header);
+            }
+            double[] spent = new double[CATEGORIES.length];
+            double[] limits = new double[CATEGORIES.length];
+            for (ExpenseCategory c : CATEGORIES) {
+                spent[c.ordinal()] = budgetService.getSpent(c);
+                limits[c.ordinal()] = budgetService.getLimit(c);
+            }
+            Map<String, Integer> occurrences = new HashMap<>();
+            Boolean negativeDebits = layout.signed ? null : Boolean.FALSE;
+            long rows = 0;
+            long imported = 0;
+            long overBudget = 0;
+            long malformed = 0;
+            long duplicates = 0;
+            long credits = 0;
+            List<String> chunk = new ArrayList<>(CHUNK_ROWS);
+            while (true) {
+                chunk.clear();
+                String line;
+                while (chunk.size() < CHUNK_ROWS && (line = reader.readLine()) != null) {
+                    chunk.add(line);
+                }
+                if (chunk.isEmpty()) break;
+                Row[] parsed = parseChunk(chunk, layout);
+                if (negativeDebits == null) {
+                    negativeDebits = Arrays.stream(parsed).anyMatch(r -> r != null && r.amount < 0);
+                }
+                List<Expense> debits = new ArrayList<>(parsed.length);
+                for (int i = 0; i < parsed.length; i++) {
+                    Row r = parsed[i];
+                    if (chunk.get(i).isBlank()) continue;
+                    rows++;
+                    if (r == null) {
+                        malformed++;
+                    } else if (r.credit || (layout.signed && (r.amount < 0) != negativeDebits)) {
+                        credits++;
+                    } else {
+                        int occurrence = occurrences.merge(r.content, 1, Integer::sum) - 1;
+                        String id = UUID.nameUUIDFromBytes((r.content + "#" + occurrence)
+                                .getBytes(StandardCharsets.UTF_8)).toString();
+                        debits.add(new BasicExpense(id, Math.abs(r.amount), r.date, r.category));
+                    }
+                }
+                Set<String> stored = new HashSet<>(expenseService.findStoredIds(
+                        debits.stream().map(Expense::getId).toList()));
+                List<Expense> accepted = new ArrayList<>(debits.size());
+                for (Expense e : debits) {
+                    if (stored.contains(e.getId())) {
+                        duplicates++;
+                        continue;
+                    }
+                    int c = e.getCategory().ordinal();
+                    if (enforceBudget && spent[c] + e.getAmount() > limits[c]) {
+                        overBudget++;
+                        continue;
+                    }
+                    spent[c] += e.getAmount();
+                    accepted.add(e);
+                }
+                expenseService.addExpenses(accepted);
+                imported += accepted.size();
+            }
+            return new ImportResult(rows, imported, overBudget, malformed, duplicates, credits);
+        } catch (IOException e) {
+            throw new DataAccessException("Failed to read import file: " + file, e);
+        }
+    }
+
+    /**
+     * Parses a chunk in parallel; the result keeps line order and holds null for rows that could not be parsed.
+     */
+    private static Row[] parseChunk(List<String> chunk, Layout layout) {
+        Row[] parsed = new Row[chunk.size()];
+        IntStream.range(0, parsed.length).parallel()
+                .forEach(i -> parsed[i] = parseRow(chunk.get(i), layout));
+        return parsed;
+    }
+
+    private static Row parseRow(String line, Layout layout) {
+        if (line.isBlank()) return null;
+        List<String> fields = split(line, layout.delimiter);
+        if (fields.size() <= Math.max(layout.date, layout.amount)) return null;
+        LocalDate date = parseDate(fields.get(layout.date));
+        if (date == null) return null;
+        String amountText = fields.get(layout.amount).replace(" ", "");
+        boolean credit = false;
+        if (layout.credit >= 0 && amountText.isEmpty()) {
+            // a separate credit column: an empty debit marks the row as a credit
+            amountText = field(fields, layout.credit).replace(" ", "");
+            credit = true;
+        }
+        double amount;
+        try {
+            amount = Double.parseDouble(amountText);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (amount == 0 || Double.isNaN(amount) || Double.isInfinite(amount)) return null;
+        if (layout.direction >= 0) {
+            String mark = field(fields, layout.direction).trim().toLowerCase(Locale.ROOT);
+            credit = Arrays.asList(CREDIT_MARKS).contains(mark);
+        }
+        String categoryText = field(fields, layout.category);
+        String description = field(fields, layout.description);
+        ExpenseCategory category = mapCategory(categoryText, description);
+        String content = date + "|" + amount + "|" + description.trim() + "|" + categoryText.trim();
+        return new Row(date, amount, category, credit, content);
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : "";
+    }
+
+    private static LocalDate parseDate(String text) {
+        String trimmed = text.trim();
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(trimmed, format);
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        return null;
+    }
+
+    static ExpenseCategory mapCategory(String categoryText, String description) {
+        String category = categoryText.trim().toUpperCase(Locale.ROOT);
+        for (ExpenseCategory c : CATEGORIES) {
+            if (c.name().equals(category)) return c;
+        }
+        String text = (categoryText + " " + description).toLowerCase(Locale.ROOT);
+        for (ExpenseCategory c : CATEGORIES) {
+            for (String keyword : CATEGORY_KEYWORDS[c.ordinal()]) {
+                if (text.contains(keyword)) return c;
+            }
+        }
+        return ExpenseCategory.OCCASIONAL;
+    }
+
+    /**
+     * Splits one CSV line, honouring double-quoted fields and doubled quotes inside them.
+     */
+    static List<String> split(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    /**
+     * One parsed row; {@code amount} keeps the sign it had in the file.
+     */
+    private static final class Row {
+        final LocalDate date;
+        final double amount;
+        final ExpenseCategory category;
+        /** Known to be a credit from the layout, whatever the sign. */
+        final boolean credit;
+        /** The row's identifying content, from which its id is derived. */
+        final String content;
+
+        Row(LocalDate date, double amount, ExpenseCategory category, boolean credit, String content) {
+            this.date = date;
+            this.amount = amount;
+            this.category = category;
+            this.credit = credit;
+            this.content = content;
+        }
+    }
+
+    /**
+     * Column positions found in the header row. The amount column is a debit column when the header names
+     * one, in which case {@code credit} may point at the matching credit column.
+     */
+    private static final class Layout {
+        final char delimiter;
+        final int date;
+        final int amount;
+        final int credit;
+        final int direction;
+        final int category;
+        final int description;
+        /** True when credits can only be told by the amount's sign. */
+        final boolean signed;
+
+        private Layout(char delimiter, int date, int amount, int credit, int direction, int category,
+                       int description, boolean signed) {
+            this.delimiter = delimiter;
+            this.date = date;
+            this.amount = amount;
+            this.credit = credit;
+            this.direction = direction;
+            this.category = category;
+            this.description = description;
+            this.signed = signed;
+        }
+
+        static Layout of(String header) {
+            char delimiter = header.indexOf(';') >= 0 && header.indexOf(',') < 0 ? ';' : ',';
+            List<String> names = split(header.replace("\uFEFF", ""), delimiter);
+            int date = column(names, DATE_HEADERS);
+            int direction = column(names, DIRECTION_HEADERS);
+            int amount = column(names, AMOUNT_HEADERS);
+            int credit = -1;
+            if (amount < 0) {
+                amount = column(names, DEBIT_HEADERS);
+                credit = amount >= 0 ? column(names, CREDIT_HEADERS) : -1;
+            }
+            if (date < 0 || amount < 0) return null;
+            return new Layout(delimiter, date, amount, credit, direction, column(names, CATEGORY_HEADERS),
+                    column(names, DESCRIPTION_HEADERS), credit < 0 && direction < 0);
+        }
+        private static int column(List<String> names, String[] candidates) {
+            for (String candidate : candidates) {
+                for (int i = 0; i < names.size(); i++) {
+                    if (names.get(i).trim().toLowerCase(Locale.ROOT).equals(candidate)) return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.aau.se.expensetracker.service;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.model.User;
+import com.aau.se.expensetracker.util.DataAccessException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+/**
+ * Contract for hosting many users in one process (Dependency Inversion).
+ * Each tenant has its own session, budget and expense storage; only tenants in use are held in memory.
+ */
+public interface TenantRegistry extends AutoCloseable {
+    /**
+     * Creates a user with its own storage and budget. With no category limits, every category gets the monthly limit.
+     */
+    User createTenant(String username, double monthlyLimit, Map<ExpenseCategory, Double> categoryLimits)
+            throws DataAccessException;
+    /**
+     * Loads the tenant if it is not in memory and returns a lease on it. The tenant cannot be evicted while
+     * a lease is open, so close every lease (try-with-resources) when the request is done.
+     *
+     * @throws DataAccessException if there is no such tenant or its data cannot be read
+     */
+    Lease acquire(String userId) throws DataAccessException;
+    /** Returns whether a tenant with this id has been created. */
+    boolean exists(String userId);
+    /** Returns how many tenants are held in memory. */
+    int activeCount();
+    /**
+     * Closes and drops the tenants that have no open lease and have been idle longer than the idle timeout.
+     * A lease requested while its tenant is closing waits for the close, then loads the tenant again.
+     *
+     * @return how many tenants were evicted
+     */
+    int evictIdle();
+    /** Closes every loaded tenant and stops the idle eviction. */
+    @Override
+    void close() throws DataAccessException;
+
+    /**
+     * An open tenant's services, valid until {@link #close()}.
+     */
+    final class Lease implements AutoCloseable {
+        private final User user;
+        private final ExpenseService expenseService;
+        private final BudgetService budgetService;
+        private final Lock writeLock;
+        private final Map<Class<?>, AutoCloseable> attachments;
+        private final Runnable release;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        /**
+         * @param attachments the loaded tenant's attachments, shared by all its leases and closed with it
+         */
+        public Lease(User user, ExpenseService expenseService, BudgetService budgetService, Lock writeLock,
+                     Map<Class<?>, AutoCloseable> attachments, Runnable release) {
+            this.user = user;
+            this.expenseService = expenseService;
+            this.budgetService = budgetService;
+            this.writeLock = writeLock;
+            this.attachments = attachments;
+            this.release = release;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public ExpenseService getExpenseService() {
+            return expenseService;
+        }
+
+        public BudgetService getBudgetService() {
+            return budgetService;
+        }
+
+        /**
+         * The tenant's own write lock. Hold it around read-check-write sequences such as "check budget,
+         * then add", so two requests for the same tenant cannot both pass the check; other tenants are not blocked.
+         */
+        public Lock getWriteLock() {
+            return writeLock;
+        }
+
+        /**
+         * Returns the tenant's attachment of this type, made by {@code factory} on first use. It lives as long
+         * as the loaded tenant and is closed before the tenant's storage, so layers above the services can keep
+         * per-tenant objects, such as controllers, without building them per request.
+         */
+        public <T extends AutoCloseable> T attachment(Class<T> type, Function<Lease, T> factory) {
+            return type.cast(attachments.computeIfAbsent(type, t -> factory.apply(this)));
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.aau.se.expensetracker.service;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.model.User;
+import com.aau.se.expensetracker.repository.ExpenseRepository;
+import com.aau.se.expensetracker.repository.PartitionedExpenseRepository;
+import com.aau.se.expensetracker.util.DataAccessException;
+import com.aau.se.expensetracker.util.SessionStore;
+import com.aau.se.expensetracker.util.ThreadPools;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+/**
+ * Default TenantRegistry: one directory per user under the root, named by the user id, holding
+ * {@code session.properties} (name and budget, see {@link SessionStore}) and an {@code expenses/} directory
+ * of month segments ({@link PartitionedExpenseRepository}). Expenses need no owner field; the directory is the owner.
+ * <p>
+ * A tenant is loaded on its first lease, under a lock of its own, so a slow load never holds up other tenants.
+ * Loaded tenants get their own repository locks, budget totals and write lock, and nothing is shared between
+ * them. A background sweep closes tenants that have had no open lease for the idle timeout, so memory follows
+ * the number of active users rather than the number of users. A tenant is closed outside its lock, marked as
+ * closing, and a lease requested meanwhile waits until its files are flushed before loading them again.
+ */
+public class TenantRegistryImplementation implements TenantRegistry {
+    private static final String SESSION_FILE = "session.properties";
+    private static final String EXPENSES_DIR = "expenses";
+    private final Path root;
+    private final long idleTimeoutNanos;
+    private final Map<String, TenantEntry> tenants = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor = ThreadPools.newScheduledSingleThread("tenant-evictor");
+    public TenantRegistryImplementation(Path root, Duration idleTimeout) throws DataAccessException {
+        this.root = root.toAbsolutePath();
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        try {
+            Files.createDirectories(this.root);
+        } catch (IOException e) {
+            throw new DataAccessException("Could not create tenant directory: " + this.root, e);
+        }
+        long sweepMillis = Math.max(1, idleTimeout.toMillis() / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+    @Override
+    public User createTenant(String username, double monthlyLimit, Map<ExpenseCategory, Double> categoryLimits)
+            throws DataAccessException {
+        User user = SessionStore.createUser(username, monthlyLimit, categoryLimits);
+        try {
+            new SessionStore(root.resolve(user.getId()).resolve(SESSION_FILE)).save(user);
+        } catch (IOException e) {
+            throw new DataAccessException("Could not save tenant " + user.getId(), e);
+        }
+        return user;
+    }
+    @Override
+    public Lease acquire(String userId) throws DataAccessException {
+        if (!isTenantId(userId)) {
+            throw new DataAccessException("Unknown tenant: " + userId);
+        }
+        while (true) {
+            TenantEntry entry = tenants.computeIfAbsent(userId, TenantEntry::new);
+            synchronized (entry) {
+                awaitClosed(entry);
+                if (entry.evicted) {
+                    continue; // lost a race with eviction; the next entry is a fresh one
+                }
+                if (entry.repository == null) {
+                    try {
+                        open(entry);
+                    } catch (DataAccessException | RuntimeException e) {
+                        entry.evicted = true;
+                        tenants.remove(userId, entry);
+                        throw e;
+                    }
+                }
+                entry.leases++;
+                return new Lease(entry.user, entry.expenseService, entry.budgetService, entry.writeLock,
+                        entry.attachments, () -> release(entry));
+            }
+        }
+    }
+    @Override
+    public boolean exists(String userId) {
+        return isTenantId(userId) && Files.exists(root.resolve(userId).resolve(SESSION_FILE));
+    }
+    @Override
+    public int activeCount() {
+        return tenants.size();
+    }
+    @Override
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (TenantEntry entry : tenants.values()) {
+            synchronized (entry) {
+                if (entry.evicted || entry.closing || entry.leases > 0 || now - entry.lastUsed < idleTimeoutNanos) {
+                    continue;
+                }
+                entry.closing = true;
+            }
+            try {
+                closeEntry(entry, false);
+                evicted++;
+            } catch (DataAccessException e) {
+                // kept; the next sweep retries it
+            }
+        }
+        return evicted;
+    }
+    @Override
+    public void close() throws DataAccessException {
+        evictor.shutdownNow();
+        DataAccessException failure = null;
+        for (TenantEntry entry : tenants.values()) {
+            synchronized (entry) {
+                try {
+                    awaitClosed(entry);
+                } catch (DataAccessException e) {
+                    if (failure == null) failure = e;
+                    continue;
+                }
+                if (entry.evicted) continue;
+                entry.closing = true;
+            }
+            try {
+                closeEntry(entry, true);
+            } catch (DataAccessException e) {
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure != null) throw failure;
+    }
+    private void open(TenantEntry entry) throws DataAccessException {
+        Path directory = root.resolve(entry.userId);
+        User user = new SessionStore(directory.resolve(SESSION_FILE)).load();
+        if (user == null) {
+            throw new DataAccessException("Unknown tenant: " + entry.userId);
+        }
+        ExpenseRepository repository = new PartitionedExpenseRepository(directory.resolve(EXPENSES_DIR).toString());
+        ExpenseService expenseService = new ExpenseServiceImplementation(repository);
+        entry.user = user;
+        entry.repository = repository;
+        entry.expenseService = expenseService;
+        entry.budgetService = new BudgetServiceImplementation(user.getBudget(), expenseService);
+    }
+    private void release(TenantEntry entry) {
+        synchronized (entry) {
+            entry.leases--;
+            entry.lastUsed = System.nanoTime();
+        }
+    }
+    /**
+     * Closes the attachments and repository of an entry marked as closing, without holding the entry's monitor,
+     * then drops the entry and wakes the leases waiting for it. An entry whose repository fails to close is kept
+     * unless {@code dropOnFailure}; its attachments are made again on the next lease.
+     */
+    private void closeEntry(TenantEntry entry, boolean dropOnFailure) throws DataAccessException {
+        boolean closed = false;
+        try {
+            closeRepository(entry);
+            closed = true;
+        } finally {
+            synchronized (entry) {
+                entry.closing = false;
+                if (closed || dropOnFailure) {
+                    entry.evicted = true;
+                    tenants.remove(entry.userId, entry);
+                }
+                entry.notifyAll();
+            }
+        }
+    }
+    /**
+     * Waits until the entry is not being closed. Caller holds the entry's monitor.
+     */
+    private static void awaitClosed(TenantEntry entry) throws DataAccessException {
+        while (entry.closing) {
+            try {
+                entry.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataAccessException("Interrupted while tenant " + entry.userId + " was closing", e);
+            }
+        }
+    }
+    private static void closeRepository(TenantEntry entry) throws DataAccessException {
+        for (AutoCloseable attachment : entry.attachments.values()) {
+            try {
+                attachment.close();
+            } catch (Exception e) {
+                // attachments hold none of the tenant's data; a failure must not keep its storage open
+            }
+        }
+        entry.attachments.clear();
+        if (entry.repository != null) {
+            entry.repository.close();
+        }
+    }
+    /**
+     * Tenant ids are canonical UUIDs, which also keeps them from naming a path outside the root.
+     */
+    private static boolean isTenantId(String userId) {
+        if (userId == null) return false;
+        try {
+            return UUID.fromString(userId).toString().equals(userId);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    /**
+     * One tenant's slot in the registry; its fields are guarded by its own monitor.
+     */
+    private static final class TenantEntry {
+        final String userId;
+        final ReentrantLock writeLock = new ReentrantLock();
+        final Map<Class<?>, AutoCloseable> attachments = new ConcurrentHashMap<>();
+        User user;
+        ExpenseRepository repository;
+        ExpenseService expenseService;
+        BudgetService budgetService;
+        int leases;
+        long lastUsed = System.nanoTime();
+        /** Set while the repository is being closed outside the monitor; leases wait until it is cleared. */
+        boolean closing;
+        boolean evicted;
+        TenantEntry(String userId) {
+            this.userId = userId;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.aau.se.expensetracker.util;
+
+/**
+ * Converts monetary amounts between doubles and whole minor units (cents).
+ */
+public final class Amounts {
+
+    /** Minor units per major unit. */
+    public static final int MINOR_PER_MAJOR = 100;
+
+    private Amounts() {
+    }
+
+    /**
+     * Rounds an amount to the nearest minor unit.
+     */
+    public static long toMinorUnits(double amount) {
+        return Math.round(amount * MINOR_PER_MAJOR);
+    }
+
+    public static double fromMinorUnits(long minorUnits) {
+        return (double) minorUnits / MINOR_PER_MAJOR;
+    }
+}
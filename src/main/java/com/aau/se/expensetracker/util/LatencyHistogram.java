@@ -0,0 +1,99 @@
+package com.aau.se.expensetracker.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram of durations in nanoseconds, in log-linear buckets: every power of two is split
+ * into {@value #SUB_BUCKETS} equal buckets, so a reported percentile is within about 6% of the real value.
+ * <p>
+ * {@link #record} is lock-free and allocates nothing, so it can sit on every request path. The buckets
+ * are a fixed array, so memory does not grow with the number of samples.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    /** Values below SUB_BUCKETS get a bucket each; every power of two from there to 2^62 gets SUB_BUCKETS. */
+    private static final int BUCKETS = SUB_BUCKETS * (63 - SUB_BITS + 1);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one duration. Negative values count as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        long seen = max.get();
+        while (value > seen && !max.compareAndSet(seen, value)) {
+            seen = max.get();
+        }
+    }
+
+    /** Returns how many durations have been recorded. */
+    public long count() {
+        return count.sum();
+    }
+
+    /** Returns the largest recorded duration, in nanoseconds. */
+    public long max() {
+        return max.get();
+    }
+
+    /** Returns the mean recorded duration in nanoseconds, or 0 if nothing was recorded. */
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns the duration at or below which the given fraction of the recorded durations fall,
+     * e.g. {@code percentile(0.99)}, as the upper bound of its bucket. Returns 0 if nothing was recorded.
+     * Samples recorded during the call may or may not be counted.
+     */
+    public long percentile(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Fraction must be between 0 and 1: " + fraction);
+        }
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += counts.get(i);
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    /** Clears all recorded durations. Not atomic with respect to concurrent {@link #record} calls. */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /** Largest value that falls into the bucket. */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long sub = SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1));
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -31,7 +31,7 @@ public class SessionStore {
         this.path = Path.of(SESSION_FILE).toAbsolutePath();
     }
     public void clear() throws IOException {
-        Files.deleteIfExists(Path.of(SESSION_FILE));
+        Files.deleteIfExists(path);
     }
 
     public SessionStore(Path path) {
@@ -0,0 +1,55 @@
+package com.aau.se.expensetracker.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory for the background executors used by the repository and service layers.
+ * All threads are daemons so they never keep the application alive.
+ */
+public final class ThreadPools {
+
+    private ThreadPools() {
+    }
+
+    /**
+     * Returns a single-thread executor; tasks run one at a time in submission order.
+     */
+    public static ExecutorService newSingleThread(String name) {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Returns a single-thread scheduled executor for periodic housekeeping.
+     */
+    public static ScheduledExecutorService newScheduledSingleThread(String name) {
+        return Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Returns a virtual-thread-per-task executor when the runtime has virtual threads (JDK 21+),
+     * otherwise a cached pool of daemon platform threads.
+     */
+    public static ExecutorService newPerTaskExecutor(String namePrefix) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, namePrefix + "-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -3,8 +3,8 @@ package com.aau.se.expensetracker.view;
 import com.aau.se.expensetracker.controller.ExpenseController;
 import com.aau.se.expensetracker.model.Expense;
 import com.aau.se.expensetracker.model.ExpenseCategory;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
@@ -12,18 +12,21 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * JavaFX UI for adding and listing expenses.
+ * The table is backed by a {@link PagedExpenseList}, so only the pages around the visible rows are loaded.
  */
 public class ExpenseView {
 
     private final ExpenseController expenseController;
-    private final ObservableList<ExpenseTableItem> tableItems = FXCollections.observableArrayList();
+    private final PagedExpenseList tableItems;
 
     public ExpenseView(ExpenseController expenseController) {
         this.expenseController = expenseController;
+        this.tableItems = new PagedExpenseList(expenseController, this::showError);
     }
 
     public VBox build() {
@@ -55,6 +58,7 @@ public class ExpenseView {
 
         Button addBtn = new Button("Add Expense");
         addBtn.setDefaultButton(true);
+        addBtn.setDisable(true);
         addBtn.setOnAction(e -> {
             double amount = amountSpinner.getValue() != null ? amountSpinner.getValue() : 0;
             if (amount <= 0) {
@@ -63,27 +67,26 @@ public class ExpenseView {
             }
             LocalDate date = datePicker.getValue() != null ? datePicker.getValue() : LocalDate.now();
             ExpenseCategory cat = categoryCombo.getValue() != null ? categoryCombo.getValue() : ExpenseCategory.FOOD;
-            try {
-                Expense added = expenseController.handleAddExpense(amount, date, cat);
-                if (added != null) {
-                    tableItems.add(new ExpenseTableItem(added));
-                    amountSpinner.getValueFactory().setValue(0.0);
-                    datePicker.setValue(LocalDate.now());
-                    double remainingPct = expenseController.getRemainingPercent(cat);
-                    if (remainingPct > 0 && remainingPct < 19.5) {
-                        showAlert(Alert.AlertType.WARNING, "Budget warning", "Less than 20% left of your budget for this category.");
-                    } else if (remainingPct >= 19.5 && remainingPct <= 20.5) {
-                        showAlert(Alert.AlertType.WARNING, "Budget warning", "Only 20% left of your budget for this category.");
-                    }
-                }
-            } catch (RuntimeException ex) {
-                String msg = ex.getMessage();
-                if (msg != null && msg.startsWith("Over budget:")) {
-                    showAlert(Alert.AlertType.ERROR, "Over budget", msg);
-                } else {
-                    showAlert(Alert.AlertType.ERROR, "Error", msg != null ? msg : ex.toString());
-                }
-            }
+            addBtn.setDisable(true);
+            tableItems.writeStarted();
+            expenseController.handleAddExpensePlacedAsync(amount, date, cat).whenComplete((placed, failure) ->
+                    Platform.runLater(() -> {
+                        addBtn.setDisable(false);
+                        if (failure != null) {
+                            tableItems.writeFailed();
+                            showError(failure);
+                            return;
+                        }
+                        tableItems.inserted(placed.getExpense(), placed.getPosition());
+                        amountSpinner.getValueFactory().setValue(0.0);
+                        datePicker.setValue(LocalDate.now());
+                        double remainingPct = expenseController.getRemainingPercent(cat);
+                        if (remainingPct > 0 && remainingPct < 19.5) {
+                            showAlert(Alert.AlertType.WARNING, "Budget warning", "Less than 20% left of your budget for this category.");
+                        } else if (remainingPct >= 19.5 && remainingPct <= 20.5) {
+                            showAlert(Alert.AlertType.WARNING, "Budget warning", "Only 20% left of your budget for this category.");
+                        }
+                    }));
         });
 
         HBox formRow = new HBox(10);
@@ -91,8 +94,9 @@ public class ExpenseView {
         formRow.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
 
         TableView<ExpenseTableItem> table = new TableView<>(tableItems);
-        table.setPlaceholder(new Label("No expenses yet. Add one above."));
+        table.setPlaceholder(new Label("Loading expenses…"));
         table.setPrefHeight(280);
+        table.setFixedCellSize(26);
 
         TableColumn<ExpenseTableItem, Number> amountCol = new TableColumn<>("Amount");
         amountCol.setCellValueFactory(c -> c.getValue().amountProperty());
@@ -115,14 +119,25 @@ public class ExpenseView {
                 @Override
                 protected void updateItem(Void item, boolean empty) {
                     super.updateItem(item, empty);
-                    setGraphic(empty ? null : cellBtn);
+                    ExpenseTableItem row = getTableRow() != null ? getTableRow().getItem() : null;
+                    setGraphic(empty || row == null || row.isLoading() ? null : cellBtn);
                 }
             };
             cellBtn.setOnAction(e -> {
                 ExpenseTableItem row = cell.getTableRow().getItem();
-                if (row != null) {
-                    expenseController.handleDeleteExpense(row.getId());
-                    tableItems.remove(row);
+                if (row != null && !row.isLoading()) {
+                    cellBtn.setDisable(true);
+                    tableItems.writeStarted();
+                    expenseController.handleDeleteExpenseAsync(row.getId()).whenComplete((ignored, failure) ->
+                            Platform.runLater(() -> {
+                                cellBtn.setDisable(false);
+                                if (failure != null) {
+                                    tableItems.writeFailed();
+                                    showError(failure);
+                                } else {
+                                    tableItems.removed(row.getId());
+                                }
+                            }));
                 }
             });
             return cell;
@@ -130,17 +145,32 @@ public class ExpenseView {
 
         table.getColumns().addAll(amountCol, dateCol, categoryCol, deleteCol);
 
-        refreshTable();
+        // The repository may still be loading; adds are enabled once the first count is in.
+        refreshTable().whenComplete((ignored, failure) -> {
+            addBtn.setDisable(false);
+            table.setPlaceholder(new Label(failure == null
+                    ? "No expenses yet. Add one above." : "Could not load expenses."));
+        });
 
         main.getChildren().addAll(new Label("Add new expense"), formRow, new Separator(), new Label("Your expenses"), table);
         return main;
     }
 
-    private void refreshTable() {
-        tableItems.clear();
-        List<Expense> all = expenseController.getAllExpenses();
-        for (Expense e : all) {
-            tableItems.add(new ExpenseTableItem(e));
+    private CompletableFuture<Void> refreshTable() {
+        return tableItems.reload();
+    }
+
+    /**
+     * Shows the failure of a background operation, unwrapping the CompletableFuture wrapper.
+     */
+    private void showError(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        String msg = cause.getMessage();
+        if (msg != null && msg.startsWith("Over budget:")) {
+            showAlert(Alert.AlertType.ERROR, "Over budget", msg);
+        } else {
+            showAlert(Alert.AlertType.ERROR, "Error", msg != null ? msg : cause.toString());
         }
     }
 
@@ -156,6 +186,9 @@ public class ExpenseView {
      * Table row model for TableView.
      */
     public static class ExpenseTableItem {
+        /** Shown in rows whose page is still loading. */
+        static final ExpenseTableItem LOADING = new ExpenseTableItem();
+
         private final String id;
         private final double amount;
         private final String date;
@@ -168,12 +201,23 @@ public class ExpenseView {
             this.category = e.getCategory().name();
         }
 
+        private ExpenseTableItem() {
+            this.id = null;
+            this.amount = 0;
+            this.date = "Loading…";
+            this.category = "";
+        }
+
         public String getId() {
             return id;
         }
 
+        public boolean isLoading() {
+            return id == null;
+        }
+
         public javafx.beans.property.SimpleDoubleProperty amountProperty() {
-            return new javafx.beans.property.SimpleDoubleProperty(amount);
+            return isLoading() ? null : new javafx.beans.property.SimpleDoubleProperty(amount);
         }
 
         public javafx.beans.property.SimpleStringProperty dateProperty() {
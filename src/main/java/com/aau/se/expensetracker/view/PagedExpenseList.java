@@ -0,0 +1,236 @@
+package com.aau.se.expensetracker.view;
+
+import com.aau.se.expensetracker.controller.ExpenseController;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.view.ExpenseView.ExpenseTableItem;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Table model that pages expenses in from the repository, newest first, instead of holding them all.
+ * Only the size is known up front. {@link #get} serves rows from an LRU cache of pages and returns a
+ * loading placeholder while a missing page is fetched on a reader thread, so rows exist only around
+ * what the table has asked for. Adds and deletes shift the cached rows and fire one-row changes.
+ * <p>
+ * A page read while a write is in flight may or may not include it, so callers announce each write with
+ * {@link #writeStarted()}: pages loading at that point are dropped, and no page is fetched until the
+ * write's diff has been applied with {@link #inserted}, {@link #removed} or {@link #writeFailed()}.
+ * Must be used on the JavaFX Application Thread.
+ */
+final class PagedExpenseList extends ObservableListBase<ExpenseTableItem> {
+
+    static final int PAGE_SIZE = 256;
+    private static final int MAX_CACHED_PAGES = 32;
+
+    private final ExpenseController expenseController;
+    private final Consumer<Throwable> onError;
+    /** Runs load results on the thread that owns the list. */
+    private final Executor fxThread;
+    private final LinkedHashMap<Integer, ExpenseTableItem[]> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ExpenseTableItem[]> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private final Set<Integer> pagesLoading = new HashSet<>();
+    private int size;
+    /** Bumped whenever positions may shift; page loads requested before that are dropped. */
+    private long generation;
+    private int pendingWrites;
+
+    PagedExpenseList(ExpenseController expenseController, Consumer<Throwable> onError) {
+        this(expenseController, onError, Platform::runLater);
+    }
+
+    PagedExpenseList(ExpenseController expenseController, Consumer<Throwable> onError, Executor fxThread) {
+        this.expenseController = expenseController;
+        this.onError = onError;
+        this.fxThread = fxThread;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public ExpenseTableItem get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        ExpenseTableItem item = cached(pages, index);
+        if (item == null) {
+            requestPage(index / PAGE_SIZE);
+            return ExpenseTableItem.LOADING;
+        }
+        return item;
+    }
+
+    /**
+     * Drops every cached page and re-reads the count; rows are then loaded as the table asks for them.
+     * The returned future completes on the JavaFX Application Thread once the new size is applied.
+     */
+    CompletableFuture<Void> reload() {
+        CompletableFuture<Void> applied = new CompletableFuture<>();
+        expenseController.countExpensesAsync().whenComplete((count, failure) ->
+                fxThread.execute(() -> {
+                    if (failure != null) {
+                        onError.accept(failure);
+                        applied.completeExceptionally(failure);
+                        return;
+                    }
+                    int oldSize = size;
+                    generation++;
+                    pages.clear();
+                    pagesLoading.clear();
+                    size = count;
+                    beginChange();
+                    if (oldSize > 0) {
+                        nextRemove(0, Collections.nCopies(oldSize, ExpenseTableItem.LOADING));
+                    }
+                    if (size > 0) {
+                        nextAdd(0, size);
+                    }
+                    endChange();
+                    applied.complete(null);
+                }));
+        return applied;
+    }
+
+    /**
+     * Announces an add or delete that has been submitted but not yet applied to the list.
+     */
+    void writeStarted() {
+        pendingWrites++;
+        generation++;
+        pagesLoading.clear();
+    }
+
+    /**
+     * Ends a write that did not change anything, then reloads so rows left as placeholders get filled.
+     */
+    void writeFailed() {
+        pendingWrites = Math.max(0, pendingWrites - 1);
+        reload();
+    }
+
+    /**
+     * Inserts a just-added expense at its newest-first position.
+     */
+    void inserted(Expense expense, int position) {
+        pendingWrites = Math.max(0, pendingWrites - 1);
+        int at = Math.max(0, Math.min(position, size));
+        shift(at, 1, new ExpenseTableItem(expense));
+        beginChange();
+        nextAdd(at, at + 1);
+        endChange();
+    }
+
+    /**
+     * Removes a deleted expense if it is among the cached rows; otherwise the whole list is reloaded.
+     */
+    void removed(String expenseId) {
+        pendingWrites = Math.max(0, pendingWrites - 1);
+        int index = cachedIndexOf(expenseId);
+        if (index < 0) {
+            reload();
+            return;
+        }
+        ExpenseTableItem old = cached(pages, index);
+        shift(index, -1, null);
+        beginChange();
+        nextRemove(index, old);
+        endChange();
+    }
+
+    private int cachedIndexOf(String expenseId) {
+        for (Map.Entry<Integer, ExpenseTableItem[]> entry : pages.entrySet()) {
+            ExpenseTableItem[] page = entry.getValue();
+            for (int i = 0; i < page.length; i++) {
+                if (page[i] != null && expenseId.equals(page[i].getId())) {
+                    return entry.getKey() * PAGE_SIZE + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the cached rows at or after {@code at} by {@code delta} (+1 or -1), putting {@code inserted}
+     * at {@code at} for an insert. Pages that would have a gap are dropped and reloaded when needed.
+     */
+    private void shift(int at, int delta, ExpenseTableItem inserted) {
+        generation++;
+        pagesLoading.clear();
+        size += delta;
+        Map<Integer, ExpenseTableItem[]> old = new LinkedHashMap<>(pages);
+        pages.clear();
+        for (Map.Entry<Integer, ExpenseTableItem[]> entry : old.entrySet()) {
+            int first = entry.getKey() * PAGE_SIZE;
+            if (first >= size) continue;
+            if (first + PAGE_SIZE <= at) {
+                pages.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            ExpenseTableItem[] shifted = new ExpenseTableItem[PAGE_SIZE];
+            boolean complete = true;
+            for (int i = 0; i < PAGE_SIZE && first + i < size; i++) {
+                int index = first + i;
+                ExpenseTableItem item = index < at ? entry.getValue()[i]
+                        : delta > 0 && index == at ? inserted
+                        : cached(old, index - delta);
+                if (item == null) {
+                    complete = false;
+                    break;
+                }
+                shifted[i] = item;
+            }
+            if (complete) {
+                pages.put(entry.getKey(), shifted);
+            }
+        }
+    }
+
+    private void requestPage(int page) {
+        if (pendingWrites > 0 || !pagesLoading.add(page)) return;
+        long requested = generation;
+        expenseController.getExpensePageAsync(page * PAGE_SIZE, PAGE_SIZE).whenComplete((expenses, failure) ->
+                fxThread.execute(() -> {
+                    if (requested != generation) return;
+                    pagesLoading.remove(page);
+                    if (failure != null) {
+                        onError.accept(failure);
+                        return;
+                    }
+                    ExpenseTableItem[] items = new ExpenseTableItem[PAGE_SIZE];
+                    int loaded = Math.min(expenses.size(), PAGE_SIZE);
+                    for (int i = 0; i < loaded; i++) {
+                        items[i] = new ExpenseTableItem(expenses.get(i));
+                    }
+                    pages.put(page, items);
+                    int from = page * PAGE_SIZE;
+                    int to = Math.min(from + loaded, size);
+                    if (from < to) {
+                        beginChange();
+                        for (int index = from; index < to; index++) {
+                            nextSet(index, ExpenseTableItem.LOADING);
+                        }
+                        endChange();
+                    }
+                }));
+    }
+
+    private static ExpenseTableItem cached(Map<Integer, ExpenseTableItem[]> pages, int index) {
+        ExpenseTableItem[] page = pages.get(index / PAGE_SIZE);
+        return page != null ? page[index % PAGE_SIZE] : null;
+    }
+}
@@ -2,7 +2,10 @@ package com.aau.se.expensetracker.view;
 
 import com.aau.se.expensetracker.controller.RepositoryController;
 import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.repository.ExpenseChangeEvent;
 import com.aau.se.expensetracker.service.BudgetService;
+import com.aau.se.expensetracker.util.Amounts;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -11,18 +14,36 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
  * JavaFX UI for expense summary: totals, by category, budget limit and amount left (overall and per category).
+ * The figures are read once and then kept live from the repository's change events: each event adds its
+ * per-category deltas, so an update costs the same whatever the number of expenses.
+ * "Refresh summary" re-reads them. Reads run on a reader thread, so the view shows "Loading…" until the
+ * repository has finished loading. Events that arrive meanwhile are held and applied once the figures are on
+ * screen, except those the summary already counts; the same check covers events delivered after it.
  */
 public class SummaryView {
 
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+
     private final RepositoryController repositoryController;
+    private final Label[] categoryLabels = new Label[CATEGORIES.length];
+    /** Spent per category in minor units, so applied deltas do not drift. */
+    private final long[] spentByCategory = new long[CATEGORIES.length];
     private Label totalLabel;
     private Label overallBudgetLabel;
     private Label countLabel;
     private GridPane gridPane;
+    private long expenseCount;
+    private BudgetService budget;
+    /** The summary on screen, or null while one is loading. */
+    private RepositoryController.ExpenseSummary shown;
+    /** Events received while loading, applied once the summary is on screen. */
+    private final List<ExpenseChangeEvent> held = new ArrayList<>();
 
     public SummaryView(RepositoryController repositoryController) {
         this.repositoryController = repositoryController;
@@ -32,7 +53,7 @@ public class SummaryView {
         VBox main = new VBox(12);
         main.setPadding(new Insets(12));
 
-        totalLabel = new Label();
+        totalLabel = new Label("Loading…");
         totalLabel.setFont(Font.font("Segoe UI", 18));
         main.getChildren().add(totalLabel);
 
@@ -52,21 +73,82 @@ public class SummaryView {
         gridPane.setHgap(16);
         gridPane.setVgap(6);
         main.getChildren().add(gridPane);
+        for (ExpenseCategory cat : CATEGORIES) {
+            categoryLabels[cat.ordinal()] = new Label();
+            gridPane.add(new Label(cat.name() + ":"), 0, cat.ordinal());
+            gridPane.add(categoryLabels[cat.ordinal()], 1, cat.ordinal());
+        }
 
         Button refreshBtn = new Button("Refresh summary");
-        refreshBtn.setOnAction(e -> updateSummary());
+        refreshBtn.setOnAction(e -> updateSummary(refreshBtn));
 
         main.getChildren().add(new Separator());
         main.getChildren().add(refreshBtn);
 
-        updateSummary();
+        repositoryController.addChangeListener(event -> Platform.runLater(() -> apply(event)));
+        updateSummary(refreshBtn);
         return main;
     }
 
-    private void updateSummary() {
-        RepositoryController.ExpenseSummary summary = repositoryController.generateSummary();
-        BudgetService budget = summary.getBudgetService();
-        double totalSpent = summary.getTotalSpent();
+    /**
+     * Re-reads the figures on a reader thread; change events are held until the result is on screen.
+     */
+    private void updateSummary(Button refreshBtn) {
+        refreshBtn.setDisable(true);
+        shown = null;
+        held.clear();
+        repositoryController.generateSummaryAsync().whenComplete((summary, failure) ->
+                Platform.runLater(() -> {
+                    refreshBtn.setDisable(false);
+                    if (failure != null) {
+                        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                                ? failure.getCause() : failure;
+                        totalLabel.setText("Could not load summary: " + cause.getMessage());
+                        held.clear();
+                        return;
+                    }
+                    shown = summary;
+                    budget = summary.getBudgetService();
+                    for (ExpenseCategory cat : CATEGORIES) {
+                        spentByCategory[cat.ordinal()] =
+                                Amounts.toMinorUnits(summary.getByCategory().getOrDefault(cat, 0.0));
+                    }
+                    expenseCount = summary.getExpenseCount();
+                    for (ExpenseChangeEvent event : held) {
+                        add(event);
+                    }
+                    held.clear();
+                    render();
+                }));
+    }
+
+    /**
+     * Adds one committed change to the figures on screen, or holds it while they are loading.
+     */
+    private void apply(ExpenseChangeEvent event) {
+        if (shown == null) {
+            held.add(event);
+            return;
+        }
+        add(event);
+        render();
+    }
+
+    /**
+     * Adds the change's deltas unless the summary on screen already counts it.
+     */
+    private void add(ExpenseChangeEvent event) {
+        if (shown.reflects(event)) return;
+        for (ExpenseCategory cat : CATEGORIES) {
+            spentByCategory[cat.ordinal()] += Amounts.toMinorUnits(event.getAmountDelta(cat));
+        }
+        expenseCount += event.getCountDelta();
+    }
+
+    private void render() {
+        long totalMinor = 0;
+        for (long spent : spentByCategory) totalMinor += spent;
+        double totalSpent = Amounts.fromMinorUnits(totalMinor);
         double totalLimit = budget.getMonthlyLimit();
         double totalLeft = Math.max(0, totalLimit - totalSpent);
 
@@ -76,22 +158,17 @@ public class SummaryView {
         if (totalLimit > 0 && (totalLeft / totalLimit) < 0.21) {
             overallBudgetLabel.getStyleClass().add("budget-warning");
         }
-        countLabel.setText(String.format("Number of expenses: %d", summary.getExpenseCount()));
-        gridPane.getChildren().clear();
-        int row = 0;
-        for (ExpenseCategory cat : ExpenseCategory.values()) {
-            double spent = summary.getByCategory().getOrDefault(cat, 0.0);
+        countLabel.setText(String.format("Number of expenses: %d", expenseCount));
+        for (ExpenseCategory cat : CATEGORIES) {
+            double spent = Amounts.fromMinorUnits(spentByCategory[cat.ordinal()]);
             double limit = budget.getLimit(cat);
             double left = Math.max(0, limit - spent);
-            Label catLabel = new Label(cat.name() + ":");
-            Label valueLabel = new Label(String.format("limit %.2f  |  spent %.2f  |  left %.2f", limit, spent, left));
+            Label valueLabel = categoryLabels[cat.ordinal()];
+            valueLabel.setText(String.format("limit %.2f  |  spent %.2f  |  left %.2f", limit, spent, left));
             valueLabel.getStyleClass().remove("budget-warning");
             if (limit > 0 && (left / limit) < 0.21) {
                 valueLabel.getStyleClass().add("budget-warning");
             }
-            gridPane.add(catLabel, 0, row);
-            gridPane.add(valueLabel, 1, row);
-            row++;
         }
     }
 }
\ No newline at end of file
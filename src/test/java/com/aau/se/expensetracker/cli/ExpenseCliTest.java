@@ -0,0 +1,128 @@
+package com.aau.se.expensetracker.cli;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpenseCliTest {
+
+    @TempDir
+    Path dir;
+
+    private String out;
+    private String err;
+
+    /** Runs the command against the session and expense file in {@link #dir}. */
+    private int run(String... args) {
+        List<String> all = new ArrayList<>(List.of("--session", dir.resolve("session.txt").toString(),
+                "--file", dir.resolve("expenses.txt").toString()));
+        all.addAll(List.of(args));
+        ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream errBytes = new ByteArrayOutputStream();
+        int status = ExpenseCli.run(all.toArray(String[]::new), new PrintStream(outBytes, true, StandardCharsets.UTF_8),
+                new PrintStream(errBytes, true, StandardCharsets.UTF_8));
+        out = outBytes.toString(StandardCharsets.UTF_8);
+        err = errBytes.toString(StandardCharsets.UTF_8);
+        return status;
+    }
+
+    @Test
+    void badUsageExitsWithTwo() {
+        assertEquals(2, ExpenseCli.run(new String[0], new PrintStream(new ByteArrayOutputStream()),
+                new PrintStream(new ByteArrayOutputStream())));
+        assertEquals(2, run("report"));
+        assertTrue(err.startsWith("Unknown command: report"));
+        assertEquals(2, run("list", "--limit"));
+        assertTrue(err.startsWith("Missing value for --limit"));
+        assertEquals(2, run("init", "alice"));
+
+        assertEquals(1, run("summary"));
+        assertTrue(err.startsWith("No saved session"));
+        assertEquals(0, run("init", "alice", "100"));
+        assertEquals(1, run("init", "bob", "100"));
+
+        assertEquals(2, run("add", "ten", "FOOD"));
+        assertEquals(2, run("add", "-5", "FOOD"));
+        assertEquals(2, run("add", "5", "SNACKS"));
+        assertEquals(2, run("add", "5", "FOOD", "2024-02-30"));
+        assertEquals(2, run("summary", "--from", "2024-13"));
+        assertEquals(2, run("list", "--offset", "-1"));
+        assertEquals(2, run("delete"));
+    }
+
+    @Test
+    void commandsRunAgainstTheSessionAndFile() {
+        assertEquals(0, run("init", "alice", "100"));
+        assertEquals(0, run("add", "12.5", "food", "2024-05-03"));
+        String first = out.trim();
+        assertEquals(0, run("add", "5", "TRANSPORT", "2024-06-01"));
+        String second = out.trim();
+
+        assertEquals(0, run("list"));
+        String[] lines = out.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith(second + "  2024-06-01"), lines[0]);
+        assertTrue(lines[1].startsWith(first + "  2024-05-03"), lines[1]);
+        assertEquals(0, run("list", "--offset", "1", "--limit", "5"));
+        assertTrue(out.startsWith(first), out);
+
+        assertEquals(0, run("summary", "--from", "2024-05", "--to", "2024-05"));
+        assertTrue(out.startsWith("Summary for alice, 2024-05 to 2024-05"), out);
+        assertTrue(out.contains("Expenses: 1"), out);
+        assertTrue(out.contains("FOOD                  12.50"), out);
+        // a day bound makes the other a whole month, and a missing one open
+        assertEquals(0, run("summary", "--from", "2024-05-04"));
+        assertTrue(out.startsWith("Summary for alice, 2024-05-04 to now"), out);
+        assertTrue(out.contains("Expenses: 1"), out);
+        assertEquals(0, run("summary", "--from", "2024-05-03", "--to", "2024-06"));
+        assertTrue(out.startsWith("Summary for alice, 2024-05-03 to 2024-06-30"), out);
+        assertTrue(out.contains("Expenses: 2"), out);
+        assertEquals(0, run("--all", "summary"));
+        assertTrue(out.startsWith("Summary for alice, all time"), out);
+        assertTrue(out.contains("Total                 17.50"), out);
+
+        assertEquals(0, run("delete", first));
+        assertEquals(1, run("delete", first));
+        assertTrue(err.startsWith("No expense with id " + first));
+    }
+
+    /**
+     * A command in a fresh JVM must not load JavaFX or the management classes behind JMX, which would cost
+     * the CLI its startup time.
+     */
+    @Test
+    void commandLoadsNoJavaFxOrManagementClasses() throws Exception {
+        assertEquals(0, run("init", "alice", "100"));
+        assertEquals(0, run("add", "12.5", "FOOD", "2024-05-03"));
+        Path classLog = dir.resolve("classes.log");
+        Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xlog:class+load=info:file=" + classLog,
+                "-cp", System.getProperty("java.class.path"), ExpenseCli.class.getName(),
+                "summary", "--all", "--session", dir.resolve("session.txt").toString(),
+                "--file", dir.resolve("expenses.txt").toString())
+                .redirectErrorStream(true)
+                .redirectOutput(dir.resolve("cli.out").toFile())
+                .start();
+        assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+        assertEquals(0, process.exitValue(), Files.readString(dir.resolve("cli.out")));
+        assertTrue(Files.readString(dir.resolve("cli.out")).contains("Expenses: 1"));
+
+        List<String> loaded = Files.readAllLines(classLog);
+        assertTrue(loaded.stream().anyMatch(line -> line.contains(" " + ExpenseCli.class.getName() + " ")));
+        for (String line : loaded) {
+            assertTrue(!line.contains(" javafx.") && !line.contains(" java.lang.management.")
+                    && !line.contains(" javax.management."), line);
+        }
+    }
+}
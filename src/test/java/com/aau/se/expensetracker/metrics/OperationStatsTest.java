@@ -0,0 +1,61 @@
+package com.aau.se.expensetracker.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OperationStatsTest {
+
+    @Test
+    void recordsCountsBytesAndRows() {
+        OperationStats stats = new OperationStats();
+        assertEquals(0, stats.getBytesPerOperation());
+        stats.record(System.nanoTime(), 64, 2);
+        stats.record(System.nanoTime(), 0, 5);
+        stats.record(System.nanoTime());
+        stats.failed();
+
+        assertEquals(3, stats.getCount());
+        assertEquals(1, stats.getFailures());
+        assertEquals(64, stats.getBytesWritten());
+        assertEquals(64 / 3.0, stats.getBytesPerOperation());
+        assertEquals(7, stats.getRowsScanned());
+    }
+
+    @Test
+    void latenciesAreInMicros() {
+        OperationStats stats = new OperationStats();
+        // a call that started two milliseconds ago
+        stats.record(System.nanoTime() - 2_000_000);
+        assertTrue(stats.getMaxMicros() >= 2_000, "max " + stats.getMaxMicros());
+        assertTrue(stats.getMeanMicros() >= 2_000, "mean " + stats.getMeanMicros());
+        // one sample, so every percentile is capped at the maximum
+        assertEquals(stats.getMaxMicros(), stats.getP50Micros());
+        assertEquals(stats.getMaxMicros(), stats.getP99Micros());
+        assertEquals(stats.getMaxMicros(), stats.getP999Micros());
+    }
+
+    @Test
+    void failuresTakeNoLatencySample() {
+        OperationStats stats = new OperationStats();
+        stats.failed();
+        stats.failed();
+        assertEquals(0, stats.getCount());
+        assertEquals(2, stats.getFailures());
+        assertEquals(0, stats.getMaxMicros());
+    }
+
+    @Test
+    void resetClearsEverything() {
+        OperationStats stats = new OperationStats();
+        stats.record(System.nanoTime() - 1_000_000, 10, 1);
+        stats.failed();
+        stats.reset();
+        assertEquals(0, stats.getCount());
+        assertEquals(0, stats.getFailures());
+        assertEquals(0, stats.getBytesWritten());
+        assertEquals(0, stats.getRowsScanned());
+        assertEquals(0, stats.getP99Micros());
+    }
+}
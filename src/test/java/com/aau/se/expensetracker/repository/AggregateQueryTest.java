@@ -0,0 +1,167 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.util.Amounts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AggregateQueryTest {
+
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+    private static final LocalDate FIRST_DAY = LocalDate.of(2023, 11, 1);
+
+    @TempDir
+    Path dir;
+
+    /** Random expenses over six months; the ids are UUIDs so every backend accepts them. */
+    private static List<Expense> expenses() {
+        Random random = new Random(25);
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            expenses.add(new BasicExpense(new UUID(random.nextLong(), random.nextLong()).toString(),
+                    random.nextInt(20_000) / 100.0, FIRST_DAY.plusDays(random.nextInt(182)),
+                    CATEGORIES[random.nextInt(CATEGORIES.length)]));
+        }
+        return expenses;
+    }
+
+    /** Stores the expenses, then deletes every tenth, so rollup cells have had amounts taken out. */
+    private static List<Expense> populate(ExpenseRepository repo) throws Exception {
+        List<Expense> expenses = expenses();
+        repo.saveAll(expenses);
+        List<Expense> live = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        for (int i = 0; i < expenses.size(); i++) {
+            if (i % 10 == 0) {
+                deleted.add(expenses.get(i).getId());
+            } else {
+                live.add(expenses.get(i));
+            }
+        }
+        repo.deleteAll(deleted);
+        return live;
+    }
+
+    /**
+     * Groups the matching rows one by one, the way the query describes, and renders the groups in
+     * result order.
+     */
+    private static List<String> expected(List<Expense> rows, Predicate<Expense> filter, boolean byMonth,
+                                          boolean byCategory) {
+        Map<String, long[]> groups = new TreeMap<>();
+        for (Expense e : rows) {
+            if (!filter.test(e)) continue;
+            YearMonth month = YearMonth.from(e.getDate());
+            String key = (byMonth ? month.toString() : "-") + " "
+                    + (byCategory ? String.format("%02d", e.getCategory().ordinal()) : "-");
+            long amount = Amounts.toMinorUnits(e.getAmount());
+            long[] g = groups.computeIfAbsent(key, k -> new long[]{0, 0, Long.MAX_VALUE, Long.MIN_VALUE});
+            g[0] += amount;
+            g[1]++;
+            g[2] = Math.min(g[2], amount);
+            g[3] = Math.max(g[3], amount);
+        }
+        List<String> rendered = new ArrayList<>();
+        groups.forEach((key, g) -> rendered.add(key + " " + g[0] + " " + g[1] + " " + g[2] + " " + g[3]));
+        return rendered;
+    }
+
+    private static List<String> actual(AggregateResult result) {
+        List<String> rendered = new ArrayList<>();
+        for (AggregateResult.Group g : result.groups()) {
+            rendered.add((g.getMonth() != null ? g.getMonth().toString() : "-") + " "
+                    + (g.getCategory() != null ? String.format("%02d", g.getCategory().ordinal()) : "-") + " "
+                    + Amounts.toMinorUnits(g.getSum()) + " " + g.getCount() + " "
+                    + Amounts.toMinorUnits(g.getMin()) + " " + Amounts.toMinorUnits(g.getMax()));
+        }
+        return rendered;
+    }
+
+    private static void assertMatchesRows(ExpenseRepository repo) throws Exception {
+        assertMatchesRows(repo, populate(repo));
+    }
+
+    private static void assertMatchesRows(ExpenseRepository repo, List<Expense> rows) throws Exception {
+        LocalDate from = LocalDate.of(2023, 12, 10);
+        LocalDate to = LocalDate.of(2024, 3, 20);
+        EnumSet<ExpenseCategory> some = EnumSet.of(ExpenseCategory.FOOD, ExpenseCategory.HYGIENE);
+        Predicate<Expense> inRange = e -> !e.getDate().isBefore(from) && !e.getDate().isAfter(to);
+        Predicate<Expense> inSome = e -> some.contains(e.getCategory());
+        Predicate<Expense> midAmounts = e -> e.getAmount() >= 25 && e.getAmount() <= 75.5;
+        Predicate<Expense> wholeMonths = e -> !YearMonth.from(e.getDate()).isBefore(YearMonth.of(2023, 12))
+                && !YearMonth.from(e.getDate()).isAfter(YearMonth.of(2024, 2));
+
+        assertEquals(expected(rows, e -> true, false, false), actual(repo.aggregate(AggregateQuery.all())));
+        assertEquals(expected(rows, e -> true, true, true), actual(repo.aggregate(AggregateQuery.all()
+                .groupBy(AggregateQuery.Key.MONTH, AggregateQuery.Key.CATEGORY))));
+        // whole months, which may come straight from the rollup
+        assertEquals(expected(rows, wholeMonths, true, false), actual(repo.aggregate(AggregateQuery.all()
+                .inMonths(YearMonth.of(2023, 12), YearMonth.of(2024, 2))
+                .groupBy(AggregateQuery.Key.MONTH))));
+        // partial months at both ends, and a category filter
+        assertEquals(expected(rows, inRange.and(inSome), false, true), actual(repo.aggregate(AggregateQuery.all()
+                .between(from, to).inCategories(some).groupBy(AggregateQuery.Key.CATEGORY))));
+        assertEquals(expected(rows, inRange, true, true), actual(repo.aggregate(AggregateQuery.all()
+                .between(from, to).groupBy(AggregateQuery.Key.CATEGORY, AggregateQuery.Key.MONTH))));
+        // an amount filter, which no pre-aggregated cell can answer
+        assertEquals(expected(rows, midAmounts, true, false), actual(repo.aggregate(AggregateQuery.all()
+                .amountBetween(25.0, 75.5).groupBy(AggregateQuery.Key.MONTH))));
+        assertEquals(expected(rows, midAmounts.and(inRange), false, false), actual(repo.aggregate(AggregateQuery.all()
+                .between(from, to).amountBetween(25.0, 75.5))));
+
+        assertEquals(List.of(), actual(repo.aggregate(AggregateQuery.all().between(to, from))));
+        assertEquals(List.of(), actual(repo.aggregate(AggregateQuery.all()
+                .inCategories(EnumSet.noneOf(ExpenseCategory.class)))));
+    }
+
+    @Test
+    void fileRepositoryMatchesTheRows() throws Exception {
+        assertMatchesRows(new FileExpenseRepository(dir.resolve("expenses.txt").toString(),
+                FileExpenseRepository.StorageMode.JOURNAL));
+    }
+
+    @Test
+    void binaryRepositoryMatchesTheRows() throws Exception {
+        try (BinaryExpenseRepository repo = new BinaryExpenseRepository(dir.resolve("expenses.bin").toString())) {
+            assertMatchesRows(repo);
+        }
+    }
+
+    @Test
+    void partitionedRepositoryMatchesTheRows() throws Exception {
+        try (PartitionedExpenseRepository repo = new PartitionedExpenseRepository(dir.toString(),
+                YearMonth.of(2024, 3))) {
+            assertMatchesRows(repo);
+        }
+    }
+
+    @Test
+    void reopenedPartitionsMatchTheRows() throws Exception {
+        List<Expense> rows;
+        try (PartitionedExpenseRepository repo = new PartitionedExpenseRepository(dir.toString(),
+                YearMonth.of(2024, 3))) {
+            rows = populate(repo);
+        }
+        // whole months of segments that are not parsed yet come from their saved rollups
+        try (PartitionedExpenseRepository repo = new PartitionedExpenseRepository(dir.toString(),
+                YearMonth.of(2024, 3))) {
+            assertMatchesRows(repo, rows);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AggregationKernelTest {
+
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+    private static final int FIRST_DAY = 19_700;
+    private static final int DAYS = 60;
+
+    private final Random random = new Random(19);
+    private final AggregationKernel scalar = AggregationKernels.scalar();
+    private final AggregationKernel vector = AggregationKernels.vector();
+
+    private long[] amounts;
+    private byte[] categories;
+    private int[] epochDays;
+
+    /** Random rows in every category; some amounts at the extremes, so min and max lanes are exercised. */
+    private void columns(int rows) {
+        amounts = new long[rows];
+        categories = new byte[rows];
+        epochDays = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            int kind = random.nextInt(50);
+            amounts[i] = kind == 0 ? Long.MAX_VALUE / 4 : kind == 1 ? -random.nextInt(1_000) : random.nextInt(1_000_000);
+            categories[i] = (byte) random.nextInt(CATEGORIES.length);
+            epochDays[i] = FIRST_DAY + random.nextInt(DAYS);
+        }
+    }
+
+    private String run(AggregationKernel kernel, int start, int end, int fromDay, int toDay) {
+        ExpenseRollup.Totals totals = new ExpenseRollup.Totals();
+        kernel.aggregate(amounts, categories, epochDays, start, end, fromDay, toDay, totals);
+        List<String> rendered = new ArrayList<>();
+        for (ExpenseCategory c : CATEGORIES) {
+            rendered.add(c + " " + totals.getSum(c) + " " + totals.getCount(c) + " " + totals.getMin(c) + " "
+                    + totals.getMax(c));
+        }
+        return String.join(", ", rendered);
+    }
+
+    private void assertSameTotals(int start, int end, int fromDay, int toDay) {
+        assertEquals(run(scalar, start, end, fromDay, toDay), run(vector, start, end, fromDay, toDay),
+                "rows " + start + ".." + end + ", days " + fromDay + ".." + toDay);
+    }
+
+    /** Day ranges at and around the data's edges, a single day, an empty range and an unbounded one. */
+    private int[][] dayRanges() {
+        int last = FIRST_DAY + DAYS - 1;
+        int mid = FIRST_DAY + random.nextInt(DAYS);
+        return new int[][]{
+                {Integer.MIN_VALUE, Integer.MAX_VALUE},
+                {FIRST_DAY, last},
+                {FIRST_DAY + 1, last - 1},
+                {FIRST_DAY - 1, FIRST_DAY},
+                {last, last + 1},
+                {mid, mid},
+                {mid + 1, mid},
+                {last + 1, Integer.MAX_VALUE}
+        };
+    }
+
+    @Test
+    void vectorKernelMatchesScalarOnEveryTail() {
+        assumeTrue(vector != null, "no vector kernel on this JVM");
+        columns(300);
+        // every length up to a few vector steps, so every tail length is covered, from aligned and odd starts
+        for (int start : new int[]{0, 1, 7}) {
+            for (int end = start; end <= 200; end++) {
+                for (int[] days : dayRanges()) {
+                    assertSameTotals(start, end, days[0], days[1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void vectorKernelMatchesScalarAcrossBlocks() {
+        assumeTrue(vector != null, "no vector kernel on this JVM");
+        columns(5_000);
+        int[][] spans = {{0, 1023}, {0, 1024}, {0, 1025}, {1, 1025}, {1020, 1030}, {1000, 2049}, {3, 4_999},
+                {0, 5_000}, {2048, 2048}};
+        for (int[] span : spans) {
+            for (int[] days : dayRanges()) {
+                assertSameTotals(span[0], span[1], days[0], days[1]);
+            }
+        }
+        for (int trial = 0; trial < 200; trial++) {
+            int start = random.nextInt(5_000);
+            int end = start + random.nextInt(5_000 - start + 1);
+            int from = FIRST_DAY - 2 + random.nextInt(DAYS + 4);
+            assertSameTotals(start, end, from, from + random.nextInt(DAYS));
+        }
+    }
+}
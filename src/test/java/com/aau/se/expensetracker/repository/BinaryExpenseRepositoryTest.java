@@ -0,0 +1,162 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.metrics.ExpenseMetrics;
+import com.aau.se.expensetracker.metrics.OperationStats;
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.util.DataAccessException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryExpenseRepositoryTest {
+
+    private static final String A = "0f8fad5b-d9cb-469f-a165-70867728950e";
+    private static final String B = "7c9e6679-7425-40de-944b-e07fc1f90ae7";
+    private static final String C = "16fd2706-8baf-433b-82eb-8c7fada847da";
+
+    @TempDir
+    Path dir;
+
+    private static Expense expense(String id, double amount, LocalDate date, ExpenseCategory category) {
+        return new BasicExpense(id, amount, date, category);
+    }
+
+    private static List<String> ids(List<Expense> expenses) {
+        return expenses.stream().map(Expense::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void savesInPlaceAndTombstonesAcrossReopen() throws Exception {
+        String file = dir.resolve("expenses.bin").toString();
+        BinaryExpenseRepository repo = new BinaryExpenseRepository(file);
+        repo.saveAll(List.of(
+                expense(A, 10, LocalDate.of(2024, 1, 5), ExpenseCategory.FOOD),
+                expense(B, 20.25, LocalDate.of(2024, 1, 6), ExpenseCategory.TRANSPORT)));
+        repo.save(expense(A, 12.5, LocalDate.of(2024, 3, 1), ExpenseCategory.HYGIENE));
+        repo.delete(B);
+        repo.close();
+
+        BinaryExpenseRepository reopened = new BinaryExpenseRepository(file);
+        try {
+            // the update overwrote its slot and the delete only cleared a flag
+            assertEquals(2, reopened.slotCount());
+            assertEquals(1, reopened.count());
+            assertNull(reopened.readAt(1));
+            Expense a = reopened.readAt(0);
+            assertEquals(A, a.getId());
+            assertEquals(12.5, a.getAmount());
+            assertEquals(LocalDate.of(2024, 3, 1), a.getDate());
+            assertEquals(ExpenseCategory.HYGIENE, a.getCategory());
+            assertNull(reopened.findById(B));
+            assertEquals(List.of(A), ids(reopened.findByDateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31))));
+            assertEquals(0, reopened.countByDateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void tornTrailingRecordIsIgnoredAndOverwritten() throws Exception {
+        Path file = dir.resolve("expenses.bin");
+        BinaryExpenseRepository repo = new BinaryExpenseRepository(file.toString());
+        repo.save(expense(A, 10, LocalDate.of(2024, 1, 5), ExpenseCategory.FOOD));
+        repo.close();
+        Files.write(file, new byte[BinaryExpenseRepository.RECORD_SIZE / 2], StandardOpenOption.APPEND);
+
+        BinaryExpenseRepository reopened = new BinaryExpenseRepository(file.toString());
+        try {
+            assertEquals(1, reopened.slotCount());
+            reopened.save(expense(B, 20, LocalDate.of(2024, 1, 6), ExpenseCategory.FOOD));
+            assertEquals(BinaryExpenseRepository.HEADER_SIZE + 2L * BinaryExpenseRepository.RECORD_SIZE,
+                    Files.size(file));
+            assertEquals(B, reopened.readAt(1).getId());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void nonCanonicalIdsAreRejected() throws Exception {
+        BinaryExpenseRepository repo = new BinaryExpenseRepository(dir.resolve("expenses.bin").toString());
+        try {
+            assertThrows(DataAccessException.class,
+                    () -> repo.save(expense("a", 1, LocalDate.of(2024, 1, 5), ExpenseCategory.FOOD)));
+            assertThrows(DataAccessException.class,
+                    () -> repo.save(expense(A.toUpperCase(), 1, LocalDate.of(2024, 1, 5), ExpenseCategory.FOOD)));
+            assertEquals(0, repo.slotCount());
+        } finally {
+            repo.close();
+        }
+    }
+
+    @Test
+    void converterCarriesLiveRecordsBothWays() throws Exception {
+        Path text = dir.resolve("expenses.txt");
+        FileExpenseRepository journal = new FileExpenseRepository(text.toString(),
+                FileExpenseRepository.StorageMode.JOURNAL);
+        journal.saveAll(List.of(
+                expense(A, 10, LocalDate.of(2024, 1, 5), ExpenseCategory.FOOD),
+                expense(B, 20, LocalDate.of(2024, 1, 6), ExpenseCategory.TRANSPORT),
+                expense(C, 30, LocalDate.of(2024, 2, 1), ExpenseCategory.ACADEMIC)));
+        journal.save(expense(A, 11.75, LocalDate.of(2024, 1, 7), ExpenseCategory.FOOD));
+        journal.delete(B);
+
+        Path binary = dir.resolve("expenses.bin");
+        assertEquals(2, BinaryExpenseConverter.textToBinary(text, binary));
+        BinaryExpenseRepository repo = new BinaryExpenseRepository(binary.toString());
+        try {
+            assertEquals(List.of(A, C), ids(repo.loadAll()));
+            assertEquals(11.75, repo.findById(A).getAmount());
+        } finally {
+            repo.close();
+        }
+
+        Path back = dir.resolve("back.txt");
+        assertEquals(2, BinaryExpenseConverter.binaryToText(binary, back));
+        FileExpenseRepository restored = new FileExpenseRepository(back.toString());
+        assertEquals(List.of(A, C), ids(restored.loadAll()));
+        Expense c = restored.findById(C);
+        assertEquals(30, c.getAmount());
+        assertEquals(LocalDate.of(2024, 2, 1), c.getDate());
+        assertEquals(ExpenseCategory.ACADEMIC, c.getCategory());
+    }
+
+    @Test
+    void savesAndDeletesAreRecordedWithTheBytesTheyWrite() throws Exception {
+        OperationStats saves = ExpenseMetrics.of(ExpenseMetrics.Operation.SAVE);
+        OperationStats deletes = ExpenseMetrics.of(ExpenseMetrics.Operation.DELETE);
+        OperationStats ranges = ExpenseMetrics.of(ExpenseMetrics.Operation.FIND_BY_DATE_RANGE);
+        long saveCount = saves.getCount();
+        long savedBytes = saves.getBytesWritten();
+        long deletedBytes = deletes.getBytesWritten();
+        long rangeRows = ranges.getRowsScanned();
+
+        BinaryExpenseRepository repo = new BinaryExpenseRepository(dir.resolve("expenses.bin").toString());
+        try {
+            repo.saveAll(List.of(
+                    expense(A, 10, LocalDate.of(2024, 1, 5), ExpenseCategory.FOOD),
+                    expense(B, 20, LocalDate.of(2024, 1, 6), ExpenseCategory.TRANSPORT)));
+            repo.deleteAll(List.of(B, C));
+            assertEquals(1, repo.findByDateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)).size());
+        } finally {
+            repo.close();
+        }
+        assertEquals(saveCount + 1, saves.getCount());
+        assertEquals(savedBytes + 2 * BinaryExpenseRepository.RECORD_SIZE, saves.getBytesWritten());
+        // one flag byte for the stored id, none for the missing one
+        assertEquals(deletedBytes + 1, deletes.getBytesWritten());
+        assertEquals(rangeRows + 1, ranges.getRowsScanned());
+    }
+}
@@ -0,0 +1,113 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarExpenseStoreTest {
+
+    private static Expense expense(String id, double amount, LocalDate date) {
+        return new BasicExpense(id, amount, date, ExpenseCategory.FOOD);
+    }
+
+    /** A mix of canonical UUID ids, stored as columns, and other ids, stored beside them. */
+    private static String id(int n) {
+        return n % 3 == 0 ? "id-" + n : new UUID(n * 0x9E3779B97F4A7C15L, n).toString();
+    }
+
+    @Test
+    void removalsKeepEveryOtherIdReachable() {
+        ColumnarExpenseStore store = new ColumnarExpenseStore();
+        int n = 3_000;
+        for (int i = 0; i < n; i++) {
+            store.put(expense(id(i), i, LocalDate.of(2024, 1, 1).plusDays(i % 90)));
+        }
+        // removing in a scattered order exercises both the back-shift of probe runs in the id table
+        // and moving the last row into each freed row
+        List<Integer> removed = new ArrayList<>();
+        for (int i = 0; i < n; i += 7) {
+            removed.add((i * 13) % n);
+        }
+        for (int i : removed) {
+            if (store.contains(id(i))) {
+                assertEquals(i, store.remove(id(i)).getAmount());
+            }
+        }
+        assertNull(store.remove(id(removed.get(0))));
+
+        int live = 0;
+        for (int i = 0; i < n; i++) {
+            Expense e = store.get(id(i));
+            if (removed.contains(i)) {
+                assertNull(e);
+            } else {
+                assertNotNull(e, id(i));
+                assertEquals(i, e.getAmount());
+                live++;
+            }
+        }
+        assertEquals(live, store.size());
+        assertEquals(live, store.countInRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31)));
+
+        for (int i : removed) {
+            assertNull(store.put(expense(id(i), -i, LocalDate.of(2024, 6, 1))));
+        }
+        assertEquals(n, store.size());
+        assertEquals(-removed.get(1), store.get(id(removed.get(1))).getAmount());
+    }
+
+    @Test
+    void overwriteKeepsTheRowAndMovesItsDate() {
+        ColumnarExpenseStore store = new ColumnarExpenseStore();
+        store.put(expense("a", 1, LocalDate.of(2024, 1, 5)));
+        store.put(expense("b", 2, LocalDate.of(2024, 1, 6)));
+
+        Expense previous = store.put(expense("a", 3, LocalDate.of(2024, 2, 1)));
+        assertEquals(1, previous.getAmount());
+        assertEquals(2, store.size());
+        assertEquals(1, store.countInRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+        assertEquals(3, store.inRange(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 1), null).get(0).getAmount());
+    }
+
+    @Test
+    void snapshotIsUnchangedByLaterWrites() {
+        ColumnarExpenseStore store = new ColumnarExpenseStore();
+        int n = ColumnarExpenseStore.CHUNK_SIZE + 10;
+        for (int i = 0; i < n; i++) {
+            store.put(expense(id(i), i, LocalDate.of(2024, 1, 1)));
+        }
+        ColumnarExpenseStore.Snapshot before = store.snapshot();
+        assertSame(before, store.snapshot());
+
+        // an overwrite in the first chunk, a removal that moves the last row, and an append
+        store.put(expense(id(0), 100, LocalDate.of(2024, 5, 1)));
+        store.remove(id(1));
+        store.put(expense("new", 7, LocalDate.of(2024, 1, 2)));
+        ColumnarExpenseStore.Snapshot after = store.snapshot();
+
+        assertEquals(n, before.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(id(i), before.get(i).getId());
+            assertEquals(i, before.get(i).getAmount());
+        }
+        assertEquals(LocalDate.of(2024, 1, 1), before.get(0).getDate());
+
+        assertTrue(after.version() > before.version());
+        assertEquals(n, after.size());
+        assertEquals(100, after.get(0).getAmount());
+        assertEquals(id(n - 1), after.get(1).getId());
+        assertEquals("new", after.get(n - 1).getId());
+    }
+}
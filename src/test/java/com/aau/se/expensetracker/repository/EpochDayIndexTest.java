@@ -0,0 +1,102 @@
+package com.aau.se.expensetracker.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EpochDayIndexTest {
+
+    /** What the index should hold: the day and row of each sequence number. */
+    private final Map<Integer, int[]> model = new HashMap<>();
+    private final EpochDayIndex index = new EpochDayIndex();
+
+    private List<Integer> expected(long fromDay, long toDay) {
+        List<Integer> seqs = new ArrayList<>();
+        for (Map.Entry<Integer, int[]> e : model.entrySet()) {
+            if (e.getValue()[0] >= fromDay && e.getValue()[0] <= toDay) seqs.add(e.getKey());
+        }
+        seqs.sort(Comparator.<Integer>comparingInt(seq -> model.get(seq)[0]).thenComparing(seq -> seq));
+        List<Integer> rows = new ArrayList<>();
+        for (int seq : seqs) {
+            rows.add(model.get(seq)[1]);
+        }
+        return rows;
+    }
+
+    private void assertRange(long fromDay, long toDay) {
+        List<Integer> rows = new ArrayList<>();
+        index.forEachInRange(fromDay, toDay, rows::add);
+        assertEquals(expected(fromDay, toDay), rows, "range " + fromDay + ".." + toDay);
+        assertEquals(rows.size(), index.countInRange(fromDay, toDay));
+    }
+
+    private void addAll(Random random, int count, int firstSeq, int seqStride) {
+        int[] days = new int[count];
+        int[] seqs = new int[count];
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++) {
+            days[i] = random.nextInt(400) - 200;
+            seqs[i] = firstSeq + i * seqStride;
+            rows[i] = random.nextInt(1_000_000);
+            model.put(seqs[i], new int[]{days[i], rows[i]});
+        }
+        index.addAll(days, seqs, rows, count);
+    }
+
+    @Test
+    void bulkAddsSortInBesideTheRows() {
+        Random random = new Random(11);
+        // dense sequence numbers, as after a load, then a sparse batch large enough to re-sort
+        addAll(random, 5_000, 0, 1);
+        assertRange(Long.MIN_VALUE, Long.MAX_VALUE);
+        addAll(random, 2_000, 10_000, 1_000);
+        assertRange(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertRange(-10, 10);
+        assertEquals(7_000, index.size());
+    }
+
+    @Test
+    void singleChangesKeepDayThenInsertionOrder() {
+        Random random = new Random(7);
+        addAll(random, 2_000, 0, 1);
+        int nextSeq = 2_000;
+        for (int step = 0; step < 3_000; step++) {
+            List<Integer> seqs = new ArrayList<>(model.keySet());
+            int seq = seqs.get(random.nextInt(seqs.size()));
+            int[] entry = model.get(seq);
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    int day = random.nextInt(400) - 200;
+                    int row = random.nextInt(1_000_000);
+                    index.add(day, nextSeq, row);
+                    model.put(nextSeq++, new int[]{day, row});
+                }
+                case 1 -> {
+                    index.remove(entry[0], seq);
+                    model.remove(seq);
+                }
+                case 2 -> {
+                    int day = entry[0] + random.nextInt(21) - 10;
+                    index.move(entry[0], day, seq);
+                    entry[0] = day;
+                }
+                default -> {
+                    entry[1] = random.nextInt(1_000_000);
+                    index.relocate(entry[0], seq, entry[1]);
+                }
+            }
+        }
+        assertEquals(model.size(), index.size());
+        assertRange(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertRange(-50, -50);
+        assertRange(0, 100);
+        assertRange(5, 4);
+    }
+}
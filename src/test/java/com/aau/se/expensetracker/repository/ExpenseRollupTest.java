@@ -0,0 +1,106 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpenseRollupTest {
+
+    private static final YearMonth MARCH = YearMonth.of(2024, 3);
+    private static final ExpenseCategory FOOD = ExpenseCategory.FOOD;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void monthKeyOfEpochDayMatchesLocalDate() {
+        for (int day = -800_000; day <= 800_000; day++) {
+            assertEquals(ExpenseRollup.monthKey(YearMonth.from(LocalDate.ofEpochDay(day))), ExpenseRollup.monthKey(day),
+                    "epoch day " + day);
+        }
+        for (int day : new int[]{Integer.MIN_VALUE, Integer.MIN_VALUE + 1, Integer.MAX_VALUE - 1, Integer.MAX_VALUE}) {
+            assertEquals(ExpenseRollup.monthKey(YearMonth.from(LocalDate.ofEpochDay(day))), ExpenseRollup.monthKey(day),
+                    "epoch day " + day);
+        }
+    }
+
+    @Test
+    void removeReportsWhenAnExtremeLeaves() {
+        ExpenseRollup rollup = new ExpenseRollup();
+        int day = (int) LocalDate.of(2024, 3, 10).toEpochDay();
+        rollup.add(day, FOOD.ordinal(), 100);
+        rollup.add(day, FOOD.ordinal(), 500);
+        rollup.add(day, FOOD.ordinal(), 300);
+
+        assertFalse(rollup.remove(day, FOOD.ordinal(), 300));
+        assertTrue(rollup.remove(day, FOOD.ordinal(), 500));
+        rollup.setExtremes(day, FOOD.ordinal(), 100, 100);
+        // removing the last amount empties the cell instead of asking for a rescan
+        assertFalse(rollup.remove(day, FOOD.ordinal(), 100));
+        assertEquals(0, rollup.summarize(null, null).getCount());
+    }
+
+    @Test
+    void fileRepositoryRescansExtremes() throws Exception {
+        assertExtremesFollowRemovals(new FileExpenseRepository(dir.resolve("expenses.txt").toString(),
+                FileExpenseRepository.StorageMode.JOURNAL));
+    }
+
+    @Test
+    void binaryRepositoryRescansExtremes() throws Exception {
+        BinaryExpenseRepository repo = new BinaryExpenseRepository(dir.resolve("expenses.bin").toString());
+        try {
+            assertExtremesFollowRemovals(repo);
+        } finally {
+            repo.close();
+        }
+    }
+
+    private static void assertExtremesFollowRemovals(ExpenseRepository repo) throws Exception {
+        String low = UUID.randomUUID().toString();
+        String mid = UUID.randomUUID().toString();
+        String high = UUID.randomUUID().toString();
+        String other = UUID.randomUUID().toString();
+        repo.saveAll(List.of(
+                new BasicExpense(low, 1, LocalDate.of(2024, 3, 1), FOOD),
+                new BasicExpense(mid, 5, LocalDate.of(2024, 3, 15), FOOD),
+                new BasicExpense(high, 9, LocalDate.of(2024, 3, 31), FOOD),
+                // outside the cell: another month, and another category
+                new BasicExpense(other, 20, LocalDate.of(2024, 4, 1), FOOD),
+                new BasicExpense(UUID.randomUUID().toString(), 0.5, LocalDate.of(2024, 3, 2), ExpenseCategory.HYGIENE)));
+
+        ExpenseRollup.Totals march = repo.summarize(MARCH, MARCH);
+        assertEquals(1, march.getMin(FOOD));
+        assertEquals(9, march.getMax(FOOD));
+
+        repo.delete(high);
+        march = repo.summarize(MARCH, MARCH);
+        assertEquals(5, march.getMax(FOOD));
+        assertEquals(6, march.getSum(FOOD));
+
+        // overwriting the minimum takes it out of the cell as well
+        repo.save(new BasicExpense(low, 3, LocalDate.of(2024, 3, 1), FOOD));
+        march = repo.summarize(MARCH, MARCH);
+        assertEquals(3, march.getMin(FOOD));
+        assertEquals(5, march.getMax(FOOD));
+
+        // moving the maximum to another month leaves one row behind
+        repo.save(new BasicExpense(mid, 5, LocalDate.of(2024, 4, 2), FOOD));
+        march = repo.summarize(MARCH, MARCH);
+        assertEquals(3, march.getMin(FOOD));
+        assertEquals(3, march.getMax(FOOD));
+        assertEquals(0.5, march.getMin(ExpenseCategory.HYGIENE));
+        assertEquals(5, repo.summarize(YearMonth.of(2024, 4), YearMonth.of(2024, 4)).getMin(FOOD));
+    }
+}
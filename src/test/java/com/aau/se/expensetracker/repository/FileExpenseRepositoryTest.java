@@ -0,0 +1,207 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.repository.FileExpenseRepository.StorageMode;
+import com.aau.se.expensetracker.util.DataAccessException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FileExpenseRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    private static Expense expense(String id, double amount, LocalDate date) {
+        return new BasicExpense(id, amount, date, ExpenseCategory.FOOD);
+    }
+
+    private static List<String> ids(List<Expense> expenses) {
+        return expenses.stream().map(Expense::getId).collect(Collectors.toList());
+    }
+
+    /** Replaces the file with a non-empty directory, so appends and replaces both fail. */
+    private static void breakFile(Path file) throws IOException {
+        Files.delete(file);
+        Files.createDirectory(file);
+        Files.createFile(file.resolve("blocker"));
+    }
+
+    @Test
+    void failedJournalAppendLeavesCacheUnchanged() throws Exception {
+        Path file = dir.resolve("expenses.txt");
+        FileExpenseRepository repo = new FileExpenseRepository(file.toString(), StorageMode.JOURNAL);
+        repo.save(expense("a", 10, LocalDate.of(2024, 1, 5)));
+        breakFile(file);
+
+        assertThrows(DataAccessException.class, () -> repo.save(expense("b", 20, LocalDate.of(2024, 1, 6))));
+        assertThrows(DataAccessException.class, () -> repo.delete("a"));
+
+        assertNull(repo.findById("b"));
+        assertNotNull(repo.findById("a"));
+        assertEquals(1, repo.loadAll().size());
+    }
+
+    @Test
+    void failedRewriteRestoresCache() throws Exception {
+        Path file = dir.resolve("expenses.txt");
+        FileExpenseRepository repo = new FileExpenseRepository(file.toString(), StorageMode.REWRITE);
+        repo.save(expense("a", 10, LocalDate.of(2024, 1, 5)));
+        breakFile(file);
+
+        assertThrows(DataAccessException.class, () -> repo.save(expense("a", 99, LocalDate.of(2024, 2, 1))));
+        assertThrows(DataAccessException.class, () -> repo.delete("a"));
+
+        Expense a = repo.findById("a");
+        assertNotNull(a);
+        assertEquals(10, a.getAmount());
+        assertEquals(1, repo.findByDateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)).size());
+    }
+
+    @Test
+    void journalReplaysUpdatesAndTombstonesAcrossReopen() throws Exception {
+        Path file = dir.resolve("expenses.txt");
+        FileExpenseRepository repo = new FileExpenseRepository(file.toString(), StorageMode.JOURNAL);
+        repo.save(expense("a", 10, LocalDate.of(2024, 1, 5)));
+        repo.save(expense("b", 20, LocalDate.of(2024, 1, 6)));
+        repo.save(expense("a", 15, LocalDate.of(2024, 2, 1)));
+        repo.delete("b");
+        // every change is one appended line, tombstones included
+        assertEquals(4, Files.readAllLines(file).size());
+
+        FileExpenseRepository reopened = new FileExpenseRepository(file.toString(), StorageMode.JOURNAL);
+        assertEquals(1, reopened.count());
+        assertNull(reopened.findById("b"));
+        Expense a = reopened.findById("a");
+        assertEquals(15, a.getAmount());
+        assertEquals(LocalDate.of(2024, 2, 1), a.getDate());
+        assertEquals(0, reopened.countByDateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)));
+    }
+
+    @Test
+    void mostlyDeadJournalIsCompacted() throws Exception {
+        Path file = dir.resolve("expenses.txt");
+        FileExpenseRepository repo = new FileExpenseRepository(file.toString(), StorageMode.JOURNAL);
+        List<Expense> expenses = new ArrayList<>();
+        List<String> doomed = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            expenses.add(expense("e" + i, i, LocalDate.of(2024, 1, 1).plusDays(i % 60)));
+            if (i % 5 != 0) doomed.add("e" + i);
+        }
+        repo.saveAll(expenses);
+        repo.deleteAll(doomed);
+
+        // compaction runs in the background once most journal lines are dead
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (Files.readAllLines(file).size() != 200 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(200, Files.readAllLines(file).size());
+        repo.save(expense("late", 1, LocalDate.of(2024, 3, 1)));
+
+        FileExpenseRepository reopened = new FileExpenseRepository(file.toString(), StorageMode.JOURNAL);
+        assertEquals(201, reopened.count());
+        assertNull(reopened.findById("e1"));
+        assertEquals(5, reopened.findById("e5").getAmount());
+        assertNotNull(reopened.findById("late"));
+    }
+
+    @Test
+    void tornLastLineIsCutOff() throws Exception {
+        Path file = dir.resolve("expenses.txt");
+        String intact = RecordChecksums.seal("a||10.0|2024-01-05|FOOD") + "\n"
+                + RecordChecksums.seal("b||20.0|2024-01-06|FOOD") + "\n";
+        String torn = RecordChecksums.seal("c||30.0|2024-01-07|FOOD");
+        Files.writeString(file, intact + torn.substring(0, torn.length() - 4));
+
+        FileExpenseRepository repo = new FileExpenseRepository(file.toString(), StorageMode.JOURNAL);
+        assertEquals(2, repo.count());
+        assertNull(repo.findById("c"));
+        assertEquals(intact, Files.readString(file));
+        assertFalse(Files.exists(dir.resolve("expenses.txt.corrupt")));
+
+        // the next record starts on a line of its own
+        repo.save(expense("d", 40, LocalDate.of(2024, 1, 8)));
+        assertEquals(3, new FileExpenseRepository(file.toString(), StorageMode.JOURNAL).count());
+    }
+
+    @Test
+    void corruptMiddleLineIsQuarantined() throws Exception {
+        Path file = dir.resolve("expenses.txt");
+        String first = RecordChecksums.seal("a||10.0|2024-01-05|FOOD");
+        String sealed = RecordChecksums.seal("b||20.0|2024-01-06|FOOD");
+        String damaged = sealed.replace("20.0", "90.0");
+        String last = RecordChecksums.seal("c||30.0|2024-01-07|FOOD");
+        Files.writeString(file, first + "\n" + damaged + "\n" + last + "\n");
+
+        FileExpenseRepository repo = new FileExpenseRepository(file.toString(), StorageMode.JOURNAL);
+        assertEquals(2, repo.count());
+        assertNull(repo.findById("b"));
+        assertEquals(30, repo.findById("c").getAmount());
+        assertEquals(List.of((first.length() + 1) + " " + damaged),
+                Files.readAllLines(dir.resolve("expenses.txt.corrupt")));
+        // the journal was rewritten without the damaged line and loads cleanly
+        assertFalse(Files.readString(file).contains(damaged));
+        FileExpenseRepository reopened = new FileExpenseRepository(file.toString(), StorageMode.JOURNAL);
+        assertEquals(2, reopened.count());
+        assertEquals(1, Files.readAllLines(dir.resolve("expenses.txt.corrupt")).size());
+    }
+
+    @Test
+    void checkpointRestoresStateAndTailIsReplayed() throws Exception {
+        Path file = dir.resolve("expenses.txt");
+        FileExpenseRepository repo = new FileExpenseRepository(file.toString(), StorageMode.JOURNAL);
+        repo.saveAll(List.of(
+                expense("a", 10, LocalDate.of(2024, 1, 5)),
+                expense("b", 20, LocalDate.of(2024, 2, 6)),
+                expense("c", 30, LocalDate.of(2024, 3, 7))));
+        repo.close();
+        ExpenseCheckpoint checkpoint = ExpenseCheckpoint.read(file);
+        assertNotNull(checkpoint);
+        assertEquals(Files.size(file), checkpoint.journalOffset());
+
+        // appended after the checkpoint and never closed, as after a crash
+        FileExpenseRepository resumed = new FileExpenseRepository(file.toString(), StorageMode.JOURNAL);
+        resumed.save(expense("d", 40, LocalDate.of(2024, 1, 20)));
+        resumed.delete("a");
+        resumed.save(expense("b", 25, LocalDate.of(2024, 2, 6)));
+
+        FileExpenseRepository reopened = new FileExpenseRepository(file.toString(), StorageMode.JOURNAL);
+        assertEquals(3, reopened.count());
+        assertNull(reopened.findById("a"));
+        assertEquals(25, reopened.findById("b").getAmount());
+        assertEquals(List.of("d"), ids(reopened.findByDateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31))));
+        assertEquals(95, reopened.summarize(null, null).getTotal());
+        assertEquals(checkpoint.journalOffset(), ExpenseCheckpoint.read(file).journalOffset());
+    }
+
+    @Test
+    void checkpointOfAnotherJournalIsIgnored() throws Exception {
+        Path file = dir.resolve("expenses.txt");
+        FileExpenseRepository repo = new FileExpenseRepository(file.toString(), StorageMode.JOURNAL);
+        repo.save(expense("a", 10, LocalDate.of(2024, 1, 5)));
+        repo.close();
+        // replaced behind the repository's back by a journal at least as long
+        Files.writeString(file, RecordChecksums.seal("x||1.0|2024-01-05|FOOD") + "\n"
+                + RecordChecksums.seal("y||2.0|2024-01-06|FOOD") + "\n");
+
+        FileExpenseRepository reopened = new FileExpenseRepository(file.toString(), StorageMode.JOURNAL);
+        assertEquals(List.of("x", "y"), ids(reopened.loadAll()));
+        assertEquals(3, reopened.summarize(null, null).getTotal());
+    }
+}
@@ -0,0 +1,148 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MappedExpenseLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    /** Collects what the loader reports, tagged by kind. */
+    private static class Recorder implements MappedExpenseLoader.Sink {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void record(Expense expense) {
+            events.add("record " + expense.getId() + " " + expense.getAmount());
+        }
+
+        @Override
+        public void tombstone(String expenseId) {
+            events.add("tombstone " + expenseId);
+        }
+
+        @Override
+        public void corrupt(long offset, byte[] line) {
+            events.add("corrupt " + offset + " " + new String(line, StandardCharsets.UTF_8));
+        }
+    }
+
+    /** Also takes the column path, which the loader uses for plain records with canonical UUID ids. */
+    private static final class RowRecorder extends Recorder {
+        @Override
+        public void row(long idMsb, long idLsb, double amount, int epochDay, int category) {
+            events.add("row " + new UUID(idMsb, idLsb) + " " + amount + " " + epochDay + " " + category);
+        }
+    }
+
+    private List<String> load(String content, long verifyFrom) throws Exception {
+        return load(content, verifyFrom, new Recorder());
+    }
+
+    private List<String> load(String content, long verifyFrom, Recorder recorder) throws Exception {
+        Path file = dir.resolve("expenses.txt");
+        Files.writeString(file, content);
+        MappedExpenseLoader.load(file, verifyFrom, recorder);
+        return recorder.events;
+    }
+
+    /** Replaces the last hex digit of a sealed line with a different one. */
+    private static String flipLastDigit(String sealed) {
+        char last = sealed.charAt(sealed.length() - 1);
+        return sealed.substring(0, sealed.length() - 1) + (last == '0' ? '1' : '0');
+    }
+
+    @Test
+    void sealedAndLegacyLinesLoad() throws Exception {
+        String content = RecordChecksums.seal("a||12.5|2024-01-02|FOOD") + "\n"
+                + "b||3.0|2024-01-03|TRANSPORT\n"
+                + RecordChecksums.seal("-a") + "\n"
+                + "-b\n";
+        assertEquals(List.of("record a 12.5", "record b 3.0", "tombstone a", "tombstone b"), load(content, 0));
+    }
+
+    @Test
+    void tombstoneWithBadChecksumIsCorrupt() throws Exception {
+        String bad = flipLastDigit(RecordChecksums.seal("-a"));
+        assertEquals(List.of("corrupt 0 " + bad), load(bad + "\n", 0));
+    }
+
+    @Test
+    void tombstoneWithMalformedSealIsCorruptNotLegacy() throws Exception {
+        String sealed = RecordChecksums.seal("-a");
+        String torn = sealed.substring(0, sealed.length() - 3);
+        String overwritten = sealed.substring(0, sealed.length() - 1) + "z";
+        String content = torn + "\n" + overwritten + "\n";
+        assertEquals(List.of("corrupt 0 " + torn, "corrupt " + (torn.length() + 1) + " " + overwritten),
+                load(content, 0));
+    }
+
+    @Test
+    void checksumsBeforeVerifyOffsetAreTrusted() throws Exception {
+        String first = flipLastDigit(RecordChecksums.seal("a||1.0|2024-01-02|FOOD"));
+        String second = flipLastDigit(RecordChecksums.seal("b||2.0|2024-01-02|FOOD"));
+        String content = first + "\n" + second + "\n";
+        assertEquals(List.of("record a 1.0", "corrupt " + (first.length() + 1) + " " + second),
+                load(content, first.length() + 1));
+    }
+
+    @Test
+    void malformedSealIsCorruptEvenBeforeVerifyOffset() throws Exception {
+        String sealed = RecordChecksums.seal("-a");
+        String torn = sealed.substring(0, sealed.length() - 2);
+        assertEquals(List.of("corrupt 0 " + torn), load(torn + "\n", Long.MAX_VALUE));
+    }
+
+    @Test
+    void canonicalUuidRecordsTakeTheRowPath() throws Exception {
+        String id = "0f8fad5b-d9cb-469f-a165-70867728950e";
+        String content = RecordChecksums.seal(id + "||12.5|2024-01-02|FOOD") + "\n"
+                + id.toUpperCase() + "||1.0|2024-01-02|FOOD\n"
+                + "0f8fad5b\\|d9cb||2.0|2024-01-02|FOOD\n"
+                + id + "|note|3.0|2024-01-02|TRANSPORT\n"
+                + id + "||4.0|2024-02-30|FOOD\n";
+        assertEquals(List.of(
+                "row " + id + " 12.5 " + LocalDate.of(2024, 1, 2).toEpochDay() + " 0",
+                "record " + id.toUpperCase() + " 1.0",
+                "record 0f8fad5b|d9cb 2.0",
+                "row " + id + " 3.0 " + LocalDate.of(2024, 1, 2).toEpochDay() + " 2",
+                "corrupt " + offsetOfLast(content) + " " + id + "||4.0|2024-02-30|FOOD"),
+                load(content, 0, new RowRecorder()));
+    }
+
+    @Test
+    void defaultRowBuildsTheSameExpenseAsTheRecordPath() throws Exception {
+        String id = "0f8fad5b-d9cb-469f-a165-70867728950e";
+        List<Expense> expenses = new ArrayList<>();
+        Path file = dir.resolve("expenses.txt");
+        Files.writeString(file, id + "||7.25|1969-12-31|HYGIENE\n");
+        MappedExpenseLoader.load(file, 0, new Recorder() {
+            @Override
+            public void record(Expense expense) {
+                expenses.add(expense);
+            }
+        });
+        assertEquals(1, expenses.size());
+        assertEquals(id, expenses.get(0).getId());
+        assertEquals(7.25, expenses.get(0).getAmount());
+        assertEquals(LocalDate.of(1969, 12, 31), expenses.get(0).getDate());
+        assertEquals(ExpenseCategory.HYGIENE, expenses.get(0).getCategory());
+    }
+
+    private static long offsetOfLast(String content) {
+        return content.lastIndexOf('\n', content.length() - 2) + 1;
+    }
+}
@@ -0,0 +1,145 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedExpenseRepositoryTest {
+
+    private static final YearMonth ACTIVE = YearMonth.of(2024, 3);
+
+    @TempDir
+    Path dir;
+
+    private static Expense expense(String id, double amount, LocalDate date) {
+        return new BasicExpense(id, amount, date, ExpenseCategory.FOOD);
+    }
+
+    @Test
+    void movingExpenseOutOfUnparsedMonthDeletesItThere() throws Exception {
+        PartitionedExpenseRepository repo = new PartitionedExpenseRepository(dir.toString(), ACTIVE);
+        repo.saveAll(List.of(expense("a", 10, LocalDate.of(2024, 1, 10)), expense("b", 5, LocalDate.of(2024, 1, 11))));
+        repo.close();
+
+        repo = new PartitionedExpenseRepository(dir.toString(), ACTIVE);
+        repo.save(expense("a", 12, LocalDate.of(2024, 2, 1)));
+        repo.close();
+
+        repo = new PartitionedExpenseRepository(dir.toString(), ACTIVE);
+        assertEquals(List.of("b"), ids(repo.loadMonth(YearMonth.of(2024, 1))));
+        assertEquals(List.of("a"), ids(repo.loadMonth(YearMonth.of(2024, 2))));
+        assertEquals(12, repo.findById("a").getAmount());
+        assertEquals(17, repo.summarize(null, null).getTotal(), 1e-9);
+        repo.close();
+    }
+
+    @Test
+    void saveAllMovesBetweenMonthsAndKeepsLastVersionOfRepeatedId() throws Exception {
+        PartitionedExpenseRepository repo = new PartitionedExpenseRepository(dir.toString(), ACTIVE);
+        repo.saveAll(List.of(expense("a", 1, LocalDate.of(2024, 1, 1)), expense("b", 2, LocalDate.of(2024, 3, 2))));
+
+        repo.saveAll(List.of(expense("a", 3, LocalDate.of(2024, 3, 3)),
+                expense("b", 4, LocalDate.of(2024, 2, 4)),
+                expense("a", 5, LocalDate.of(2024, 2, 5))));
+
+        assertTrue(repo.loadMonth(YearMonth.of(2024, 1)).isEmpty());
+        assertTrue(repo.loadMonth(ACTIVE).isEmpty());
+        assertEquals(List.of("a", "b"), ids(repo.loadMonth(YearMonth.of(2024, 2))).stream().sorted().toList());
+        assertEquals(5, repo.findById("a").getAmount());
+        assertEquals(2, repo.loadAll().size());
+        repo.close();
+    }
+
+    @Test
+    void deleteAllFindsIdsInUnparsedMonths() throws Exception {
+        PartitionedExpenseRepository repo = new PartitionedExpenseRepository(dir.toString(), ACTIVE);
+        repo.saveAll(List.of(expense("a", 1, LocalDate.of(2023, 11, 1)), expense("b", 2, LocalDate.of(2024, 1, 2)),
+                expense("c", 3, LocalDate.of(2024, 3, 3))));
+        repo.close();
+
+        repo = new PartitionedExpenseRepository(dir.toString(), ACTIVE);
+        repo.deleteAll(List.of("a", "b", "missing"));
+        assertEquals(List.of("c"), ids(repo.loadAll()));
+        repo.close();
+    }
+
+    @Test
+    void concurrentSavesIntoNewMonthShareOneSegment() throws Exception {
+        PartitionedExpenseRepository repo = new PartitionedExpenseRepository(dir.toString(), ACTIVE);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> saves = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                saves.add(pool.submit(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        repo.save(expense(thread + "-" + i, 1, LocalDate.of(2023, 1 + i % 12, 1)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> save : saves) {
+                save.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        repo.close();
+
+        PartitionedExpenseRepository reopened = new PartitionedExpenseRepository(dir.toString(), ACTIVE);
+        assertEquals(200, reopened.loadAll().size());
+        reopened.close();
+    }
+
+    @Test
+    void lookupsOfNewIdsParseNoOtherMonth() throws Exception {
+        PartitionedExpenseRepository repo = new PartitionedExpenseRepository(dir.toString(), ACTIVE);
+        List<Expense> expenses = new ArrayList<>();
+        for (int month = 1; month <= 12; month++) {
+            for (int i = 0; i < 50; i++) {
+                expenses.add(expense(month + "-" + i, 1, LocalDate.of(2023, month, 1 + i % 28)));
+            }
+        }
+        repo.saveAll(expenses);
+        repo.close();
+
+        repo = new PartitionedExpenseRepository(dir.toString(), ACTIVE);
+        repo.save(expense("new", 2, LocalDate.of(2024, 3, 5)));
+        repo.saveAll(List.of(expense("new-2", 2, LocalDate.of(2024, 3, 6)), expense("new-3", 2, LocalDate.of(2024, 3, 7))));
+        assertNull(repo.findById("missing"));
+        repo.delete("missing");
+        for (int month = 1; month <= 12; month++) {
+            assertFalse(repo.isLoaded(YearMonth.of(2023, month)), "2023-" + month);
+        }
+
+        // an old id parses its own month, and moving it still deletes it there; other months may be
+        // parsed on a false positive of their filter
+        assertEquals(1, repo.findById("7-3").getAmount());
+        assertTrue(repo.isLoaded(YearMonth.of(2023, 7)));
+        repo.save(expense("5-0", 9, LocalDate.of(2024, 3, 8)));
+        assertTrue(repo.isLoaded(YearMonth.of(2023, 5)));
+        assertEquals(49, repo.loadMonth(YearMonth.of(2023, 5)).size());
+        assertEquals(4, repo.loadMonth(ACTIVE).size());
+        repo.close();
+    }
+
+    private static List<String> ids(List<Expense> expenses) {
+        return expenses.stream().map(Expense::getId).toList();
+    }
+}
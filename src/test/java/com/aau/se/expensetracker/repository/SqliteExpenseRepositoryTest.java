@@ -0,0 +1,147 @@
+package com.aau.se.expensetracker.repository;
+
+import com.aau.se.expensetracker.metrics.ExpenseMetrics;
+import com.aau.se.expensetracker.metrics.OperationStats;
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SqliteExpenseRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    private static Expense expense(String id, double amount, LocalDate date, ExpenseCategory category) {
+        return new BasicExpense(id, amount, date, category);
+    }
+
+    private static List<String> ids(List<Expense> expenses) {
+        return expenses.stream().map(Expense::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void savesUpdatesAndDeletesAcrossReopen() throws Exception {
+        String file = dir.resolve("expenses.db").toString();
+        SqliteExpenseRepository repo = new SqliteExpenseRepository(file);
+        repo.saveAll(List.of(
+                expense("a", 10, LocalDate.of(2024, 1, 5), ExpenseCategory.FOOD),
+                expense("b", 20, LocalDate.of(2024, 1, 6), ExpenseCategory.TRANSPORT),
+                expense("c", 30, LocalDate.of(2024, 2, 1), ExpenseCategory.FOOD)));
+        repo.save(expense("a", 12.5, LocalDate.of(2024, 1, 7), ExpenseCategory.HYGIENE));
+        repo.delete("b");
+        repo.delete("missing");
+        repo.close();
+
+        SqliteExpenseRepository reopened = new SqliteExpenseRepository(file);
+        try {
+            assertEquals(2, reopened.count());
+            assertNull(reopened.findById("b"));
+            Expense a = reopened.findById("a");
+            assertEquals(12.5, a.getAmount());
+            assertEquals(LocalDate.of(2024, 1, 7), a.getDate());
+            assertEquals(ExpenseCategory.HYGIENE, a.getCategory());
+            // an update keeps the row's insertion order
+            assertEquals(List.of("a", "c"), ids(reopened.loadAll()));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void dateRangeQueriesUseInclusiveBoundsInDayOrder() throws Exception {
+        SqliteExpenseRepository repo = new SqliteExpenseRepository(dir.resolve("expenses.db").toString());
+        try {
+            repo.saveAll(List.of(
+                    expense("late", 1, LocalDate.of(2024, 3, 31), ExpenseCategory.FOOD),
+                    expense("early", 2, LocalDate.of(2024, 3, 1), ExpenseCategory.ACADEMIC),
+                    expense("before", 3, LocalDate.of(2024, 2, 29), ExpenseCategory.FOOD),
+                    expense("mid", 4, LocalDate.of(2024, 3, 15), ExpenseCategory.FOOD)));
+            LocalDate from = LocalDate.of(2024, 3, 1);
+            LocalDate to = LocalDate.of(2024, 3, 31);
+
+            assertEquals(List.of("early", "mid", "late"), ids(repo.findByDateRange(from, to)));
+            assertEquals(3, repo.countByDateRange(from, to));
+            assertEquals(List.of("mid", "late"),
+                    ids(repo.findByCategoryAndRange(ExpenseCategory.FOOD, from, to)));
+            assertEquals(List.of("late", "mid"), ids(repo.loadPage(0, 2)));
+            assertEquals(List.of("before"), ids(repo.loadPage(3, 10)));
+        } finally {
+            repo.close();
+        }
+    }
+
+    @Test
+    void aggregatesInSqlMatchTheRows() throws Exception {
+        SqliteExpenseRepository repo = new SqliteExpenseRepository(dir.resolve("expenses.db").toString());
+        try {
+            repo.saveAll(List.of(
+                    expense("a", 10, LocalDate.of(2024, 1, 5), ExpenseCategory.FOOD),
+                    expense("b", 4, LocalDate.of(2024, 1, 20), ExpenseCategory.FOOD),
+                    expense("c", 7.25, LocalDate.of(2024, 2, 1), ExpenseCategory.FOOD),
+                    expense("d", 100, LocalDate.of(2024, 2, 2), ExpenseCategory.ACADEMIC),
+                    expense("e", 1, LocalDate.of(2023, 12, 31), ExpenseCategory.FOOD)));
+
+            AggregateResult byMonth = repo.aggregate(AggregateQuery.all()
+                    .inMonths(YearMonth.of(2024, 1), YearMonth.of(2024, 2))
+                    .inCategories(EnumSet.of(ExpenseCategory.FOOD))
+                    .groupBy(AggregateQuery.Key.MONTH));
+            assertEquals(2, byMonth.groups().size());
+            AggregateResult.Group january = byMonth.groups().get(0);
+            assertEquals(YearMonth.of(2024, 1), january.getMonth());
+            assertEquals(14, january.getSum());
+            assertEquals(2, january.getCount());
+            assertEquals(4, january.getMin());
+            assertEquals(10, january.getMax());
+            assertEquals(YearMonth.of(2024, 2), byMonth.groups().get(1).getMonth());
+            assertEquals(7.25, byMonth.groups().get(1).getSum());
+
+            AggregateResult filtered = repo.aggregate(AggregateQuery.all()
+                    .between(LocalDate.of(2024, 1, 6), LocalDate.of(2024, 2, 2))
+                    .amountBetween(5.0, null)
+                    .groupBy(AggregateQuery.Key.CATEGORY));
+            assertEquals(7.25, filtered.getSum(ExpenseCategory.FOOD));
+            assertEquals(100, filtered.getSum(ExpenseCategory.ACADEMIC));
+            assertEquals(2, filtered.total().getCount());
+
+            ExpenseRollup.Totals days = repo.summarizeDays(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+            assertEquals(14, days.getTotal());
+            assertEquals(4, days.getMin(ExpenseCategory.FOOD));
+            assertEquals(122.25, repo.summarize(null, null).getTotal());
+        } finally {
+            repo.close();
+        }
+    }
+
+    @Test
+    void savesAndDeletesAreRecordedWithTheirRowPayload() throws Exception {
+        OperationStats saves = ExpenseMetrics.of(ExpenseMetrics.Operation.SAVE);
+        OperationStats deletes = ExpenseMetrics.of(ExpenseMetrics.Operation.DELETE);
+        long savedBytes = saves.getBytesWritten();
+        long deletedBytes = deletes.getBytesWritten();
+
+        SqliteExpenseRepository repo = new SqliteExpenseRepository(dir.resolve("expenses.db").toString());
+        try {
+            repo.saveAll(List.of(
+                    expense("ab", 10, LocalDate.of(2024, 1, 5), ExpenseCategory.FOOD),
+                    expense("c", 20, LocalDate.of(2024, 1, 6), ExpenseCategory.TRANSPORT)));
+            repo.deleteAll(List.of("ab", "missing"));
+        } finally {
+            repo.close();
+        }
+        // id, amount, day and category name of each row
+        assertEquals(savedBytes + (2 + 16 + 4) + (1 + 16 + 9), saves.getBytesWritten());
+        assertEquals(deletedBytes + 2, deletes.getBytesWritten());
+    }
+}
@@ -0,0 +1,109 @@
+package com.aau.se.expensetracker.server;
+
+import com.aau.se.expensetracker.AppContext;
+import com.aau.se.expensetracker.service.TenantRegistry;
+import com.aau.se.expensetracker.service.TenantRegistryImplementation;
+import com.aau.se.expensetracker.util.SessionStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpenseHttpServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @TempDir
+    Path dir;
+
+    private HttpResponse<String> send(ExpenseHttpServer server, String method, String path, String tenant, String body)
+            throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + server.getAddress().getPort() + path));
+        if (tenant != null) {
+            request.header(ExpenseHttpServer.TENANT_HEADER, tenant);
+        }
+        request.method(method, body != null
+                ? HttpRequest.BodyPublishers.ofString(body) : HttpRequest.BodyPublishers.noBody());
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void tenantsAreServedSeparately() throws Exception {
+        try (TenantRegistry tenants = new TenantRegistryImplementation(dir, Duration.ofMinutes(1))) {
+            ExpenseHttpServer server = new ExpenseHttpServer(tenants, new InetSocketAddress("localhost", 0));
+            server.start();
+            try {
+                String alice = Json.parseObject(
+                        send(server, "POST", "/tenants", null, "{\"user\":\"alice\",\"budget\":100}").body()).get("id");
+                String bob = Json.parseObject(
+                        send(server, "POST", "/tenants", null, "{\"user\":\"bob\",\"budget\":10}").body()).get("id");
+
+                HttpResponse<String> added = send(server, "POST", "/expenses", alice,
+                        "{\"amount\":40,\"category\":\"FOOD\",\"date\":\"2024-05-01\"}");
+                assertEquals(201, added.statusCode());
+                String id = Json.parseObject(added.body()).get("id");
+                assertEquals(409, send(server, "POST", "/expenses", bob,
+                        "{\"amount\":40,\"category\":\"FOOD\",\"date\":\"2024-05-01\"}").statusCode());
+
+                assertTrue(send(server, "GET", "/expenses", alice, null).body().startsWith("{\"total\":1,"));
+                assertTrue(send(server, "GET", "/expenses", bob, null).body().startsWith("{\"total\":0,"));
+                assertEquals(404, send(server, "GET", "/expenses/" + id, bob, null).statusCode());
+                assertTrue(send(server, "GET", "/summary", alice, null).body().contains("\"user\":\"alice\""));
+
+                assertEquals(404, send(server, "DELETE", "/expenses/" + id, bob, null).statusCode());
+                assertEquals(204, send(server, "DELETE", "/expenses/" + id, alice, null).statusCode());
+                assertEquals(404, send(server, "DELETE", "/expenses/" + id, alice, null).statusCode());
+
+                assertEquals(400, send(server, "GET", "/expenses", null, null).statusCode());
+                assertEquals(404, send(server, "GET", "/expenses", UUID.randomUUID().toString(), null).statusCode());
+            } finally {
+                server.stop(0);
+            }
+        }
+    }
+
+    @Test
+    void concurrentDeletesOfOneExpenseReportOneSuccess() throws Exception {
+        AppContext context = AppContext.open(dir.resolve("expenses.txt").toString(),
+                SessionStore.createUser("carol", 1000, Map.of()));
+        ExpenseHttpServer server = new ExpenseHttpServer(context, new InetSocketAddress("localhost", 0));
+        server.start();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            String id = Json.parseObject(send(server, "POST", "/expenses", null,
+                    "{\"amount\":5,\"category\":\"TRANSPORT\",\"date\":\"2024-05-01\"}").body()).get("id");
+            List<Future<Integer>> deletes = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                deletes.add(pool.submit(() -> send(server, "DELETE", "/expenses/" + id, null, null).statusCode()));
+            }
+            int removed = 0;
+            for (Future<Integer> delete : deletes) {
+                int status = delete.get();
+                assertTrue(status == 204 || status == 404, "status " + status);
+                if (status == 204) removed++;
+            }
+            assertEquals(1, removed);
+        } finally {
+            pool.shutdownNow();
+            server.stop(0);
+            context.close();
+        }
+    }
+}
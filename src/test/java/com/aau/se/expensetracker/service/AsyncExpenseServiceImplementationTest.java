@@ -0,0 +1,174 @@
+package com.aau.se.expensetracker.service;
+
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.repository.FileExpenseRepository;
+import com.aau.se.expensetracker.repository.FileExpenseRepository.StorageMode;
+import com.aau.se.expensetracker.util.DataAccessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncExpenseServiceImplementationTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+    /** An amount whose write waits for {@link #release}, so the writes behind it queue up. */
+    private static final double BLOCKING = 999;
+    /** An amount whose write fails. */
+    private static final double FAILING = 666;
+
+    @TempDir
+    Path dir;
+
+    /** Writes in the order the blocking service saw them, as "add id amount" or "remove id". */
+    private final List<String> writes = Collections.synchronizedList(new ArrayList<>());
+    /** Released to let a write of {@link #BLOCKING} amount finish. */
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private AsyncExpenseService async;
+
+    private AsyncExpenseService service() {
+        ExpenseService expenses = new ExpenseServiceImplementation(
+                new FileExpenseRepository(dir.resolve("expenses.txt").toString(), StorageMode.JOURNAL)) {
+            @Override
+            public void addExpense(Expense expense) throws DataAccessException {
+                if (expense.getAmount() == BLOCKING) {
+                    blocked.countDown();
+                    await(release);
+                } else if (expense.getAmount() == FAILING) {
+                    throw new DataAccessException("disk full");
+                }
+                writes.add("add " + expense.getId() + " " + expense.getAmount());
+                super.addExpense(expense);
+            }
+
+            @Override
+            public void removeExpense(String expenseId) throws DataAccessException {
+                writes.add("remove " + expenseId);
+                super.removeExpense(expenseId);
+            }
+        };
+        async = new AsyncExpenseServiceImplementation(expenses);
+        return async;
+    }
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        if (async != null) async.shutdown();
+    }
+
+    private static Expense expense(String id, double amount) {
+        return new BasicExpense(id, amount, LocalDate.of(2024, 3, 1), ExpenseCategory.FOOD);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T get(CompletableFuture<T> future) throws Exception {
+        return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void writesToOneExpenseApplyInSubmissionOrder() throws Exception {
+        AsyncExpenseService service = service();
+        CompletableFuture<Void> gate = service.addExpense(expense("gate", BLOCKING));
+        await(blocked);
+        // queued behind the blocked write, so they can only run in the order the writer takes them
+        List<CompletableFuture<?>> queued = new ArrayList<>();
+        queued.add(service.addExpense(expense("a", 1)));
+        queued.add(service.removeExpense("a"));
+        queued.add(service.addExpense(expense("a", 2)));
+        queued.add(service.addExpense(expense("b", 5)));
+        queued.add(service.addExpense(expense("a", 3)));
+        queued.add(service.submitWrite(() -> {
+            writes.add("task");
+            return null;
+        }));
+        queued.add(service.removeExpense("b"));
+        assertFalse(queued.get(0).isDone());
+
+        // reads do not wait for the writer
+        assertEquals(0, get(service.countExpenses()));
+
+        release.countDown();
+        get(gate);
+        for (CompletableFuture<?> future : queued) {
+            get(future);
+        }
+        assertEquals(List.of("add gate 999.0", "add a 1.0", "remove a", "add a 2.0", "add b 5.0", "add a 3.0",
+                "task", "remove b"), writes);
+        assertEquals(3.0, get(service.findExpense("a")).getAmount());
+        assertNull(get(service.findExpense("b")));
+        assertEquals(2, get(service.countExpenses()));
+    }
+
+    @Test
+    void failuresReachTheFutureAndLaterWritesStillRun() throws Exception {
+        AsyncExpenseService service = service();
+        CompletableFuture<Void> failed = service.addExpense(expense("x", FAILING));
+        CompletableFuture<Void> next = service.addExpense(expense("y", 4));
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> get(failed));
+        assertInstanceOf(DataAccessException.class, thrown.getCause());
+        assertEquals("disk full", thrown.getCause().getMessage());
+        CompletionException joined = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(DataAccessException.class, joined.getCause());
+
+        get(next);
+        assertEquals(List.of("add y 4.0"), writes);
+
+        CompletableFuture<Object> task = service.submitWrite(() -> {
+            throw new IllegalStateException("over budget");
+        });
+        thrown = assertThrows(ExecutionException.class, () -> get(task));
+        assertInstanceOf(IllegalStateException.class, thrown.getCause());
+        assertEquals(1, get(service.countExpenses()));
+    }
+
+    @Test
+    void shutdownRejectsNewWorkButFinishesQueuedWrites() throws Exception {
+        AsyncExpenseService service = service();
+        CompletableFuture<Void> gate = service.addExpense(expense("gate", BLOCKING));
+        await(blocked);
+        CompletableFuture<Void> queued = service.addExpense(expense("a", 1));
+
+        service.shutdown();
+        CompletableFuture<Void> late = service.addExpense(expense("b", 2));
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> get(late));
+        assertInstanceOf(RejectedExecutionException.class, thrown.getCause());
+        thrown = assertThrows(ExecutionException.class, () -> get(service.countExpenses()));
+        assertInstanceOf(RejectedExecutionException.class, thrown.getCause());
+
+        release.countDown();
+        get(gate);
+        get(queued);
+        assertEquals(List.of("add gate 999.0", "add a 1.0"), writes);
+    }
+}
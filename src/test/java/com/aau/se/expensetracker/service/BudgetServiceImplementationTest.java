@@ -0,0 +1,61 @@
+package com.aau.se.expensetracker.service;
+
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Budget;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.repository.BinaryExpenseRepository;
+import com.aau.se.expensetracker.repository.ExpenseRepository;
+import com.aau.se.expensetracker.repository.FileExpenseRepository;
+import com.aau.se.expensetracker.repository.FileExpenseRepository.StorageMode;
+import com.aau.se.expensetracker.repository.PartitionedExpenseRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BudgetServiceImplementationTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * A listener registered before the budget makes it load its totals while the event that triggered the load
+     * is still being delivered, so the loaded totals already include the change the budget is then handed.
+     */
+    private static void assertEventAfterLoadCountedOnce(ExpenseRepository repository) throws Exception {
+        ExpenseService expenses = new ExpenseServiceImplementation(repository);
+        BudgetService[] budget = new BudgetService[1];
+        expenses.addChangeListener(event -> budget[0].getSpent(ExpenseCategory.FOOD));
+        budget[0] = new BudgetServiceImplementation(new Budget(1000, null), expenses);
+
+        String a = UUID.randomUUID().toString();
+        expenses.addExpense(new BasicExpense(a, 12.5, LocalDate.of(2024, 3, 4), ExpenseCategory.FOOD));
+        assertEquals(12.5, budget[0].getSpent(ExpenseCategory.FOOD), 1e-9);
+
+        expenses.addExpense(new BasicExpense(UUID.randomUUID().toString(), 7.5, LocalDate.of(2024, 3, 5), ExpenseCategory.FOOD));
+        expenses.removeExpense(a);
+        assertEquals(7.5, budget[0].getSpent(ExpenseCategory.FOOD), 1e-9);
+    }
+
+    @Test
+    void fileRepositoryEventsAreNotCountedTwice() throws Exception {
+        assertEventAfterLoadCountedOnce(
+                new FileExpenseRepository(dir.resolve("expenses.txt").toString(), StorageMode.JOURNAL));
+    }
+
+    @Test
+    void binaryRepositoryEventsAreNotCountedTwice() throws Exception {
+        assertEventAfterLoadCountedOnce(new BinaryExpenseRepository(dir.resolve("expenses.bin").toString()));
+    }
+
+    @Test
+    void partitionedRepositoryEventsAreNotCountedTwice() throws Exception {
+        assertEventAfterLoadCountedOnce(
+                new PartitionedExpenseRepository(dir.resolve("segments").toString(), YearMonth.of(2024, 3)));
+    }
+}
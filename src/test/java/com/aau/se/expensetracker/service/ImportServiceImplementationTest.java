@@ -0,0 +1,188 @@
+package com.aau.se.expensetracker.service;
+
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Budget;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.repository.FileExpenseRepository;
+import com.aau.se.expensetracker.repository.FileExpenseRepository.StorageMode;
+import com.aau.se.expensetracker.util.DataAccessException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImportServiceImplementationTest {
+
+    @TempDir
+    Path dir;
+
+    /** Batch sizes passed to {@link ExpenseService#addExpenses}. */
+    private final List<Integer> batches = new ArrayList<>();
+    private ExpenseService expenses;
+
+    private ImportService importer(double limit) {
+        expenses = new ExpenseServiceImplementation(
+                new FileExpenseRepository(dir.resolve("expenses.txt").toString(), StorageMode.JOURNAL)) {
+            @Override
+            public void addExpenses(Collection<Expense> batch) throws DataAccessException {
+                batches.add(batch.size());
+                super.addExpenses(batch);
+            }
+        };
+        return new ImportServiceImplementation(expenses, new BudgetServiceImplementation(new Budget(limit, null), expenses));
+    }
+
+    private Path csv(String name, String... lines) throws Exception {
+        return Files.writeString(dir.resolve(name), String.join("\n", lines) + "\n", StandardCharsets.UTF_8);
+    }
+
+    /** Stored expenses as "date category amount", in date order. */
+    private List<String> stored() throws Exception {
+        return expenses.getAllExpenses().stream()
+                .sorted(Comparator.comparing(Expense::getDate).thenComparing(Expense::getAmount))
+                .map(e -> e.getDate() + " " + e.getCategory() + " " + e.getAmount())
+                .toList();
+    }
+
+    private static void assertResult(long rows, long imported, long overBudget, long malformed, long duplicates,
+                                     long credits, ImportService.ImportResult result) {
+        assertEquals(List.of(rows, imported, overBudget, malformed, duplicates, credits),
+                List.of(result.getRowsRead(), result.getImported(), result.getRejectedOverBudget(),
+                        result.getMalformed(), result.getDuplicates(), result.getCredits()));
+    }
+
+    @Test
+    void splitHonoursQuotesAndTheDelimiter() {
+        assertEquals(List.of("a,b", "c", ""), ImportServiceImplementation.split("\"a,b\",c,", ','));
+        assertEquals(List.of("say \"hi\"", "x;y", "z"), ImportServiceImplementation.split("\"say \"\"hi\"\"\";\"x;y\";z", ';'));
+        assertEquals(List.of("", "", ""), ImportServiceImplementation.split(",,", ','));
+        assertEquals(List.of("a,b"), ImportServiceImplementation.split("a,b", ';'));
+    }
+
+    @Test
+    void headerLayoutsAreFoundByName() throws Exception {
+        ImportService importer = importer(10_000);
+        // byte order mark, semicolons, day-first dates, columns in another order
+        assertResult(3, 2, 0, 1, 0, 0, importer.importCsv(csv("a.csv",
+                "\uFEFFMemo;Value;Booking Date",
+                "\"Bus; monthly pass\";-30;01.03.2024",
+                "Pizza place;-12.5;02.03.2024",
+                "Broken;abc;03.03.2024"), false));
+        // a quoted description holding the delimiter, slash dates and a blank line, which is not a row
+        assertResult(2, 2, 0, 0, 0, 0, importer.importCsv(csv("b.csv",
+                "Transaction Date,Details,Amount,Category",
+                "2024/03/04,\"Books, used\",-7,",
+                "",
+                "05/03/2024,Anything,-3,hygiene"), false));
+        assertEquals(List.of("2024-03-01 TRANSPORT 30.0", "2024-03-02 FOOD 12.5", "2024-03-04 ACADEMIC 7.0",
+                "2024-03-05 HYGIENE 3.0"), stored());
+
+        assertThrows(DataAccessException.class, () -> importer.importCsv(csv("c.csv", "Date,Description", "2024-03-01,x"),
+                false));
+        assertResult(0, 0, 0, 0, 0, 0, importer.importCsv(Files.createFile(dir.resolve("d.csv")), false));
+    }
+
+    @Test
+    void categoriesComeFromTheColumnThenKeywords() {
+        assertEquals(ExpenseCategory.FOOD, ImportServiceImplementation.mapCategory(" food ", ""));
+        assertEquals(ExpenseCategory.ACADEMIC, ImportServiceImplementation.mapCategory("Academic", "pizza"));
+        assertEquals(ExpenseCategory.TRANSPORT, ImportServiceImplementation.mapCategory("", "UBER *RIDE"));
+        assertEquals(ExpenseCategory.RECREATIONAL, ImportServiceImplementation.mapCategory("Entertainment", "Netflix"));
+        assertEquals(ExpenseCategory.HYGIENE, ImportServiceImplementation.mapCategory("", "City Pharmacy"));
+        assertEquals(ExpenseCategory.OCCASIONAL, ImportServiceImplementation.mapCategory("misc", "Transfer"));
+    }
+
+    @Test
+    void creditsAreSkippedWhateverTheSignConvention() throws Exception {
+        ImportService importer = importer(10_000);
+        // one signed column with negative debits
+        assertResult(3, 2, 0, 0, 0, 1, importer.importCsv(csv("signed.csv",
+                "Date,Description,Amount",
+                "2024-03-01,Salary,1500",
+                "2024-03-02,Coffee,-3.5",
+                "2024-03-03,Cinema,-9"), false));
+        // one column of positive amounts, as from a card statement: every row is spent
+        assertResult(1, 1, 0, 0, 0, 0, importer.importCsv(csv("positive.csv",
+                "Date,Description,Amount",
+                "2024-03-04,Bakery,2"), false));
+        // separate debit and credit columns
+        assertResult(2, 1, 0, 0, 0, 1, importer.importCsv(csv("columns.csv",
+                "Date,Description,Debit,Credit",
+                "2024-03-05,Taxi,12,",
+                "2024-03-06,Refund,,40"), false));
+        // an indicator column
+        assertResult(2, 1, 0, 0, 0, 1, importer.importCsv(csv("indicator.csv",
+                "Date,Description,Amount,Dr/Cr",
+                "2024-03-07,Soap,4,DR",
+                "2024-03-08,Gift,50,CR"), false));
+        assertEquals(List.of("2024-03-02 FOOD 3.5", "2024-03-03 RECREATIONAL 9.0", "2024-03-04 FOOD 2.0",
+                "2024-03-05 TRANSPORT 12.0", "2024-03-07 HYGIENE 4.0"), stored());
+    }
+
+    @Test
+    void budgetIsCheckedAgainstRunningTotals() throws Exception {
+        ImportService importer = importer(100);
+        expenses.addExpense(new BasicExpense(UUID.randomUUID().toString(), 60, LocalDate.of(2024, 2, 1), ExpenseCategory.FOOD));
+        assertResult(4, 3, 1, 0, 0, 0, importer.importCsv(csv("a.csv",
+                "Date,Amount,Category",
+                "2024-03-01,-30,FOOD",
+                "2024-03-02,-20,FOOD",
+                "2024-03-03,-10,FOOD",
+                "2024-03-04,-90,TRANSPORT"), true));
+        assertEquals(List.of("2024-02-01 FOOD 60.0", "2024-03-01 FOOD 30.0", "2024-03-03 FOOD 10.0",
+                "2024-03-04 TRANSPORT 90.0"), stored());
+
+        // without enforcement nothing is rejected
+        assertResult(1, 1, 0, 0, 0, 0, importer.importCsv(csv("b.csv",
+                "Date,Amount,Category",
+                "2024-03-05,-500,FOOD"), false));
+    }
+
+    @Test
+    void eachChunkIsCommittedAsOneBatch() throws Exception {
+        ImportService importer = importer(10_000);
+        int n = ImportServiceImplementation.CHUNK_ROWS + 10;
+        List<String> lines = new ArrayList<>();
+        lines.add("Date,Amount,Description");
+        for (int i = 0; i < n; i++) {
+            lines.add(LocalDate.of(2024, 1, 1).plusDays(i % 365) + ",-" + (1 + i % 50) + ",Row " + i);
+        }
+        assertResult(n, n, 0, 0, 0, 0, importer.importCsv(csv("big.csv", lines.toArray(String[]::new)), false));
+        assertEquals(List.of(ImportServiceImplementation.CHUNK_ROWS, 10), batches);
+        assertEquals(n, expenses.countExpenses());
+    }
+
+    @Test
+    void reimportingSkipsRowsAlreadyImported() throws Exception {
+        ImportService importer = importer(10_000);
+        Path first = csv("march.csv",
+                "Date,Description,Amount",
+                "2024-03-01,Coffee,-3",
+                "2024-03-01,Coffee,-3",
+                "2024-03-02,Bus,-2");
+        assertResult(3, 3, 0, 0, 0, 0, importer.importCsv(first, false));
+        assertResult(3, 0, 0, 0, 3, 0, importer.importCsv(first, false));
+
+        // a later export overlapping the first: new rows before and among the old ones, and a third coffee
+        assertResult(5, 2, 0, 0, 3, 0, importer.importCsv(csv("march-later.csv",
+                "Date,Description,Amount",
+                "2024-02-29,Bakery,-1",
+                "2024-03-01,Coffee,-3",
+                "2024-03-01,Coffee,-3",
+                "2024-03-01,Coffee,-3",
+                "2024-03-02,Bus,-2"), false));
+        assertEquals(5, expenses.countExpenses());
+    }
+}
@@ -0,0 +1,169 @@
+package com.aau.se.expensetracker.service;
+
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.model.User;
+import com.aau.se.expensetracker.util.DataAccessException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TenantRegistryImplementationTest {
+
+    private static final int TENANTS = 4;
+    private static final int WORKERS = 8;
+    private static final int ADDS_PER_WORKER = 150;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void concurrentLeasesAndEvictionsLoseNoWrites() throws Exception {
+        List<String> ids = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(WORKERS + 1);
+        try (TenantRegistry registry = new TenantRegistryImplementation(dir, Duration.ofMillis(1))) {
+            for (int t = 0; t < TENANTS; t++) {
+                ids.add(registry.createTenant("student" + t, 1_000_000, null).getId());
+            }
+            AtomicBoolean running = new AtomicBoolean(true);
+            Future<?> evictor = pool.submit(() -> {
+                while (running.get()) {
+                    registry.evictIdle();
+                }
+                return null;
+            });
+            List<Future<?>> workers = new ArrayList<>();
+            for (int w = 0; w < WORKERS; w++) {
+                String tenant = ids.get(w % TENANTS);
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < ADDS_PER_WORKER; i++) {
+                        try (TenantRegistry.Lease lease = registry.acquire(tenant)) {
+                            lease.getExpenseService().addExpense(new BasicExpense(UUID.randomUUID().toString(), 1,
+                                    LocalDate.of(2024, 1 + i % 12, 1), ExpenseCategory.FOOD));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            running.set(false);
+            evictor.get();
+
+            int perTenant = WORKERS / TENANTS * ADDS_PER_WORKER;
+            for (String tenant : ids) {
+                try (TenantRegistry.Lease lease = registry.acquire(tenant)) {
+                    assertEquals(perTenant, lease.getExpenseService().countExpenses());
+                    assertEquals(perTenant, lease.getBudgetService().getSpent(ExpenseCategory.FOOD), 1e-9);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void leasedTenantIsNotEvicted() throws Exception {
+        try (TenantRegistry registry = new TenantRegistryImplementation(dir, Duration.ofNanos(1))) {
+            User user = registry.createTenant("student", 100, null);
+            try (TenantRegistry.Lease lease = registry.acquire(user.getId())) {
+                Thread.sleep(5);
+                assertEquals(0, registry.evictIdle());
+                assertEquals(1, registry.activeCount());
+                lease.getExpenseService().countExpenses();
+            }
+        }
+    }
+
+    @Test
+    void idleTenantIsEvictedAndReloaded() throws Exception {
+        try (TenantRegistry registry = new TenantRegistryImplementation(dir, Duration.ofMillis(1))) {
+            User user = registry.createTenant("student", 100, null);
+            try (TenantRegistry.Lease lease = registry.acquire(user.getId())) {
+                lease.getExpenseService().addExpense(new BasicExpense(UUID.randomUUID().toString(), 5,
+                        LocalDate.of(2024, 2, 3), ExpenseCategory.HYGIENE));
+                assertEquals(0, registry.evictIdle());
+            }
+            // the background sweep may be closing the tenant when this sweep skips it
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (registry.activeCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+                registry.evictIdle();
+            }
+            assertEquals(0, registry.activeCount());
+            try (TenantRegistry.Lease lease = registry.acquire(user.getId())) {
+                assertEquals(1, lease.getExpenseService().countExpenses());
+            }
+        }
+    }
+
+    /** An attachment that records whether it was closed. */
+    private static final class Attachment implements AutoCloseable {
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        Attachment(TenantRegistry.Lease lease) {
+        }
+
+        @Override
+        public void close() {
+            closed.set(true);
+        }
+    }
+
+    @Test
+    void attachmentsAreSharedByLeasesAndClosedOnEviction() throws Exception {
+        try (TenantRegistry registry = new TenantRegistryImplementation(dir, Duration.ofMillis(1))) {
+            String first = registry.createTenant("first", 100, null).getId();
+            String second = registry.createTenant("second", 100, null).getId();
+            Attachment attachment;
+            try (TenantRegistry.Lease lease = registry.acquire(first);
+                 TenantRegistry.Lease again = registry.acquire(first);
+                 TenantRegistry.Lease other = registry.acquire(second)) {
+                attachment = lease.attachment(Attachment.class, Attachment::new);
+                assertSame(attachment, again.attachment(Attachment.class, Attachment::new));
+                assertNotSame(attachment, other.attachment(Attachment.class, Attachment::new));
+                assertFalse(attachment.closed.get());
+            }
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (registry.activeCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+                registry.evictIdle();
+            }
+            assertTrue(attachment.closed.get());
+            try (TenantRegistry.Lease lease = registry.acquire(first)) {
+                Attachment reloaded = lease.attachment(Attachment.class, Attachment::new);
+                assertNotSame(attachment, reloaded);
+                assertFalse(reloaded.closed.get());
+            }
+        }
+    }
+
+    @Test
+    void unknownTenantIsRejected() throws Exception {
+        try (TenantRegistry registry = new TenantRegistryImplementation(dir, Duration.ofMinutes(1))) {
+            String missing = UUID.randomUUID().toString();
+            assertFalse(registry.exists(missing));
+            assertFalse(registry.exists("../escape"));
+            assertThrows(DataAccessException.class, () -> registry.acquire(missing));
+            assertTrue(registry.exists(registry.createTenant("student", 10, null).getId()));
+        }
+    }
+}
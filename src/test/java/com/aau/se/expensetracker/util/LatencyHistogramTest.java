@@ -0,0 +1,97 @@
+package com.aau.se.expensetracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    /** Bucket holding {@link Long#MAX_VALUE}, the last one. */
+    private static final int LAST_BUCKET = LatencyHistogram.bucketOf(Long.MAX_VALUE);
+
+    @Test
+    void smallValuesGetABucketEach() {
+        for (int value = 0; value < 16; value++) {
+            assertEquals(value, LatencyHistogram.bucketOf(value));
+            assertEquals(value, LatencyHistogram.upperBound(value));
+        }
+        assertEquals(16, LatencyHistogram.bucketOf(16));
+    }
+
+    @Test
+    void bucketsMeetWithoutGapsUpToTheLongRange() {
+        assertEquals(959, LAST_BUCKET);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(LAST_BUCKET));
+        for (int i = 0; i < LAST_BUCKET; i++) {
+            long upper = LatencyHistogram.upperBound(i);
+            assertEquals(i, LatencyHistogram.bucketOf(upper), "upper bound of " + i);
+            assertEquals(i + 1, LatencyHistogram.bucketOf(upper + 1), "past bucket " + i);
+            long lower = i == 0 ? 0 : LatencyHistogram.upperBound(i - 1) + 1;
+            // a bucket spans at most a sixteenth of its lower bound
+            assertTrue(upper - lower <= lower / 16, "width of " + i);
+        }
+    }
+
+    @Test
+    void percentilesOfKnownValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(1000, histogram.count());
+        assertEquals(1000, histogram.max());
+        assertEquals(500.5, histogram.mean());
+        // 500 falls in 496..511, 990 in 960..991 and 999 in 992..1023, which the maximum caps
+        assertEquals(511, histogram.percentile(0.50));
+        assertEquals(991, histogram.percentile(0.99));
+        assertEquals(1000, histogram.percentile(0.999));
+        assertEquals(1, histogram.percentile(0));
+        assertEquals(1000, histogram.percentile(1));
+    }
+
+    @Test
+    void extremesAndEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(0.99));
+        assertEquals(0, histogram.mean());
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(-0.1));
+
+        histogram.record(-5);
+        assertEquals(0, histogram.max());
+        assertEquals(0, histogram.percentile(1));
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.max());
+        assertEquals(Long.MAX_VALUE, histogram.percentile(1));
+
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.max());
+        assertEquals(0, histogram.percentile(0.5));
+    }
+
+    @Test
+    void concurrentRecordsAreAllCounted() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    histogram.record(i);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, histogram.count());
+        assertEquals(10_000, histogram.max());
+        assertEquals(5_000.5, histogram.mean());
+    }
+}
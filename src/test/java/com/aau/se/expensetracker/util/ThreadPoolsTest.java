@@ -0,0 +1,87 @@
+package com.aau.se.expensetracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadPoolsTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    void singleThreadRunsTasksInOrderOnOneDaemon() throws Exception {
+        ExecutorService executor = ThreadPools.newSingleThread("writer");
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 100; i++) {
+            int task = i;
+            executor.execute(() -> {
+                Thread t = Thread.currentThread();
+                seen.add(task + " " + t.getName() + " " + t.isDaemon());
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(100, seen.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i + " writer true", seen.get(i));
+        }
+    }
+
+    @Test
+    void perTaskExecutorRunsTasksConcurrently() throws Exception {
+        ExecutorService executor = ThreadPools.newPerTaskExecutor("reader");
+        int tasks = 8;
+        // each task waits for all the others to start, which only finishes if they all run at once
+        CountDownLatch started = new CountDownLatch(tasks);
+        CountDownLatch finished = new CountDownLatch(tasks);
+        List<Boolean> daemons = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < tasks; i++) {
+            executor.execute(() -> {
+                daemons.add(Thread.currentThread().isDaemon());
+                started.countDown();
+                try {
+                    if (started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) finished.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertTrue(finished.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Collections.nCopies(tasks, true), daemons);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shutdownRejectsNewTasksAndLetsQueuedOnesFinish() throws Exception {
+        for (ExecutorService executor : List.of(ThreadPools.newSingleThread("writer"),
+                ThreadPools.newPerTaskExecutor("reader"))) {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(2);
+            executor.execute(() -> {
+                try {
+                    if (release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) done.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            executor.execute(done::countDown);
+            executor.shutdown();
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+
+            release.countDown();
+            assertTrue(executor.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertEquals(0, done.getCount());
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.aau.se.expensetracker.view;
+
+import com.aau.se.expensetracker.controller.ExpenseController;
+import com.aau.se.expensetracker.model.BasicExpense;
+import com.aau.se.expensetracker.model.Expense;
+import com.aau.se.expensetracker.model.ExpenseCategory;
+import com.aau.se.expensetracker.view.ExpenseView.ExpenseTableItem;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the list without a JavaFX toolkit: reads complete when the test says so, and their results run
+ * when the test drains {@link #fxQueue}, as the Application Thread would.
+ */
+class PagedExpenseListTest {
+
+    private static final int PAGE = PagedExpenseList.PAGE_SIZE;
+    /** Two full pages and part of a third. */
+    private static final int ROWS = 2 * PAGE + 10;
+
+    private final List<Runnable> fxQueue = new ArrayList<>();
+    private final List<CompletableFuture<Integer>> counts = new ArrayList<>();
+    /** Page reads in the order they were made, by offset. */
+    private final List<Integer> pageOffsets = new ArrayList<>();
+    private final List<CompletableFuture<List<Expense>>> pageReads = new ArrayList<>();
+    /** Changes fired by the list, as "add from..to" or "remove at". */
+    private final List<String> changes = new ArrayList<>();
+    private final List<Throwable> errors = new ArrayList<>();
+    private PagedExpenseList list;
+
+    @BeforeEach
+    void createList() {
+        ExpenseController controller = new ExpenseController(null, null, null) {
+            @Override
+            public CompletableFuture<Integer> countExpensesAsync() {
+                CompletableFuture<Integer> count = new CompletableFuture<>();
+                counts.add(count);
+                return count;
+            }
+
+            @Override
+            public CompletableFuture<List<Expense>> getExpensePageAsync(int offset, int limit) {
+                assertEquals(PAGE, limit);
+                CompletableFuture<List<Expense>> page = new CompletableFuture<>();
+                pageOffsets.add(offset);
+                pageReads.add(page);
+                return page;
+            }
+        };
+        list = new PagedExpenseList(controller, errors::add, fxQueue::add);
+        list.addListener((ListChangeListener<ExpenseTableItem>) c -> {
+            while (c.next()) {
+                if (c.wasReplaced()) continue;
+                if (c.wasAdded()) changes.add("add " + c.getFrom() + ".." + c.getTo());
+                if (c.wasRemoved()) changes.add("remove " + c.getFrom());
+            }
+        });
+    }
+
+    private void drainFx() {
+        while (!fxQueue.isEmpty()) {
+            fxQueue.remove(0).run();
+        }
+    }
+
+    private static Expense expense(String id) {
+        return new BasicExpense(id, 1, LocalDate.of(2024, 3, 1), ExpenseCategory.FOOD);
+    }
+
+    /** Completes the latest count read with {@code rows} and applies it. */
+    private void count(int rows) {
+        counts.get(counts.size() - 1).complete(rows);
+        drainFx();
+    }
+
+    /** Completes read {@code read} with rows {@code e<offset>} onwards of a store of {@code rows}, and applies it. */
+    private void page(int read, int rows) {
+        int offset = pageOffsets.get(read);
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = offset; i < Math.min(rows, offset + PAGE); i++) {
+            expenses.add(expense("e" + i));
+        }
+        pageReads.get(read).complete(expenses);
+        drainFx();
+    }
+
+    /** Reloads with {@link #ROWS} rows and loads every page. */
+    private void loadAll() {
+        list.reload();
+        count(ROWS);
+        for (int page = 0; page * PAGE < ROWS; page++) {
+            assertTrue(list.get(page * PAGE).isLoading());
+            page(pageOffsets.size() - 1, ROWS);
+        }
+        assertEquals(List.of(0, PAGE, 2 * PAGE), pageOffsets);
+        changes.clear();
+    }
+
+    private String id(int index) {
+        return list.get(index).getId();
+    }
+
+    @Test
+    void pagesLoadingWhenAWriteStartsAreDropped() {
+        list.reload();
+        count(ROWS);
+        assertTrue(list.get(PAGE + 3).isLoading());
+        assertEquals(List.of(PAGE), pageOffsets);
+
+        list.writeStarted();
+        page(0, ROWS);
+        // the page read may predate the write, so it is not kept, and nothing is read until the write is applied
+        assertTrue(list.get(PAGE + 3).isLoading());
+        assertTrue(list.get(0).isLoading());
+        assertEquals(List.of(PAGE), pageOffsets);
+
+        list.inserted(expense("new"), 0);
+        assertTrue(list.get(PAGE + 3).isLoading());
+        assertEquals(List.of(PAGE, PAGE), pageOffsets);
+        page(1, ROWS + 1);
+        assertEquals("e" + (PAGE + 3), id(PAGE + 3));
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    void writeFailedReleasesTheHoldAndReloads() {
+        loadAll();
+        list.writeStarted();
+        list.writeStarted();
+        list.writeFailed();
+        assertEquals(2, counts.size());
+        count(ROWS);
+
+        // the reload dropped every page, and the other write still holds reads back
+        assertTrue(list.get(0).isLoading());
+        assertEquals(3, pageOffsets.size());
+
+        list.writeFailed();
+        assertEquals(3, counts.size());
+        count(ROWS);
+        assertTrue(list.get(0).isLoading());
+        assertEquals(List.of(0, PAGE, 2 * PAGE, 0), pageOffsets);
+        page(3, ROWS);
+        assertEquals("e0", id(0));
+        assertEquals(ROWS, list.size());
+    }
+
+    @Test
+    void insertShiftsCachedRowsAcrossPageBoundaries() {
+        loadAll();
+        list.writeStarted();
+        list.inserted(expense("x"), PAGE - 1);
+        assertEquals(ROWS + 1, list.size());
+        assertEquals(List.of("add " + (PAGE - 1) + ".." + PAGE), changes);
+        assertEquals("e" + (PAGE - 2), id(PAGE - 2));
+        assertEquals("x", id(PAGE - 1));
+        // the last row of page 0 moved to the top of page 1, and so on into page 2
+        assertEquals("e" + (PAGE - 1), id(PAGE));
+        assertEquals("e" + (2 * PAGE - 1), id(2 * PAGE));
+        assertEquals("e" + (ROWS - 1), id(ROWS));
+
+        list.writeStarted();
+        list.inserted(expense("first"), 0);
+        list.writeStarted();
+        list.inserted(expense("last"), list.size() + 5);
+        assertEquals(ROWS + 3, list.size());
+        assertEquals("first", id(0));
+        assertEquals("e0", id(1));
+        assertEquals("x", id(PAGE));
+        assertEquals("e" + (ROWS - 1), id(ROWS + 1));
+        assertEquals("last", id(ROWS + 2));
+        assertEquals(3, pageOffsets.size());
+    }
+
+    @Test
+    void removeShiftsCachedRowsAcrossPageBoundaries() {
+        loadAll();
+        list.writeStarted();
+        list.removed("e" + (PAGE - 1));
+        assertEquals(ROWS - 1, list.size());
+        assertEquals(List.of("remove " + (PAGE - 1)), changes);
+        assertEquals("e" + (PAGE - 2), id(PAGE - 2));
+        // the first row of page 1 moved to the bottom of page 0, and so on out of page 2
+        assertEquals("e" + PAGE, id(PAGE - 1));
+        assertEquals("e" + (2 * PAGE), id(2 * PAGE - 1));
+        assertEquals("e" + (ROWS - 1), id(ROWS - 2));
+
+        list.writeStarted();
+        list.removed("e0");
+        list.writeStarted();
+        list.removed("e" + (ROWS - 1));
+        assertEquals(ROWS - 3, list.size());
+        assertEquals("e1", id(0));
+        assertEquals("e" + (ROWS - 2), id(ROWS - 4));
+        assertEquals(3, pageOffsets.size());
+        assertEquals(1, counts.size());
+    }
+
+    @Test
+    void removingAnUncachedRowReloads() {
+        loadAll();
+        list.writeStarted();
+        list.removed("elsewhere");
+        assertEquals(2, counts.size());
+        count(ROWS - 1);
+        assertEquals(ROWS - 1, list.size());
+        assertTrue(list.get(0).isLoading());
+    }
+
+    @Test
+    void shiftedPagesWithAGapAreDroppedAndReadAgain() {
+        list.reload();
+        count(ROWS);
+        list.get(PAGE);
+        page(0, ROWS);
+        assertEquals("e" + PAGE, id(PAGE));
+
+        // page 1 would need the last row of page 0, which was never read
+        list.writeStarted();
+        list.inserted(expense("x"), 0);
+        assertTrue(list.get(PAGE + 1).isLoading());
+        assertEquals(List.of(PAGE, PAGE), pageOffsets);
+        page(1, ROWS + 1);
+        assertEquals("e" + (PAGE + 1), id(PAGE + 1));
+    }
+}